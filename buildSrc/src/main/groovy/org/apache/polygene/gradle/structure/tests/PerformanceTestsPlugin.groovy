@@ -23,6 +23,7 @@ import org.gradle.api.Action
 import org.gradle.api.Plugin
 import org.gradle.api.Project
 import org.gradle.api.plugins.JavaPluginConvention
+import org.gradle.api.tasks.JavaExec
 import org.gradle.api.tasks.bundling.Jar
 import org.gradle.api.tasks.testing.Test
 import org.gradle.language.base.plugins.LifecycleBasePlugin
@@ -37,6 +38,7 @@ class PerformanceTestsPlugin implements Plugin<Project>
     static final String PERFORMANCE_TEST = 'performanceTest'
     static final String PERFORMANCE_PROFILE = 'performanceProfile'
     static final String PERFORMANCE_CHECK = 'performanceCheck'
+    static final String PERFORMANCE_BENCHMARK = 'performanceBenchmark'
   }
 
   @Override
@@ -58,5 +60,43 @@ class PerformanceTestsPlugin implements Plugin<Project>
       task.classpath = sourceSets.getByName( 'perf' ).runtimeClasspath
       task.systemProperty 'jar.path', ( project.tasks.getByName( 'jar' ) as Jar ).archivePath
     } as Action<Test> )
+    applyBenchmarks project
+  }
+
+  /**
+   * JMH benchmarks live in the {@literal jmh} source set and are run by the {@literal performanceBenchmark} task.
+   *
+   * Results are written as JSON to {@literal build/reports/jmh/results.json} so that runs can be compared across
+   * versions. Benchmarks can be filtered using the {@literal jmh.include} project property, a regular expression,
+   * and extra JMH command line arguments can be given in the {@literal jmh.args} project property.
+   */
+  private static void applyBenchmarks( Project project )
+  {
+    def sourceSets = project.convention.getPlugin( JavaPluginConvention ).sourceSets
+    sourceSets.create 'jmh'
+    project.dependencies.add 'jmhImplementation', sourceSets.getByName( 'main' ).output
+    project.dependencies.add 'jmhImplementation', project.configurations.getByName( 'perfImplementation' )
+    project.dependencies.add 'jmhRuntimeOnly', project.configurations.getByName( 'perfRuntimeOnly' )
+    project.tasks.getByName( LifecycleBasePlugin.CHECK_TASK_NAME ).dependsOn 'compileJmhJava'
+    def resultsFile = project.file( "$project.buildDir/reports/jmh/results.json" )
+    project.tasks.create( TaskNames.PERFORMANCE_BENCHMARK, JavaExec, { JavaExec task ->
+      task.group = TaskGroups.PERFORMANCE
+      task.description = 'Runs JMH benchmarks.'
+      task.main = 'org.openjdk.jmh.Main'
+      task.classpath = sourceSets.getByName( 'jmh' ).runtimeClasspath
+      task.outputs.file resultsFile
+      task.outputs.upToDateWhen { false }
+      task.doFirst { resultsFile.parentFile.mkdirs() }
+      List<String> arguments = [ '-rf', 'json', '-rff', resultsFile.absolutePath ]
+      if( project.hasProperty( 'jmh.args' ) )
+      {
+        arguments.addAll( project.property( 'jmh.args' ).toString().trim().split( '\\s+' ).toList() )
+      }
+      if( project.hasProperty( 'jmh.include' ) )
+      {
+        arguments << project.property( 'jmh.include' ).toString()
+      }
+      task.args arguments
+    } as Action<JavaExec> )
   }
 }
@@ -21,7 +21,7 @@
 package org.apache.polygene.api.composite;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
+import org.apache.polygene.api.PolygeneAPI;
 import org.apache.polygene.api.property.StateHolder;
 import org.apache.polygene.api.structure.MetaInfoHolder;
 import org.apache.polygene.api.structure.ModuleDescriptor;
@@ -46,8 +46,7 @@ public interface CompositeInstance
 
     static CompositeInstance compositeInstanceOf( Composite composite )
     {
-        InvocationHandler handler = Proxy.getInvocationHandler( composite );
-        return (CompositeInstance) handler;
+        return PolygeneAPI.FUNCTION_COMPOSITE_INSTANCE_OF.apply( composite );
     }
 
 }
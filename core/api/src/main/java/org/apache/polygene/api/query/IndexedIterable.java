@@ -0,0 +1,282 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.api.query;
+
+import java.lang.reflect.AccessibleObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.query.grammar.AndPredicate;
+import org.apache.polygene.api.query.grammar.ComparisonPredicate;
+import org.apache.polygene.api.query.grammar.EqPredicate;
+import org.apache.polygene.api.query.grammar.GePredicate;
+import org.apache.polygene.api.query.grammar.GtPredicate;
+import org.apache.polygene.api.query.grammar.LePredicate;
+import org.apache.polygene.api.query.grammar.LtPredicate;
+import org.apache.polygene.api.query.grammar.PropertyFunction;
+import org.apache.polygene.api.query.grammar.Variable;
+
+/**
+ * Snapshot of a collection of composites that indexes property values in memory.
+ * <p>
+ * Give it to {@link QueryBuilder#newQuery(Iterable)} to query the same collection repeatedly. Equality and range
+ * predicates on properties of the queried composites, alone or within a conjunction, are then answered from an index
+ * instead of scanning the whole collection. Indexes are built lazily, the first time a property is queried, and
+ * reused by later queries.
+ * </p>
+ * <p>
+ * The index is not updated when property values change. Matching elements are always tested against the where clause
+ * so that no false positive is returned, but elements whose indexed values changed may be missed. Call
+ * {@link #invalidate()} after such changes.
+ * </p>
+ *
+ * @param <T> Element type
+ */
+public final class IndexedIterable<T>
+    implements Iterable<T>
+{
+    private final List<T> elements;
+    private final Map<AccessibleObject, PropertyIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * @param iterable Elements to index, copied
+     */
+    public IndexedIterable( Iterable<? extends T> iterable )
+    {
+        List<T> copy = new ArrayList<>();
+        iterable.forEach( copy::add );
+        this.elements = Collections.unmodifiableList( copy );
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return elements.iterator();
+    }
+
+    /**
+     * @return Number of elements
+     */
+    public int size()
+    {
+        return elements.size();
+    }
+
+    /**
+     * Drop the property indexes, they are rebuilt by the next queries.
+     */
+    public void invalidate()
+    {
+        indexes.clear();
+    }
+
+    /**
+     * Candidate elements of a query.
+     * <p>
+     * Candidates are a superset of the elements matching the where clause, in iteration order. All elements are
+     * candidates if the where clause cannot be answered from an index.
+     * </p>
+     *
+     * @param whereClause Where clause
+     * @return Candidate elements, to be tested against the where clause
+     */
+    public Iterable<T> candidates( Predicate<Composite> whereClause )
+    {
+        int[] positions = positions( whereClause );
+        if( positions == null )
+        {
+            return elements;
+        }
+        List<T> candidates = new ArrayList<>( positions.length );
+        for( int position : positions )
+        {
+            candidates.add( elements.get( position ) );
+        }
+        return candidates;
+    }
+
+    private int[] positions( Predicate<Composite> predicate )
+    {
+        if( predicate instanceof AndPredicate )
+        {
+            // Narrow down to the most selective indexable operand
+            int[] narrowest = null;
+            for( Predicate<Composite> operand : ( (AndPredicate) predicate ).operands() )
+            {
+                int[] positions = positions( operand );
+                if( positions != null && ( narrowest == null || positions.length < narrowest.length ) )
+                {
+                    narrowest = positions;
+                }
+            }
+            return narrowest;
+        }
+        if( predicate instanceof ComparisonPredicate )
+        {
+            ComparisonPredicate<?> comparison = (ComparisonPredicate<?>) predicate;
+            PropertyFunction<?> property = comparison.property();
+            Object value = comparison.value();
+            if( value == null || value instanceof Variable
+                || property.traversedProperty() != null || property.traversedAssociation() != null
+                || property.traversedManyAssociation() != null || property.traversedNamedAssociation() != null )
+            {
+                return null;
+            }
+            PropertyIndex index = indexes.computeIfAbsent( property.accessor(), key -> new PropertyIndex( property ) );
+            if( predicate instanceof EqPredicate )
+            {
+                return index.equal( value );
+            }
+            if( predicate instanceof GtPredicate )
+            {
+                return index.range( value, false, true );
+            }
+            if( predicate instanceof GePredicate )
+            {
+                return index.range( value, true, true );
+            }
+            if( predicate instanceof LtPredicate )
+            {
+                return index.range( value, false, false );
+            }
+            if( predicate instanceof LePredicate )
+            {
+                return index.range( value, true, false );
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Positions of the elements by value of a property.
+     */
+    private final class PropertyIndex
+    {
+        private final Map<Object, List<Integer>> byValue = new HashMap<>();
+        private final NavigableMap<Object, List<Integer>> sorted;
+        private final Class<?> sortedType;
+
+        private PropertyIndex( PropertyFunction<?> function )
+        {
+            Class<?> type = null;
+            boolean sortable = true;
+            for( int position = 0; position < elements.size(); position++ )
+            {
+                Object value = valueOf( function, elements.get( position ) );
+                if( value == null )
+                {
+                    continue;
+                }
+                byValue.computeIfAbsent( value, key -> new ArrayList<>() ).add( position );
+                if( type == null )
+                {
+                    type = value.getClass();
+                }
+                sortable &= value instanceof Comparable && value.getClass().equals( type );
+            }
+            if( sortable && type != null )
+            {
+                sorted = new TreeMap<>();
+                for( Map.Entry<Object, List<Integer>> entry : byValue.entrySet() )
+                {
+                    sorted.merge( entry.getKey(), entry.getValue(), IndexedIterable::concat );
+                }
+                sortedType = type;
+            }
+            else
+            {
+                sorted = null;
+                sortedType = null;
+            }
+        }
+
+        private int[] equal( Object value )
+        {
+            List<Integer> positions = byValue.get( value );
+            return positions == null ? new int[ 0 ] : toArray( Collections.singleton( positions ) );
+        }
+
+        private int[] range( Object bound, boolean inclusive, boolean above )
+        {
+            if( sorted == null || !sortedType.equals( bound.getClass() ) )
+            {
+                return null;
+            }
+            NavigableMap<Object, List<Integer>> range = above
+                                                        ? sorted.tailMap( bound, inclusive )
+                                                        : sorted.headMap( bound, inclusive );
+            return toArray( range.values() );
+        }
+
+        private Object valueOf( PropertyFunction<?> function, T element )
+        {
+            try
+            {
+                Property<?> property = element instanceof Composite ? function.apply( (Composite) element ) : null;
+                return property == null ? null : property.get();
+            }
+            catch( IllegalArgumentException e )
+            {
+                // Not a composite having this property, never matched by a comparison
+                return null;
+            }
+        }
+    }
+
+    private static List<Integer> concat( List<Integer> first, List<Integer> second )
+    {
+        List<Integer> positions = new ArrayList<>( first.size() + second.size() );
+        positions.addAll( first );
+        positions.addAll( second );
+        return positions;
+    }
+
+    private static int[] toArray( Collection<List<Integer>> lists )
+    {
+        int size = 0;
+        for( List<Integer> list : lists )
+        {
+            size += list.size();
+        }
+        int[] positions = new int[ size ];
+        int index = 0;
+        for( List<Integer> list : lists )
+        {
+            for( Integer position : list )
+            {
+                positions[ index++ ] = position;
+            }
+        }
+        // Keep iteration order
+        Arrays.sort( positions );
+        return positions;
+    }
+}
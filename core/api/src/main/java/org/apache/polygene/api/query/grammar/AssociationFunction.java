@@ -21,7 +21,6 @@ package org.apache.polygene.api.query.grammar;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Member;
-import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.function.Function;
 import org.apache.polygene.api.association.Association;
@@ -121,7 +120,7 @@ public class AssociationFunction<T>
                 return null;
             }
 
-            CompositeInstance handler = (CompositeInstance) Proxy.getInvocationHandler( target );
+            CompositeInstance handler = CompositeInstance.compositeInstanceOf( (Composite) target );
             return ( (AssociationStateHolder) handler.state() ).associationFor( accessor );
         }
         catch( IllegalArgumentException e )
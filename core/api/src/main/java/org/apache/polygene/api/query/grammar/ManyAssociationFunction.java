@@ -21,7 +21,6 @@ package org.apache.polygene.api.query.grammar;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Member;
-import java.lang.reflect.Proxy;
 import java.util.function.Function;
 import org.apache.polygene.api.association.AssociationStateHolder;
 import org.apache.polygene.api.association.ManyAssociation;
@@ -90,7 +89,7 @@ public class ManyAssociationFunction<T>
                 throw new IllegalArgumentException( "Cannot traverse NamedAssociations" );
             }
 
-            CompositeInstance handler = (CompositeInstance) Proxy.getInvocationHandler( target );
+            CompositeInstance handler = CompositeInstance.compositeInstanceOf( (Composite) target );
             return ( (AssociationStateHolder) handler.state() ).manyAssociationFor( accessor );
         }
         catch( IllegalArgumentException e )
@@ -22,7 +22,6 @@ package org.apache.polygene.api.query.grammar;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Member;
 import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.function.Function;
 import org.apache.polygene.api.association.Association;
@@ -148,7 +147,7 @@ public class PropertyFunction<T>
                 return null;
             }
 
-            CompositeInstance handler = (CompositeInstance) Proxy.getInvocationHandler( target );
+            CompositeInstance handler = CompositeInstance.compositeInstanceOf( (Composite) target );
             return handler.state().propertyFor( accessor );
         }
         catch( IllegalArgumentException e )
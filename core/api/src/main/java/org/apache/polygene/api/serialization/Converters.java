@@ -20,6 +20,8 @@ package org.apache.polygene.api.serialization;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.structure.MetaInfoHolder;
 import org.apache.polygene.api.type.HasTypes;
@@ -85,26 +87,28 @@ public interface Converters
     class Mixin implements Converters
     {
         private final Map<ValueType, Converter<?>> converters = new LinkedHashMap<>();
-        private final Map<ValueType, Converter<?>> resolvedConvertersCache = new HashMap<>();
-        private final Map<Class<? extends Converter>, Converter<?>> convertersInstancesCache = new HashMap<>();
+        // Caches are used concurrently, Optional as resolutions may be null
+        private final Map<ValueType, Optional<Converter<?>>> resolvedConvertersCache = new ConcurrentHashMap<>();
+        private final Map<Class<? extends Converter>, Converter<?>> convertersInstancesCache =
+            new ConcurrentHashMap<>();
 
         @Override
         public void registerConverter( ValueType valueType, Converter<?> converter )
         {
             converters.put( valueType, converter );
-            resolvedConvertersCache.put( valueType, converter );
+            resolvedConvertersCache.put( valueType, Optional.of( converter ) );
         }
 
         @Override
         public <T> Converter<T> converterFor( ValueType valueType )
         {
-            if( resolvedConvertersCache.containsKey( valueType ) )
+            Optional<Converter<?>> converter = resolvedConvertersCache.get( valueType );
+            if( converter == null )
             {
-                return castConverter( resolvedConvertersCache.get( valueType ) );
+                converter = resolvedConvertersCache.computeIfAbsent(
+                    valueType, type -> Optional.ofNullable( lookupConverter( type ) ) );
             }
-            Converter<T> converter = lookupConverter( valueType );
-            resolvedConvertersCache.put( valueType, converter );
-            return converter;
+            return castConverter( converter.orElse( null ) );
         }
 
         @SuppressWarnings( "unchecked" )
@@ -153,15 +157,14 @@ public interface Converters
 
         private <T> Converter<T> converterInstanceOf( Class<? extends Converter> converterClass )
         {
-            if( convertersInstancesCache.containsKey( converterClass ) )
-            {
-                return castConverter( convertersInstancesCache.get( converterClass ) );
-            }
+            return castConverter( convertersInstancesCache.computeIfAbsent( converterClass, this::newConverter ) );
+        }
+
+        private Converter<?> newConverter( Class<? extends Converter> converterClass )
+        {
             try
             {
-                Converter<T> converter = castConverter( converterClass.newInstance() );
-                convertersInstancesCache.put( converterClass, converter );
-                return converter;
+                return converterClass.newInstance();
             }
             catch( InstantiationException | IllegalAccessException ex )
             {
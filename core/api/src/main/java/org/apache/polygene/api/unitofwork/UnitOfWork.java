@@ -279,6 +279,22 @@ public interface UnitOfWork extends MetaInfoHolder, AutoCloseable
     <T> T get( Class<T> type, Identity identity )
         throws NoSuchEntityTypeException, NoSuchEntityException;
 
+    /**
+     * Find several Entities of the given mixin type with the given identities. This
+     * method verifies that they exist by asking the underlying EntityStores, loading
+     * all the entities not yet known to this UnitOfWork in as few round-trips as the
+     * EntityStores allow.
+     *
+     * @param <T>        Entity type
+     * @param type       of the entities
+     * @param identities of the entities
+     * @return the entities, in iteration order of the given identities
+     * @throws NoSuchEntityTypeException if no entity type could be found
+     * @throws NoSuchEntityException     if any of the entities could not be found
+     */
+    <T> List<T> get( Class<T> type, Iterable<Identity> identities )
+        throws NoSuchEntityTypeException, NoSuchEntityException;
+
     /**
      * If you have a reference to an Entity from another
      * UnitOfWork and want to create a reference to it in this
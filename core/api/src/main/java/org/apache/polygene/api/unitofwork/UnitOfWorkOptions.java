@@ -27,18 +27,34 @@ package org.apache.polygene.api.unitofwork;
  * <p>
  * "pruneOnPause": if true, then clear out all instances that have been loaded in the UoW but not modified
  * </p>
+ * <p>
+ * "prefetchAssociations": if true, then iterating a ManyAssociation or NamedAssociation, or converting it to a
+ * List, Set or Map, first loads all its entities not yet known to the UoW in one bulk request to the EntityStore
+ * </p>
  */
 public class UnitOfWorkOptions
 {
     private boolean pruneOnPause = false;
+    private boolean prefetchAssociations = false;
 
     public UnitOfWorkOptions( boolean pruneOnPause )
     {
         this.pruneOnPause = pruneOnPause;
     }
 
+    public UnitOfWorkOptions( boolean pruneOnPause, boolean prefetchAssociations )
+    {
+        this.pruneOnPause = pruneOnPause;
+        this.prefetchAssociations = prefetchAssociations;
+    }
+
     public boolean isPruneOnPause()
     {
         return pruneOnPause;
     }
+
+    public boolean isPrefetchAssociations()
+    {
+        return prefetchAssociations;
+    }
 }
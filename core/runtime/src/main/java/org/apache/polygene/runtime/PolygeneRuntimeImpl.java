@@ -20,7 +20,6 @@
 package org.apache.polygene.runtime;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -60,6 +59,7 @@ import org.apache.polygene.bootstrap.PolygeneRuntime;
 import org.apache.polygene.runtime.association.AbstractAssociationInstance;
 import org.apache.polygene.runtime.bootstrap.ApplicationAssemblyFactoryImpl;
 import org.apache.polygene.runtime.bootstrap.ApplicationModelFactoryImpl;
+import org.apache.polygene.runtime.composite.ProxyGenerator;
 import org.apache.polygene.runtime.composite.ProxyReferenceInvocationHandler;
 import org.apache.polygene.runtime.composite.TransientInstance;
 import org.apache.polygene.runtime.entity.EntityInstance;
@@ -71,8 +71,8 @@ import org.apache.polygene.runtime.value.ValueInstance;
 import org.apache.polygene.spi.PolygeneSPI;
 import org.apache.polygene.spi.entity.EntityState;
 
-import static java.lang.reflect.Proxy.getInvocationHandler;
 import static org.apache.polygene.api.composite.CompositeInstance.compositeInstanceOf;
+import static org.apache.polygene.runtime.composite.ProxyGenerator.invocationHandlerOf;
 
 /**
  * Incarnation of Polygene.
@@ -119,7 +119,7 @@ public final class PolygeneRuntimeImpl
     @SuppressWarnings( "unchecked" )
     public <T> T dereference( T composite )
     {
-        InvocationHandler handler = getInvocationHandler( composite );
+        InvocationHandler handler = invocationHandlerOf( composite );
         if( handler instanceof ProxyReferenceInvocationHandler )
         {
             return (T) ( (ProxyReferenceInvocationHandler) handler ).proxy();
@@ -235,7 +235,7 @@ public final class PolygeneRuntimeImpl
     {
         if( entity instanceof EntityComposite )
         {
-            EntityInstance entityInstance = (EntityInstance) getInvocationHandler( entity );
+            EntityInstance entityInstance = (EntityInstance) invocationHandlerOf( entity );
             return entityInstance.entityModel();
         }
         throw new IllegalArgumentException( "Wrong type. Must be subtype of " + EntityComposite.class );
@@ -321,8 +321,8 @@ public final class PolygeneRuntimeImpl
 
     public static boolean isCompositeType( Object object )
     {
-        return Proxy.isProxyClass( object.getClass() )
-               && Proxy.getInvocationHandler( object ) instanceof CompositeInstance;
+        return ProxyGenerator.isProxy( object )
+               && invocationHandlerOf( object ) instanceof CompositeInstance;
     }
 
     // SPI
@@ -20,6 +20,7 @@
 package org.apache.polygene.runtime.association;
 
 import java.lang.reflect.Type;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import org.apache.polygene.api.association.AbstractAssociation;
 import org.apache.polygene.api.entity.EntityReference;
@@ -33,13 +34,23 @@ public abstract class AbstractAssociationInstance<T>
 {
     protected AssociationInfo associationInfo;
     private final BiFunction<EntityReference, Type, Object> entityFunction;
+    private final BiConsumer<Iterable<EntityReference>, Type> prefetchFunction;
 
     public AbstractAssociationInstance( AssociationInfo associationInfo,
                                         BiFunction<EntityReference, Type, Object> entityFunction
     )
+    {
+        this( associationInfo, entityFunction, null );
+    }
+
+    public AbstractAssociationInstance( AssociationInfo associationInfo,
+                                        BiFunction<EntityReference, Type, Object> entityFunction,
+                                        BiConsumer<Iterable<EntityReference>, Type> prefetchFunction
+    )
     {
         this.associationInfo = associationInfo;
         this.entityFunction = entityFunction;
+        this.prefetchFunction = prefetchFunction;
     }
 
     public AssociationInfo associationInfo()
@@ -63,6 +74,20 @@ public abstract class AbstractAssociationInstance<T>
         return (T) entityFunction.apply( entityId, associationInfo.type() );
     }
 
+    /**
+     * Give the prefetch function, if any, a chance to load all the given entities at once before they are
+     * dereferenced one by one.
+     *
+     * @param entityIds references of the entities about to be dereferenced
+     */
+    protected void prefetchEntities( Iterable<EntityReference> entityIds )
+    {
+        if( prefetchFunction != null )
+        {
+            prefetchFunction.accept( entityIds, associationInfo.type() );
+        }
+    }
+
     protected EntityReference getEntityReference( Object composite )
     {
         if( composite == null )
@@ -26,6 +26,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 import org.apache.polygene.api.association.AssociationDescriptor;
@@ -52,6 +53,16 @@ public class ManyAssociationInstance<T> extends AbstractAssociationInstance<T>
         this.manyAssociationState = manyAssociationState;
     }
 
+    public ManyAssociationInstance( AssociationInfo associationInfo,
+                                    BiFunction<EntityReference, Type, Object> associationFunction,
+                                    BiConsumer<Iterable<EntityReference>, Type> prefetchFunction,
+                                    ManyAssociationState manyAssociationState
+    )
+    {
+        super( associationInfo, associationFunction, prefetchFunction );
+        this.manyAssociationState = manyAssociationState;
+    }
+
     @Override
     public int count()
     {
@@ -106,6 +117,7 @@ public class ManyAssociationInstance<T> extends AbstractAssociationInstance<T>
     @Override
     public List<T> toList()
     {
+        prefetchEntities( manyAssociationState );
         ArrayList<T> list = new ArrayList<>();
         for( EntityReference entityReference : manyAssociationState )
         {
@@ -118,6 +130,7 @@ public class ManyAssociationInstance<T> extends AbstractAssociationInstance<T>
     @Override
     public Set<T> toSet()
     {
+        prefetchEntities( manyAssociationState );
         Set<T> set = new HashSet<>();
         for( EntityReference entityReference : manyAssociationState )
         {
@@ -142,6 +155,7 @@ public class ManyAssociationInstance<T> extends AbstractAssociationInstance<T>
     @Override
     public Iterator<T> iterator()
     {
+        prefetchEntities( manyAssociationState );
         return new ManyAssociationIterator( manyAssociationState.iterator() );
     }
 
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -51,6 +52,16 @@ public class NamedAssociationInstance<T> extends AbstractAssociationInstance<T>
         this.namedAssociationState = namedAssociationState;
     }
 
+    public NamedAssociationInstance( AssociationInfo associationInfo,
+                                     BiFunction<EntityReference, Type, Object> associationFunction,
+                                     BiConsumer<Iterable<EntityReference>, Type> prefetchFunction,
+                                     NamedAssociationState namedAssociationState
+                                   )
+    {
+        super( associationInfo, associationFunction, prefetchFunction );
+        this.namedAssociationState = namedAssociationState;
+    }
+
     @Override
     public Iterator<String> iterator()
     {
@@ -115,6 +126,7 @@ public class NamedAssociationInstance<T> extends AbstractAssociationInstance<T>
     @Override
     public Map<String, T> toMap()
     {
+        prefetchEntities( () -> namedAssociationState.stream().map( Map.Entry::getValue ).iterator() );
         Map<String, T> map = new HashMap<>();
         for( String name : namedAssociationState )
         {
@@ -36,6 +36,8 @@ import org.apache.polygene.bootstrap.BindingException;
 import org.apache.polygene.bootstrap.LayerAssembly;
 import org.apache.polygene.runtime.activation.ActivatorsModel;
 import org.apache.polygene.runtime.composite.CompositeMethodModel;
+import org.apache.polygene.runtime.composite.InstancePoolStrategy;
+import org.apache.polygene.runtime.composite.ProxyMode;
 import org.apache.polygene.runtime.injection.InjectedFieldModel;
 import org.apache.polygene.runtime.model.Binder;
 import org.apache.polygene.runtime.model.Resolution;
@@ -74,10 +76,21 @@ public final class ApplicationModelFactoryImpl
         {
             ApplicationAssemblyImpl impl = (ApplicationAssemblyImpl) assembly;
             AssemblyHelper helper = impl.metaInfo().get( AssemblyHelper.class );
-            if( helper != null )
+            if( helper == null )
             {
-                return helper;
+                helper = new AssemblyHelper();
             }
+            InstancePoolStrategy instancePoolStrategy = impl.metaInfo().get( InstancePoolStrategy.class );
+            if( instancePoolStrategy != null )
+            {
+                helper.setInstancePoolStrategy( instancePoolStrategy );
+            }
+            ProxyMode proxyMode = impl.metaInfo().get( ProxyMode.class );
+            if( proxyMode != null )
+            {
+                helper.setProxyMode( proxyMode );
+            }
+            return helper;
         }
         return new AssemblyHelper();
     }
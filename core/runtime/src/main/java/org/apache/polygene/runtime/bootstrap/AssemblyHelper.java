@@ -32,11 +32,17 @@ import org.apache.polygene.api.common.AppliesTo;
 import org.apache.polygene.api.common.AppliesToFilter;
 import org.apache.polygene.api.common.ConstructionException;
 import org.apache.polygene.api.constraint.Constraint;
+import org.apache.polygene.runtime.composite.AtomicInstancePool;
+import org.apache.polygene.runtime.composite.CompositeMethodInstance;
 import org.apache.polygene.runtime.composite.ConcernModel;
 import org.apache.polygene.runtime.composite.ConstraintDeclaration;
 import org.apache.polygene.runtime.composite.FragmentClassLoader;
+import org.apache.polygene.runtime.composite.InstancePool;
+import org.apache.polygene.runtime.composite.InstancePoolStrategy;
 import org.apache.polygene.runtime.composite.MixinModel;
+import org.apache.polygene.runtime.composite.ProxyMode;
 import org.apache.polygene.runtime.composite.SideEffectModel;
+import org.apache.polygene.runtime.composite.StripedInstancePool;
 
 import static org.apache.polygene.api.util.AccessibleObjects.accessible;
 
@@ -51,6 +57,35 @@ public class AssemblyHelper
     private Map<Class, ConstraintDeclaration> constraintDeclarations = new HashMap<>();
     private Map<ClassLoader, FragmentClassLoader> modifierClassLoaders = new HashMap<>();
     private Map<Class<?>, AppliesToFilter> appliesToInstances = new HashMap<>();
+    private InstancePoolStrategy instancePoolStrategy = InstancePoolStrategy.atomic;
+    private ProxyMode proxyMode = ProxyMode.reflect;
+
+    void setInstancePoolStrategy( InstancePoolStrategy strategy )
+    {
+        instancePoolStrategy = strategy;
+    }
+
+    void setProxyMode( ProxyMode mode )
+    {
+        proxyMode = mode;
+    }
+
+    protected ProxyMode proxyMode()
+    {
+        return proxyMode;
+    }
+
+    protected InstancePool<CompositeMethodInstance> newMethodInstancePool()
+    {
+        switch( instancePoolStrategy )
+        {
+            case striped:
+                return new StripedInstancePool();
+            case atomic:
+            default:
+                return new AtomicInstancePool();
+        }
+    }
 
     protected MixinModel getMixinModel(Class mixinClass)
     {
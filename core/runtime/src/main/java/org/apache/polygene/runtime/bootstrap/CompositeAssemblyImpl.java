@@ -169,7 +169,7 @@ public abstract class CompositeAssemblyImpl
         propertiesModel = new PropertiesModel();
         stateModel = createStateModel();
         mixinsModel = createMixinsModel();
-        compositeMethodsModel = new CompositeMethodsModel( mixinsModel );
+        compositeMethodsModel = new CompositeMethodsModel( mixinsModel, helper.proxyMode() );
 
         // Implement composite methods
         List<Class<?>> constraintClasses = toList( constraintDeclarations( getAllTypes() ) );
@@ -293,7 +293,8 @@ public abstract class CompositeAssemblyImpl
                         constraints,
                         concernsModel,
                         sideEffectsModel,
-                        mixinsModel
+                        mixinsModel,
+                        helper.newMethodInstancePool()
                     );
 
                     Stream<? extends Dependencies> source = of( methodComposite, mixinModel );
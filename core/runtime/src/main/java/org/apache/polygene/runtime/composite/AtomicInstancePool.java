@@ -46,7 +46,7 @@ public final class AtomicInstancePool
     }
 
     @Override
-    public void releaseInstance( CompositeMethodInstance compositeMethodInstance )
+    public boolean releaseInstance( CompositeMethodInstance compositeMethodInstance )
     {
         CompositeMethodInstance firstInstance;
         do
@@ -55,5 +55,6 @@ public final class AtomicInstancePool
             compositeMethodInstance.setNext( firstInstance );
         }
         while( !first.compareAndSet( firstInstance, compositeMethodInstance ) );
+        return true;
     }
 }
@@ -25,19 +25,25 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.polygene.api.common.ConstructionException;
+import org.apache.polygene.api.composite.Composite;
 import org.apache.polygene.api.composite.MethodDescriptor;
+import org.apache.polygene.api.structure.Module;
 import org.apache.polygene.api.structure.ModuleDescriptor;
 import org.apache.polygene.api.util.HierarchicalVisitor;
 import org.apache.polygene.api.util.VisitableHierarchy;
 import org.apache.polygene.runtime.injection.Dependencies;
 import org.apache.polygene.runtime.injection.DependencyModel;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
+import org.apache.polygene.spi.module.ModuleSpi;
 
 /**
  * JAVADOC
@@ -55,15 +61,18 @@ public final class CompositeMethodModel
     private final AnnotatedElement annotations;
 
     // Context
-//    private final SynchronizedCompositeMethodInstancePool instancePool = new SynchronizedCompositeMethodInstancePool();
-    private final AtomicInstancePool instancePool = new AtomicInstancePool();
+    private final InstancePool<CompositeMethodInstance> instancePool;
     private final ConstraintsInstance constraintsInstance;
+    private volatile LongAdder poolMisses;
+    private volatile LongAdder poolDiscards;
+    private int mixinIndex = -1;
 
     public CompositeMethodModel( Method method,
                                  ConstraintsModel constraintsModel,
                                  ConcernsModel concernsModel,
                                  SideEffectsModel sideEffectsModel,
-                                 MixinsModel mixinsModel
+                                 MixinsModel mixinsModel,
+                                 InstancePool<CompositeMethodInstance> instancePool
     )
     {
         this.method = method;
@@ -73,7 +82,7 @@ public final class CompositeMethodModel
         constraints = constraintsModel;
         constraintsInstance = constraints.newInstance();
         annotations = new CompositeMethodAnnotatedElement();
-//        instancePool = new SynchronizedCompositeMethodInstancePool();
+        this.instancePool = instancePool;
     }
 
     // Model
@@ -89,6 +98,66 @@ public final class CompositeMethodModel
         return mixins.mixinFor( method );
     }
 
+    /**
+     * @return Index of the implementing mixin in the mixins of a composite instance
+     */
+    public int mixinIndex()
+    {
+        int index = mixinIndex;
+        if( index < 0 )
+        {
+            // Method indexes are populated when the mixins are bound
+            index = mixins.methodIndex.get( method );
+            mixinIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Method to call on the mixin to invoke this method directly, without going through the composite.
+     * <p>
+     * Only methods having no concerns, side-effects nor constraints, and implemented by a typed mixin, can be
+     * invoked directly. The _ prefixed method is called on generated mixin subclasses.
+     * </p>
+     *
+     * @return The method to call on the mixin, or null if the method must be invoked through the composite
+     */
+    public Method directInvocationMethod()
+    {
+        if( concerns != ConcernsModel.EMPTY_CONCERNS
+            || sideEffects != SideEffectsModel.EMPTY_SIDEEFFECTS
+            || constraints.isConstrained() )
+        {
+            return null;
+        }
+        MixinModel model = mixins.mixinFor( method );
+        if( model == null || InvocationHandler.class.isAssignableFrom( model.mixinClass() ) )
+        {
+            return null;
+        }
+        try
+        {
+            Method implementation = model.mixinClass().getMethod( method.getName(), method.getParameterTypes() );
+            if( Modifier.isAbstract( implementation.getModifiers() ) )
+            {
+                return null;
+            }
+        }
+        catch( NoSuchMethodException e )
+        {
+            return null;
+        }
+        try
+        {
+            // Generated subclasses route the method itself back to the composite
+            return model.instantiationClass().getMethod( "_" + method.getName(), method.getParameterTypes() );
+        }
+        catch( NoSuchMethodException e )
+        {
+            return method.getDeclaringClass().isAssignableFrom( model.instantiationClass() ) ? method : null;
+        }
+    }
+
     @Override
     @SuppressWarnings( "unchecked" )
     public Stream<DependencyModel> dependencies()
@@ -111,7 +180,10 @@ public final class CompositeMethodModel
         }
         finally
         {
-            instancePool.releaseInstance( methodInstance );
+            if( !instancePool.releaseInstance( methodInstance ) )
+            {
+                countPoolDiscard( module );
+            }
         }
     }
 
@@ -120,12 +192,56 @@ public final class CompositeMethodModel
         CompositeMethodInstance methodInstance = instancePool.obtainInstance();
         if( methodInstance == null )
         {
+            countPoolMiss( module );
             methodInstance = newCompositeMethodInstance( module );
         }
 
         return methodInstance;
     }
 
+    private void countPoolMiss( ModuleDescriptor module )
+    {
+        if( poolMisses == null )
+        {
+            bindPoolMetrics( module );
+        }
+        LongAdder misses = poolMisses;
+        if( misses != null )
+        {
+            misses.increment();
+        }
+    }
+
+    private void countPoolDiscard( ModuleDescriptor module )
+    {
+        if( poolDiscards == null )
+        {
+            bindPoolMetrics( module );
+        }
+        LongAdder discards = poolDiscards;
+        if( discards != null )
+        {
+            discards.increment();
+        }
+    }
+
+    private void bindPoolMetrics( ModuleDescriptor module )
+    {
+        Module instance = module.instance();
+        if( !( instance instanceof ModuleSpi ) )
+        {
+            return;
+        }
+        RuntimeMetrics metrics = ( (ModuleSpi) instance ).runtimeMetrics();
+        LongAdder misses = metrics.counter( metrics.nameFor( Composite.class, "instancePool", "misses" ) );
+        LongAdder discards = metrics.counter( metrics.nameFor( Composite.class, "instancePool", "discards" ) );
+        // Method instances are only created on misses, the pools of the module keep all those not discarded
+        metrics.gauge( metrics.nameFor( Composite.class, "instancePool", "size" ),
+                       () -> misses.sum() - discards.sum() );
+        poolDiscards = discards;
+        poolMisses = misses;
+    }
+
     private CompositeMethodInstance newCompositeMethodInstance( ModuleDescriptor module )
         throws ConstructionException
     {
@@ -166,7 +282,7 @@ public final class CompositeMethodModel
 
         mixinInvocationHandler.setMethod( invocationMethod );
 
-        return new CompositeMethodInstance( invoker, mixinInvocationHandler, method, mixins.methodIndex.get( method ) );
+        return new CompositeMethodInstance( invoker, mixinInvocationHandler, method, mixinIndex() );
     }
 
     public AnnotatedElement annotatedElement()
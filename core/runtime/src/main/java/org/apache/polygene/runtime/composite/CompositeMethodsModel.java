@@ -43,11 +43,23 @@ public final class CompositeMethodsModel
 
     private final LinkedHashMap<Method, CompositeMethodModel> methods;
     private final MixinsModel mixinsModel;
+    private final ProxyMode proxyMode;
 
     public CompositeMethodsModel( MixinsModel mixinsModel )
+    {
+        this( mixinsModel, ProxyMode.reflect );
+    }
+
+    public CompositeMethodsModel( MixinsModel mixinsModel, ProxyMode proxyMode )
     {
         methods = new LinkedHashMap<>();
         this.mixinsModel = mixinsModel;
+        this.proxyMode = proxyMode;
+    }
+
+    ProxyMode proxyMode()
+    {
+        return proxyMode;
     }
 
     public Stream<DependencyModel> dependencies()
@@ -128,6 +140,11 @@ public final class CompositeMethodsModel
         methods.put( methodModel.method(), methodModel );
     }
 
+    public CompositeMethodModel methodModelFor( Method method )
+    {
+        return methods.get( method );
+    }
+
     public boolean isImplemented( Method method )
     {
         return methods.containsKey( method );
@@ -194,7 +194,8 @@ public abstract class CompositeModel
             ClassLoader proxyClassloader = mainType.getClassLoader();
 
             Class<?>[] interfaces = types.stream().map( Class.class::cast ).toArray( Class[]::new );
-            proxyClass = (Class<? extends Composite>) ProxyGenerator.createProxyClass( proxyClassloader, interfaces );
+            proxyClass = (Class<? extends Composite>) ProxyGenerator.createProxyClass( proxyClassloader, interfaces,
+                                                                                      this, compositeMethodsModel );
         }
         else
         {
@@ -246,6 +247,33 @@ public abstract class CompositeModel
         }
     }
 
+    // Context
+    public final Object invoke( MixinsInstance mixins,
+                                Object proxy,
+                                CompositeMethodModel compositeMethod,
+                                Object[] args
+                              )
+        throws Throwable
+    {
+        try
+        {
+            try
+            {
+                return compositeMethod.invoke( proxy, args, mixins, module );
+            }
+            catch( ConstraintViolationException e )
+            {
+                e.setCompositeDescriptor( this );
+                throw e;
+            }
+        }
+        catch( Throwable throwable )
+        {
+            decorateModuleInfo( throwable, compositeMethod.method().getName() );
+            throw throwable;
+        }
+    }
+
     private void decorateModuleInfo( Throwable throwable, String methodName )
     {
         StackTraceElement[] trace = throwable.getStackTrace();
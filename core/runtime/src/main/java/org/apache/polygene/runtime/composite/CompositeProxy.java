@@ -0,0 +1,104 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Base class of the composite proxies generated by {@link CompositeProxyClassLoader}.
+ * <p>
+ * Generated proxies hold their {@link CompositeMethodModel}s in static fields and call this class instead of
+ * {@link InvocationHandler#invoke(Object, Method, Object[])}, so that no method lookup is needed. Failures are
+ * reported the same way as with {@link java.lang.reflect.Proxy}.
+ * </p>
+ */
+public abstract class CompositeProxy
+{
+    /**
+     * Invocation handler of this proxy, named like the field of the generated transient subclasses.
+     */
+    public final InvocationHandler _instance;
+
+    protected CompositeProxy( InvocationHandler handler )
+    {
+        _instance = handler;
+    }
+
+    /**
+     * Invoke a composite method.
+     *
+     * @param composite   Model of the proxied composite
+     * @param methodModel Model of the invoked method, null if it is not a composite method
+     * @param method      Invoked method
+     * @param args        Arguments, null if there are none
+     * @return Result of the invocation
+     * @throws Throwable Exception thrown by the invocation, declared or unchecked
+     */
+    protected final Object invoke( CompositeModel composite,
+                                   CompositeMethodModel methodModel,
+                                   Method method,
+                                   Object[] args
+                                 )
+        throws Throwable
+    {
+        try
+        {
+            InvocationHandler handler = _instance;
+            if( methodModel != null && handler instanceof MixinsInstance )
+            {
+                return composite.invoke( (MixinsInstance) handler, this, methodModel, args );
+            }
+            return handler.invoke( this, method, args );
+        }
+        catch( RuntimeException | Error e )
+        {
+            throw e;
+        }
+        catch( Throwable e )
+        {
+            for( Class<?> declared : method.getExceptionTypes() )
+            {
+                if( declared.isInstance( e ) )
+                {
+                    throw e;
+                }
+            }
+            throw new UndeclaredThrowableException( e );
+        }
+    }
+
+    /**
+     * Mixin implementing a method that has no concerns, side-effects nor constraints.
+     *
+     * @param methodModel Model of the invoked method
+     * @return The mixin to call directly, or null if the method must be invoked through the composite
+     */
+    protected final Object mixinFor( CompositeMethodModel methodModel )
+    {
+        InvocationHandler handler = _instance;
+        if( handler instanceof MixinsInstance )
+        {
+            return ( (MixinsInstance) handler ).mixinFor( methodModel );
+        }
+        return null;
+    }
+}
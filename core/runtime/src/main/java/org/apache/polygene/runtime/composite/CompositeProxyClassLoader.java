@@ -0,0 +1,409 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Type.getInternalName;
+
+/**
+ * Generate composite proxies, one class per composite type.
+ * <p>
+ * The generated class extends {@link CompositeProxy} and implements the composite types. Each method has static
+ * fields holding its {@link Method} and {@link CompositeMethodModel}, so that invocations need no method lookup.
+ * Methods having no concerns, side-effects nor constraints call their mixin directly, without boxing the arguments,
+ * see {@link CompositeMethodModel#directInvocationMethod()}.
+ * </p>
+ */
+/* package */ final class CompositeProxyClassLoader
+    extends ClassLoader
+{
+    public static final String GENERATED_POSTFIX = "_CompositeProxy";
+
+    private static final String RUNTIME_PACKAGE = "org.apache.polygene.runtime.";
+
+    private static final Type OBJECT = Type.getType( Object.class );
+    private static final Type METHOD = Type.getType( Method.class );
+    private static final Type COMPOSITE_PROXY = Type.getType( CompositeProxy.class );
+    private static final Type COMPOSITE_MODEL = Type.getType( CompositeModel.class );
+    private static final Type COMPOSITE_METHOD_MODEL = Type.getType( CompositeMethodModel.class );
+
+    private static final org.objectweb.asm.commons.Method CONSTRUCTOR = new org.objectweb.asm.commons.Method(
+        "<init>", Type.VOID_TYPE, new Type[]{ Type.getType( InvocationHandler.class ) } );
+    private static final org.objectweb.asm.commons.Method INVOKE = new org.objectweb.asm.commons.Method(
+        "invoke", OBJECT, new Type[]{ COMPOSITE_MODEL, COMPOSITE_METHOD_MODEL, METHOD, Type.getType( Object[].class ) } );
+    private static final org.objectweb.asm.commons.Method MIXIN_FOR = new org.objectweb.asm.commons.Method(
+        "mixinFor", OBJECT, new Type[]{ COMPOSITE_METHOD_MODEL } );
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_WRAPPERS = new LinkedHashMap<>();
+
+    static
+    {
+        PRIMITIVE_WRAPPERS.put( Boolean.TYPE, Boolean.class );
+        PRIMITIVE_WRAPPERS.put( Byte.TYPE, Byte.class );
+        PRIMITIVE_WRAPPERS.put( Character.TYPE, Character.class );
+        PRIMITIVE_WRAPPERS.put( Short.TYPE, Short.class );
+        PRIMITIVE_WRAPPERS.put( Integer.TYPE, Integer.class );
+        PRIMITIVE_WRAPPERS.put( Long.TYPE, Long.class );
+        PRIMITIVE_WRAPPERS.put( Float.TYPE, Float.class );
+        PRIMITIVE_WRAPPERS.put( Double.TYPE, Double.class );
+    }
+
+    private final Map<String, Class<?>> mixinClasses = new HashMap<>();
+
+    /* package */ CompositeProxyClassLoader( ClassLoader parent )
+    {
+        super( parent );
+    }
+
+    @Override
+    protected Class<?> loadClass( String name, boolean resolve )
+        throws ClassNotFoundException
+    {
+        // Generated mixin subclasses called directly
+        Class<?> mixinClass = mixinClasses.get( name );
+        if( mixinClass != null )
+        {
+            return mixinClass;
+        }
+
+        // Generated code must link against the classes of this runtime
+        if( name.startsWith( RUNTIME_PACKAGE ) && findLoadedClass( name ) == null )
+        {
+            return getClass().getClassLoader().loadClass( name );
+        }
+        return super.loadClass( name, resolve );
+    }
+
+    @Override
+    protected Class<?> findClass( String name )
+        throws ClassNotFoundException
+    {
+        // Try the classloader of this classloader -> get classes in Polygene such as CompositeProxy
+        return getClass().getClassLoader().loadClass( name );
+    }
+
+    /**
+     * Generate the proxy class of a composite.
+     *
+     * @param composite  Composite model
+     * @param interfaces Composite types, all interfaces
+     * @param methods    Composite methods
+     * @return The proxy class, or null if the composite types cannot be implemented by a generated class
+     */
+    /* package */ Class<?> loadProxyClass( CompositeModel composite,
+                                           Class<?>[] interfaces,
+                                           CompositeMethodsModel methods )
+    {
+        List<Method> proxied = proxiedMethods( interfaces );
+        if( proxied == null )
+        {
+            return null;
+        }
+        Map<Method, Method> directInvocations = new HashMap<>();
+        for( Method method : proxied )
+        {
+            CompositeMethodModel methodModel = methods.methodModelFor( method );
+            Method invocationMethod = methodModel == null ? null : methodModel.directInvocationMethod();
+            if( invocationMethod != null && isAccessible( invocationMethod.getDeclaringClass() ) )
+            {
+                directInvocations.put( method, invocationMethod );
+                Class<?> mixinClass = invocationMethod.getDeclaringClass();
+                if( !mixinClass.isInterface() )
+                {
+                    mixinClasses.put( mixinClass.getName(), mixinClass );
+                }
+            }
+        }
+
+        String name = interfaces[ 0 ].getName() + GENERATED_POSTFIX;
+        if( name.startsWith( "java." ) )
+        {
+            name = "polygene." + name;
+        }
+        byte[] b = generateClass( name, interfaces, proxied, directInvocations );
+        Class<?> proxyClass = defineClass( name, b, 0, b.length, interfaces[ 0 ].getProtectionDomain() );
+
+        // Wire the static fields
+        try
+        {
+            staticField( proxyClass, "composite" ).set( null, composite );
+            for( int idx = 0; idx < proxied.size(); idx++ )
+            {
+                Method method = proxied.get( idx );
+                staticField( proxyClass, "m" + idx ).set( null, method );
+                staticField( proxyClass, "c" + idx ).set( null, methods.methodModelFor( method ) );
+            }
+        }
+        catch( ReflectiveOperationException e )
+        {
+            throw new InternalError( "Could not initialize generated proxy " + name, e );
+        }
+        return proxyClass;
+    }
+
+    private static byte[] generateClass( String name,
+                                         Class<?>[] interfaces,
+                                         List<Method> proxied,
+                                         Map<Method, Method> directInvocations )
+    {
+        String classSlash = name.replace( '.', '/' );
+        Type proxyType = Type.getObjectType( classSlash );
+
+        ClassWriter cw = new ClassWriter( ClassWriter.COMPUTE_FRAMES )
+        {
+            @Override
+            protected String getCommonSuperClass( String type1, String type2 )
+            {
+                // Frames only ever merge locals holding Objects
+                return OBJECT.getInternalName();
+            }
+        };
+
+        // Class definition start
+        String[] interfaceNames = new String[ interfaces.length ];
+        for( int idx = 0; idx < interfaces.length; idx++ )
+        {
+            interfaceNames[ idx ] = getInternalName( interfaces[ idx ] );
+        }
+        cw.visit( Opcodes.V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, classSlash, null,
+                  COMPOSITE_PROXY.getInternalName(), interfaceNames );
+
+        // Static Composite, Method and CompositeMethodModel references
+        cw.visitField( ACC_PRIVATE + ACC_STATIC, "composite", COMPOSITE_MODEL.getDescriptor(), null, null ).visitEnd();
+        for( int idx = 0; idx < proxied.size(); idx++ )
+        {
+            cw.visitField( ACC_PRIVATE + ACC_STATIC, "m" + idx, METHOD.getDescriptor(), null, null ).visitEnd();
+            cw.visitField( ACC_PRIVATE + ACC_STATIC, "c" + idx, COMPOSITE_METHOD_MODEL.getDescriptor(), null, null )
+              .visitEnd();
+        }
+
+        // Constructor
+        {
+            GeneratorAdapter mg = new GeneratorAdapter( ACC_PUBLIC, CONSTRUCTOR, null, null, cw );
+            mg.visitCode();
+            mg.loadThis();
+            mg.loadArg( 0 );
+            mg.invokeConstructor( COMPOSITE_PROXY, CONSTRUCTOR );
+            mg.returnValue();
+            mg.endMethod();
+        }
+
+        // Proxied methods
+        for( int idx = 0; idx < proxied.size(); idx++ )
+        {
+            Method method = proxied.get( idx );
+            org.objectweb.asm.commons.Method asmMethod = org.objectweb.asm.commons.Method.getMethod( method );
+            Type[] exceptions = new Type[ method.getExceptionTypes().length ];
+            for( int i = 0; i < exceptions.length; i++ )
+            {
+                exceptions[ i ] = Type.getType( method.getExceptionTypes()[ i ] );
+            }
+            GeneratorAdapter mg = new GeneratorAdapter( ACC_PUBLIC + ACC_FINAL, asmMethod, null, exceptions, cw );
+            mg.visitCode();
+
+            Method invocationMethod = directInvocations.get( method );
+            if( invocationMethod != null )
+            {
+                // Call the mixin directly if the invocation handler has mixins
+                Class<?> mixinClass = invocationMethod.getDeclaringClass();
+                Type mixinType = Type.getType( mixinClass );
+                Label invoke = mg.newLabel();
+                int mixin = mg.newLocal( OBJECT );
+                mg.loadThis();
+                mg.getStatic( proxyType, "c" + idx, COMPOSITE_METHOD_MODEL );
+                mg.invokeVirtual( COMPOSITE_PROXY, MIXIN_FOR );
+                mg.storeLocal( mixin );
+                mg.loadLocal( mixin );
+                mg.ifNull( invoke );
+                mg.loadLocal( mixin );
+                mg.checkCast( mixinType );
+                mg.loadArgs();
+                org.objectweb.asm.commons.Method asmInvocationMethod =
+                    org.objectweb.asm.commons.Method.getMethod( invocationMethod );
+                if( mixinClass.isInterface() )
+                {
+                    mg.invokeInterface( mixinType, asmInvocationMethod );
+                }
+                else
+                {
+                    mg.invokeVirtual( mixinType, asmInvocationMethod );
+                }
+                mg.returnValue();
+                mg.mark( invoke );
+            }
+
+            // Invoke through the composite
+            mg.loadThis();
+            mg.getStatic( proxyType, "composite", COMPOSITE_MODEL );
+            mg.getStatic( proxyType, "c" + idx, COMPOSITE_METHOD_MODEL );
+            mg.getStatic( proxyType, "m" + idx, METHOD );
+            Type[] argumentTypes = asmMethod.getArgumentTypes();
+            if( argumentTypes.length == 0 )
+            {
+                // Send in null as parameter, as java.lang.reflect.Proxy does
+                mg.visitInsn( ACONST_NULL );
+            }
+            else
+            {
+                mg.push( argumentTypes.length );
+                mg.newArray( OBJECT );
+                for( int arg = 0; arg < argumentTypes.length; arg++ )
+                {
+                    mg.dup();
+                    mg.push( arg );
+                    mg.loadArg( arg );
+                    mg.valueOf( argumentTypes[ arg ] );
+                    mg.arrayStore( OBJECT );
+                }
+            }
+            mg.invokeVirtual( COMPOSITE_PROXY, INVOKE );
+            unwrapResult( mg, method.getReturnType() );
+            mg.returnValue();
+            mg.endMethod();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void unwrapResult( GeneratorAdapter mg, Class<?> returnType )
+    {
+        if( returnType.equals( Void.TYPE ) )
+        {
+            mg.pop();
+        }
+        else if( returnType.isPrimitive() )
+        {
+            Type primitiveType = Type.getType( returnType );
+            Type wrapperType = Type.getType( PRIMITIVE_WRAPPERS.get( returnType ) );
+            mg.checkCast( wrapperType );
+            mg.invokeVirtual( wrapperType, new org.objectweb.asm.commons.Method( returnType.getName() + "Value",
+                                                                                 primitiveType, new Type[ 0 ] ) );
+        }
+        else if( !returnType.equals( Object.class ) )
+        {
+            mg.checkCast( Type.getType( returnType ) );
+        }
+    }
+
+    /**
+     * Methods to implement, in the order java.lang.reflect.Proxy would use to pick the {@link Method} passed to the
+     * invocation handler.
+     *
+     * @param interfaces Composite types
+     * @return Methods to implement, or null if a generated class could not implement them
+     */
+    private static List<Method> proxiedMethods( Class<?>[] interfaces )
+    {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        try
+        {
+            for( Method method : new Method[]{ Object.class.getMethod( "hashCode" ),
+                                               Object.class.getMethod( "equals", Object.class ),
+                                               Object.class.getMethod( "toString" ) } )
+            {
+                methods.put( signatureOf( method ), method );
+            }
+        }
+        catch( NoSuchMethodException e )
+        {
+            throw new InternalError( e );
+        }
+
+        for( Class<?> type : interfaces )
+        {
+            if( !isAccessible( type ) )
+            {
+                return null;
+            }
+            for( Method method : type.getMethods() )
+            {
+                if( Modifier.isStatic( method.getModifiers() ) )
+                {
+                    continue;
+                }
+                if( !isAccessible( method.getDeclaringClass() ) || !isAccessible( method.getReturnType() ) )
+                {
+                    return null;
+                }
+                Method existing = methods.putIfAbsent( signatureOf( method ), method );
+                if( existing != null && !existing.getReturnType().equals( method.getReturnType() ) )
+                {
+                    // Covariant returns would need bridge methods
+                    return null;
+                }
+            }
+        }
+        return new ArrayList<>( methods.values() );
+    }
+
+    private static String signatureOf( Method method )
+    {
+        return method.getName() + Type.getMethodDescriptor( Type.VOID_TYPE, Type.getArgumentTypes( method ) );
+    }
+
+    private static boolean isAccessible( Class<?> type )
+    {
+        while( type.isArray() )
+        {
+            type = type.getComponentType();
+        }
+        if( type.isPrimitive() )
+        {
+            return true;
+        }
+        for( Class<?> aClass = type; aClass != null; aClass = aClass.getDeclaringClass() )
+        {
+            if( !Modifier.isPublic( aClass.getModifiers() ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Field staticField( Class<?> proxyClass, String name )
+        throws NoSuchFieldException
+    {
+        Field field = proxyClass.getDeclaredField( name );
+        field.setAccessible( true );
+        return field;
+    }
+}
@@ -42,6 +42,11 @@ public final class ConstraintsModel
         this.parameterConstraintModels = parameterConstraintModels;
     }
 
+    public boolean isConstrained()
+    {
+        return !parameterConstraintModels.isEmpty();
+    }
+
     public ConstraintsInstance newInstance()
     {
         if( parameterConstraintModels.isEmpty() )
@@ -20,11 +20,20 @@
 package org.apache.polygene.runtime.composite;
 
 /**
- * JAVADOC
+ * Pool of instances that are reused between invocations.
+ *
+ * @param <T> Pooled type
  */
 public interface InstancePool<T>
 {
+    /**
+     * @return A pooled instance, or null if the pool is empty
+     */
     T obtainInstance();
 
-    void releaseInstance( T instance );
+    /**
+     * @param instance Instance to return to the pool
+     * @return false if the pool is full and the instance was discarded
+     */
+    boolean releaseInstance( T instance );
 }
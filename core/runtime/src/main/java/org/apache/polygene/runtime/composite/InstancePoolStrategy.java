@@ -0,0 +1,39 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+/**
+ * How composite method instances are pooled between invocations.
+ *
+ * <pre>
+ * <b>atomic</b>  = One lock-free list per composite method, shared by all threads, see {@link AtomicInstancePool}.
+ * <b>striped</b> = One instance per thread stripe, and a bounded shared list for the others,
+ *           see {@link StripedInstancePool}.
+ * </pre>
+ *
+ * <p>
+ * The strategy of an Application is set by adding one of the above values as metaInfo of the
+ * <code>ApplicationAssembly</code>, the default being <code>atomic</code>.
+ * </p>
+ */
+public enum InstancePoolStrategy
+{
+    atomic, striped
+}
@@ -32,4 +32,10 @@ public interface MixinsInstance
 
     Object invokeObject( Object proxy, Object[] args, Method method )
         throws Throwable;
+
+    /**
+     * @param methodModel Composite method
+     * @return The mixin implementing the method
+     */
+    Object mixinFor( CompositeMethodModel methodModel );
 }
@@ -19,6 +19,7 @@
  */
 package org.apache.polygene.runtime.composite;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 
 /**
@@ -32,4 +33,56 @@ public class ProxyGenerator {
         }
         return Proxy.getProxyClass(effectiveClassLoader, interfaces);
     }
+
+    /**
+     * Create the proxy class of an interface based composite, according to the {@link ProxyMode} of its methods.
+     *
+     * @param mainTypeClassLoader ClassLoader of the main composite type
+     * @param interfaces          Composite types
+     * @param composite           Composite model
+     * @param methods             Composite methods
+     * @return The proxy class, its constructor takes the {@link InvocationHandler} of the composite
+     */
+    static Class<?> createProxyClass( ClassLoader mainTypeClassLoader,
+                                      Class<?>[] interfaces,
+                                      CompositeModel composite,
+                                      CompositeMethodsModel methods )
+    {
+        if( methods.proxyMode() == ProxyMode.generated )
+        {
+            Class<?> proxyClass = new CompositeProxyClassLoader( mainTypeClassLoader )
+                .loadProxyClass( composite, interfaces, methods );
+            if( proxyClass != null )
+            {
+                return proxyClass;
+            }
+        }
+        return createProxyClass( mainTypeClassLoader, interfaces );
+    }
+
+    /**
+     * @param object Any object
+     * @return true if the object is a proxy, generated or from java.lang.reflect.Proxy
+     */
+    public static boolean isProxy( Object object )
+    {
+        return object instanceof CompositeProxy || Proxy.isProxyClass( object.getClass() );
+    }
+
+    /**
+     * Replacement for {@link Proxy#getInvocationHandler(Object)} that also handles generated proxies.
+     *
+     * @param proxy Proxy instance
+     * @return Its invocation handler
+     * @throws IllegalArgumentException if the argument is not a proxy instance
+     */
+    public static InvocationHandler invocationHandlerOf( Object proxy )
+        throws IllegalArgumentException
+    {
+        if( proxy instanceof CompositeProxy )
+        {
+            return ( (CompositeProxy) proxy )._instance;
+        }
+        return Proxy.getInvocationHandler( proxy );
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+import java.util.Arrays;
+
+/**
+ * How proxies of interface based composites are created.
+ *
+ * <pre>
+ * <b>reflect</b>   = Use java.lang.reflect.Proxy, every invocation goes through the composite invocation handler.
+ * <b>generated</b> = Generate a proxy class per composite type, holding its method models. Methods without concerns,
+ *             side-effects nor constraints call their mixin directly. Composite types that a generated
+ *             class cannot implement, non-public ones for example, use java.lang.reflect.Proxy.
+ * </pre>
+ *
+ * <p>
+ * The mode of an Application is set by adding one of the above values as metaInfo of the
+ * <code>ApplicationAssembly</code>, the default being <code>reflect</code>. Use {@link #parse(String)} to read it
+ * from text, configuration for example.
+ * </p>
+ */
+public enum ProxyMode
+{
+    reflect, generated;
+
+    /**
+     * @param mode Name of a mode, case and surrounding whitespace are ignored
+     * @return The mode
+     * @throws IllegalArgumentException if the name is not the one of a mode
+     */
+    public static ProxyMode parse( String mode )
+    {
+        if( mode != null )
+        {
+            for( ProxyMode candidate : values() )
+            {
+                if( candidate.name().equalsIgnoreCase( mode.trim() ) )
+                {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalArgumentException( "Unknown composite proxy mode '" + mode + "', expected one of "
+                                            + Arrays.toString( values() ) );
+    }
+}
@@ -22,7 +22,6 @@ package org.apache.polygene.runtime.composite;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.lang.reflect.UndeclaredThrowableException;
 import org.apache.polygene.api.composite.CompositeInvoker;
 
@@ -52,7 +51,7 @@ public final class ProxyReferenceInvocationHandler
     {
         try
         {
-            InvocationHandler invocationHandler = Proxy.getInvocationHandler( this.proxy );
+            InvocationHandler invocationHandler = ProxyGenerator.invocationHandlerOf( this.proxy );
             return invocationHandler.invoke( this.proxy, method, args );
         }
         catch( InvocationTargetException e )
@@ -71,7 +70,7 @@ public final class ProxyReferenceInvocationHandler
     {
         try
         {
-            InvocationHandler invocationHandler = Proxy.getInvocationHandler( this.proxy );
+            InvocationHandler invocationHandler = ProxyGenerator.invocationHandlerOf( this.proxy );
             return invocationHandler.invoke( this.proxy, method, args );
         }
         catch( InvocationTargetException e )
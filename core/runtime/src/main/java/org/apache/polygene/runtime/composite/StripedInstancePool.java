@@ -0,0 +1,169 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Method instance pool that keeps one instance per stripe, the stripe being picked from the id of the calling thread,
+ * and a bounded linked list shared by all threads for the instances that do not fit in the stripes.
+ * <p>
+ * Threads mostly hit their own stripe, so obtaining and releasing an instance does not contend on a single reference
+ * like it does in {@link AtomicInstancePool}. Stripes are spaced so that they do not share cache lines, and are
+ * only allocated on first use as most composite methods are never invoked concurrently, if at all.
+ * </p>
+ * <p>
+ * Reentrant invocations and threads sharing a stripe use the shared list. It is synchronized, which is cheap as long
+ * as it is not contended, and instances released when it is full are discarded.
+ * </p>
+ */
+public final class StripedInstancePool
+    implements InstancePool<CompositeMethodInstance>
+{
+    /**
+     * Default capacity of the shared list.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // Array slots between two stripes, so that each stripe has a cache line of its own
+    private static final int SPACING = 16;
+    private static final int STRIPES = stripes( Runtime.getRuntime().availableProcessors() );
+
+    private final int capacity;
+    private volatile AtomicReferenceArray<CompositeMethodInstance> stripes;
+
+    private CompositeMethodInstance first;
+    private int size;
+
+    public StripedInstancePool()
+    {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * @param capacity Maximum number of instances kept in the shared list
+     */
+    public StripedInstancePool( int capacity )
+    {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public CompositeMethodInstance obtainInstance()
+    {
+        AtomicReferenceArray<CompositeMethodInstance> stripes = stripes();
+        int index = stripeIndex();
+        CompositeMethodInstance instance = stripes.get( index );
+        if( instance != null && stripes.compareAndSet( index, instance, null ) )
+        {
+            return instance;
+        }
+        return obtainShared();
+    }
+
+    @Override
+    public boolean releaseInstance( CompositeMethodInstance instance )
+    {
+        AtomicReferenceArray<CompositeMethodInstance> stripes = stripes();
+        int index = stripeIndex();
+        if( stripes.get( index ) == null && stripes.compareAndSet( index, null, instance ) )
+        {
+            return true;
+        }
+        return releaseShared( instance );
+    }
+
+    /**
+     * @return Number of pooled instances, approximate if the pool is in use
+     */
+    public int size()
+    {
+        int pooled = 0;
+        AtomicReferenceArray<CompositeMethodInstance> stripes = this.stripes;
+        if( stripes != null )
+        {
+            for( int index = 0; index < stripes.length(); index += SPACING )
+            {
+                if( stripes.get( index ) != null )
+                {
+                    pooled++;
+                }
+            }
+        }
+        synchronized( this )
+        {
+            return pooled + size;
+        }
+    }
+
+    private synchronized CompositeMethodInstance obtainShared()
+    {
+        CompositeMethodInstance instance = first;
+        if( instance != null )
+        {
+            first = instance.getNext();
+            instance.setNext( null );
+            size--;
+        }
+        return instance;
+    }
+
+    private synchronized boolean releaseShared( CompositeMethodInstance instance )
+    {
+        if( size >= capacity )
+        {
+            return false;
+        }
+        instance.setNext( first );
+        first = instance;
+        size++;
+        return true;
+    }
+
+    private AtomicReferenceArray<CompositeMethodInstance> stripes()
+    {
+        AtomicReferenceArray<CompositeMethodInstance> stripes = this.stripes;
+        if( stripes == null )
+        {
+            synchronized( this )
+            {
+                stripes = this.stripes;
+                if( stripes == null )
+                {
+                    stripes = new AtomicReferenceArray<>( STRIPES * SPACING );
+                    this.stripes = stripes;
+                }
+            }
+        }
+        return stripes;
+    }
+
+    private static int stripeIndex()
+    {
+        return ( (int) Thread.currentThread().getId() & ( STRIPES - 1 ) ) * SPACING;
+    }
+
+    private static int stripes( int processors )
+    {
+        // Power of two, so that the stripe of a thread is a mask of its id
+        int stripes = Integer.highestOneBit( Math.max( 1, processors ) );
+        return stripes < processors ? stripes << 1 : stripes;
+    }
+}
@@ -42,9 +42,10 @@ public final class SynchronizedCompositeMethodInstancePool
     }
 
     @Override
-    public synchronized void releaseInstance( CompositeMethodInstance instance )
+    public synchronized boolean releaseInstance( CompositeMethodInstance instance )
     {
         instance.setNext( first );
         first = instance;
+        return true;
     }
 }
@@ -21,7 +21,6 @@
 package org.apache.polygene.runtime.composite;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.stream.Stream;
 import org.apache.polygene.api.PolygeneAPI;
@@ -124,6 +123,12 @@ public class TransientInstance
         return methodInstance.invoke( proxy, params, mixin );
     }
 
+    @Override
+    public Object mixinFor( CompositeMethodModel methodModel )
+    {
+        return mixins[ methodModel.mixinIndex() ];
+    }
+
     @Override
     public Object invokeObject( Object proxy, Object[] args, Method method )
         throws Throwable
@@ -138,7 +143,7 @@ public class TransientInstance
         {
             return false;
         }
-        if( !Proxy.isProxyClass( o.getClass() ) )
+        if( !ProxyGenerator.isProxy( o ) )
         {
             return false;
         }
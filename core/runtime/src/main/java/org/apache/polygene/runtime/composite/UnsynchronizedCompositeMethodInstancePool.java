@@ -42,9 +42,10 @@ public final class UnsynchronizedCompositeMethodInstancePool
     }
 
     @Override
-    public void releaseInstance( CompositeMethodInstance instance )
+    public boolean releaseInstance( CompositeMethodInstance instance )
     {
         instance.setNext( first );
         first = instance;
+        return true;
     }
 }
\ No newline at end of file
@@ -36,6 +36,7 @@ import org.apache.polygene.api.unitofwork.NoSuchEntityException;
 import org.apache.polygene.api.unitofwork.UnitOfWork;
 import org.apache.polygene.api.unitofwork.UnitOfWorkException;
 import org.apache.polygene.runtime.composite.CompositeMethodInstance;
+import org.apache.polygene.runtime.composite.CompositeMethodModel;
 import org.apache.polygene.runtime.composite.MixinsInstance;
 import org.apache.polygene.spi.entity.EntityState;
 import org.apache.polygene.spi.entity.EntityStatus;
@@ -176,6 +177,24 @@ public final class EntityInstance
         return methodInstance.invoke( proxy, params, mixin );
     }
 
+    @Override
+    public Object mixinFor( CompositeMethodModel methodModel )
+    {
+        if( mixins == null )
+        {
+            initState();
+        }
+
+        Object mixin = mixins[ methodModel.mixinIndex() ];
+
+        if( mixin == null )
+        {
+            mixin = entityModel.newMixin( mixins, state, this, methodModel.method() );
+        }
+
+        return mixin;
+    }
+
     @Override
     public Object invokeObject( Object proxy, Object[] args, Method method )
         throws Throwable
@@ -21,8 +21,11 @@ package org.apache.polygene.runtime.entity;
 
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 import org.apache.polygene.api.association.Association;
@@ -30,8 +33,11 @@ import org.apache.polygene.api.association.AssociationStateHolder;
 import org.apache.polygene.api.association.ManyAssociation;
 import org.apache.polygene.api.association.NamedAssociation;
 import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.identity.Identity;
 import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.NoSuchEntityException;
 import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.api.unitofwork.UnitOfWorkOptions;
 import org.apache.polygene.api.util.Classes;
 import org.apache.polygene.runtime.association.AssociationInstance;
 import org.apache.polygene.runtime.association.AssociationModel;
@@ -54,6 +60,7 @@ public final class EntityStateInstance
     private final EntityStateModel stateModel;
     private EntityState entityState;
     private final BiFunction<EntityReference, Type, Object> entityFunction;
+    private final BiConsumer<Iterable<EntityReference>, Type> prefetchFunction;
 
     EntityStateInstance( EntityStateModel stateModel, final UnitOfWork uow, EntityState entityState )
     {
@@ -61,6 +68,39 @@ public final class EntityStateInstance
         this.entityState = entityState;
 
         entityFunction = ( entityReference, type ) -> uow.get( Classes.RAW_CLASS.apply( type ), entityReference.identity() );
+        prefetchFunction = ( entityReferences, type ) -> prefetch( uow, entityReferences, type );
+    }
+
+    private static void prefetch( UnitOfWork uow, Iterable<EntityReference> entityReferences, Type type )
+    {
+        UnitOfWorkOptions options = uow.metaInfo( UnitOfWorkOptions.class );
+        if( options == null )
+        {
+            options = uow.usecase().metaInfo( UnitOfWorkOptions.class );
+        }
+        if( options == null || !options.isPrefetchAssociations() )
+        {
+            return;
+        }
+        List<Identity> identities = new ArrayList<>();
+        for( EntityReference entityReference : entityReferences )
+        {
+            if( entityReference != null )
+            {
+                identities.add( entityReference.identity() );
+            }
+        }
+        if( identities.size() > 1 )
+        {
+            try
+            {
+                uow.get( Classes.RAW_CLASS.apply( type ), identities );
+            }
+            catch( NoSuchEntityException e )
+            {
+                // Prefetching is best effort, dangling references are reported when dereferenced
+            }
+        }
     }
 
     @Override
@@ -144,6 +184,7 @@ public final class EntityStateInstance
             manyAssociation = new ManyAssociationInstance<>(
                 entityState instanceof BuilderEntityState ? associationModel.builderInfo() : associationModel,
                 entityFunction,
+                prefetchFunction,
                 entityState.manyAssociationValueOf( associationModel.qualifiedName() ) );
             state.put( accessor, manyAssociation );
         }
@@ -168,6 +209,7 @@ public final class EntityStateInstance
             namedAssociation = new NamedAssociationInstance<>(
                 entityState instanceof BuilderEntityState ? associationModel.builderInfo() : associationModel,
                 entityFunction,
+                prefetchFunction,
                 entityState.namedAssociationValueOf( associationModel.qualifiedName() ) );
             state.put( accessor, namedAssociation );
         }
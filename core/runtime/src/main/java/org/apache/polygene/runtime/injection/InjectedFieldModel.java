@@ -23,7 +23,6 @@ package org.apache.polygene.runtime.injection;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
 import java.util.Collection;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -35,6 +34,7 @@ import org.apache.polygene.api.util.HierarchicalVisitor;
 import org.apache.polygene.api.util.VisitableHierarchy;
 import org.apache.polygene.bootstrap.BindingException;
 import org.apache.polygene.bootstrap.InjectionException;
+import org.apache.polygene.runtime.composite.ProxyGenerator;
 import org.apache.polygene.runtime.composite.TransientInstance;
 import org.apache.polygene.runtime.model.Resolution;
 
@@ -100,9 +100,9 @@ public final class InjectedFieldModel
             {
                 valueClassName = "<null>";
             }
-            else if( Proxy.isProxyClass( value.getClass() ) )
+            else if( ProxyGenerator.isProxy( value ) )
             {
-                InvocationHandler invocationHandler = Proxy.getInvocationHandler( value );
+                InvocationHandler invocationHandler = ProxyGenerator.invocationHandlerOf( value );
                 if( invocationHandler instanceof TransientInstance )
                 {
                     TransientInstance handler = (TransientInstance) invocationHandler;
@@ -201,7 +201,11 @@ public class PropertyInstance<T>
         T value = get();
         if( value != null )
         {
-            hash += value.hashCode() * 13; // State
+            // Arrays are hashed by content, consistently with equals
+            int valueHash = value.getClass().isArray()
+                            ? Arrays.deepHashCode( new Object[]{ value } )
+                            : value.hashCode();
+            hash += valueHash * 13; // State
         }
         return hash;
     }
@@ -20,23 +20,30 @@
 
 package org.apache.polygene.runtime.query;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.apache.polygene.api.composite.Composite;
 import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.query.IndexedIterable;
 import org.apache.polygene.api.query.grammar.OrderBy;
 import org.apache.polygene.spi.query.QuerySource;
 
-import static java.util.stream.Collectors.toList;
 import static org.apache.polygene.api.util.Classes.instanceOf;
 
 /**
- * JAVADOC
+ * QuerySource evaluating queries against an Iterable.
+ * <p>
+ * Elements are filtered lazily so that queries stop as soon as enough results are found. Ordered queries with a
+ * maximum number of results only keep the first results in a bounded heap. When the Iterable is an
+ * {@link IndexedIterable} equality and range predicates are answered from its index.
+ * </p>
  */
 public class IterableQuerySource
     implements QuerySource
@@ -63,7 +70,9 @@ public class IterableQuerySource
                        Map<String, Object> variables
     )
     {
-        return stream( resultType, whereClause, orderBySegments, firstResult, maxResults, variables )
+        // Only the first result is needed, this bounds the sort to a single element
+        int max = maxResults == null ? 1 : Math.min( maxResults, 1 );
+        return stream( resultType, whereClause, orderBySegments, firstResult, max, variables )
             .findFirst().orElse( null );
     }
 
@@ -76,10 +85,13 @@ public class IterableQuerySource
                            Map<String, Object> variables
     )
     {
-        return list( resultType, whereClause, orderBySegments, firstResult, maxResults, variables ).size();
+        // Ordering does not change the count
+        long count = Math.max( 0, matches( resultType, whereClause ).count() - skipped( firstResult ) );
+        return maxResults == null ? count : Math.min( count, maxResults );
     }
 
     @Override
+    @SuppressWarnings( "unchecked" )
     public <T> Stream<T> stream( Class<T> resultType,
                                      Predicate<Composite> whereClause,
                                      List<OrderBy> orderBySegments,
@@ -88,80 +100,83 @@ public class IterableQuerySource
                                      Map<String, Object> variables
     )
     {
-        return list( resultType, whereClause, orderBySegments, firstResult, maxResults, variables ).stream();
+        Stream<T> matches = matches( resultType, whereClause );
+        long skipped = skipped( firstResult );
+        if( orderBySegments == null )
+        {
+            matches = matches.skip( skipped );
+            return maxResults == null ? matches : matches.limit( Math.max( 0, maxResults ) );
+        }
+
+        Comparator<T> comparator = new OrderByComparator( orderBySegments );
+        if( maxResults == null )
+        {
+            return matches.sorted( comparator ).skip( skipped );
+        }
+        return topResults( matches, comparator, skipped + Math.max( 0, maxResults ) ).stream().skip( skipped );
     }
 
+    /**
+     * Lazily filtered elements, answered from the index of an {@link IndexedIterable}.
+     */
     @SuppressWarnings( {"raw", "unchecked"} )
-    private <T> List<T> list( Class<T> resultType,
-                              Predicate<Composite> whereClause,
-                              List<OrderBy> orderBySegments,
-                              Integer firstResult,
-                              Integer maxResults,
-                              Map<String, Object> variables
-    )
+    private <T> Stream<T> matches( Class<T> resultType, Predicate whereClause )
     {
-        // Ensure it's a list first
-        List<T> list = filter( resultType, whereClause );
-
-        // Order list
-        if( orderBySegments != null )
+        Iterable<?> source = iterable;
+        if( whereClause != null && iterable instanceof IndexedIterable )
         {
-            // Sort it
-            list.sort( new OrderByComparator( orderBySegments ) );
+            source = ( (IndexedIterable<?>) iterable ).candidates( whereClause );
         }
-
-        // Cut results
-        if( firstResult != null )
+        Stream stream = StreamSupport.stream( source.spliterator(), false );
+        if( whereClause == null )
         {
-            if( firstResult > list.size() )
-            {
-                return Collections.emptyList();
-            }
+            return stream.filter( resultType::isInstance );
+        }
+        return stream.filter( instanceOf( resultType ).and( whereClause ) );
+    }
 
-            int toIdx;
-            if( maxResults != null )
-            {
-                toIdx = Math.min( firstResult + maxResults, list.size() );
-            }
-            else
-            {
-                toIdx = list.size();
-            }
+    private static long skipped( Integer firstResult )
+    {
+        return firstResult == null ? 0 : Math.max( 0, firstResult );
+    }
 
-            list = list.subList( firstResult, toIdx );
+    /**
+     * Keep the {@literal limit} first elements in a bounded heap rather than sorting all of them.
+     * <p>
+     * Ties are broken by encounter order so that the result is the same as a stable sort.
+     * </p>
+     */
+    private static <T> List<T> topResults( Stream<T> matches, Comparator<T> comparator, long limit )
+    {
+        if( limit <= 0 )
+        {
+            return Collections.emptyList();
         }
-        else
+        Comparator<Ranked<T>> ranking = Comparator.<Ranked<T>, T>comparing( ranked -> ranked.element, comparator )
+            .thenComparingLong( ranked -> ranked.rank );
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>( (int) Math.min( limit, 64 ), ranking.reversed() );
+        long[] rank = new long[ 1 ];
+        matches.forEach( element ->
         {
-            int toIdx;
-            if( maxResults != null )
+            Ranked<T> ranked = new Ranked<>( element, rank[ 0 ]++ );
+            if( heap.size() < limit )
             {
-                toIdx = Math.min( maxResults, list.size() );
+                heap.add( ranked );
             }
-            else
+            else if( ranking.compare( ranked, heap.peek() ) < 0 )
             {
-                toIdx = list.size();
+                heap.poll();
+                heap.add( ranked );
             }
-
-            list = list.subList( 0, toIdx );
-        }
-
-        return list;
-    }
-
-    @SuppressWarnings( {"raw", "unchecked"} )
-    private <T> List<T> filter( Class<T> resultType, Predicate whereClause )
-    {
-        Stream stream = StreamSupport.stream( iterable.spliterator(), false );
-        if( whereClause == null )
+        } );
+        List<Ranked<T>> sorted = new ArrayList<>( heap );
+        sorted.sort( ranking );
+        List<T> results = new ArrayList<>( sorted.size() );
+        for( Ranked<T> ranked : sorted )
         {
-            return List.class.cast( stream.filter( resultType::isInstance )
-                                          .collect( toList() ) );
-        }
-        else
-        {
-            return List.class.cast( stream.filter( instanceOf( resultType ).and( whereClause ) )
-                                          .collect( toList() ) );
+            results.add( ranked.element );
         }
+        return results;
     }
 
     @Override
@@ -170,6 +185,18 @@ public class IterableQuerySource
         return "IterableQuerySource{" + iterable + '}';
     }
 
+    private static class Ranked<T>
+    {
+        private final T element;
+        private final long rank;
+
+        private Ranked( T element, long rank )
+        {
+            this.element = element;
+            this.rank = rank;
+        }
+    }
+
     private static class OrderByComparator<T extends Composite>
         implements Comparator<T>
     {
@@ -88,6 +88,7 @@ import org.apache.polygene.runtime.value.ValueBuilderWithPrototype;
 import org.apache.polygene.runtime.value.ValueBuilderWithState;
 import org.apache.polygene.runtime.value.ValueInstance;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
 import org.apache.polygene.spi.module.ModuleSpi;
 
 import static java.util.Arrays.asList;
@@ -109,6 +110,7 @@ public class ModuleInstance
     // Eager instance objects
     private final ActivationDelegate activation;
     private final QueryBuilderFactory queryBuilderFactory;
+    private final RuntimeMetrics runtimeMetrics;
     // Lazy assigned on accessors
     private EntityStore store;
     private IdentityGenerator generator;
@@ -131,6 +133,7 @@ public class ModuleInstance
         // Eager instance objects
         activation = new ActivationDelegate( this );
         queryBuilderFactory = new QueryBuilderFactoryImpl( this );
+        runtimeMetrics = new RuntimeMetrics( this, this::runtimeMetricsProvider );
 
         // Activation
         services.registerActivationEventListener( activation );
@@ -587,6 +590,25 @@ public class ModuleInstance
         return metrics;
     }
 
+    private MetricsProvider runtimeMetricsProvider()
+    {
+        try
+        {
+            return metricsProvider();
+        }
+        catch( NoSuchServiceTypeException e )
+        {
+            // Modules assembled without default services have no MetricsProvider
+            return null;
+        }
+    }
+
+    @Override
+    public RuntimeMetrics runtimeMetrics()
+    {
+        return runtimeMetrics;
+    }
+
     @Override
     public ValueTypeFactoryInstance valueTypeFactory()
     {
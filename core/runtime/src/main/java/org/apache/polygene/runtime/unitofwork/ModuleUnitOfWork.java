@@ -21,6 +21,7 @@
 package org.apache.polygene.runtime.unitofwork;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -289,6 +290,22 @@ public class ModuleUnitOfWork
         return uow.get( EntityReference.create( identity ), this, models, type );
     }
 
+    @Override
+    public <T> List<T> get( Class<T> type, Iterable<Identity> identities )
+        throws NoSuchEntityTypeException, NoSuchEntityException
+    {
+        Iterable<EntityDescriptor> models = module.typeLookup().lookupEntityModels( type );
+
+        if( !models.iterator().hasNext() )
+        {
+            throw new NoSuchEntityTypeException( type.getName(), module );
+        }
+
+        List<EntityReference> references = new ArrayList<>();
+        identities.forEach( identity -> references.add( EntityReference.create( identity ) ) );
+        return uow.get( references, this, models, type );
+    }
+
     @Override
     @SuppressWarnings( "unchecked" )
     public <T> T get( T entity )
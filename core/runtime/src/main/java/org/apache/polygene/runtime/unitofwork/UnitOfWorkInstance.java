@@ -24,6 +24,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
@@ -57,6 +58,7 @@ import org.apache.polygene.spi.entitystore.EntityNotFoundException;
 import org.apache.polygene.spi.entitystore.EntityStore;
 import org.apache.polygene.spi.entitystore.EntityStoreUnitOfWork;
 import org.apache.polygene.spi.entitystore.StateCommitter;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
 import org.apache.polygene.spi.module.ModuleSpi;
 
 import static org.apache.polygene.api.unitofwork.UnitOfWorkCallback.UnitOfWorkStatus.COMPLETED;
@@ -176,6 +178,52 @@ public final class UnitOfWorkInstance
         return entityInstance.proxy();
     }
 
+    public <T> List<T> get( List<EntityReference> references,
+                            UnitOfWork uow,
+                            Iterable<? extends EntityDescriptor> potentialModels,
+                            Class<T> mixinType
+    )
+        throws NoSuchEntityTypeException, NoSuchEntityException
+    {
+        checkOpen();
+
+        // Load all entities not yet in cache, one bulk request per EntityStore
+        LinkedHashSet<EntityReference> missing = new LinkedHashSet<>();
+        for( EntityReference reference : references )
+        {
+            if( !instanceCache.containsKey( reference ) )
+            {
+                missing.add( reference );
+            }
+        }
+        for( EntityDescriptor potentialModel : potentialModels )
+        {
+            if( missing.isEmpty() )
+            {
+                break;
+            }
+            EntityStore store = ( (ModuleSpi) potentialModel.module().instance() ).entityStore();
+            EntityStoreUnitOfWork storeUow = getEntityStoreUnitOfWork( store );
+            Map<EntityReference, EntityState> entityStates = storeUow.entityStatesOf( potentialModel.module(),
+                                                                                     missing );
+            for( EntityState entityState : entityStates.values() )
+            {
+                EntityModel model = (EntityModel) entityState.entityDescriptor();
+                EntityInstance entityInstance = new EntityInstance( uow, model, entityState );
+                instanceCache.put( entityState.entityReference(), entityInstance );
+                missing.remove( entityState.entityReference() );
+            }
+        }
+
+        // Resolve from cache, this also reports missing and removed entities
+        List<T> entities = new ArrayList<>( references.size() );
+        for( EntityReference reference : references )
+        {
+            entities.add( get( reference, uow, potentialModels, mixinType ) );
+        }
+        return entities;
+    }
+
     public Usecase usecase()
     {
         return usecase;
@@ -261,7 +309,15 @@ public final class UnitOfWorkInstance
         notifyBeforeCompletion( currentCallbacks );
 
         // Commit all changes
-        committers.forEach( StateCommitter::commit );
+        try
+        {
+            committers.forEach( StateCommitter::commit );
+        }
+        catch( ConcurrentEntityStateModificationException e )
+        {
+            // Stores with conditional updates detect concurrent modifications while committing
+            throw concurrentModification( e );
+        }
 
         close();
 
@@ -347,16 +403,7 @@ public final class UnitOfWorkInstance
                 if( e instanceof ConcurrentEntityStateModificationException )
                 {
                     // If we cancelled due to concurrent modification, then create the proper exception for it!
-                    ConcurrentEntityStateModificationException mee = (ConcurrentEntityStateModificationException) e;
-                    Collection<EntityReference> modifiedEntityIdentities = mee.modifiedEntities();
-                    Map<EntityComposite, HasTypes> modifiedEntities = new HashMap<>();
-                    for( EntityReference modifiedEntityIdentity : modifiedEntityIdentities )
-                    {
-                        instanceCache.values().stream()
-                            .filter( instance -> instance.reference().equals( modifiedEntityIdentity ) )
-                            .forEach( instance -> modifiedEntities.put( instance.<EntityComposite>proxy(), instance ) );
-                    }
-                    throw new ConcurrentEntityModificationException( modifiedEntities, usecase );
+                    throw concurrentModification( (ConcurrentEntityStateModificationException) e );
                 }
                 else
                 {
@@ -367,6 +414,21 @@ public final class UnitOfWorkInstance
         return committers;
     }
 
+    private ConcurrentEntityModificationException concurrentModification( ConcurrentEntityStateModificationException e )
+    {
+        RuntimeMetrics runtimeMetrics = module.runtimeMetrics();
+        runtimeMetrics.counter( runtimeMetrics.nameFor( UnitOfWork.class, "conflicts" ) ).increment();
+        Collection<EntityReference> modifiedEntityIdentities = e.modifiedEntities();
+        Map<EntityComposite, HasTypes> modifiedEntities = new HashMap<>();
+        for( EntityReference modifiedEntityIdentity : modifiedEntityIdentities )
+        {
+            instanceCache.values().stream()
+                .filter( instance -> instance.reference().equals( modifiedEntityIdentity ) )
+                .forEach( instance -> modifiedEntities.put( instance.<EntityComposite>proxy(), instance ) );
+        }
+        return new ConcurrentEntityModificationException( modifiedEntities, usecase );
+    }
+
     private void notifyBeforeCompletion( List<UnitOfWorkCallback> callbacks )
         throws UnitOfWorkCompletionException
     {
@@ -124,7 +124,7 @@ public class ValueBuilderWithPrototype<T>
 
         try
         {
-            return prototypeInstance.proxy();
+            return valueModel.intern( prototypeInstance.proxy() );
         }
         finally
         {
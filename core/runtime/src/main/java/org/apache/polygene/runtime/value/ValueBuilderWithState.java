@@ -86,7 +86,7 @@ public class ValueBuilderWithState<T>
 
         try
         {
-            return prototypeInstance.proxy();
+            return ((ValueModel) model).intern( prototypeInstance.proxy() );
         }
         finally
         {
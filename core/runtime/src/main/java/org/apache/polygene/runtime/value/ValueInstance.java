@@ -19,11 +19,11 @@
  */
 package org.apache.polygene.runtime.value;
 
-import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import org.apache.polygene.api.composite.CompositeInstance;
 import org.apache.polygene.api.serialization.Serializer;
 import org.apache.polygene.runtime.composite.MixinsInstance;
+import org.apache.polygene.runtime.composite.ProxyGenerator;
 import org.apache.polygene.runtime.composite.TransientInstance;
 import org.apache.polygene.runtime.property.PropertyInstance;
 import org.apache.polygene.spi.module.ModuleSpi;
@@ -34,6 +34,10 @@ import org.apache.polygene.spi.module.ModuleSpi;
 public final class ValueInstance extends TransientInstance
     implements CompositeInstance, MixinsInstance
 {
+    // State hash, cached once the value is built as its state is immutable then, 0 if not computed yet
+    private int hashCode;
+    private boolean built;
+
     public ValueInstance( ValueModel compositeModel, Object[] mixins, ValueStateInstance state )
     {
         super( compositeModel, mixins, state );
@@ -57,19 +61,24 @@ public final class ValueInstance extends TransientInstance
         {
             return true;
         }
-        if( o == null || !Proxy.isProxyClass( o.getClass() ) )
+        if( o == null || !ProxyGenerator.isProxy( o ) )
         {
             return false;
         }
 
         try
         {
-            ValueInstance that = (ValueInstance) Proxy.getInvocationHandler( o );
+            ValueInstance that = (ValueInstance) ProxyGenerator.invocationHandlerOf( o );
             // Descriptor equality
             if( !descriptor().equals( that.descriptor() ) )
             {
                 return false;
             }
+            // Cached hash codes of built values differ when their states do
+            if( built && that.built && hashCode() != that.hashCode() )
+            {
+                return false;
+            }
             // State equality
             return state.equals( that.state );
         }
@@ -96,6 +105,8 @@ public final class ValueInstance extends TransientInstance
      */
     public void prepareToBuild()
     {
+        built = false;
+        hashCode = 0;
         descriptor().state().properties().forEach(
             descriptor -> ( (PropertyInstance<Object>) state.propertyFor( descriptor.accessor() ) )
                 .prepareToBuild( descriptor ) );
@@ -131,18 +142,32 @@ public final class ValueInstance extends TransientInstance
 
         descriptor().state().namedAssociations().forEach(
             descriptor -> state().namedAssociationFor( descriptor.accessor() ).setAssociationInfo( descriptor ) );
+
+        built = true;
     }
 
     /**
      * Calculate hash code.
+     * <p>
+     * The hash code of built values is only calculated once.
+     * </p>
      *
      * @return the hashcode of this instance.
      */
     @Override
     public int hashCode()
     {
-        int hash = compositeModel.hashCode() * 23; // Descriptor
-        return hash + state.hashCode() * 5; // State
+        int hash = hashCode;
+        if( hash == 0 || !built )
+        {
+            hash = compositeModel.hashCode() * 23; // Descriptor
+            hash += state.hashCode() * 5; // State
+            if( built )
+            {
+                hashCode = hash;
+            }
+        }
+        return hash;
     }
 
     public String toJsonString()
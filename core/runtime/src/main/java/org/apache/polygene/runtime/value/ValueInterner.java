@@ -0,0 +1,48 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.value;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of the values of an {@link org.apache.polygene.api.value.Interned} ValueComposite type.
+ * <p>
+ * Values are only weakly referenced, so that unused values can be garbage collected.
+ * </p>
+ */
+final class ValueInterner
+{
+    private final Map<Object, WeakReference<Object>> values = new WeakHashMap<>();
+
+    @SuppressWarnings( "unchecked" )
+    synchronized <T> T intern( T value )
+    {
+        WeakReference<Object> reference = values.get( value );
+        Object interned = reference == null ? null : reference.get();
+        if( interned == null )
+        {
+            values.put( value, new WeakReference<>( value ) );
+            return value;
+        }
+        return (T) interned;
+    }
+}
@@ -35,6 +35,7 @@ import org.apache.polygene.api.structure.TypeLookup;
 import org.apache.polygene.api.type.ValueCompositeType;
 import org.apache.polygene.api.unitofwork.NoSuchEntityTypeException;
 import org.apache.polygene.api.util.Classes;
+import org.apache.polygene.api.value.Interned;
 import org.apache.polygene.api.value.ValueDescriptor;
 import org.apache.polygene.runtime.composite.CompositeMethodsModel;
 import org.apache.polygene.runtime.composite.CompositeModel;
@@ -52,6 +53,7 @@ public final class ValueModel extends CompositeModel
     implements ValueDescriptor
 {
     private ValueCompositeType valueType;
+    private final ValueInterner interner;
 
     public ValueModel( final ModuleDescriptor module,
                        final List<Class<?>> types,
@@ -66,6 +68,7 @@ public final class ValueModel extends CompositeModel
 // TODO: When TypeLookup's lazy loading can be disabled during Model building, then uncomment the following line.
 //        checkAssociationVisibility();
         valueType = ValueCompositeType.of( this );
+        interner = metaInfo.get( Interned.class ) != null ? new ValueInterner() : null;
     }
 
     @Override
@@ -169,6 +172,15 @@ public final class ValueModel extends CompositeModel
         return null;
     }
 
+    /**
+     * @param value Built value of this model
+     * @return The canonical instance equal to the value if this model is {@link Interned}, the value otherwise
+     */
+    public <T> T intern( T value )
+    {
+        return interner == null ? value : interner.intern( value );
+    }
+
     public ValueInstance newValueInstance( ValueStateInstance state )
     {
         Object[] mixins = mixinsModel.newMixinHolder();
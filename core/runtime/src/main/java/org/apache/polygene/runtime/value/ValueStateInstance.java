@@ -20,6 +20,7 @@
 package org.apache.polygene.runtime.value;
 
 import java.lang.reflect.AccessibleObject;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,17 +40,22 @@ import org.apache.polygene.runtime.unitofwork.EntityFunction;
 
 import static java.util.stream.Collectors.toList;
 import static org.apache.polygene.api.util.Collectors.toMap;
+import static org.apache.polygene.runtime.value.ValueStateSlots.slotOf;
 
 /**
- * TODO
+ * State of a ValueComposite.
+ * <p>
+ * Properties and associations are kept in arrays, at the slots assigned by the {@link ValueStateSlots} of the model.
+ * </p>
  */
 public final class ValueStateInstance
     implements AssociationStateHolder
 {
-    private final Map<AccessibleObject, PropertyInstance<?>> properties;
-    private final Map<AccessibleObject, AssociationInstance<?>> associations;
-    private final Map<AccessibleObject, ManyAssociationInstance<?>> manyAssociations;
-    private final Map<AccessibleObject, NamedAssociationInstance<?>> namedAssociations;
+    private final ValueStateSlots slots;
+    private final PropertyInstance<?>[] properties;
+    private final AssociationInstance<?>[] associations;
+    private final ManyAssociationInstance<?>[] manyAssociations;
+    private final NamedAssociationInstance<?>[] namedAssociations;
 
     public ValueStateInstance( ValueDescriptor compositeModelModule,
                                ModuleInstance currentModule,
@@ -59,15 +65,16 @@ public final class ValueStateInstance
         EntityFunction entityFunction = new EntityFunction( currentModule.unitOfWorkFactory() );
 
         ValueModel valueModel = (ValueModel) compositeModelModule;
-        this.properties = new LinkedHashMap<>();
+        slots = valueModel.state().slots();
+        this.properties = new PropertyInstance<?>[ slots.properties.size() ];
         valueModel.state().properties().forEach( propertyDescriptor -> {
             PropertyInfo builderInfo = propertyDescriptor.getBuilderInfo();
             Object value = stateResolver.getPropertyState( propertyDescriptor );
             PropertyInstance<Object> propertyInstance = new PropertyInstance<>( builderInfo, value );
-            properties.put( propertyDescriptor.accessor(), propertyInstance );
+            properties[ slotOf( slots.properties, propertyDescriptor.accessor() ) ] = propertyInstance;
         } );
 
-        this.associations = new LinkedHashMap<>();
+        this.associations = new AssociationInstance<?>[ slots.associations.size() ];
         valueModel.state().associations().forEach( associationDescriptor -> {
             AssociationInfo builderInfo = associationDescriptor.builderInfo();
             EntityReference value = stateResolver.getAssociationState( associationDescriptor );
@@ -75,10 +82,10 @@ public final class ValueStateInstance
                 builderInfo,
                 entityFunction,
                 new ReferenceProperty( value ) );
-            associations.put( associationDescriptor.accessor(), associationInstance1 );
+            associations[ slotOf( slots.associations, associationDescriptor.accessor() ) ] = associationInstance1;
         } );
 
-        this.manyAssociations = new LinkedHashMap<>();
+        this.manyAssociations = new ManyAssociationInstance<?>[ slots.manyAssociations.size() ];
         valueModel.state().manyAssociations().forEach( associationDescriptor -> {
             AssociationInfo builderInfo = associationDescriptor.builderInfo();
             List<EntityReference> value = stateResolver.getManyAssociationState( associationDescriptor )
@@ -88,10 +95,11 @@ public final class ValueStateInstance
                 builderInfo,
                 entityFunction,
                 manyAssociationState );
-            manyAssociations.put( associationDescriptor.accessor(), associationInstance );
+            int slot = slotOf( slots.manyAssociations, associationDescriptor.accessor() );
+            manyAssociations[ slot ] = associationInstance;
         } );
 
-        this.namedAssociations = new LinkedHashMap<>();
+        this.namedAssociations = new NamedAssociationInstance<?>[ slots.namedAssociations.size() ];
         valueModel.state().namedAssociations().forEach( associationDescriptor -> {
             AssociationInfo builderInfo = associationDescriptor.builderInfo();
             Map<String, EntityReference> value = stateResolver.getNamedAssociationState( associationDescriptor )
@@ -101,7 +109,8 @@ public final class ValueStateInstance
                 builderInfo,
                 entityFunction,
                 namedAssociationState );
-            namedAssociations.put( associationDescriptor.accessor(), associationInstance );
+            int slot = slotOf( slots.namedAssociations, associationDescriptor.accessor() );
+            namedAssociations[ slot ] = associationInstance;
         } );
     }
 
@@ -110,80 +119,80 @@ public final class ValueStateInstance
     public <T> PropertyInstance<T> propertyFor( AccessibleObject accessor )
         throws IllegalArgumentException
     {
-        PropertyInstance<T> property = (PropertyInstance<T>) properties.get( accessor );
+        int slot = slotOf( slots.properties, accessor );
 
-        if( property == null )
+        if( slot < 0 )
         {
             throw new IllegalArgumentException( "No such property:" + accessor );
         }
 
-        return property;
+        return (PropertyInstance<T>) properties[ slot ];
     }
 
     @Override
     public Stream<PropertyInstance<?>> properties()
     {
-        return properties.values().stream();
+        return Arrays.stream( properties );
     }
 
     @Override
     @SuppressWarnings( "unchecked" )
     public <T> AssociationInstance<T> associationFor( AccessibleObject accessor )
     {
-        AssociationInstance<T> association = (AssociationInstance<T>) associations.get( accessor );
+        int slot = slotOf( slots.associations, accessor );
 
-        if( association == null )
+        if( slot < 0 )
         {
             throw new IllegalArgumentException( "No such association:" + accessor );
         }
 
-        return association;
+        return (AssociationInstance<T>) associations[ slot ];
     }
 
     @Override
     public Stream<AssociationInstance<?>> allAssociations()
     {
-        return associations.values().stream();
+        return Arrays.stream( associations );
     }
 
     @Override
     @SuppressWarnings( "unchecked" )
     public <T> ManyAssociationInstance<T> manyAssociationFor( AccessibleObject accessor )
     {
-        ManyAssociationInstance<T> manyAssociation = (ManyAssociationInstance<T>) manyAssociations.get( accessor );
+        int slot = slotOf( slots.manyAssociations, accessor );
 
-        if( manyAssociation == null )
+        if( slot < 0 )
         {
             throw new IllegalArgumentException( "No such many-association:" + accessor );
         }
 
-        return manyAssociation;
+        return (ManyAssociationInstance<T>) manyAssociations[ slot ];
     }
 
     @Override
     public Stream<ManyAssociationInstance<?>> allManyAssociations()
     {
-        return manyAssociations.values().stream();
+        return Arrays.stream( manyAssociations );
     }
 
     @Override
     @SuppressWarnings( "unchecked" )
     public <T> NamedAssociationInstance<T> namedAssociationFor( AccessibleObject accessor )
     {
-        NamedAssociationInstance<T> namedAssociation = (NamedAssociationInstance<T>) namedAssociations.get( accessor );
+        int slot = slotOf( slots.namedAssociations, accessor );
 
-        if( namedAssociation == null )
+        if( slot < 0 )
         {
             throw new IllegalArgumentException( "No such named-association:" + accessor );
         }
 
-        return namedAssociation;
+        return (NamedAssociationInstance<T>) namedAssociations[ slot ];
     }
 
     @Override
     public Stream<? extends NamedAssociationInstance<?>> allNamedAssociations()
     {
-        return namedAssociations.values().stream();
+        return Arrays.stream( namedAssociations );
     }
 
     @SuppressWarnings( "SimplifiableIfStatement" )
@@ -195,28 +204,28 @@ public final class ValueStateInstance
             return false;
         }
         ValueStateInstance state = (ValueStateInstance) obj;
-        if( !properties.equals( state.properties ) )
+        if( !Arrays.equals( properties, state.properties ) )
         {
             return false;
         }
-        if( !associations.equals( state.associations ) )
+        if( !Arrays.equals( associations, state.associations ) )
         {
             return false;
         }
-        if( !manyAssociations.equals( state.manyAssociations ) )
+        if( !Arrays.equals( manyAssociations, state.manyAssociations ) )
         {
             return false;
         }
-        return namedAssociations.equals( state.namedAssociations );
+        return Arrays.equals( namedAssociations, state.namedAssociations );
     }
 
     @Override
     public int hashCode()
     {
-        int result = properties.hashCode();
-        result = 31 * result + associations.hashCode();
-        result = 31 * result + manyAssociations.hashCode();
-        result = 31 * result + namedAssociations.hashCode();
+        int result = Arrays.hashCode( properties );
+        result = 31 * result + Arrays.hashCode( associations );
+        result = 31 * result + Arrays.hashCode( manyAssociations );
+        result = 31 * result + Arrays.hashCode( namedAssociations );
         return result;
     }
 }
@@ -44,6 +44,7 @@ public final class ValueStateModel
     private final AssociationsModel associationsModel;
     private final ManyAssociationsModel manyAssociationsModel;
     private final NamedAssociationsModel namedAssociationsModel;
+    private volatile ValueStateSlots slots;
 
     public ValueStateModel( PropertiesModel propertiesModel,
                             AssociationsModel associationsModel,
@@ -57,6 +58,21 @@ public final class ValueStateModel
         this.namedAssociationsModel = namedAssociationsModel;
     }
 
+    /**
+     * @return Array slots of the state, assigned once the model is complete
+     */
+    ValueStateSlots slots()
+    {
+        ValueStateSlots slots = this.slots;
+        if( slots == null )
+        {
+            // Building them twice on concurrent first use is harmless
+            slots = new ValueStateSlots( this );
+            this.slots = slots;
+        }
+        return slots;
+    }
+
     @Override
     public AssociationDescriptor getAssociationByName( String name )
     {
@@ -0,0 +1,68 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.value;
+
+import java.lang.reflect.AccessibleObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.polygene.api.association.AssociationDescriptor;
+import org.apache.polygene.api.property.PropertyDescriptor;
+
+/**
+ * Array slots of the state of ValueComposites, shared by all values of a {@link ValueStateModel}.
+ * <p>
+ * Each property and association gets a fixed index, in declaration order, so that value state is kept in arrays
+ * instead of one map per kind of state and per value.
+ * </p>
+ */
+final class ValueStateSlots
+{
+    final Map<AccessibleObject, Integer> properties;
+    final Map<AccessibleObject, Integer> associations;
+    final Map<AccessibleObject, Integer> manyAssociations;
+    final Map<AccessibleObject, Integer> namedAssociations;
+
+    ValueStateSlots( ValueStateModel model )
+    {
+        properties = slotsOf( model.properties().map( PropertyDescriptor::accessor ) );
+        associations = slotsOf( model.associations().map( AssociationDescriptor::accessor ) );
+        manyAssociations = slotsOf( model.manyAssociations().map( AssociationDescriptor::accessor ) );
+        namedAssociations = slotsOf( model.namedAssociations().map( AssociationDescriptor::accessor ) );
+    }
+
+    /**
+     * @param slots    Slots of one kind of state
+     * @param accessor Accessor of the property or association
+     * @return Index of the accessor, or -1 if it is not part of the state
+     */
+    static int slotOf( Map<AccessibleObject, Integer> slots, AccessibleObject accessor )
+    {
+        Integer slot = slots.get( accessor );
+        return slot == null ? -1 : slot;
+    }
+
+    private static Map<AccessibleObject, Integer> slotsOf( Stream<AccessibleObject> accessors )
+    {
+        Map<AccessibleObject, Integer> slots = new HashMap<>();
+        accessors.forEachOrdered( accessor -> slots.put( accessor, slots.size() ) );
+        return slots;
+    }
+}
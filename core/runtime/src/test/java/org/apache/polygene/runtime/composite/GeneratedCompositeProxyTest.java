@@ -0,0 +1,308 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+import java.io.IOException;
+import org.apache.polygene.api.PolygeneAPI;
+import org.apache.polygene.api.common.UseDefaults;
+import org.apache.polygene.api.composite.TransientComposite;
+import org.apache.polygene.api.concern.ConcernOf;
+import org.apache.polygene.api.concern.Concerns;
+import org.apache.polygene.api.entity.EntityComposite;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.api.value.ValueBuilder;
+import org.apache.polygene.api.value.ValueComposite;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Composites proxied by generated classes, see {@link ProxyMode}.
+ */
+public class GeneratedCompositeProxyTest
+    extends AbstractPolygeneTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        module.layer().application().setMetaInfo( ProxyMode.generated );
+        new EntityTestAssembler().assemble( module );
+        module.transients( PlainCounter.class, ConcernCounter.class );
+        module.values( Point.class );
+        module.entities( Account.class );
+    }
+
+    @Test
+    public void givenMixinWithoutFragmentsWhenInvokingExpectGeneratedProxyCallingMixin()
+        throws IOException
+    {
+        PlainCounter counter = transientBuilderFactory.newTransient( PlainCounter.class );
+        assertThat( counter instanceof CompositeProxy, is( true ) );
+
+        assertThat( counter.increment( 2 ), equalTo( 2 ) );
+        assertThat( counter.increment( 3 ), equalTo( 5 ) );
+        assertThat( counter.total(), equalTo( 5L ) );
+        assertThat( counter.describe( "count" ), equalTo( "count=5" ) );
+        counter.reset();
+        assertThat( counter.isZero(), is( true ) );
+        assertThat( counter.isInvokedThroughComposite(), is( false ) );
+    }
+
+    @Test
+    public void givenConcernOnOneMethodWhenInvokingExpectOnlyThatMethodThroughComposite()
+        throws IOException
+    {
+        ConcernCounter counter = transientBuilderFactory.newTransient( ConcernCounter.class );
+        assertThat( counter instanceof CompositeProxy, is( true ) );
+
+        assertThat( counter.increment( 2 ), equalTo( 4 ) );
+        assertThat( counter.total(), equalTo( 4L ) );
+        assertThat( counter.describe( "count" ), equalTo( "count=4" ) );
+        assertThat( counter.isInvokedThroughComposite(), is( false ) );
+    }
+
+    @Test
+    public void givenDeclaredExceptionWhenInvokingExpectExceptionThrownAsIs()
+    {
+        for( Counter counter : new Counter[]{ transientBuilderFactory.newTransient( PlainCounter.class ),
+                                              transientBuilderFactory.newTransient( ConcernCounter.class ) } )
+        {
+            try
+            {
+                counter.describe( "" );
+                fail( "Expected IOException" );
+            }
+            catch( IOException e )
+            {
+                assertThat( e.getMessage(), equalTo( "No prefix" ) );
+            }
+        }
+    }
+
+    @Test
+    public void givenGeneratedProxyWhenUsingRuntimeFunctionsExpectItsCompositeInstance()
+    {
+        PlainCounter counter = transientBuilderFactory.newTransient( PlainCounter.class );
+        assertThat( api.isComposite( counter ), is( true ) );
+        assertThat( PolygeneAPI.FUNCTION_DESCRIPTOR_FOR.apply( counter ).primaryType().equals( PlainCounter.class ),
+                    is( true ) );
+        assertThat( counter.equals( counter ), is( true ) );
+        assertThat( counter.toString().isEmpty(), is( false ) );
+        counter.hashCode();
+    }
+
+    @Test
+    public void givenDifferentlyCasedModeWhenParsingExpectMode()
+    {
+        assertThat( ProxyMode.parse( " Generated " ), equalTo( ProxyMode.generated ) );
+        assertThat( ProxyMode.parse( "REFLECT" ), equalTo( ProxyMode.reflect ) );
+    }
+
+    @Test
+    public void givenUnknownModeWhenParsingExpectErrorListingModes()
+    {
+        try
+        {
+            ProxyMode.parse( "bytecode" );
+            fail( "Expected IllegalArgumentException" );
+        }
+        catch( IllegalArgumentException e )
+        {
+            assertThat( e.getMessage(),
+                        equalTo( "Unknown composite proxy mode 'bytecode', expected one of [reflect, generated]" ) );
+        }
+    }
+
+    @Test
+    public void givenValuesWithSameStateExpectEqualValues()
+    {
+        Point first = newPoint( 1, 2 );
+        Point second = newPoint( 1, 2 );
+        assertThat( first instanceof CompositeProxy, is( true ) );
+        assertThat( first, equalTo( second ) );
+        assertThat( first.hashCode(), equalTo( second.hashCode() ) );
+        assertThat( first.equals( newPoint( 2, 1 ) ), is( false ) );
+        assertThat( first.x().get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void givenEntityWhenInvokingExpectStateLoaded()
+        throws Exception
+    {
+        Identity identity;
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            Account account = uow.newEntity( Account.class );
+            account.deposit( 10 );
+            identity = account.identity().get();
+            uow.complete();
+        }
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            Account account = uow.get( Account.class, identity );
+            assertThat( account instanceof CompositeProxy, is( true ) );
+            account.deposit( 5 );
+            assertThat( account.balance().get(), equalTo( 15 ) );
+            uow.complete();
+        }
+    }
+
+    private Point newPoint( int x, int y )
+    {
+        ValueBuilder<Point> builder = valueBuilderFactory.newValueBuilder( Point.class );
+        builder.prototype().x().set( x );
+        builder.prototype().y().set( y );
+        return builder.newInstance();
+    }
+
+    public interface Counter
+    {
+        int increment( int delta );
+
+        long total();
+
+        boolean isZero();
+
+        void reset();
+
+        String describe( String prefix )
+            throws IOException;
+
+        boolean isInvokedThroughComposite();
+    }
+
+    @Mixins( CounterMixin.class )
+    public interface PlainCounter
+        extends Counter, TransientComposite
+    {
+    }
+
+    @Mixins( CounterMixin.class )
+    @Concerns( DoubleIncrementConcern.class )
+    public interface ConcernCounter
+        extends Counter, TransientComposite
+    {
+    }
+
+    public static class CounterMixin
+        implements Counter
+    {
+        private int count;
+
+        @Override
+        public int increment( int delta )
+        {
+            count += delta;
+            return count;
+        }
+
+        @Override
+        public long total()
+        {
+            return count;
+        }
+
+        @Override
+        public boolean isZero()
+        {
+            return count == 0;
+        }
+
+        @Override
+        public void reset()
+        {
+            count = 0;
+        }
+
+        @Override
+        public String describe( String prefix )
+            throws IOException
+        {
+            if( prefix.isEmpty() )
+            {
+                throw new IOException( "No prefix" );
+            }
+            return prefix + "=" + count;
+        }
+
+        @Override
+        public boolean isInvokedThroughComposite()
+        {
+            for( StackTraceElement element : new Throwable().getStackTrace() )
+            {
+                if( element.getClassName().equals( CompositeMethodModel.class.getName() ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static abstract class DoubleIncrementConcern
+        extends ConcernOf<Counter>
+        implements Counter
+    {
+        @Override
+        public int increment( int delta )
+        {
+            return next.increment( delta * 2 );
+        }
+    }
+
+    public interface Point
+        extends ValueComposite
+    {
+        Property<Integer> x();
+
+        Property<Integer> y();
+    }
+
+    @Mixins( Account.AccountMixin.class )
+    public interface Account
+        extends EntityComposite
+    {
+        @UseDefaults
+        Property<Integer> balance();
+
+        void deposit( int amount );
+
+        abstract class AccountMixin
+            implements Account
+        {
+            @Override
+            public void deposit( int amount )
+            {
+                balance().set( balance().get() + amount );
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.composite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.composite.TransientComposite;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.spi.module.ModuleSpi;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Method instances pooled per thread stripe, see {@link InstancePoolStrategy}.
+ */
+public class StripedInstancePoolTest
+    extends AbstractPolygeneTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        module.layer().application().setMetaInfo( InstancePoolStrategy.striped );
+        module.transients( Adder.class );
+    }
+
+    @Test
+    public void givenEmptyPoolWhenObtainingExpectNull()
+    {
+        assertThat( new StripedInstancePool().obtainInstance(), nullValue() );
+    }
+
+    @Test
+    public void givenReleasedInstanceWhenObtainingOnSameThreadExpectSameInstance()
+    {
+        StripedInstancePool pool = new StripedInstancePool();
+        CompositeMethodInstance instance = newInstance();
+
+        assertThat( pool.releaseInstance( instance ), is( true ) );
+        assertThat( pool.size(), equalTo( 1 ) );
+        assertThat( pool.obtainInstance(), sameInstance( instance ) );
+        assertThat( pool.obtainInstance(), nullValue() );
+    }
+
+    @Test
+    public void givenFullPoolWhenReleasingExpectInstanceDiscarded()
+    {
+        StripedInstancePool pool = new StripedInstancePool( 2 );
+
+        // One in the stripe of this thread, two in the shared list
+        assertThat( pool.releaseInstance( newInstance() ), is( true ) );
+        assertThat( pool.releaseInstance( newInstance() ), is( true ) );
+        assertThat( pool.releaseInstance( newInstance() ), is( true ) );
+        assertThat( pool.releaseInstance( newInstance() ), is( false ) );
+        assertThat( pool.size(), equalTo( 3 ) );
+
+        for( int i = 0; i < 3; i++ )
+        {
+            assertThat( pool.obtainInstance() == null, is( false ) );
+        }
+        assertThat( pool.obtainInstance(), nullValue() );
+    }
+
+    @Test
+    public void givenConcurrentThreadsExpectInstanceNeverObtainedTwice()
+        throws Exception
+    {
+        StripedInstancePool pool = new StripedInstancePool();
+        Set<CompositeMethodInstance> inUse = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for( int thread = 0; thread < 8; thread++ )
+            {
+                results.add( executor.submit( () ->
+                {
+                    for( int i = 0; i < 10000; i++ )
+                    {
+                        CompositeMethodInstance instance = pool.obtainInstance();
+                        if( instance == null )
+                        {
+                            instance = newInstance();
+                        }
+                        if( !inUse.add( instance ) )
+                        {
+                            return false;
+                        }
+                        inUse.remove( instance );
+                        pool.releaseInstance( instance );
+                    }
+                    return true;
+                } ) );
+            }
+            for( Future<Boolean> result : results )
+            {
+                assertThat( result.get( 30, TimeUnit.SECONDS ), is( true ) );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenStripedStrategyWhenInvokingExpectPoolSizeReported()
+    {
+        Adder adder = transientBuilderFactory.newTransient( Adder.class );
+        assertThat( adder.add( 1, 2 ), equalTo( 3 ) );
+        assertThat( adder.add( 3, 4 ), equalTo( 7 ) );
+
+        Map<String, Number> metrics = ( (ModuleSpi) module.instance() ).runtimeMetrics().snapshot();
+        assertThat( metric( metrics, "Composite.instancePool.size" ) > 0, is( true ) );
+        assertThat( metric( metrics, "Composite.instancePool.discards" ), equalTo( 0L ) );
+    }
+
+    private static long metric( Map<String, Number> metrics, String suffix )
+    {
+        return metrics.entrySet().stream()
+                      .filter( metric -> metric.getKey().endsWith( suffix ) )
+                      .mapToLong( metric -> metric.getValue().longValue() )
+                      .findFirst()
+                      .orElse( -1L );
+    }
+
+    private static CompositeMethodInstance newInstance()
+    {
+        return new CompositeMethodInstance( null, null, null, 0 );
+    }
+
+    @Mixins( Adder.Mixin.class )
+    public interface Adder
+        extends TransientComposite
+    {
+        int add( int a, int b );
+
+        abstract class Mixin
+            implements Adder
+        {
+            @Override
+            public int add( int a, int b )
+            {
+                return a + b;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.metrics;
+
+import java.util.Map;
+import org.apache.polygene.api.common.UseDefaults;
+import org.apache.polygene.api.entity.EntityComposite;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.ConcurrentEntityModificationException;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.spi.module.ModuleSpi;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Built-in runtime metrics recorded by the runtime and the entity store helpers.
+ */
+public class RuntimeMetricsTest
+    extends AbstractPolygeneTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        new EntityTestAssembler().assemble( module );
+        module.entities( Counter.class );
+    }
+
+    @Test
+    public void givenLoadedEntityExpectStoreLoadsAndCacheMissesCounted()
+        throws Exception
+    {
+        Identity identity = newCounter();
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            uow.get( Counter.class, identity );
+        }
+
+        Map<String, Number> metrics = metrics();
+        assertThat( metric( metrics, ".loads" ).longValue() > 0, is( true ) );
+        assertThat( metric( metrics, ".cache.misses" ).longValue() > 0, is( true ) );
+        assertThat( metric( metrics, ".reads.count" ).longValue() > 0, is( true ) );
+        assertThat( metric( metrics, ".migrations" ).longValue(), is( 0L ) );
+        assertThat( metric( metrics, "Composite.instancePool.misses" ).longValue() > 0, is( true ) );
+    }
+
+    @Test
+    public void givenConcurrentModificationExpectConflictCounted()
+        throws Exception
+    {
+        Identity identity = newCounter();
+        UnitOfWork first = unitOfWorkFactory.newUnitOfWork();
+        UnitOfWork second = unitOfWorkFactory.newUnitOfWork();
+        try
+        {
+            first.get( Counter.class, identity ).value().set( 1 );
+            second.get( Counter.class, identity ).value().set( 2 );
+            first.complete();
+            try
+            {
+                second.complete();
+                fail( "Expected a ConcurrentEntityModificationException" );
+            }
+            catch( ConcurrentEntityModificationException expected )
+            {
+                // Expected
+            }
+        }
+        finally
+        {
+            second.discard();
+        }
+
+        assertThat( metric( metrics(), "UnitOfWork.conflicts" ).longValue(), is( 1L ) );
+    }
+
+    private Identity newCounter()
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            Identity identity = uow.newEntity( Counter.class ).identity().get();
+            uow.complete();
+            return identity;
+        }
+    }
+
+    private Map<String, Number> metrics()
+    {
+        return ( (ModuleSpi) module.instance() ).runtimeMetrics().snapshot();
+    }
+
+    private static Number metric( Map<String, Number> metrics, String suffix )
+    {
+        for( Map.Entry<String, Number> metric : metrics.entrySet() )
+        {
+            if( metric.getKey().endsWith( suffix ) )
+            {
+                return metric.getValue();
+            }
+        }
+        assertTrue( "No metric ending with " + suffix + " in " + metrics.keySet(), false );
+        return null;
+    }
+
+    public interface Counter
+        extends EntityComposite
+    {
+        @UseDefaults
+        Property<Integer> value();
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.List;
 import org.apache.polygene.api.activation.ActivationException;
 import org.apache.polygene.api.identity.StringIdentity;
+import org.apache.polygene.api.query.IndexedIterable;
 import org.apache.polygene.api.query.Query;
 import org.apache.polygene.api.query.QueryBuilder;
 import org.apache.polygene.api.query.QueryBuilderFactory;
@@ -52,6 +53,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.apache.polygene.api.query.QueryExpressions.and;
 import static org.apache.polygene.api.query.QueryExpressions.eq;
 import static org.apache.polygene.api.query.QueryExpressions.ge;
 import static org.apache.polygene.api.query.QueryExpressions.gt;
@@ -64,6 +66,8 @@ import static org.apache.polygene.api.query.QueryExpressions.or;
 import static org.apache.polygene.api.query.QueryExpressions.orderBy;
 import static org.apache.polygene.api.query.QueryExpressions.property;
 import static org.apache.polygene.api.query.QueryExpressions.templateFor;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -521,4 +525,46 @@ public class IterableQuerySourceTest
             .newQuery( Network.pets() );
         verifyOrderedResults( query, "Rex" );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenFirstAndMaxResultsQueryWhenCountedThenReturnBoundedCount()
+    {
+        QueryBuilder<Nameable> qb = qbf.newQueryBuilder( Nameable.class );
+        Nameable nameable = templateFor( Nameable.class );
+        Query<Nameable> query = qb.newQuery( Network.nameables() );
+        query.orderBy( orderBy( nameable.name() ) );
+        query.firstResult( 8 );
+        query.maxResults( 5 );
+        assertThat( query.count(), equalTo( 2L ) );
+    }
+
+    @Test
+    public void givenOrderByQueryWhenFindThenReturnFirstInOrder()
+    {
+        QueryBuilder<Person> qb = qbf.newQueryBuilder( Person.class );
+        Person person = templateFor( Person.class );
+        Query<Person> query = qb.newQuery( Network.persons() );
+        query.orderBy( orderBy( person.yearOfBirth(), OrderBy.Order.DESCENDING ) );
+        assertThat( query.find().name().get(), equalTo( "Vivian Smith" ) );
+        query.firstResult( 1 );
+        assertThat( query.find().name().get(), equalTo( "Joe Doe" ) );
+    }
+
+    @Test
+    public void givenIndexedIterableWhenQueriedRepeatedlyThenReturnCorrect()
+    {
+        IndexedIterable<Person> persons = new IndexedIterable<>( Network.persons() );
+        QueryBuilder<Person> qb = qbf.newQueryBuilder( Person.class );
+        Person person = templateFor( Person.class );
+        for( int run = 0; run < 2; run++ )
+        {
+            verifyUnorderedResults( qb.where( eq( person.name(), "Joe Doe" ) ).newQuery( persons ),
+                                    "Joe Doe" );
+            verifyUnorderedResults( qb.where( gt( person.yearOfBirth(), 1973 ) ).newQuery( persons ),
+                                    "Ann Doe", "Joe Doe", "Vivian Smith" );
+            verifyUnorderedResults( qb.where( and( ge( person.yearOfBirth(), 1975 ),
+                                                   lt( person.yearOfBirth(), 1992 ) ) ).newQuery( persons ),
+                                    "Ann Doe", "Joe Doe" );
+        }
+    }
+}
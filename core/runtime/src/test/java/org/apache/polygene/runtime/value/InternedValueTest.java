@@ -0,0 +1,163 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.runtime.value;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.value.Interned;
+import org.apache.polygene.api.value.ValueBuilder;
+import org.apache.polygene.api.value.ValueComposite;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Cached hash codes and {@link Interned} values.
+ */
+public class InternedValueTest
+    extends AbstractPolygeneTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        module.values( Currency.class, Amount.class, Digest.class );
+    }
+
+    @Test
+    public void givenInternedValuesWithSameStateExpectSameInstance()
+    {
+        Currency first = currency( "EUR" );
+        Currency second = currency( "EUR" );
+
+        assertThat( second, sameInstance( first ) );
+        assertThat( currency( "USD" ), not( sameInstance( first ) ) );
+    }
+
+    @Test
+    public void givenPrototypeOfInternedValueWhenChangedExpectOtherInstance()
+    {
+        Currency euro = currency( "EUR" );
+        ValueBuilder<Currency> builder = valueBuilderFactory.newValueBuilderWithPrototype( euro );
+        builder.prototype().code().set( "CHF" );
+        Currency franc = builder.newInstance();
+
+        assertThat( franc, not( sameInstance( euro ) ) );
+        assertThat( euro.code().get(), equalTo( "EUR" ) );
+        assertThat( currency( "CHF" ), sameInstance( franc ) );
+    }
+
+    @Test
+    public void givenValuesWithSameStateExpectEqualButDistinctInstances()
+    {
+        Amount first = amount( 42 );
+        Amount second = amount( 42 );
+
+        assertThat( second, not( sameInstance( first ) ) );
+        assertThat( second, equalTo( first ) );
+        assertThat( second.hashCode(), equalTo( first.hashCode() ) );
+        assertThat( amount( 43 ), not( equalTo( first ) ) );
+    }
+
+    @Test
+    public void givenValuesAsSetElementsExpectLookupsByState()
+    {
+        Set<Amount> amounts = new HashSet<>();
+        amounts.add( amount( 1 ) );
+        amounts.add( amount( 2 ) );
+
+        assertThat( amounts.contains( amount( 1 ) ), is( true ) );
+        assertThat( amounts.contains( amount( 3 ) ), is( false ) );
+        assertThat( amounts.add( amount( 2 ) ), is( false ) );
+    }
+
+    @Test
+    public void givenBuiltValueWhenUsedAsPrototypeExpectHashCodeOfNewState()
+    {
+        Amount amount = amount( 1 );
+        int hashCode = amount.hashCode();
+
+        ValueBuilder<Amount> builder = valueBuilderFactory.newValueBuilderWithPrototype( amount );
+        builder.prototype().value().set( 2L );
+        Amount other = builder.newInstance();
+
+        assertThat( amount.hashCode(), equalTo( hashCode ) );
+        assertThat( other.hashCode(), equalTo( amount( 2 ).hashCode() ) );
+    }
+
+    @Test
+    public void givenValuesWithEqualArrayStateExpectEqualValuesAndHashCodes()
+    {
+        Digest first = digest( new byte[]{ 1, 2, 3 } );
+        Digest second = digest( new byte[]{ 1, 2, 3 } );
+
+        assertThat( second.hashCode(), equalTo( first.hashCode() ) );
+        assertThat( second, equalTo( first ) );
+        assertThat( digest( new byte[]{ 3, 2, 1 } ), not( equalTo( first ) ) );
+    }
+
+    private Currency currency( String code )
+    {
+        ValueBuilder<Currency> builder = valueBuilderFactory.newValueBuilder( Currency.class );
+        builder.prototype().code().set( code );
+        return builder.newInstance();
+    }
+
+    private Amount amount( long value )
+    {
+        ValueBuilder<Amount> builder = valueBuilderFactory.newValueBuilder( Amount.class );
+        builder.prototype().value().set( value );
+        return builder.newInstance();
+    }
+
+    private Digest digest( byte[] bytes )
+    {
+        ValueBuilder<Digest> builder = valueBuilderFactory.newValueBuilder( Digest.class );
+        builder.prototype().bytes().set( bytes );
+        return builder.newInstance();
+    }
+
+    @Interned
+    public interface Currency
+        extends ValueComposite
+    {
+        Property<String> code();
+    }
+
+    public interface Amount
+        extends ValueComposite
+    {
+        Property<Long> value();
+    }
+
+    public interface Digest
+        extends ValueComposite
+    {
+        Property<byte[]> bytes();
+    }
+}
@@ -27,6 +27,8 @@ import org.apache.polygene.spi.entitystore.BackupRestore;
 import org.apache.polygene.spi.entitystore.ConcurrentModificationCheckConcern;
 import org.apache.polygene.spi.entitystore.EntityStateVersions;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.OrderedEntityStates;
+import org.apache.polygene.spi.entitystore.StateChangeNotificationActivation;
 import org.apache.polygene.spi.entitystore.StateChangeNotificationConcern;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreActivation;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreMixin;
@@ -40,6 +42,7 @@ import org.apache.polygene.spi.entitystore.helpers.StateStore;
 @Concerns( { StateChangeNotificationConcern.class, ConcurrentModificationCheckConcern.class } )
 @Mixins( { JSONMapEntityStoreMixin.class, MemoryMapEntityStoreMixin.class } )
 public interface MemoryEntityStoreService
-    extends EntityStore, EntityStateVersions, BackupRestore, StateStore, ServiceComposite, JSONMapEntityStoreActivation
+    extends EntityStore, EntityStateVersions, OrderedEntityStates, BackupRestore, StateStore, ServiceComposite,
+            JSONMapEntityStoreActivation, StateChangeNotificationActivation
 {
 }
@@ -24,14 +24,19 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Stream;
+import javax.json.JsonReader;
 import org.apache.polygene.api.entity.EntityDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.serialization.javaxjson.JavaxJsonFactories;
 import org.apache.polygene.spi.entitystore.BackupRestore;
+import org.apache.polygene.spi.entitystore.ConcurrentEntityStateModificationException;
 import org.apache.polygene.spi.entitystore.EntityAlreadyExistsException;
 import org.apache.polygene.spi.entitystore.EntityNotFoundException;
 import org.apache.polygene.spi.entitystore.EntityStoreException;
@@ -41,18 +46,19 @@ import org.apache.polygene.spi.entitystore.helpers.MapEntityStoreActivation;
 
 /**
  * In-memory implementation of MapEntityStore.
+ * <p>Entities are streamed in the order of their identities.</p>
  */
 public class MemoryMapEntityStoreMixin
     implements MapEntityStore, BackupRestore, MapEntityStoreActivation
 {
-    private final Map<EntityReference, String> store;
+    private final ConcurrentNavigableMap<EntityReference, String> store;
 
     @Service
     private JavaxJsonFactories jsonFactories;
 
     public MemoryMapEntityStoreMixin()
     {
-        store = new HashMap<>();
+        store = new ConcurrentSkipListMap<>( Comparator.comparing( reference -> reference.identity().toString() ) );
     }
 
     @Override
@@ -78,7 +84,15 @@ public class MemoryMapEntityStoreMixin
     @Override
     public void applyChanges( MapEntityStore.MapChanges changes ) throws Exception
     {
-        changes.visitMap( new MemoryMapChanger() );
+        MemoryMapChanger changer = new MemoryMapChanger();
+        changes.visitMap( changer );
+        changer.apply();
+    }
+
+    @Override
+    public boolean checksPreviousVersion()
+    {
+        return true;
     }
 
     @Override
@@ -87,6 +101,14 @@ public class MemoryMapEntityStoreMixin
         return store.values().stream().map( StringReader::new );
     }
 
+    @Override
+    public Stream<Reader> entityStatesAfter( EntityReference after )
+    {
+        return after == null
+               ? entityStates()
+               : store.tailMap( after, false ).values().stream().map( StringReader::new );
+    }
+
     @Override
     public Stream<String> backup()
     {
@@ -96,19 +118,35 @@ public class MemoryMapEntityStoreMixin
     @Override
     public void restore( Stream<String> stream )
     {
-        store.clear();
-        stream.forEach(
-            item ->
-            {
-                String id = jsonFactories.readerFactory().createReader( new StringReader( item ) )
-                                         .readObject().getString( JSONKeys.IDENTITY );
-                store.put( EntityReference.parseEntityReference( id ), item );
-            } );
+        synchronized( store )
+        {
+            store.clear();
+            stream.forEach(
+                item ->
+                {
+                    String id = jsonFactories.readerFactory().createReader( new StringReader( item ) )
+                                             .readObject().getString( JSONKeys.IDENTITY );
+                    store.put( EntityReference.parseEntityReference( id ), item );
+                } );
+        }
     }
 
+    private String versionOf( String state )
+    {
+        try( JsonReader reader = jsonFactories.readerFactory().createReader( new StringReader( state ) ) )
+        {
+            return reader.readObject().getString( JSONKeys.VERSION );
+        }
+    }
+
+    /**
+     * Collects the changes, then checks and applies all of them at once, see {@link #apply()}.
+     */
     private class MemoryMapChanger
         implements MapChanger
     {
+        private final List<Change> changes = new ArrayList<>();
+
         @Override
         public Writer newEntity( EntityReference ref, EntityDescriptor descriptor )
         {
@@ -119,12 +157,7 @@ public class MemoryMapEntityStoreMixin
                     throws IOException
                 {
                     super.close();
-                    String old = store.put( ref, toString() );
-                    if( old != null )
-                    {
-                        store.put( ref, old );
-                        throw new EntityAlreadyExistsException( ref );
-                    }
+                    changes.add( new Change( ref, null, toString() ) );
                 }
             };
         }
@@ -140,13 +173,7 @@ public class MemoryMapEntityStoreMixin
                     throws IOException
                 {
                     super.close();
-                    EntityReference reference = mapChange.reference();
-                    String old = store.put( reference, toString() );
-                    if( old == null )
-                    {
-                        store.remove( reference );
-                        throw new EntityNotFoundException( reference );
-                    }
+                    changes.add( new Change( mapChange.reference(), mapChange.previousVersion(), toString() ) );
                 }
             };
         }
@@ -155,13 +182,78 @@ public class MemoryMapEntityStoreMixin
         public void removeEntity( EntityReference ref, EntityDescriptor descriptor )
             throws EntityNotFoundException
         {
-            String state = store.remove( ref );
             // Ignore if the entity didn't already exist, as that can happen if it is both created and removed
             // within the same UnitOfWork.
-//            if( state == null )
-//            {
-//                throw new EntityNotFoundException( ref );
-//            }
+            changes.add( new Change( ref, null, null ) );
+        }
+
+        /**
+         * Check every change, then apply them, so that a failing check leaves the store untouched.
+         * Writers serialize on the store, readers do not.
+         */
+        private void apply()
+        {
+            synchronized( store )
+            {
+                List<EntityReference> stale = new ArrayList<>();
+                for( Change change : changes )
+                {
+                    if( change.state == null )
+                    {
+                        continue;
+                    }
+                    String current = store.get( change.reference );
+                    if( change.previousVersion == null )
+                    {
+                        if( current != null )
+                        {
+                            throw new EntityAlreadyExistsException( change.reference );
+                        }
+                    }
+                    else if( current == null )
+                    {
+                        throw new EntityNotFoundException( change.reference );
+                    }
+                    else if( !change.previousVersion.equals( versionOf( current ) ) )
+                    {
+                        stale.add( change.reference );
+                    }
+                }
+                if( !stale.isEmpty() )
+                {
+                    throw new ConcurrentEntityStateModificationException( stale );
+                }
+                for( Change change : changes )
+                {
+                    if( change.state == null )
+                    {
+                        store.remove( change.reference );
+                    }
+                    else
+                    {
+                        store.put( change.reference, change.state );
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Change
+    {
+        private final EntityReference reference;
+        private final String previousVersion;
+        private final String state;
+
+        /**
+         * @param reference the changed entity
+         * @param previousVersion the expected stored version of an updated entity, null for new and removed ones
+         * @param state the new state, null for removed entities
+         */
+        private Change( EntityReference reference, String previousVersion, String state )
+        {
+            this.reference = reference;
+            this.previousVersion = previousVersion;
+            this.state = state;
         }
     }
 }
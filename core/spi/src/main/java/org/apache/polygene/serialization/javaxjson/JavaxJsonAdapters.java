@@ -17,9 +17,10 @@
  */
 package org.apache.polygene.serialization.javaxjson;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import javax.json.JsonNumber;
@@ -53,7 +54,8 @@ public interface JavaxJsonAdapters
     class Mixin implements JavaxJsonAdapters, Initializable
     {
         private final Map<ValueType, JavaxJsonAdapter<?>> adapters = new LinkedHashMap<>();
-        private final Map<ValueType, JavaxJsonAdapter<?>> resolvedAdaptersCache = new HashMap<>();
+        // Used concurrently, Optional as resolutions may be null
+        private final Map<ValueType, Optional<JavaxJsonAdapter<?>>> resolvedAdaptersCache = new ConcurrentHashMap<>();
 
         @Uses
         private ServiceDescriptor descriptor;
@@ -79,22 +81,21 @@ public interface JavaxJsonAdapters
         public void registerAdapter( ValueType valueType, JavaxJsonAdapter<?> adapter )
         {
             adapters.put( valueType, adapter );
-            resolvedAdaptersCache.put( valueType, adapter );
+            resolvedAdaptersCache.put( valueType, Optional.of( adapter ) );
         }
 
         @Override
         public <T> JavaxJsonAdapter<T> adapterFor( ValueType valueType )
         {
-            if( resolvedAdaptersCache.containsKey( valueType ) )
+            Optional<JavaxJsonAdapter<?>> adapter = resolvedAdaptersCache.get( valueType );
+            if( adapter == null )
             {
-                return castAdapter( resolvedAdaptersCache.get( valueType ) );
+                adapter = resolvedAdaptersCache.computeIfAbsent(
+                    valueType, type -> adapters.keySet().stream()
+                                               .collect( closestType( type ) )
+                                               .map( adapters::get ) );
             }
-            JavaxJsonAdapter<T> adapter = castAdapter( adapters.keySet().stream()
-                                                               .collect( closestType( valueType ) )
-                                                               .map( adapters::get )
-                                                               .orElse( null ) );
-            resolvedAdaptersCache.put( valueType, adapter );
-            return adapter;
+            return castAdapter( adapter.orElse( null ) );
         }
 
         @SuppressWarnings( "unchecked" )
@@ -19,6 +19,7 @@ package org.apache.polygene.serialization.javaxjson;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.PushbackReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
@@ -63,6 +64,8 @@ import org.apache.polygene.api.type.ValueType;
 import org.apache.polygene.api.value.ValueBuilder;
 import org.apache.polygene.spi.serialization.AbstractTextDeserializer;
 import org.apache.polygene.spi.serialization.JsonDeserializer;
+import org.apache.polygene.spi.serialization.ValueCodec;
+import org.apache.polygene.spi.serialization.ValueCodecs;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.unmodifiableList;
@@ -93,17 +96,58 @@ public class JavaxJsonDeserializer extends AbstractTextDeserializer
 
     private JavaxJsonSettings settings;
     private JsonString emptyJsonString;
+    private ValueCodecs<JavaxJsonAdapter<?>> codecs;
 
     @Override
     public void initialize() throws Exception
     {
         settings = JavaxJsonSettings.orDefault( descriptor.metaInfo( JavaxJsonSettings.class ) );
+        codecs = new ValueCodecs<>( converters, adapters::adapterFor );
         emptyJsonString = jsonFactories.builderFactory().createObjectBuilder().add( "s", "" ).build()
                                        .getJsonString( "s" );
     }
 
     @Override
     public <T> T deserialize( ModuleDescriptor module, ValueType valueType, Reader state )
+    {
+        // JSON structures of structured types are parsed straight from the reader
+        // Other states, like plain strings that may look like JSON structures, are read into memory, see below
+        ValueCodec.Kind kind = codecs.deserializationCodecFor( valueType ).kind();
+        boolean structuredType = kind != ValueCodec.Kind.CONVERTED && kind != ValueCodec.Kind.ADAPTED;
+        try( PushbackReader reader = new PushbackReader( state ) )
+        {
+            StringBuilder leadingWhitespace = new StringBuilder();
+            int first = reader.read();
+            while( first != -1 && Character.isWhitespace( first ) )
+            {
+                leadingWhitespace.append( (char) first );
+                first = reader.read();
+            }
+            if( first != -1 )
+            {
+                reader.unread( first );
+            }
+            if( structuredType && ( first == '{' || first == '[' ) )
+            {
+                try( JsonReader jsonReader = jsonFactories.readerFactory().createReader( reader ) )
+                {
+                    return fromJson( module, valueType, jsonReader.read() );
+                }
+                catch( JsonParsingException ex )
+                {
+                    throw new SerializationException( "Unable to deserialize " + valueType, ex );
+                }
+            }
+            return deserializeInMemory( module, valueType, leadingWhitespace.toString(), reader );
+        }
+        catch( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    private <T> T deserializeInMemory( ModuleDescriptor module, ValueType valueType, String leadingWhitespace,
+                                       Reader state )
     {
         // JSR-353 Does not allow reading "out of structure" values
         // See https://www.jcp.org/en/jsr/detail?id=353
@@ -114,15 +158,7 @@ public class JavaxJsonDeserializer extends AbstractTextDeserializer
         // Fortunately, JsonParser has new methods allowing to read structures while parsing so it will be easy to do.
         // In the meantime, a poor man's implementation reading the json into memory will do.
         // TODO Revisit values out of structure JSON deserialization when JSR-374 is out
-        String stateString;
-        try( BufferedReader buffer = new BufferedReader( state ) )
-        {
-            stateString = buffer.lines().collect( joining( "\n" ) );
-        }
-        catch( IOException ex )
-        {
-            throw new UncheckedIOException( ex );
-        }
+        String stateString = leadingWhitespace + new BufferedReader( state ).lines().collect( joining( "\n" ) );
         // We want plain Strings, BigDecimals, BigIntegers to be deserialized even when unquoted
         Function<String, T> plainValueFunction = string ->
         {
@@ -189,35 +225,26 @@ public class JavaxJsonDeserializer extends AbstractTextDeserializer
         {
             return null;
         }
-        Converter<Object> converter = converters.converterFor( valueType );
-        if( converter != null )
-        {
-            return (T) converter.fromString( doDeserialize( module, ValueType.STRING, json ).toString() );
-        }
-        JavaxJsonAdapter<?> adapter = adapters.adapterFor( valueType );
-        if( adapter != null )
+        ValueCodec<JavaxJsonAdapter<?>> codec = codecs.deserializationCodecFor( valueType );
+        switch( codec.kind() )
         {
-            return (T) adapter.deserialize( json, ( jsonValue, type ) -> doDeserialize( module, type, jsonValue ) );
-        }
-        Class<? extends ValueType> valueTypeClass = valueType.getClass();
-        if( ArrayType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeArray( module, (ArrayType) valueType, json );
-        }
-        if( CollectionType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeCollection( module, (CollectionType) valueType, requireJsonArray( json ) );
-        }
-        if( MapType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeMap( module, (MapType) valueType, requireJsonStructure( json ) );
-        }
-        if( StatefulAssociationValueType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeStatefulAssociationValue( module, (StatefulAssociationValueType<?>) valueType,
-                                                            requireJsonObject( json ) );
+            case CONVERTED:
+                return (T) codec.converter().fromString( doDeserialize( module, ValueType.STRING, json ).toString() );
+            case ADAPTED:
+                return (T) codec.adapter().deserialize( json, ( jsonValue, type ) -> doDeserialize( module, type,
+                                                                                                    jsonValue ) );
+            case ARRAY:
+                return (T) deserializeArray( module, (ArrayType) valueType, json );
+            case COLLECTION:
+                return (T) deserializeCollection( module, (CollectionType) valueType, requireJsonArray( json ) );
+            case MAP:
+                return (T) deserializeMap( module, (MapType) valueType, requireJsonStructure( json ) );
+            case STATEFUL_ASSOCIATION_VALUE:
+                return (T) deserializeStatefulAssociationValue( module, (StatefulAssociationValueType<?>) valueType,
+                                                                requireJsonObject( json ) );
+            default:
+                return doGuessDeserialize( module, valueType, json );
         }
-        return doGuessDeserialize( module, valueType, json );
     }
 
     private Object deserializeArray( ModuleDescriptor module, ArrayType arrayType, JsonValue json )
@@ -32,7 +32,9 @@ import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonString;
 import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
 import org.apache.polygene.api.PolygeneAPI;
+import org.apache.polygene.api.association.AssociationDescriptor;
 import org.apache.polygene.api.association.AssociationStateHolder;
 import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.composite.Composite;
@@ -41,17 +43,19 @@ import org.apache.polygene.api.composite.StatefulAssociationCompositeDescriptor;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.injection.scope.Uses;
 import org.apache.polygene.api.mixin.Initializable;
-import org.apache.polygene.api.serialization.Converter;
+import org.apache.polygene.api.property.PropertyDescriptor;
 import org.apache.polygene.api.serialization.Converters;
 import org.apache.polygene.api.serialization.SerializationException;
 import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.api.type.ArrayType;
-import org.apache.polygene.api.type.MapType;
-import org.apache.polygene.api.type.StatefulAssociationValueType;
 import org.apache.polygene.api.type.ValueType;
 import org.apache.polygene.spi.serialization.AbstractTextSerializer;
 import org.apache.polygene.spi.serialization.JsonSerializer;
+import org.apache.polygene.spi.serialization.StateCodec;
+import org.apache.polygene.spi.serialization.ValueCodec;
+import org.apache.polygene.spi.serialization.ValueCodecs;
 import org.apache.polygene.spi.util.ArrayIterable;
+import org.apache.polygene.spi.util.NonClosingWriter;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
@@ -73,16 +77,26 @@ public class JavaxJsonSerializer extends AbstractTextSerializer
     private ServiceDescriptor descriptor;
 
     private JavaxJsonSettings settings;
+    private ValueCodecs<JavaxJsonAdapter<?>> codecs;
 
     @Override
     public void initialize() throws Exception
     {
         settings = JavaxJsonSettings.orDefault( descriptor.metaInfo( JavaxJsonSettings.class ) );
+        codecs = new ValueCodecs<>( converters, adapters::adapterFor );
     }
 
     @Override
     public void serialize( Options options, Writer writer, @Optional Object object )
     {
+        if( isStructure( object ) )
+        {
+            // Stream JSON structures to the writer, without building them in memory first
+            JsonGenerator generator = jsonFactories.generatorFactory().createGenerator( new NonClosingWriter( writer ) );
+            doWrite( generator, null, options, object, true );
+            generator.close();
+            return;
+        }
         JsonValue jsonValue = toJson( options, object );
         if( jsonValue == null )
         {
@@ -113,87 +127,93 @@ public class JavaxJsonSerializer extends AbstractTextSerializer
         return object -> doSerialize( options, object, true );
     }
 
-    @SuppressWarnings( "unchecked" )
-    private JsonValue doSerialize( Options options, Object object, boolean root )
+    private boolean isStructure( Object object )
     {
         if( object == null )
         {
-            return JsonValue.NULL;
-        }
-        Class<?> objectClass = object.getClass();
-        Converter<Object> converter = converters.converterFor( objectClass );
-        if( converter != null )
-        {
-            return doSerialize( options, converter.toString( object ), false );
+            return false;
         }
-        JavaxJsonAdapter<?> adapter = adapters.adapterFor( objectClass );
-        if( adapter != null )
+        switch( codecs.serializationCodecFor( object.getClass() ).kind() )
         {
-            return adapter.serialize( jsonFactories, object, obj -> doSerialize( options, obj, false ) );
+            case ARRAY:
+                return !ArrayType.of( object.getClass() ).isArrayOfPrimitiveBytes();
+            case STATEFUL_ASSOCIATION_VALUE:
+            case MAP:
+            case ITERABLE:
+            case STREAM:
+                return true;
+            default:
+                return false;
         }
-        if( StatefulAssociationValueType.isStatefulAssociationValue( objectClass ) )
-        {
-            return serializeStatefulAssociationValue( options, object, root );
-        }
-        if( MapType.isMap( objectClass ) )
-        {
-            return serializeMap( options, (Map<?, ?>) object );
-        }
-        if( ArrayType.isArray( objectClass ) )
-        {
-            return serializeArray( options, object );
-        }
-        if( Iterable.class.isAssignableFrom( objectClass ) )
+    }
+
+    private JsonValue doSerialize( Options options, Object object, boolean root )
+    {
+        if( object == null )
         {
-            return serializeIterable( options, (Iterable<?>) object );
+            return JsonValue.NULL;
         }
-        if( Stream.class.isAssignableFrom( objectClass ) )
+        ValueCodec<JavaxJsonAdapter<?>> codec = codecs.serializationCodecFor( object.getClass() );
+        switch( codec.kind() )
         {
-            return serializeStream( options, (Stream<?>) object );
+            case CONVERTED:
+                return doSerialize( options, codec.converter().toString( object ), false );
+            case ADAPTED:
+                return codec.adapter().serialize( jsonFactories, object, obj -> doSerialize( options, obj, false ) );
+            case STATEFUL_ASSOCIATION_VALUE:
+                return serializeStatefulAssociationValue( options, object, root );
+            case MAP:
+                return serializeMap( options, (Map<?, ?>) object );
+            case ARRAY:
+                return serializeArray( options, object );
+            case ITERABLE:
+                return serializeIterable( options, (Iterable<?>) object );
+            case STREAM:
+                return serializeStream( options, (Stream<?>) object );
+            default:
+                throw new SerializationException( "Don't know how to serialize " + object );
         }
-        throw new SerializationException( "Don't know how to serialize " + object );
     }
 
     private JsonObject serializeStatefulAssociationValue( Options options, Object composite, boolean root )
     {
         CompositeInstance instance = PolygeneAPI.FUNCTION_COMPOSITE_INSTANCE_OF.apply( (Composite) composite );
-        StatefulAssociationCompositeDescriptor descriptor =
-            (StatefulAssociationCompositeDescriptor) instance.descriptor();
+        StateCodec codec = codecs.stateCodecFor( (StatefulAssociationCompositeDescriptor) instance.descriptor() );
         AssociationStateHolder state = (AssociationStateHolder) instance.state();
-        StatefulAssociationValueType<?> valueType = descriptor.valueType();
 
         JsonObjectBuilder builder = jsonFactories.builderFactory().createObjectBuilder();
-        valueType.properties().forEach(
-            property ->
+        for( StateCodec.Member<PropertyDescriptor> property : codec.properties() )
+        {
+            Object value = state.propertyFor( property.descriptor().accessor() ).get();
+            if( property.converter() != null )
             {
-                Object value = state.propertyFor( property.accessor() ).get();
-                Converter converter = converters.converterFor( property );
-                if( converter != null )
-                {
-                    value = converter.toString( value );
-                }
-                builder.add( property.qualifiedName().name(), doSerialize( options, value, false ) );
-            } );
-        valueType.associations().forEach(
-            association -> builder.add(
-                association.qualifiedName().name(),
-                doSerialize( options, state.associationFor( association.accessor() ).reference(), false ) ) );
-        valueType.manyAssociations().forEach(
-            association -> builder.add(
-                association.qualifiedName().name(),
-                doSerialize( options, state.manyAssociationFor( association.accessor() ).references()
-                                           .collect( toList() ),
-                             false ) ) );
-        valueType.namedAssociations().forEach(
-            association -> builder.add(
-                association.qualifiedName().name(),
-                doSerialize( options,
-                             state.namedAssociationFor( association.accessor() ).references()
-                                  .collect( toMap() ),
-                             false ) ) );
+                value = property.converter().toString( value );
+            }
+            builder.add( property.name(), doSerialize( options, value, false ) );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.associations() )
+        {
+            builder.add( association.name(),
+                         doSerialize( options, state.associationFor( association.descriptor().accessor() ).reference(),
+                                      false ) );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.manyAssociations() )
+        {
+            builder.add( association.name(),
+                         doSerialize( options, state.manyAssociationFor( association.descriptor().accessor() )
+                                                    .references().collect( toList() ),
+                                      false ) );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.namedAssociations() )
+        {
+            builder.add( association.name(),
+                         doSerialize( options, state.namedAssociationFor( association.descriptor().accessor() )
+                                                    .references().collect( toMap() ),
+                                      false ) );
+        }
         if( ( root && options.rootTypeInfo() ) || ( !root && options.nestedTypeInfo() ) )
         {
-            withTypeInfo( builder, valueType );
+            withTypeInfo( builder, codec.valueType() );
         }
         return builder.build();
     }
@@ -264,4 +284,174 @@ public class JavaxJsonSerializer extends AbstractTextSerializer
         stream.forEach( element -> builder.add( doSerialize( options, element, false ) ) );
         return builder.build();
     }
+
+    /**
+     * Streaming serialization.
+     *
+     * Mirrors {@link #doSerialize(Options, Object, boolean)} but writes tokens to a {@link JsonGenerator} as it walks
+     * the object, producing the same JSON. Values produced by converters and adapters are written as is.
+     * A {@literal null} name writes values in an array or at the root, a name writes them as object members.
+     */
+    private void doWrite( JsonGenerator generator, String name, Options options, Object object, boolean root )
+    {
+        if( object == null )
+        {
+            writeValue( generator, name, JsonValue.NULL );
+            return;
+        }
+        ValueCodec<JavaxJsonAdapter<?>> codec = codecs.serializationCodecFor( object.getClass() );
+        switch( codec.kind() )
+        {
+            case CONVERTED:
+                doWrite( generator, name, options, codec.converter().toString( object ), false );
+                break;
+            case ADAPTED:
+                writeValue( generator, name, codec.adapter().serialize( jsonFactories, object,
+                                                                        obj -> doSerialize( options, obj, false ) ) );
+                break;
+            case STATEFUL_ASSOCIATION_VALUE:
+                writeStatefulAssociationValue( generator, name, options, object, root );
+                break;
+            case MAP:
+                writeMap( generator, name, options, (Map<?, ?>) object );
+                break;
+            case ARRAY:
+                writeArray( generator, name, options, object );
+                break;
+            case ITERABLE:
+                writeStream( generator, name, options,
+                             StreamSupport.stream( ( (Iterable<?>) object ).spliterator(), false ) );
+                break;
+            case STREAM:
+                writeStream( generator, name, options, (Stream<?>) object );
+                break;
+            default:
+                throw new SerializationException( "Don't know how to serialize " + object );
+        }
+    }
+
+    private void writeStatefulAssociationValue( JsonGenerator generator, String name, Options options,
+                                                Object composite, boolean root )
+    {
+        CompositeInstance instance = PolygeneAPI.FUNCTION_COMPOSITE_INSTANCE_OF.apply( (Composite) composite );
+        StateCodec codec = codecs.stateCodecFor( (StatefulAssociationCompositeDescriptor) instance.descriptor() );
+        AssociationStateHolder state = (AssociationStateHolder) instance.state();
+
+        writeStartObject( generator, name );
+        for( StateCodec.Member<PropertyDescriptor> property : codec.properties() )
+        {
+            Object value = state.propertyFor( property.descriptor().accessor() ).get();
+            if( property.converter() != null )
+            {
+                value = property.converter().toString( value );
+            }
+            doWrite( generator, property.name(), options, value, false );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.associations() )
+        {
+            doWrite( generator, association.name(), options,
+                     state.associationFor( association.descriptor().accessor() ).reference(), false );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.manyAssociations() )
+        {
+            doWrite( generator, association.name(), options,
+                     state.manyAssociationFor( association.descriptor().accessor() ).references().collect( toList() ),
+                     false );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.namedAssociations() )
+        {
+            doWrite( generator, association.name(), options,
+                     state.namedAssociationFor( association.descriptor().accessor() ).references().collect( toMap() ),
+                     false );
+        }
+        if( ( root && options.rootTypeInfo() ) || ( !root && options.nestedTypeInfo() ) )
+        {
+            generator.write( settings.getTypeInfoPropertyName(), codec.valueType().primaryType().getName() );
+        }
+        generator.writeEnd();
+    }
+
+    private void writeMap( JsonGenerator generator, String name, Options options, Map<?, ?> map )
+    {
+        Predicate<Object> characterKeyPredicate = key ->
+            key != null && ( key instanceof CharSequence || key instanceof Character );
+        if( map.isEmpty() || map.keySet().stream().allMatch( characterKeyPredicate ) )
+        {
+            writeStartObject( generator, name );
+            map.forEach( ( key, value ) -> doWrite( generator, key.toString(), options, value, false ) );
+        }
+        else
+        {
+            writeStartArray( generator, name );
+            map.forEach( ( key, value ) ->
+                         {
+                             generator.writeStartObject();
+                             doWrite( generator, "key", options, key, false );
+                             doWrite( generator, "value", options, value, false );
+                             generator.writeEnd();
+                         } );
+        }
+        generator.writeEnd();
+    }
+
+    private void writeArray( JsonGenerator generator, String name, Options options, Object object )
+    {
+        ArrayType valueType = ArrayType.of( object.getClass() );
+        if( valueType.isArrayOfPrimitiveBytes() )
+        {
+            byte[] base64 = Base64.getEncoder().encode( (byte[]) object );
+            writeValue( generator, name, jsonFactories.toJsonString( new String( base64, UTF_8 ) ) );
+            return;
+        }
+        if( valueType.isArrayOfPrimitives() )
+        {
+            writeStream( generator, name, options,
+                         StreamSupport.stream( new ArrayIterable( object ).spliterator(), false ) );
+            return;
+        }
+        writeStream( generator, name, options, Stream.of( (Object[]) object ) );
+    }
+
+    private void writeStream( JsonGenerator generator, String name, Options options, Stream<?> stream )
+    {
+        writeStartArray( generator, name );
+        stream.forEach( element -> doWrite( generator, null, options, element, false ) );
+        generator.writeEnd();
+    }
+
+    private static void writeValue( JsonGenerator generator, String name, JsonValue value )
+    {
+        if( name == null )
+        {
+            generator.write( value );
+        }
+        else
+        {
+            generator.write( name, value );
+        }
+    }
+
+    private static void writeStartObject( JsonGenerator generator, String name )
+    {
+        if( name == null )
+        {
+            generator.writeStartObject();
+        }
+        else
+        {
+            generator.writeStartObject( name );
+        }
+    }
+
+    private static void writeStartArray( JsonGenerator generator, String name )
+    {
+        if( name == null )
+        {
+            generator.writeStartArray();
+        }
+        else
+        {
+            generator.writeStartArray( name );
+        }
+    }
 }
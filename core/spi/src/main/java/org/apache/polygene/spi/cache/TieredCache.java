@@ -0,0 +1,83 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.cache;
+
+/**
+ * Two level Cache.
+ * <p>
+ * Reads are served from the first level when possible, second level hits are promoted to the first level.
+ * Writes and removals go to both levels.
+ * </p>
+ *
+ * @param <T> The Value type to be stored in the cache.
+ */
+public final class TieredCache<T>
+    implements Cache<T>
+{
+    private final Cache<T> first;
+    private final Cache<T> second;
+
+    public TieredCache( Cache<T> first, Cache<T> second )
+    {
+        this.first = first;
+        this.second = second;
+    }
+
+    public Cache<T> second()
+    {
+        return second;
+    }
+
+    @Override
+    public T get( String key )
+    {
+        T value = first.get( key );
+        if( value == null )
+        {
+            value = second.get( key );
+            if( value != null )
+            {
+                first.put( key, value );
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public T remove( String key )
+    {
+        T value = first.remove( key );
+        T secondValue = second.remove( key );
+        return value == null ? secondValue : value;
+    }
+
+    @Override
+    public void put( String key, T value )
+    {
+        first.put( key, value );
+        second.put( key, value );
+    }
+
+    @Override
+    public boolean exists( String key )
+    {
+        return first.exists( key ) || second.exists( key );
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache keeping values by reference on the heap, bounded by the total weight of its values.
+ * <p>
+ * Values are never copied or serialized, so a hit returns the very instance that was put and costs no
+ * deserialization. Once the total weight exceeds the bound, the least recently used entries are evicted.
+ * </p>
+ * <p>
+ * The cache is split in independently locked segments so that concurrent access to different keys do not contend,
+ * each segment getting an equal share of the total weight.
+ * </p>
+ *
+ * @param <T> The Value type to be stored in the cache.
+ */
+public final class WeighedMemoryCache<T>
+    implements Cache<T>
+{
+    private static final int SEGMENTS = 16;
+
+    private final Segment<T>[] segments;
+    private final ToLongFunction<T> weigher;
+
+    /**
+     * @param maxWeight Maximum total weight of the cached values
+     * @param weigher   Function giving the weight of a value, typically its approximate size in bytes
+     */
+    @SuppressWarnings( "unchecked" )
+    public WeighedMemoryCache( long maxWeight, ToLongFunction<T> weigher )
+    {
+        if( maxWeight <= 0 )
+        {
+            throw new IllegalArgumentException( "maxWeight must be positive, was " + maxWeight );
+        }
+        this.weigher = weigher;
+        segments = new Segment[ SEGMENTS ];
+        for( int i = 0; i < SEGMENTS; i++ )
+        {
+            segments[ i ] = new Segment<>( Math.max( 1, maxWeight / SEGMENTS ) );
+        }
+    }
+
+    @Override
+    public T get( String key )
+    {
+        return segmentFor( key ).get( key );
+    }
+
+    @Override
+    public T remove( String key )
+    {
+        return segmentFor( key ).remove( key );
+    }
+
+    @Override
+    public void put( String key, T value )
+    {
+        segmentFor( key ).put( key, value, weigher.applyAsLong( value ) );
+    }
+
+    @Override
+    public boolean exists( String key )
+    {
+        return segmentFor( key ).exists( key );
+    }
+
+    /**
+     * @return Current total weight of the cached values
+     */
+    public long weight()
+    {
+        long weight = 0;
+        for( Segment<T> segment : segments )
+        {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    private Segment<T> segmentFor( String key )
+    {
+        int hash = key.hashCode();
+        return segments[ ( hash ^ ( hash >>> 16 ) ) & ( SEGMENTS - 1 ) ];
+    }
+
+    private static final class Segment<T>
+    {
+        private final LinkedHashMap<String, Weighed<T>> entries = new LinkedHashMap<>( 16, 0.75F, true );
+        private final long maxWeight;
+        private long weight;
+
+        private Segment( long maxWeight )
+        {
+            this.maxWeight = maxWeight;
+        }
+
+        private synchronized T get( String key )
+        {
+            Weighed<T> entry = entries.get( key );
+            return entry == null ? null : entry.value;
+        }
+
+        private synchronized T remove( String key )
+        {
+            Weighed<T> entry = entries.remove( key );
+            if( entry == null )
+            {
+                return null;
+            }
+            weight -= entry.weight;
+            return entry.value;
+        }
+
+        private synchronized void put( String key, T value, long valueWeight )
+        {
+            Weighed<T> previous = entries.remove( key );
+            if( previous != null )
+            {
+                weight -= previous.weight;
+            }
+            if( valueWeight > maxWeight )
+            {
+                // Would evict everything else and still not fit
+                return;
+            }
+            entries.put( key, new Weighed<>( value, valueWeight ) );
+            weight += valueWeight;
+            Iterator<Map.Entry<String, Weighed<T>>> eldest = entries.entrySet().iterator();
+            while( weight > maxWeight && eldest.hasNext() )
+            {
+                weight -= eldest.next().getValue().weight;
+                eldest.remove();
+            }
+        }
+
+        private synchronized boolean exists( String key )
+        {
+            return entries.containsKey( key );
+        }
+
+        private synchronized long weight()
+        {
+            return weight;
+        }
+    }
+
+    private static final class Weighed<T>
+    {
+        private final T value;
+        private final long weight;
+
+        private Weighed( T value, long weight )
+        {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+import java.time.Duration;
+import org.apache.polygene.api.service.ServiceReference;
+import org.apache.polygene.spi.metrics.LatencyHistogram;
+
+/**
+ * Set an instance of this as MetaInfo on a {@link StateChangeListener} service to have it notified asynchronously.
+ * <p>
+ * Changes are then queued once committed to the EntityStore, instead of being delivered before the commit, and
+ * UnitOfWork completion does not wait for the listener, e.g. an indexer.
+ * A background thread delivers them in batches of at most {@code batchSize} entities, waiting up to {@code linger}
+ * for a batch to fill up. Repeated changes to the same entity waiting in the queue are coalesced into the latest one.
+ * Once {@code queueCapacity} entities are waiting, committing threads block until the listener catches up.
+ * A failing delivery is retried with an increasing delay, one entity at a time, changes queued in the meantime being
+ * coalesced into it. Changes to an entity that failed to be delivered {@code maxAttempts} times are logged and dropped.
+ * Should the delivery thread itself fail, e.g. on an {@link Error}, committing to the EntityStore fails until it is
+ * activated again.
+ * </p>
+ * <p>
+ * Queued changes are lost if the JVM dies, unless a {@link StateChangeJournal} is given, in which case changes that
+ * were committed but not delivered are replayed when the EntityStore is activated, provided it extends
+ * {@link StateChangeNotificationActivation}. Existing entities are replayed from their current state, entities that no
+ * longer exist as removed.
+ * </p>
+ * <p>
+ * Tests can wait for the changes committed so far to be visible to the listener using {@link #awaitDelivery(Duration)}.
+ * </p>
+ * <pre><code>
+ * AsyncStateChangeOptions options = new AsyncStateChangeOptions( 10_000, 500, Duration.ofMillis( 50 ) );
+ * module.services( MyIndexerService.class ).setMetaInfo( options );
+ * </code></pre>
+ */
+public final class AsyncStateChangeOptions
+{
+    public static final int DEFAULT_MAX_ATTEMPTS = 10;
+
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration linger;
+    private final StateChangeJournal journal;
+    private final int maxAttempts;
+    private StateChangeDispatcher dispatcher;
+
+    public AsyncStateChangeOptions( int queueCapacity, int batchSize, Duration linger )
+    {
+        this( queueCapacity, batchSize, linger, null );
+    }
+
+    public AsyncStateChangeOptions( int queueCapacity, int batchSize, Duration linger, StateChangeJournal journal )
+    {
+        this( queueCapacity, batchSize, linger, journal, DEFAULT_MAX_ATTEMPTS );
+    }
+
+    public AsyncStateChangeOptions( int queueCapacity, int batchSize, Duration linger, StateChangeJournal journal,
+                                    int maxAttempts )
+    {
+        if( queueCapacity <= 0 || batchSize <= 0 || maxAttempts <= 0 )
+        {
+            throw new IllegalArgumentException( "queueCapacity, batchSize and maxAttempts must be positive" );
+        }
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.journal = journal;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int queueCapacity()
+    {
+        return queueCapacity;
+    }
+
+    public int batchSize()
+    {
+        return batchSize;
+    }
+
+    public Duration linger()
+    {
+        return linger;
+    }
+
+    public StateChangeJournal journal()
+    {
+        return journal;
+    }
+
+    public int maxAttempts()
+    {
+        return maxAttempts;
+    }
+
+    /**
+     * Wait until all the changes committed so far have been delivered.
+     *
+     * @param timeout Maximum time to wait
+     * @return true if everything was delivered, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     * @throws EntityStoreException if the delivery thread failed
+     */
+    public boolean awaitDelivery( Duration timeout )
+        throws InterruptedException
+    {
+        StateChangeDispatcher current;
+        synchronized( this )
+        {
+            current = dispatcher;
+        }
+        return current == null || current.awaitDelivery( timeout );
+    }
+
+    synchronized StateChangeDispatcher dispatcher( ServiceReference<StateChangeListener> listener,
+                                                   StateChangeDispatcher.Loader loader,
+                                                   LatencyHistogram latency )
+    {
+        // A failed dispatcher is kept so that committers fail fast, until the EntityStore is activated again
+        if( dispatcher == null || ( dispatcher.isStopped() && !dispatcher.isFailed() ) )
+        {
+            dispatcher = new StateChangeDispatcher( this, listener, loader, latency );
+        }
+        return dispatcher;
+    }
+
+    synchronized void activate( ServiceReference<StateChangeListener> listener,
+                                StateChangeDispatcher.Loader loader,
+                                LatencyHistogram latency )
+    {
+        // Replays the journal when started
+        if( journal != null && ( dispatcher == null || dispatcher.isStopped() ) )
+        {
+            dispatcher = new StateChangeDispatcher( this, listener, loader, latency );
+        }
+    }
+}
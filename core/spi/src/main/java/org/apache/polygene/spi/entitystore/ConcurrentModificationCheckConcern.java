@@ -22,7 +22,7 @@ package org.apache.polygene.spi.entitystore;
 
 import java.time.Instant;
 import java.util.HashSet;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Map;
 import org.apache.polygene.api.PolygeneAPI;
 import org.apache.polygene.api.concern.ConcernOf;
 import org.apache.polygene.api.entity.EntityDescriptor;
@@ -43,6 +43,11 @@ import org.apache.polygene.spi.entity.EntityState;
  * Whenever there is a concurrent modification the store will most likely
  * have to check with the underlying store what the current version is.
  * </p>
+ * <p>
+ * All loaded entities are checked before changes are applied, so that conflicts are detected before anything is
+ * written. Stores with {@link EntityStoreUnitOfWork#hasConditionalUpdates() conditional updates} check again while
+ * committing, which catches modifications made in between.
+ * </p>
  */
 public abstract class ConcurrentModificationCheckConcern
     extends ConcernOf<EntityStore>
@@ -68,9 +73,7 @@ public abstract class ConcurrentModificationCheckConcern
         private EntityStateVersions versions;
         private Instant currentTime;
 
-        private HashSet<EntityState> loaded = new HashSet<>();
-
-        private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final HashSet<EntityState> loaded = new HashSet<>();
 
         public ConcurrentCheckingEntityStoreUnitOfWork( EntityStoreUnitOfWork uow,
                                                         EntityStateVersions versions,
@@ -107,40 +110,38 @@ public abstract class ConcurrentModificationCheckConcern
         public StateCommitter applyChanges()
             throws EntityStoreException
         {
-            lock.writeLock().lock();
-
-            try
-            {
-                versions.checkForConcurrentModification( loaded, currentTime );
+            versions.checkForConcurrentModification( loaded, currentTime );
 
-                final StateCommitter committer = uow.applyChanges();
+            final StateCommitter committer = uow.applyChanges();
 
-                return new StateCommitter()
+            return new StateCommitter()
+            {
+                @Override
+                public void commit()
                 {
-                    @Override
-                    public void commit()
+                    try
                     {
                         committer.commit();
+                    }
+                    finally
+                    {
                         versions.forgetVersions( loaded );
-
-                        lock.writeLock().unlock();
                     }
+                }
 
-                    @Override
-                    public void cancel()
+                @Override
+                public void cancel()
+                {
+                    try
                     {
                         committer.cancel();
+                    }
+                    finally
+                    {
                         versions.forgetVersions( loaded );
-
-                        lock.writeLock().unlock();
                     }
-                };
-            }
-            catch( EntityStoreException e )
-            {
-                lock.writeLock().unlock();
-                throw e;
-            }
+                }
+            };
         }
 
         @Override
@@ -152,16 +153,7 @@ public abstract class ConcurrentModificationCheckConcern
             }
             finally
             {
-                lock.writeLock().lock();
-
-                try
-                {
-                    versions.forgetVersions( loaded );
-                }
-                finally
-                {
-                    lock.writeLock().unlock();
-                }
+                versions.forgetVersions( loaded );
             }
         }
 
@@ -182,27 +174,45 @@ public abstract class ConcurrentModificationCheckConcern
         public EntityState entityStateOf( ModuleDescriptor module, EntityReference anIdentity )
             throws EntityStoreException, EntityNotFoundException
         {
-            lock.readLock().lock();
+            EntityState entityState = uow.entityStateOf( module, anIdentity );
+            versions.rememberVersion( entityState.entityReference(), entityState.version() );
+            loaded.add( entityState );
+            return entityState;
+        }
 
-            try
+
+        @Override
+        public Map<EntityReference, EntityState> entityStatesOf( ModuleDescriptor module,
+                                                                 Iterable<EntityReference> references )
+            throws EntityStoreException
+        {
+            Map<EntityReference, EntityState> entityStates = uow.entityStatesOf( module, references );
+            for( EntityState entityState : entityStates.values() )
             {
-                EntityState entityState = uow.entityStateOf( module, anIdentity );
                 versions.rememberVersion( entityState.entityReference(), entityState.version() );
                 loaded.add( entityState );
-                return entityState;
-            }
-            finally
-            {
-                lock.readLock().unlock();
             }
+            return entityStates;
         }
 
-
         @Override
         public String versionOf( EntityReference anIdentity )
             throws EntityStoreException
         {
             return uow.versionOf( anIdentity );
         }
+
+        @Override
+        public Map<EntityReference, String> versionsOf( Iterable<EntityReference> references )
+            throws EntityStoreException
+        {
+            return uow.versionsOf( references );
+        }
+
+        @Override
+        public boolean hasConditionalUpdates()
+        {
+            return uow.hasConditionalUpdates();
+        }
     }
 }
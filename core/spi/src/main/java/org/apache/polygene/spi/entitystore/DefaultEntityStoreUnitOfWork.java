@@ -21,7 +21,12 @@
 package org.apache.polygene.spi.entitystore;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.polygene.api.entity.EntityDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.identity.Identity;
@@ -108,6 +113,34 @@ public final class DefaultEntityStoreUnitOfWork
         return entityState;
     }
 
+    @Override
+    public Map<EntityReference, EntityState> entityStatesOf( ModuleDescriptor module,
+                                                             Iterable<EntityReference> references )
+    {
+        List<EntityReference> missing = new ArrayList<>();
+        for( EntityReference reference : references )
+        {
+            if( !states.containsKey( reference ) )
+            {
+                missing.add( reference );
+            }
+        }
+        if( !missing.isEmpty() )
+        {
+            states.putAll( entityStoreSPI.entityStatesOf( this, module, missing ) );
+        }
+        Map<EntityReference, EntityState> result = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            EntityState entityState = states.get( reference );
+            if( entityState != null )
+            {
+                result.put( reference, entityState );
+            }
+        }
+        return result;
+    }
+
     @Override
     public String versionOf( EntityReference anIdentity )
         throws EntityNotFoundException
@@ -120,6 +153,42 @@ public final class DefaultEntityStoreUnitOfWork
         return entityStoreSPI.versionOf( this, anIdentity );
     }
 
+    /**
+     * Versions of loaded entities are the ones they were loaded with, only the others are read from the store.
+     */
+    @Override
+    public Map<EntityReference, String> versionsOf( Iterable<EntityReference> references )
+    {
+        List<EntityReference> missing = new ArrayList<>();
+        for( EntityReference reference : references )
+        {
+            if( !states.containsKey( reference ) )
+            {
+                missing.add( reference );
+            }
+        }
+        Map<EntityReference, String> stored = missing.isEmpty()
+                                              ? Collections.emptyMap()
+                                              : entityStoreSPI.versionsOf( this, missing );
+        Map<EntityReference, String> result = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            EntityState entityState = states.get( reference );
+            String version = entityState != null ? entityState.version() : stored.get( reference );
+            if( version != null )
+            {
+                result.put( reference, version );
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean hasConditionalUpdates()
+    {
+        return entityStoreSPI.hasConditionalUpdates();
+    }
+
     @Override
     public StateCommitter applyChanges()
         throws EntityStoreException
@@ -22,12 +22,15 @@ package org.apache.polygene.spi.entitystore;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.api.structure.ModuleDescriptor;
 import org.apache.polygene.api.usecase.Usecase;
 import org.apache.polygene.spi.entity.EntityState;
 import org.apache.polygene.spi.entity.EntityStatus;
@@ -47,17 +50,24 @@ public interface EntityStateVersions
 
     /**
      * Entity versions state mixin.
+     * <p>
+     * Versions are kept in a concurrent map bounded to {@link #MAX_VERSIONS} entries. Forgetting a version is always
+     * safe, it only means that the next check of that entity will have to ask the store.
+     * Versions that must be asked to the store are fetched in bulk, once per module, per check.
+     * </p>
      */
     class EntityStateVersionsMixin
         implements EntityStateVersions
     {
+        static final int MAX_VERSIONS = 100_000;
+
         @This
         private EntityStore store;
 
-        private final Map<EntityReference, String> versions = new WeakHashMap<>();
+        private final Map<EntityReference, String> versions = new ConcurrentHashMap<>();
 
         @Override
-        public synchronized void forgetVersions( Iterable<EntityState> states )
+        public void forgetVersions( Iterable<EntityState> states )
         {
             for( EntityState state : states )
             {
@@ -66,18 +76,23 @@ public interface EntityStateVersions
         }
 
         @Override
-        public synchronized void rememberVersion( EntityReference reference, String version )
+        public void rememberVersion( EntityReference reference, String version )
         {
             versions.put( reference, version );
+            if( versions.size() > MAX_VERSIONS )
+            {
+                evict();
+            }
         }
 
         @Override
-        public synchronized void checkForConcurrentModification( Iterable<EntityState> loaded,
-                                                                 Instant currentTime
+        public void checkForConcurrentModification( Iterable<EntityState> loaded,
+                                                    Instant currentTime
         )
             throws ConcurrentEntityStateModificationException
         {
             List<EntityReference> changed = null;
+            Map<ModuleDescriptor, List<EntityState>> unknown = null;
             for( EntityState entityState : loaded )
             {
                 if( entityState.status().equals( EntityStatus.NEW ) )
@@ -88,12 +103,14 @@ public interface EntityStateVersions
                 String storeVersion = versions.get( entityState.entityReference() );
                 if( storeVersion == null )
                 {
-                    EntityStoreUnitOfWork unitOfWork = store.newUnitOfWork( entityState.entityDescriptor().module(), Usecase.DEFAULT, currentTime );
-                    storeVersion = unitOfWork.versionOf( entityState.entityReference() );
-                    unitOfWork.discard();
+                    if( unknown == null )
+                    {
+                        unknown = new LinkedHashMap<>();
+                    }
+                    unknown.computeIfAbsent( entityState.entityDescriptor().module(), module -> new ArrayList<>() )
+                           .add( entityState );
                 }
-
-                if( !entityState.version().equals( storeVersion ) )
+                else if( !entityState.version().equals( storeVersion ) )
                 {
                     if( changed == null )
                     {
@@ -103,10 +120,53 @@ public interface EntityStateVersions
                 }
             }
 
+            if( unknown != null )
+            {
+                for( Map.Entry<ModuleDescriptor, List<EntityState>> entry : unknown.entrySet() )
+                {
+                    List<EntityReference> references = new ArrayList<>( entry.getValue().size() );
+                    entry.getValue().forEach( state -> references.add( state.entityReference() ) );
+                    EntityStoreUnitOfWork unitOfWork = store.newUnitOfWork( entry.getKey(), Usecase.DEFAULT,
+                                                                            currentTime );
+                    Map<EntityReference, String> storeVersions;
+                    try
+                    {
+                        storeVersions = unitOfWork.versionsOf( references );
+                    }
+                    finally
+                    {
+                        unitOfWork.discard();
+                    }
+                    for( EntityState entityState : entry.getValue() )
+                    {
+                        // Absent means removed concurrently
+                        if( !entityState.version().equals( storeVersions.get( entityState.entityReference() ) ) )
+                        {
+                            if( changed == null )
+                            {
+                                changed = new ArrayList<>();
+                            }
+                            changed.add( entityState.entityReference() );
+                        }
+                    }
+                }
+            }
+
             if( changed != null )
             {
                 throw new ConcurrentEntityStateModificationException( changed );
             }
         }
+
+        private void evict()
+        {
+            Iterator<EntityReference> iterator = versions.keySet().iterator();
+            int excess = versions.size() - MAX_VERSIONS + MAX_VERSIONS / 10;
+            while( excess-- > 0 && iterator.hasNext() )
+            {
+                iterator.next();
+                iterator.remove();
+            }
+        }
     }
 }
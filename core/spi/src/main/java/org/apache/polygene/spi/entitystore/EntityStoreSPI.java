@@ -20,6 +20,8 @@
 
 package org.apache.polygene.spi.entitystore;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.apache.polygene.api.entity.EntityDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.structure.ModuleDescriptor;
@@ -36,7 +38,77 @@ public interface EntityStoreSPI
 
     EntityState entityStateOf( EntityStoreUnitOfWork unitOfWork, ModuleDescriptor module, EntityReference reference );
 
+    /**
+     * Get the EntityStates of several entities at once.
+     * <p>
+     * Entities that do not exist are absent from the returned Map.
+     * The default implementation does one {@link #entityStateOf(EntityStoreUnitOfWork, ModuleDescriptor,
+     * EntityReference)} per reference.
+     * </p>
+     *
+     * @param unitOfWork EntityStore UnitOfWork
+     * @param module     Module descriptor
+     * @param references Entity references
+     * @return EntityStates by reference, in iteration order of the given references
+     */
+    default Map<EntityReference, EntityState> entityStatesOf( EntityStoreUnitOfWork unitOfWork,
+                                                              ModuleDescriptor module,
+                                                              Iterable<EntityReference> references )
+    {
+        Map<EntityReference, EntityState> states = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            try
+            {
+                states.put( reference, entityStateOf( unitOfWork, module, reference ) );
+            }
+            catch( EntityNotFoundException notFound )
+            {
+                // Absent from the returned Map
+            }
+        }
+        return states;
+    }
+
     String versionOf( EntityStoreUnitOfWork unitOfWork, EntityReference reference );
 
+    /**
+     * Get the current stored versions of several entities at once.
+     * <p>
+     * Entities that do not exist are absent from the returned Map.
+     * The default implementation does one {@link #versionOf(EntityStoreUnitOfWork, EntityReference)} per reference.
+     * </p>
+     *
+     * @param unitOfWork EntityStore UnitOfWork
+     * @param references Entity references
+     * @return Versions by reference, in iteration order of the given references
+     */
+    default Map<EntityReference, String> versionsOf( EntityStoreUnitOfWork unitOfWork,
+                                                     Iterable<EntityReference> references )
+    {
+        Map<EntityReference, String> versions = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            try
+            {
+                versions.put( reference, versionOf( unitOfWork, reference ) );
+            }
+            catch( EntityNotFoundException notFound )
+            {
+                // Absent from the returned Map
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * @return true if this store only commits changes if the stored versions of all updated entities still are the
+     * versions they were loaded with, failing with {@link ConcurrentEntityStateModificationException} otherwise
+     */
+    default boolean hasConditionalUpdates()
+    {
+        return false;
+    }
+
     StateCommitter applyChanges( EntityStoreUnitOfWork unitOfWork, Iterable<EntityState> state );
 }
@@ -21,6 +21,8 @@
 package org.apache.polygene.spi.entitystore;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.apache.polygene.api.entity.EntityDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.identity.Identity;
@@ -69,8 +71,92 @@ public interface EntityStoreUnitOfWork
     EntityState entityStateOf( ModuleDescriptor module, EntityReference anIdentity )
         throws EntityStoreException, EntityNotFoundException;
 
+    /**
+     * Get the EntityStates for several references at once.
+     * <p>
+     * Entities that do not exist are absent from the returned Map, no {@link EntityNotFoundException} is thrown.
+     * The default implementation does one {@link #entityStateOf(ModuleDescriptor, EntityReference)} per reference.
+     * </p>
+     *
+     * @param module     Module descriptor
+     * @param references The entity references. This argument must not be {@code null}.
+     *
+     * @return Entity states by reference, in iteration order of the given references.
+     *
+     * @throws EntityStoreException thrown if retrieval failed.
+     */
+    default Map<EntityReference, EntityState> entityStatesOf( ModuleDescriptor module,
+                                                              Iterable<EntityReference> references )
+        throws EntityStoreException
+    {
+        Map<EntityReference, EntityState> states = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            try
+            {
+                states.put( reference, entityStateOf( module, reference ) );
+            }
+            catch( EntityNotFoundException notFound )
+            {
+                // Absent from the returned Map
+            }
+        }
+        return states;
+    }
+
     String versionOf( EntityReference anIdentity ) throws EntityStoreException;
 
+    /**
+     * Get the versions for several references at once.
+     * <p>
+     * Entities that do not exist are absent from the returned Map, no {@link EntityNotFoundException} is thrown.
+     * The default implementation does one {@link #versionOf(EntityReference)} per reference.
+     * </p>
+     * <p>
+     * As for {@link #versionOf(EntityReference)}, entities already loaded in this UnitOfWork have the version they
+     * were loaded with, not the one currently in the store, other entities are read from the store. Do not use it to
+     * detect concurrent modifications of loaded entities.
+     * </p>
+     *
+     * @param references The entity references. This argument must not be {@code null}.
+     *
+     * @return Versions by reference, in iteration order of the given references.
+     *
+     * @throws EntityStoreException thrown if retrieval failed.
+     */
+    default Map<EntityReference, String> versionsOf( Iterable<EntityReference> references )
+        throws EntityStoreException
+    {
+        Map<EntityReference, String> versions = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            try
+            {
+                versions.put( reference, versionOf( reference ) );
+            }
+            catch( EntityNotFoundException notFound )
+            {
+                // Absent from the returned Map
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Whether the underlying store checks versions itself when applying updates.
+     * <p>
+     * When true, committing the changes fails with {@link ConcurrentEntityStateModificationException}, without
+     * applying any of them, if the stored version of an updated entity changed since it was loaded. This catches
+     * modifications made after the versions were checked before applying changes.
+     * </p>
+     *
+     * @return true if updates are conditional on the version of the stored state
+     */
+    default boolean hasConditionalUpdates()
+    {
+        return false;
+    }
+
     StateCommitter applyChanges()
         throws EntityStoreException;
 
@@ -0,0 +1,227 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.apache.polygene.api.entity.EntityReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * StateChangeJournal appending to a local file.
+ * <p>
+ * Each appended entry is written on its own line, prefixed by its position and followed by the entity type, and
+ * acknowledgements are written as position only lines. The file is emptied whenever everything appended has been acknowledged.
+ * </p>
+ * <p>
+ * Records are flushed to the operating system, which is enough to survive a crash of the JVM. Set {@code sync} to
+ * also force them to the storage device, at the cost of one disk sync per committed UnitOfWork.
+ * </p>
+ */
+public class FileStateChangeJournal
+    implements StateChangeJournal
+{
+    private static final char APPEND = '+';
+    private static final char ACKNOWLEDGE = '=';
+
+    private final File file;
+    private final boolean sync;
+    private final NavigableMap<Long, List<Entry>> unacknowledged = new TreeMap<>();
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private long lastPosition;
+    private long acknowledgedPosition;
+
+    public FileStateChangeJournal( File file )
+    {
+        this( file, false );
+    }
+
+    public FileStateChangeJournal( File file, boolean sync )
+    {
+        this.file = file;
+        this.sync = sync;
+        load();
+    }
+
+    @Override
+    public synchronized long append( Collection<Entry> entries )
+    {
+        long position = ++lastPosition;
+        try
+        {
+            for( Entry entry : entries )
+            {
+                writer.write( APPEND + Long.toString( position ) + ' ' + entry.entityType() + ' '
+                              + entry.reference().identity().toString() );
+                writer.newLine();
+            }
+            flush();
+        }
+        catch( IOException ex )
+        {
+            throw new UncheckedIOException( "Unable to append to state change journal " + file, ex );
+        }
+        return position;
+    }
+
+    @Override
+    public synchronized void acknowledge( long position )
+    {
+        if( position <= acknowledgedPosition )
+        {
+            return;
+        }
+        acknowledgedPosition = position;
+        // Entries appended after that position are not delivered yet
+        unacknowledged.headMap( position, true ).clear();
+        try
+        {
+            if( acknowledgedPosition == lastPosition )
+            {
+                // Everything delivered, start over with an empty file
+                writer.close();
+                open( false );
+            }
+            else
+            {
+                writer.write( ACKNOWLEDGE + Long.toString( position ) );
+                writer.newLine();
+                flush();
+            }
+        }
+        catch( IOException ex )
+        {
+            throw new UncheckedIOException( "Unable to acknowledge state change journal " + file, ex );
+        }
+    }
+
+    @Override
+    public synchronized long lastPosition()
+    {
+        return lastPosition;
+    }
+
+    @Override
+    public synchronized Collection<Entry> unacknowledged()
+    {
+        // Latest entry of each entity, in journal order
+        Map<EntityReference, Entry> latest = new LinkedHashMap<>();
+        for( List<Entry> entries : unacknowledged.values() )
+        {
+            for( Entry entry : entries )
+            {
+                latest.remove( entry.reference() );
+                latest.put( entry.reference(), entry );
+            }
+        }
+        return new ArrayList<>( latest.values() );
+    }
+
+    private void load()
+    {
+        List<String[]> appended = new ArrayList<>();
+        if( file.exists() )
+        {
+            try( BufferedReader reader = new BufferedReader(
+                new InputStreamReader( new FileInputStream( file ), UTF_8 ) ) )
+            {
+                String line;
+                while( ( line = reader.readLine() ) != null )
+                {
+                    if( line.isEmpty() )
+                    {
+                        continue;
+                    }
+                    if( line.charAt( 0 ) == APPEND )
+                    {
+                        String[] record = line.substring( 1 ).split( " ", 3 );
+                        if( record.length == 3 )
+                        {
+                            appended.add( record );
+                        }
+                    }
+                    else if( line.charAt( 0 ) == ACKNOWLEDGE )
+                    {
+                        acknowledgedPosition = Math.max( acknowledgedPosition, Long.parseLong( line.substring( 1 ) ) );
+                    }
+                }
+            }
+            catch( IOException | NumberFormatException ex )
+            {
+                throw new IllegalStateException( "Unable to read state change journal " + file, ex );
+            }
+        }
+        for( String[] record : appended )
+        {
+            long position = Long.parseLong( record[ 0 ] );
+            lastPosition = Math.max( lastPosition, position );
+            if( position > acknowledgedPosition )
+            {
+                unacknowledged.computeIfAbsent( position, p -> new ArrayList<>() )
+                              .add( new Entry( EntityReference.parseEntityReference( record[ 2 ] ), record[ 1 ] ) );
+            }
+        }
+        lastPosition = Math.max( lastPosition, acknowledgedPosition );
+        try
+        {
+            open( true );
+        }
+        catch( IOException ex )
+        {
+            throw new UncheckedIOException( "Unable to open state change journal " + file, ex );
+        }
+    }
+
+    private void open( boolean append )
+        throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if( parent != null && !parent.exists() && !parent.mkdirs() )
+        {
+            throw new IOException( "Unable to create directory " + parent );
+        }
+        output = new FileOutputStream( file, append );
+        writer = new BufferedWriter( new OutputStreamWriter( output, UTF_8 ) );
+    }
+
+    private void flush()
+        throws IOException
+    {
+        writer.flush();
+        if( sync )
+        {
+            output.getFD().sync();
+        }
+    }
+}
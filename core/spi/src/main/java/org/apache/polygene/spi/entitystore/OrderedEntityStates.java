@@ -0,0 +1,44 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import java.util.stream.Stream;
+import org.apache.polygene.api.common.Optional;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.structure.ModuleDescriptor;
+import org.apache.polygene.spi.entity.EntityState;
+
+/**
+ * EntityStore streaming EntityStates in a stable order of their references, that can resume streaming after a given
+ * reference.
+ * <p>
+ * Long running scans, e.g. reindexing, can then checkpoint the reference of the last EntityState they processed and
+ * resume after it without reading the EntityStates before it. Entities added or removed between the two scans do
+ * not shift what is resumed.
+ * </p>
+ */
+public interface OrderedEntityStates
+{
+    /**
+     * @param module Module
+     * @param after  Reference to resume after, excluded, or null to stream all EntityStates
+     * @return EntityStates following the given reference, in the order of the EntityStore, must be closed
+     */
+    Stream<EntityState> entityStatesAfter( ModuleDescriptor module, @Optional EntityReference after );
+}
@@ -0,0 +1,766 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.polygene.api.common.QualifiedName;
+import org.apache.polygene.api.entity.EntityDescriptor;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.service.ServiceReference;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entity.EntityStatus;
+import org.apache.polygene.spi.entity.ManyAssociationState;
+import org.apache.polygene.spi.entity.NamedAssociationState;
+import org.apache.polygene.spi.metrics.LatencyHistogram;
+
+/**
+ * Delivers committed state changes to an asynchronous StateChangeListener.
+ * <p>
+ * Committing threads {@link #prepare(Collection) prepare} their changes before committing them to the store, then
+ * {@link #publish(long, Iterable) publish} or {@link #abort(long) abort} them. A background thread takes batches from
+ * the queue and delivers them. The journal position acknowledged after each delivery is the one just before the
+ * oldest change that is still prepared, queued or being delivered.
+ * </p>
+ * <p>
+ * Changes that failed to be delivered are retried one entity at a time, so that a single failing entity does not
+ * hold back the others, and dropped once they failed {@code maxAttempts} times. If anything else goes wrong the
+ * dispatcher fails: queued changes are discarded and preparing new changes throws, so that committers do not wait
+ * for deliveries that will never happen.
+ * </p>
+ *
+ * @see AsyncStateChangeOptions
+ */
+final class StateChangeDispatcher
+    implements Runnable
+{
+    private static final Logger LOGGER = Logger.getLogger( StateChangeDispatcher.class.getName() );
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos( 1 );
+    private static final long MIN_RETRY_MILLIS = 100;
+    private static final long MAX_RETRY_MILLIS = TimeUnit.SECONDS.toMillis( 10 );
+
+    private final ServiceReference<StateChangeListener> listener;
+    private final Loader loader;
+    private final StateChangeJournal journal;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long lingerNanos;
+    private final LatencyHistogram latency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<EntityReference, Queued> queue = new LinkedHashMap<>();
+    private final TreeSet<Long> prepared = new TreeSet<>();
+    private List<Queued> inFlight = new ArrayList<>();
+    private boolean replaying;
+    private long lastPosition;
+    private long acknowledged;
+    private boolean stopped;
+    private Throwable failure;
+
+    StateChangeDispatcher( AsyncStateChangeOptions options,
+                           ServiceReference<StateChangeListener> listener,
+                           Loader loader,
+                           LatencyHistogram latency )
+    {
+        this.listener = listener;
+        this.loader = loader;
+        this.latency = latency;
+        this.journal = options.journal();
+        this.queueCapacity = options.queueCapacity();
+        this.batchSize = options.batchSize();
+        this.maxAttempts = options.maxAttempts();
+        this.lingerNanos = options.linger() == null ? 0 : options.linger().toNanos();
+        this.replaying = journal != null;
+        this.lastPosition = journal == null ? 0 : journal.lastPosition();
+        Thread thread = new Thread( this, "polygene-state-changes-" + listener.identity() );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    /**
+     * @param entries Entities about to be committed
+     * @return the position to publish or abort, or -1 if this dispatcher has stopped and must not be used anymore
+     * @throws EntityStoreException if this dispatcher failed
+     */
+    long prepare( Collection<StateChangeJournal.Entry> entries )
+    {
+        lock.lock();
+        try
+        {
+            if( failure != null )
+            {
+                throw new EntityStoreException( "Asynchronous delivery of state changes to " + listener.identity()
+                                                + " failed, the EntityStore must be activated again", failure );
+            }
+            if( stopped )
+            {
+                return -1;
+            }
+            long position = journal == null ? lastPosition + 1 : journal.append( entries );
+            lastPosition = Math.max( lastPosition, position );
+            prepared.add( position );
+            return position;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    void publish( long position, Iterable<EntityState> states )
+    {
+        lock.lock();
+        try
+        {
+            if( !stopped )
+            {
+                for( EntityState state : states )
+                {
+                    enqueue( new Queued( state, position ), position != 0 );
+                }
+            }
+            // Only once queued, not to be acknowledged while waiting for capacity
+            prepared.remove( position );
+            changed.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    void abort( long position )
+    {
+        lock.lock();
+        try
+        {
+            prepared.remove( position );
+            changed.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    boolean isStopped()
+    {
+        lock.lock();
+        try
+        {
+            return stopped;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    boolean isFailed()
+    {
+        lock.lock();
+        try
+        {
+            return failure != null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    boolean awaitDelivery( Duration timeout )
+        throws InterruptedException
+    {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try
+        {
+            while( failure == null
+                   && ( replaying || !queue.isEmpty() || !inFlight.isEmpty() || !prepared.isEmpty() ) )
+            {
+                if( remaining <= 0 )
+                {
+                    return false;
+                }
+                remaining = changed.awaitNanos( remaining );
+            }
+            if( failure != null )
+            {
+                throw new EntityStoreException( "Asynchronous delivery of state changes to " + listener.identity()
+                                                + " failed", failure );
+            }
+            return true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            replay();
+            int failures = 0;
+            List<Queued> batch;
+            while( ( batch = nextBatch() ) != null )
+            {
+                List<EntityState> states = new ArrayList<>( batch.size() );
+                batch.forEach( queued -> states.add( queued.state ) );
+                try
+                {
+                    listener.get().notifyChanges( states );
+                    long now = System.nanoTime();
+                    batch.forEach( queued -> latency.record( now - queued.queuedAt ) );
+                    delivered();
+                    failures = 0;
+                }
+                catch( RuntimeException e )
+                {
+                    if( !listener.isActive() )
+                    {
+                        // Listener passivated, what is left can only be replayed from the journal
+                        stop();
+                        return;
+                    }
+                    failed( batch, e );
+                    failures++;
+                    long retry = Math.max( MIN_RETRY_MILLIS, TimeUnit.NANOSECONDS.toMillis( lingerNanos ) );
+                    pause( Math.min( MAX_RETRY_MILLIS, retry << Math.min( failures - 1, 16 ) ) );
+                }
+            }
+        }
+        catch( Throwable e )
+        {
+            fail( e );
+        }
+    }
+
+    private void replay()
+    {
+        if( journal == null )
+        {
+            return;
+        }
+        try
+        {
+            Collection<StateChangeJournal.Entry> entries = journal.unacknowledged();
+            if( entries.isEmpty() )
+            {
+                return;
+            }
+            Map<EntityReference, EntityState> current = loader.load( entries );
+            List<EntityState> states = new ArrayList<>( entries.size() );
+            for( StateChangeJournal.Entry entry : entries )
+            {
+                EntityState state = current.get( entry.reference() );
+                if( state != null )
+                {
+                    states.add( new ReplayedEntityState( state ) );
+                    continue;
+                }
+                // No longer in the store, removed or never committed
+                EntityDescriptor descriptor = loader.entityDescriptor( entry.entityType() );
+                if( descriptor != null )
+                {
+                    states.add( new RemovedEntityState( entry.reference(), descriptor ) );
+                }
+                else
+                {
+                    LOGGER.log( Level.WARNING, "Unable to replay removal of {0} to {1}, unknown entity type",
+                                new Object[]{ entry, listener.identity() } );
+                }
+            }
+            // Position 0 holds acknowledgement back until they are delivered, and is never blocked on capacity as this
+            // is the thread draining the queue
+            publish( 0, states );
+        }
+        catch( RuntimeException e )
+        {
+            // Left in the journal, replayed next time
+            LOGGER.log( Level.WARNING, "Unable to replay state changes to " + listener.identity(), e );
+        }
+        finally
+        {
+            lock.lock();
+            try
+            {
+                replaying = false;
+                changed.signalAll();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+    private List<Queued> nextBatch()
+    {
+        lock.lock();
+        try
+        {
+            long idle = IDLE_NANOS;
+            while( queue.isEmpty() )
+            {
+                if( idle <= 0 && prepared.isEmpty() )
+                {
+                    stopped = true;
+                    changed.signalAll();
+                    return null;
+                }
+                idle = changed.awaitNanos( idle );
+            }
+            long linger = lingerNanos;
+            while( queue.size() < batchSize && linger > 0 )
+            {
+                linger = changed.awaitNanos( linger );
+            }
+            List<Queued> batch = new ArrayList<>( Math.min( batchSize, queue.size() ) );
+            Iterator<Queued> iterator = queue.values().iterator();
+            while( batch.size() < batchSize && iterator.hasNext() )
+            {
+                Queued queued = iterator.next();
+                if( queued.attempts > 0 && !batch.isEmpty() )
+                {
+                    // Retried on its own
+                    continue;
+                }
+                batch.add( queued );
+                iterator.remove();
+                if( queued.attempts > 0 )
+                {
+                    break;
+                }
+            }
+            inFlight = batch;
+            changed.signalAll();
+            return batch;
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            stop();
+            return null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void delivered()
+    {
+        lock.lock();
+        try
+        {
+            inFlight = new ArrayList<>();
+            acknowledge();
+            changed.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void stop()
+    {
+        lock.lock();
+        try
+        {
+            stopped = true;
+            queue.clear();
+            inFlight = new ArrayList<>();
+            prepared.clear();
+            changed.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void fail( Throwable cause )
+    {
+        LOGGER.log( Level.SEVERE, "Asynchronous delivery of state changes to " + listener.identity() + " failed, "
+                                  + "changes not delivered are discarded", cause );
+        lock.lock();
+        try
+        {
+            failure = cause;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        // Releases committers waiting for capacity
+        stop();
+    }
+
+    private void failed( List<Queued> batch, RuntimeException cause )
+    {
+        List<EntityReference> dropped = new ArrayList<>();
+        lock.lock();
+        try
+        {
+            // Back in the queue, unless superseded by a newer change in the meantime or failed too many times
+            for( Queued queued : batch )
+            {
+                Queued newer = queue.get( queued.state.entityReference() );
+                if( newer != null )
+                {
+                    newer.position = Math.min( newer.position, queued.position );
+                }
+                else if( ++queued.attempts < maxAttempts )
+                {
+                    queue.put( queued.state.entityReference(), queued );
+                }
+                else
+                {
+                    dropped.add( queued.state.entityReference() );
+                }
+            }
+            inFlight = new ArrayList<>();
+            if( !dropped.isEmpty() )
+            {
+                acknowledge();
+            }
+            changed.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        if( !dropped.isEmpty() )
+        {
+            LOGGER.log( Level.WARNING, "Dropped state changes of " + dropped + " after " + maxAttempts
+                                       + " failed deliveries to " + listener.identity(), cause );
+        }
+    }
+
+    private void enqueue( Queued queued, boolean block )
+    {
+        EntityReference reference = queued.state.entityReference();
+        Queued existing = queue.get( reference );
+        if( existing != null )
+        {
+            // Coalesce, keeping the oldest position so that it is not acknowledged before delivery
+            existing.state = queued.state;
+            existing.position = Math.min( existing.position, queued.position );
+            existing.attempts = 0;
+            return;
+        }
+        boolean interrupted = false;
+        while( block && queue.size() >= queueCapacity && !stopped )
+        {
+            try
+            {
+                changed.await();
+            }
+            catch( InterruptedException e )
+            {
+                // Changes are committed already, queue them anyway
+                interrupted = true;
+                break;
+            }
+        }
+        if( !stopped )
+        {
+            queue.put( reference, queued );
+        }
+        if( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acknowledge()
+    {
+        if( journal == null )
+        {
+            return;
+        }
+        long oldest = prepared.isEmpty() ? Long.MAX_VALUE : prepared.first();
+        for( Queued queued : queue.values() )
+        {
+            oldest = Math.min( oldest, queued.position );
+        }
+        long position = oldest == Long.MAX_VALUE ? lastPosition : oldest - 1;
+        if( position > acknowledged )
+        {
+            try
+            {
+                journal.acknowledge( position );
+                acknowledged = position;
+            }
+            catch( RuntimeException e )
+            {
+                // Acknowledged on next delivery, replayed again at worst
+            }
+        }
+    }
+
+    private static void pause( long millis )
+    {
+        try
+        {
+            Thread.sleep( millis );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Access to the EntityStore for replays.
+     */
+    interface Loader
+    {
+        /**
+         * @param entries Journal entries
+         * @return Current state of the entities that exist
+         */
+        Map<EntityReference, EntityState> load( Collection<StateChangeJournal.Entry> entries );
+
+        /**
+         * @param entityType Entity type name
+         * @return Descriptor of the entity type, or null if unknown
+         */
+        EntityDescriptor entityDescriptor( String entityType );
+    }
+
+    private static final class Queued
+    {
+        private EntityState state;
+        private long position;
+        private int attempts;
+        // Coalesced changes keep the time their oldest change was queued
+        private final long queuedAt = System.nanoTime();
+
+        private Queued( EntityState state, long position )
+        {
+            this.state = state;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Current state of an entity whose changes are replayed, seen as updated by listeners.
+     */
+    private static final class ReplayedEntityState
+        implements EntityState
+    {
+        private final EntityState state;
+
+        private ReplayedEntityState( EntityState state )
+        {
+            this.state = state;
+        }
+
+        @Override
+        public EntityReference entityReference()
+        {
+            return state.entityReference();
+        }
+
+        @Override
+        public String version()
+        {
+            return state.version();
+        }
+
+        @Override
+        public Instant lastModified()
+        {
+            return state.lastModified();
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException( "Replayed state is read-only" );
+        }
+
+        @Override
+        public EntityStatus status()
+        {
+            return EntityStatus.UPDATED;
+        }
+
+        @Override
+        public boolean isAssignableTo( Class<?> type )
+        {
+            return state.isAssignableTo( type );
+        }
+
+        @Override
+        public EntityDescriptor entityDescriptor()
+        {
+            return state.entityDescriptor();
+        }
+
+        @Override
+        public Object propertyValueOf( QualifiedName stateName )
+        {
+            return state.propertyValueOf( stateName );
+        }
+
+        @Override
+        public void setPropertyValue( QualifiedName stateName, Object json )
+        {
+            throw new UnsupportedOperationException( "Replayed state is read-only" );
+        }
+
+        @Override
+        public EntityReference associationValueOf( QualifiedName stateName )
+        {
+            return state.associationValueOf( stateName );
+        }
+
+        @Override
+        public void setAssociationValue( QualifiedName stateName, EntityReference newEntity )
+        {
+            throw new UnsupportedOperationException( "Replayed state is read-only" );
+        }
+
+        @Override
+        public ManyAssociationState manyAssociationValueOf( QualifiedName stateName )
+        {
+            return state.manyAssociationValueOf( stateName );
+        }
+
+        @Override
+        public NamedAssociationState namedAssociationValueOf( QualifiedName stateName )
+        {
+            return state.namedAssociationValueOf( stateName );
+        }
+    }
+
+    /**
+     * Entity that no longer exists when its changes are replayed, seen as removed by listeners.
+     */
+    private static final class RemovedEntityState
+        implements EntityState
+    {
+        private final EntityReference reference;
+        private final EntityDescriptor descriptor;
+
+        private RemovedEntityState( EntityReference reference, EntityDescriptor descriptor )
+        {
+            this.reference = reference;
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public EntityReference entityReference()
+        {
+            return reference;
+        }
+
+        @Override
+        public String version()
+        {
+            return null;
+        }
+
+        @Override
+        public Instant lastModified()
+        {
+            return null;
+        }
+
+        @Override
+        public void remove()
+        {
+        }
+
+        @Override
+        public EntityStatus status()
+        {
+            return EntityStatus.REMOVED;
+        }
+
+        @Override
+        public boolean isAssignableTo( Class<?> type )
+        {
+            return descriptor.isAssignableTo( type );
+        }
+
+        @Override
+        public EntityDescriptor entityDescriptor()
+        {
+            return descriptor;
+        }
+
+        @Override
+        public Object propertyValueOf( QualifiedName stateName )
+        {
+            return null;
+        }
+
+        @Override
+        public void setPropertyValue( QualifiedName stateName, Object json )
+        {
+            throw new UnsupportedOperationException( "Replayed state is read-only" );
+        }
+
+        @Override
+        public EntityReference associationValueOf( QualifiedName stateName )
+        {
+            return null;
+        }
+
+        @Override
+        public void setAssociationValue( QualifiedName stateName, EntityReference newEntity )
+        {
+            throw new UnsupportedOperationException( "Replayed state is read-only" );
+        }
+
+        @Override
+        public ManyAssociationState manyAssociationValueOf( QualifiedName stateName )
+        {
+            return null;
+        }
+
+        @Override
+        public NamedAssociationState namedAssociationValueOf( QualifiedName stateName )
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import java.util.Collection;
+import java.util.Objects;
+import org.apache.polygene.api.entity.EntityReference;
+
+/**
+ * Journal of the state changes not yet delivered to an asynchronous StateChangeListener.
+ * <p>
+ * Changed entities are appended with their type before changes are committed to the store and acknowledged once
+ * delivered, so that after a crash the changes that were committed but never delivered can be replayed, including
+ * removals.
+ * </p>
+ *
+ * @see AsyncStateChangeOptions
+ */
+public interface StateChangeJournal
+{
+    /**
+     * Record that changes to the given entities are about to be committed.
+     *
+     * @param entries Changed entities
+     * @return the position of this record, strictly greater than all previously returned positions
+     */
+    long append( Collection<Entry> entries );
+
+    /**
+     * Acknowledge delivery of all records up to and including the given position.
+     *
+     * @param position Journal position
+     */
+    void acknowledge( long position );
+
+    /**
+     * @return the position of the last record appended or acknowledged, 0 if none
+     */
+    long lastPosition();
+
+    /**
+     * @return Entries of the records that were not acknowledged when this journal was opened and have not been
+     * acknowledged since, to be replayed, the latest entry of each entity only
+     */
+    Collection<Entry> unacknowledged();
+
+    /**
+     * A changed entity.
+     */
+    final class Entry
+    {
+        private final EntityReference reference;
+        private final String entityType;
+
+        /**
+         * @param reference  Changed entity reference
+         * @param entityType Name of the entity type, used to replay the removal of entities that no longer exist
+         */
+        public Entry( EntityReference reference, String entityType )
+        {
+            this.reference = Objects.requireNonNull( reference, "reference" );
+            this.entityType = Objects.requireNonNull( entityType, "entityType" );
+        }
+
+        public EntityReference reference()
+        {
+            return reference;
+        }
+
+        public String entityType()
+        {
+            return entityType;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if( this == o )
+            {
+                return true;
+            }
+            if( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+            Entry entry = (Entry) o;
+            return reference.equals( entry.reference ) && entityType.equals( entry.entityType );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash( reference, entityType );
+        }
+
+        @Override
+        public String toString()
+        {
+            return entityType + ' ' + reference;
+        }
+    }
+}
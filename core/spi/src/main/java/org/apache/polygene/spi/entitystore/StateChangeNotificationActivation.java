@@ -0,0 +1,73 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import org.apache.polygene.api.activation.ActivatorAdapter;
+import org.apache.polygene.api.activation.Activators;
+import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.service.ServiceReference;
+import org.apache.polygene.api.structure.Application;
+import org.apache.polygene.spi.module.ModuleSpi;
+
+/**
+ * Activation for StateChangeNotificationConcern.
+ * <p>
+ * Replays the journaled changes that were committed but not delivered to asynchronous StateChangeListeners, e.g.
+ * because of a crash, as soon as the EntityStore is activated.
+ * </p>
+ *
+ * @see AsyncStateChangeOptions
+ */
+@Activators( StateChangeNotificationActivation.Activator.class )
+public interface StateChangeNotificationActivation
+    extends EntityStore
+{
+    /**
+     * StateChangeNotificationConcern Activator.
+     */
+    class Activator
+        extends ActivatorAdapter<ServiceReference<StateChangeNotificationActivation>>
+    {
+        @Service
+        Iterable<ServiceReference<StateChangeListener>> listeners;
+
+        @Structure
+        ModuleSpi module;
+
+        @Structure
+        Application application;
+
+        @Override
+        public void afterActivation( ServiceReference<StateChangeNotificationActivation> activated )
+            throws Exception
+        {
+            StateChangeNotificationConcern.Loader loader
+                = new StateChangeNotificationConcern.Loader( activated.get(), application );
+            for( ServiceReference<StateChangeListener> listener : listeners )
+            {
+                AsyncStateChangeOptions options = listener.metaInfo( AsyncStateChangeOptions.class );
+                if( options != null )
+                {
+                    options.activate( listener, loader, StateChangeNotificationConcern.latencyOf( module, listener ) );
+                }
+            }
+        }
+    }
+}
@@ -20,19 +20,61 @@
 
 package org.apache.polygene.spi.entitystore;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.polygene.api.concern.ConcernOf;
+import org.apache.polygene.api.entity.EntityDescriptor;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.identity.Identity;
 import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.service.ServiceReference;
+import org.apache.polygene.api.structure.Application;
+import org.apache.polygene.api.structure.Layer;
+import org.apache.polygene.api.structure.ModuleDescriptor;
+import org.apache.polygene.api.usecase.Usecase;
 import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entity.EntityStatus;
+import org.apache.polygene.spi.metrics.LatencyHistogram;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
+import org.apache.polygene.spi.module.ModuleSpi;
 
 /**
  * State change notification Concern.
+ * <p>
+ * Listeners are notified before changes are committed, unless they have {@link AsyncStateChangeOptions} MetaInfo in
+ * which case changes are handed to them asynchronously once committed. EntityStores using this Concern should also
+ * extend {@link StateChangeNotificationActivation} so that journaled changes are replayed when they are activated.
+ * </p>
+ * <p>
+ * The notification latency of each listener is recorded in the {@link RuntimeMetrics} of the Module: the time taken
+ * by synchronous listeners, or the time from commit to delivery for asynchronous ones.
+ * </p>
  */
 public abstract class StateChangeNotificationConcern
     extends ConcernOf<EntityStoreSPI>
     implements EntityStoreSPI
 {
     @Service
-    Iterable<StateChangeListener> listeners;
+    Iterable<ServiceReference<StateChangeListener>> listeners;
+
+    @This
+    EntityStore store;
+
+    @Structure
+    ModuleSpi module;
+
+    @Structure
+    Application application;
+
+    private final Map<Identity, LatencyHistogram> latencies = new ConcurrentHashMap<>();
 
     @Override
     public StateCommitter applyChanges( final EntityStoreUnitOfWork unitofwork,
@@ -45,11 +87,48 @@ public abstract class StateChangeNotificationConcern
             @Override
             public void commit()
             {
-                for( StateChangeListener listener : listeners )
+                List<Prepared> async = new ArrayList<>();
+                List<EntityState> changed = null;
+                try
+                {
+                    for( ServiceReference<StateChangeListener> listener : listeners )
+                    {
+                        AsyncStateChangeOptions options = listener.metaInfo( AsyncStateChangeOptions.class );
+                        if( options == null )
+                        {
+                            long start = System.nanoTime();
+                            listener.get().notifyChanges( state );
+                            latencyOf( listener ).record( System.nanoTime() - start );
+                        }
+                        else
+                        {
+                            if( changed == null )
+                            {
+                                // Loaded but unchanged states must not supersede queued changes to the same entities
+                                changed = new ArrayList<>();
+                                for( EntityState entityState : state )
+                                {
+                                    if( entityState.status() != EntityStatus.LOADED )
+                                    {
+                                        changed.add( entityState );
+                                    }
+                                }
+                            }
+                            if( !changed.isEmpty() )
+                            {
+                                async.add( prepare( options, listener, changed ) );
+                            }
+                        }
+                    }
+                    committer.commit();
+                }
+                catch( RuntimeException e )
                 {
-                    listener.notifyChanges( state );
+                    async.forEach( prepared -> prepared.dispatcher.abort( prepared.position ) );
+                    throw e;
                 }
-                committer.commit();
+                List<EntityState> published = changed;
+                async.forEach( prepared -> prepared.dispatcher.publish( prepared.position, published ) );
             }
 
             @Override
@@ -59,4 +138,103 @@ public abstract class StateChangeNotificationConcern
             }
         };
     }
+
+    private Prepared prepare( AsyncStateChangeOptions options,
+                              ServiceReference<StateChangeListener> listener,
+                              Iterable<EntityState> states )
+    {
+        List<StateChangeJournal.Entry> entries = new ArrayList<>();
+        states.forEach( state -> entries.add( new StateChangeJournal.Entry(
+            state.entityReference(), state.entityDescriptor().types().findFirst().get().getName() ) ) );
+        while( true )
+        {
+            StateChangeDispatcher dispatcher = options.dispatcher( listener, new Loader( store, application ),
+                                                                   latencyOf( listener ) );
+            long position = dispatcher.prepare( entries );
+            if( position >= 0 )
+            {
+                return new Prepared( dispatcher, position );
+            }
+        }
+    }
+
+    private LatencyHistogram latencyOf( ServiceReference<StateChangeListener> listener )
+    {
+        return latencies.computeIfAbsent( listener.identity(), identity -> latencyOf( module, listener ) );
+    }
+
+    static LatencyHistogram latencyOf( ModuleSpi module, ServiceReference<StateChangeListener> listener )
+    {
+        RuntimeMetrics metrics = module.runtimeMetrics();
+        return metrics.histogram( metrics.nameFor( StateChangeListener.class, listener.identity().toString(),
+                                                   "latency" ) );
+    }
+
+    /**
+     * Loads journaled entities from the EntityStore, in the Module of their type.
+     */
+    static final class Loader
+        implements StateChangeDispatcher.Loader
+    {
+        private final EntityStore store;
+        private final Application application;
+
+        Loader( EntityStore store, Application application )
+        {
+            this.store = store;
+            this.application = application;
+        }
+
+        @Override
+        public Map<EntityReference, EntityState> load( Collection<StateChangeJournal.Entry> entries )
+        {
+            Map<ModuleDescriptor, List<EntityReference>> byModule = new LinkedHashMap<>();
+            for( StateChangeJournal.Entry entry : entries )
+            {
+                EntityDescriptor descriptor = entityDescriptor( entry.entityType() );
+                if( descriptor != null )
+                {
+                    byModule.computeIfAbsent( descriptor.module(), module -> new ArrayList<>() )
+                            .add( entry.reference() );
+                }
+            }
+            Map<EntityReference, EntityState> states = new LinkedHashMap<>();
+            byModule.forEach( ( module, references ) ->
+            {
+                EntityStoreUnitOfWork unitOfWork = store.newUnitOfWork( module, Usecase.DEFAULT, Instant.now() );
+                try
+                {
+                    states.putAll( unitOfWork.entityStatesOf( module, references ) );
+                }
+                finally
+                {
+                    unitOfWork.discard();
+                }
+            } );
+            return states;
+        }
+
+        @Override
+        public EntityDescriptor entityDescriptor( String entityType )
+        {
+            return application.layers()
+                              .flatMap( Layer::modules )
+                              .map( module -> module.descriptor().entityDescriptor( entityType ) )
+                              .filter( Objects::nonNull )
+                              .findFirst()
+                              .orElse( null );
+        }
+    }
+
+    private static final class Prepared
+    {
+        private final StateChangeDispatcher dispatcher;
+        private final long position;
+
+        private Prepared( StateChangeDispatcher dispatcher, long position )
+        {
+            this.dispatcher = dispatcher;
+            this.position = position;
+        }
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore.helpers;
+
+/**
+ * Service meta-info enabling the in-memory entity state cache of JSON Map based EntityStores.
+ * <p>
+ * When set on an EntityStore service, parsed entity states are kept on the heap, bounded by their approximate size in
+ * bytes, in front of the CachePool provided cache if any. Cache hits then cost neither a lookup in the underlying store
+ * nor parsing.
+ * </p>
+ * <pre><code>
+ * module.services( MyEntityStoreService.class ).setMetaInfo( new EntityStateCacheOptions( 64 * 1024 * 1024 ) );
+ * </code></pre>
+ */
+public final class EntityStateCacheOptions
+{
+    private final long maxBytes;
+
+    /**
+     * @param maxBytes Approximate maximum heap size used by cached entity states
+     */
+    public EntityStateCacheOptions( long maxBytes )
+    {
+        if( maxBytes <= 0 )
+        {
+            throw new IllegalArgumentException( "maxBytes must be positive, was " + maxBytes );
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public long maxBytes()
+    {
+        return maxBytes;
+    }
+}
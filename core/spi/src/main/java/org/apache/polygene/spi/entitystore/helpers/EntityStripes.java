@@ -0,0 +1,106 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore.helpers;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.polygene.api.entity.EntityReference;
+
+/**
+ * Striped write tracking for the Map based EntityStore mixins.
+ *
+ * <p>Loads never take a lock. Instead they capture a {@link #stamp(EntityReference) stamp} before reading from the
+ * underlying store, and anything they want to publish afterwards (cache population, migration write-back) is run
+ * through {@link #publishIfUnchanged(EntityReference, long, Runnable)}. The action is only run if no write to the
+ * same stripe was in progress or completed since the stamp was taken, which keeps stale state out of the cache and
+ * prevents a migrated entity from overwriting a concurrently committed newer version.</p>
+ *
+ * <p>Writers bracket their changes to the underlying store with {@link #beginWrite(EntityReference)} and
+ * {@link #endWrite(EntityReference)}.</p>
+ */
+final class EntityStripes
+{
+    private static final int DEFAULT_STRIPES = 256;
+
+    private final Object[] locks;
+    private final AtomicLongArray stamps;
+    private final AtomicIntegerArray writers;
+    private final int mask;
+
+    EntityStripes()
+    {
+        this( DEFAULT_STRIPES );
+    }
+
+    EntityStripes( int stripes )
+    {
+        int size = Integer.highestOneBit( Math.max( 1, stripes - 1 ) << 1 );
+        locks = new Object[ size ];
+        for( int i = 0; i < size; i++ )
+        {
+            locks[ i ] = new Object();
+        }
+        stamps = new AtomicLongArray( size );
+        writers = new AtomicIntegerArray( size );
+        mask = size - 1;
+    }
+
+    long stamp( EntityReference reference )
+    {
+        return stamps.get( stripe( reference ) );
+    }
+
+    void beginWrite( EntityReference reference )
+    {
+        int stripe = stripe( reference );
+        synchronized( locks[ stripe ] )
+        {
+            writers.incrementAndGet( stripe );
+        }
+    }
+
+    void endWrite( EntityReference reference )
+    {
+        int stripe = stripe( reference );
+        synchronized( locks[ stripe ] )
+        {
+            stamps.incrementAndGet( stripe );
+            writers.decrementAndGet( stripe );
+        }
+    }
+
+    boolean publishIfUnchanged( EntityReference reference, long stamp, Runnable action )
+    {
+        int stripe = stripe( reference );
+        synchronized( locks[ stripe ] )
+        {
+            if( writers.get( stripe ) != 0 || stamps.get( stripe ) != stamp )
+            {
+                return false;
+            }
+            action.run();
+            return true;
+        }
+    }
+
+    private int stripe( EntityReference reference )
+    {
+        int hash = reference.hashCode();
+        return ( hash ^ ( hash >>> 16 ) ) & mask;
+    }
+}
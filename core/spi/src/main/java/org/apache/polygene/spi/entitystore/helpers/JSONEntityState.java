@@ -18,7 +18,15 @@
 package org.apache.polygene.spi.entitystore.helpers;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
@@ -43,6 +51,12 @@ import static org.apache.polygene.api.serialization.Serializer.Options.ALL_TYPE_
 
 /**
  * Standard JSON implementation of EntityState.
+ * <p>
+ * The loaded JSON state is immutable and shared, with caches for example. Changes are recorded in dirty slots on top
+ * of it and only merged into a new JSON state once, when {@link #state()} is requested, typically on commit.
+ * Many and Named associations are copied into mutable collections on first change, ManyAssociations being indexed
+ * so that membership checks do not scan them.
+ * </p>
  */
 public final class JSONEntityState
     implements EntityState
@@ -58,6 +72,13 @@ public final class JSONEntityState
     private Instant lastModified;
     private JsonObject state;
 
+    // Property and Association values changed since state was last built
+    private final Map<String, JsonValue> dirtyValues = new LinkedHashMap<>();
+    // Many and Named associations changed since state was last built
+    private final Set<String> dirtyReferences = new LinkedHashSet<>();
+    private Map<String, ManyReferences> manyReferences;
+    private Map<String, Map<String, String>> namedReferences;
+
     /* package */ JSONEntityState( ModuleDescriptor module,
                                    JsonSerialization serialization,
                                    JavaxJsonFactories jsonFactories,
@@ -105,7 +126,7 @@ public final class JSONEntityState
         try
         {
             ValueType valueType = entityDescriptor.state().findPropertyModelByQualifiedName( stateName ).valueType();
-            JsonValue jsonValue = state.getJsonObject( JSONKeys.VALUE ).get( stateName.name() );
+            JsonValue jsonValue = valueOf( stateName.name() );
             return serialization.fromJson( module, valueType, jsonValue );
         }
         catch( SerializationException e )
@@ -120,7 +141,7 @@ public final class JSONEntityState
         try
         {
             JsonValue jsonValue = serialization.toJson( ALL_TYPE_INFO, newValue );
-            if( stateCloneWithProperty( stateName.name(), jsonValue ) )
+            if( setValue( stateName.name(), jsonValue == null ? JsonValue.NULL : jsonValue ) )
             {
                 markUpdated();
             }
@@ -134,7 +155,7 @@ public final class JSONEntityState
     @Override
     public EntityReference associationValueOf( QualifiedName stateName )
     {
-        JsonValue associationValue = state.getJsonObject( JSONKeys.VALUE ).get( stateName.name() );
+        JsonValue associationValue = valueOf( stateName.name() );
         if( associationValue == JsonValue.NULL )
         {
             return null;
@@ -145,7 +166,10 @@ public final class JSONEntityState
     @Override
     public void setAssociationValue( QualifiedName stateName, EntityReference entityReference )
     {
-        if( stateCloneWithAssociation( stateName.name(), entityReference ) )
+        JsonValue jsonRef = entityReference == null
+                            ? JsonValue.NULL
+                            : jsonFactories.toJsonString( entityReference.identity().toString() );
+        if( setValue( stateName.name(), jsonRef ) )
         {
             markUpdated();
         }
@@ -187,15 +211,47 @@ public final class JSONEntityState
         return entityDescriptor;
     }
 
+    /**
+     * @return the JSON state, including all changes made so far
+     */
     public JsonObject state()
     {
+        if( dirtyValues.isEmpty() && dirtyReferences.isEmpty() )
+        {
+            return state;
+        }
+        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
+        Set<String> dirtyNames = new HashSet<>( dirtyValues.keySet() );
+        dirtyNames.addAll( dirtyReferences );
+        JsonObjectBuilder valueBuilder = jsonFactories.cloneBuilderExclude( valueState,
+                                                                            dirtyNames.toArray( new String[ 0 ] ) );
+        dirtyValues.forEach( valueBuilder::add );
+        for( String stateName : dirtyReferences )
+        {
+            ManyReferences many = manyReferences == null ? null : manyReferences.get( stateName );
+            if( many != null )
+            {
+                valueBuilder.add( stateName, many.toJson( jsonFactories ) );
+            }
+            else
+            {
+                JsonObjectBuilder namedBuilder = jsonFactories.builderFactory().createObjectBuilder();
+                namedReferences.get( stateName ).forEach( namedBuilder::add );
+                valueBuilder.add( stateName, namedBuilder.build() );
+            }
+        }
+        state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
+                             .add( JSONKeys.VALUE, valueBuilder.build() )
+                             .build();
+        dirtyValues.clear();
+        dirtyReferences.clear();
         return state;
     }
 
     @Override
     public String toString()
     {
-        return state.toString();
+        return state().toString();
     }
 
     void markUpdated()
@@ -208,161 +264,278 @@ public final class JSONEntityState
 
     void stateCloneWithVersionAndModified( String version, Instant lastModified )
     {
-        state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VERSION, JSONKeys.MODIFIED )
+        state = jsonFactories.cloneBuilderExclude( state(), JSONKeys.VERSION, JSONKeys.MODIFIED )
                              .add( JSONKeys.VERSION, version )
                              .add( JSONKeys.MODIFIED, lastModified.toEpochMilli() )
                              .build();
     }
 
-    private boolean stateCloneWithProperty( String stateName, JsonValue value )
+    private JsonValue valueOf( String stateName )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        if( Objects.equals( valueState.get( stateName ), value ) )
+        JsonValue dirty = dirtyValues.get( stateName );
+        if( dirty != null )
+        {
+            return dirty;
+        }
+        return state.getJsonObject( JSONKeys.VALUE ).get( stateName );
+    }
+
+    private boolean setValue( String stateName, JsonValue value )
+    {
+        if( Objects.equals( valueOf( stateName ), value ) )
         {
             return false;
         }
-        JsonObjectBuilder valueBuilder = jsonFactories.cloneBuilderExclude( valueState, stateName );
-        if( value == null )
+        dirtyValues.put( stateName, value );
+        return true;
+    }
+
+    // ManyAssociations
+
+    int manyAssociationCount( String stateName )
+    {
+        ManyReferences many = manyReferences == null ? null : manyReferences.get( stateName );
+        if( many != null )
+        {
+            return many.identities.size();
+        }
+        JsonArray references = storedManyReferences( stateName );
+        return references == null ? 0 : references.size();
+    }
+
+    String manyAssociationGet( String stateName, int idx )
+    {
+        ManyReferences many = manyReferences == null ? null : manyReferences.get( stateName );
+        if( many != null )
+        {
+            return many.identities.get( idx );
+        }
+        JsonArray references = storedManyReferences( stateName );
+        if( references == null )
         {
-            valueBuilder.addNull( stateName );
+            throw new IndexOutOfBoundsException( "Index: " + idx + ", Size: 0" );
+        }
+        return references.getString( idx );
+    }
+
+    boolean manyAssociationContains( String stateName, String identity )
+    {
+        return mutableManyReferences( stateName ).index.contains( identity );
+    }
+
+    boolean manyAssociationAdd( String stateName, int idx, String identity )
+    {
+        ManyReferences many = mutableManyReferences( stateName );
+        if( !many.index.add( identity ) )
+        {
+            return false;
+        }
+        if( idx >= many.identities.size() )
+        {
+            many.identities.add( identity );
         }
         else
         {
-            valueBuilder.add( stateName, value );
+            many.identities.add( idx, identity );
         }
-        state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                             .add( JSONKeys.VALUE, valueBuilder.build() )
-                             .build();
+        dirtyReferences.add( stateName );
+        markUpdated();
         return true;
     }
 
-    private boolean stateCloneWithAssociation( String stateName, EntityReference ref )
+    boolean manyAssociationRemove( String stateName, String identity )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        JsonValue jsonRef = ref == null ? JsonValue.NULL : jsonFactories.toJsonString( ref.identity().toString() );
-        if( Objects.equals( valueState.get( stateName ), jsonRef ) )
+        ManyReferences many = mutableManyReferences( stateName );
+        if( !many.index.remove( identity ) )
         {
             return false;
         }
-        valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                  .add( stateName, jsonRef )
-                                  .build();
-        state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                             .add( JSONKeys.VALUE, valueState )
-                             .build();
+        many.identities.removeIf( identity::equals );
+        dirtyReferences.add( stateName );
+        markUpdated();
         return true;
     }
 
-    void stateCloneAddManyAssociation( int idx, String stateName, EntityReference ref )
+    void manyAssociationClear( String stateName )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        String identity = ref.identity().toString();
-        JsonArray manyAssoc;
-        if( valueState.containsKey( stateName ) )
-        {
-            JsonArrayBuilder manyAssocBuilder = jsonFactories.builderFactory().createArrayBuilder();
-            JsonArray previousManyAssoc = valueState.getJsonArray( stateName );
-            int currentIdx = 0;
-            for( JsonValue jsonRef : previousManyAssoc )
-            {
-                if( currentIdx == idx )
-                {
-                    manyAssocBuilder.add( identity );
-                }
-                manyAssocBuilder.add( jsonRef );
-                currentIdx++;
-            }
-            if( idx >= previousManyAssoc.size() )
-            {
-                manyAssocBuilder.add( identity );
-            }
-            manyAssoc = manyAssocBuilder.build();
+        ManyReferences many = mutableManyReferences( stateName );
+        if( !many.identities.isEmpty() )
+        {
+            many.identities.clear();
+            many.index.clear();
+            dirtyReferences.add( stateName );
+            markUpdated();
         }
-        else
+    }
+
+    JsonArray manyAssociationJson( String stateName )
+    {
+        ManyReferences many = manyReferences == null ? null : manyReferences.get( stateName );
+        if( many != null )
         {
-            manyAssoc = jsonFactories.builderFactory().createArrayBuilder().add( identity ).build();
+            return many.toJson( jsonFactories );
         }
-        valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                  .add( stateName, manyAssoc )
-                                  .build();
-        state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                             .add( JSONKeys.VALUE, valueState )
-                             .build();
+        JsonArray references = storedManyReferences( stateName );
+        return references == null ? jsonFactories.builderFactory().createArrayBuilder().build() : references;
     }
 
-    void stateCloneRemoveManyAssociation( String stateName, EntityReference ref )
+    private JsonArray storedManyReferences( String stateName )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        if( valueState.containsKey( stateName ) )
+        JsonValue references = state.getJsonObject( JSONKeys.VALUE ).get( stateName );
+        if( references != null && references.getValueType() == JsonValue.ValueType.ARRAY )
         {
-            String identity = ref.identity().toString();
-            JsonArray manyAssoc = jsonFactories.cloneBuilderExclude( valueState.getJsonArray( stateName ),
-                                                                     jsonFactories.toJsonString( identity ) )
-                                               .build();
-            valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                      .add( stateName, manyAssoc ).build();
-            state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                                 .add( JSONKeys.VALUE, valueState )
-                                 .build();
+            return (JsonArray) references;
         }
+        return null;
     }
 
-    void stateCloneClearManyAssociation( String stateName )
+    private ManyReferences mutableManyReferences( String stateName )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        if( valueState.containsKey( stateName ) )
+        if( manyReferences == null )
         {
-            valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                      .add( stateName, jsonFactories.builderFactory().createArrayBuilder().build() )
-                                      .build();
-            state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                                 .add( JSONKeys.VALUE, valueState )
-                                 .build();
+            manyReferences = new HashMap<>();
         }
+        return manyReferences.computeIfAbsent( stateName, name -> new ManyReferences( storedManyReferences( name ) ) );
     }
 
-    void stateCloneAddNamedAssociation( String stateName, String name, EntityReference ref )
+    // NamedAssociations
+
+    int namedAssociationCount( String stateName )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        JsonObjectBuilder namedAssoc = valueState.containsKey( stateName )
-                                       ? jsonFactories.cloneBuilder( valueState.getJsonObject( stateName ) )
-                                       : jsonFactories.builderFactory().createObjectBuilder();
-        namedAssoc.add( name, ref.identity().toString() );
-        valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                  .add( stateName, namedAssoc.build() )
-                                  .build();
-        state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                             .add( JSONKeys.VALUE, valueState )
-                             .build();
+        Map<String, String> named = namedReferences == null ? null : namedReferences.get( stateName );
+        if( named != null )
+        {
+            return named.size();
+        }
+        JsonObject references = storedNamedReferences( stateName );
+        return references == null ? 0 : references.size();
     }
 
-    void stateCloneRemoveNamedAssociation( String stateName, String name )
+    String namedAssociationGet( String stateName, String name )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        if( valueState.containsKey( stateName ) )
+        Map<String, String> named = namedReferences == null ? null : namedReferences.get( stateName );
+        if( named != null )
         {
-            JsonObject namedAssoc = jsonFactories.cloneBuilderExclude( valueState.getJsonObject( stateName ), name )
-                                                 .build();
-            valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                      .add( stateName, namedAssoc )
-                                      .build();
-            state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                                 .add( JSONKeys.VALUE, valueState )
-                                 .build();
+            return named.get( name );
         }
+        JsonObject references = storedNamedReferences( stateName );
+        return references == null ? null : references.getString( name, null );
     }
 
-    void stateCloneClearNamedAssociation( String stateName )
+    List<String> namedAssociationNames( String stateName )
     {
-        JsonObject valueState = state.getJsonObject( JSONKeys.VALUE );
-        if( valueState.containsKey( stateName ) )
-        {
-            valueState = jsonFactories.cloneBuilderExclude( valueState, stateName )
-                                      .add( stateName, jsonFactories.builderFactory().createObjectBuilder().build() )
-                                      .build();
-            state = jsonFactories.cloneBuilderExclude( state, JSONKeys.VALUE )
-                                 .add( JSONKeys.VALUE, valueState )
-                                 .build();
+        Map<String, String> named = namedReferences == null ? null : namedReferences.get( stateName );
+        if( named != null )
+        {
+            return new ArrayList<>( named.keySet() );
+        }
+        JsonObject references = storedNamedReferences( stateName );
+        return references == null ? new ArrayList<>() : new ArrayList<>( references.keySet() );
+    }
+
+    boolean namedAssociationPut( String stateName, String name, String identity )
+    {
+        Map<String, String> named = mutableNamedReferences( stateName );
+        if( identity.equals( named.put( name, identity ) ) )
+        {
+            return false;
+        }
+        dirtyReferences.add( stateName );
+        markUpdated();
+        return true;
+    }
+
+    boolean namedAssociationRemove( String stateName, String name )
+    {
+        Map<String, String> named = mutableNamedReferences( stateName );
+        if( !named.containsKey( name ) )
+        {
+            return false;
+        }
+        named.remove( name );
+        dirtyReferences.add( stateName );
+        markUpdated();
+        return true;
+    }
+
+    void namedAssociationClear( String stateName )
+    {
+        Map<String, String> named = mutableNamedReferences( stateName );
+        if( !named.isEmpty() )
+        {
+            named.clear();
+            dirtyReferences.add( stateName );
+            markUpdated();
+        }
+    }
+
+    JsonObject namedAssociationJson( String stateName )
+    {
+        Map<String, String> named = namedReferences == null ? null : namedReferences.get( stateName );
+        if( named != null )
+        {
+            JsonObjectBuilder builder = jsonFactories.builderFactory().createObjectBuilder();
+            named.forEach( builder::add );
+            return builder.build();
+        }
+        JsonObject references = storedNamedReferences( stateName );
+        return references == null ? jsonFactories.builderFactory().createObjectBuilder().build() : references;
+    }
+
+    private JsonObject storedNamedReferences( String stateName )
+    {
+        JsonValue references = state.getJsonObject( JSONKeys.VALUE ).get( stateName );
+        if( references != null && references.getValueType() == JsonValue.ValueType.OBJECT )
+        {
+            return (JsonObject) references;
+        }
+        return null;
+    }
+
+    private Map<String, String> mutableNamedReferences( String stateName )
+    {
+        if( namedReferences == null )
+        {
+            namedReferences = new HashMap<>();
+        }
+        return namedReferences.computeIfAbsent( stateName, name ->
+        {
+            Map<String, String> named = new LinkedHashMap<>();
+            JsonObject references = storedNamedReferences( name );
+            if( references != null )
+            {
+                references.keySet().forEach( key -> named.put( key, references.getString( key ) ) );
+            }
+            return named;
+        } );
+    }
+
+    /**
+     * Mutable ManyAssociation references, ordered and indexed.
+     */
+    private static final class ManyReferences
+    {
+        private final List<String> identities;
+        private final Set<String> index;
+
+        private ManyReferences( JsonArray references )
+        {
+            int size = references == null ? 0 : references.size();
+            identities = new ArrayList<>( size );
+            index = new HashSet<>();
+            for( int idx = 0; idx < size; idx++ )
+            {
+                String identity = references.getString( idx );
+                identities.add( identity );
+                index.add( identity );
+            }
+        }
+
+        private JsonArray toJson( JavaxJsonFactories jsonFactories )
+        {
+            JsonArrayBuilder builder = jsonFactories.builderFactory().createArrayBuilder();
+            identities.forEach( builder::add );
+            return builder.build();
         }
     }
 }
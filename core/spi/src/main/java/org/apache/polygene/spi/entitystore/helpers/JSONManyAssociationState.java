@@ -21,9 +21,7 @@ package org.apache.polygene.spi.entitystore.helpers;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import javax.json.JsonArray;
 import javax.json.JsonException;
-import javax.json.JsonValue;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.serialization.javaxjson.JavaxJsonFactories;
 import org.apache.polygene.spi.entity.ManyAssociationState;
@@ -31,7 +29,7 @@ import org.apache.polygene.spi.entitystore.EntityStoreException;
 
 /**
  * JSON implementation of ManyAssociationState.
- * <p>Backed by a JsonArray.</p>
+ * <p>Backed by a JsonArray of the owning JSONEntityState, indexed once changed.</p>
  */
 public final class JSONManyAssociationState
     implements ManyAssociationState
@@ -49,26 +47,16 @@ public final class JSONManyAssociationState
         this.stateName = stateName;
     }
 
-    private JsonArray getReferences()
-    {
-        JsonValue references = entityState.state().getJsonObject( JSONKeys.VALUE ).get( stateName );
-        if( references != null && references.getValueType() == JsonValue.ValueType.ARRAY )
-        {
-            return (JsonArray) references;
-        }
-        return jsonFactories.builderFactory().createArrayBuilder().build();
-    }
-
     @Override
     public int count()
     {
-        return getReferences().size();
+        return entityState.manyAssociationCount( stateName );
     }
 
     @Override
     public boolean contains( EntityReference entityReference )
     {
-        return indexOfReference( entityReference.identity().toString() ) != -1;
+        return entityState.manyAssociationContains( stateName, entityReference.identity().toString() );
     }
 
     @Override
@@ -76,13 +64,7 @@ public final class JSONManyAssociationState
     {
         try
         {
-            if( indexOfReference( entityReference.identity().toString() ) != -1 )
-            {
-                return false;
-            }
-            entityState.stateCloneAddManyAssociation( idx, stateName, entityReference );
-            entityState.markUpdated();
-            return true;
+            return entityState.manyAssociationAdd( stateName, idx, entityReference.identity().toString() );
         }
         catch( JsonException e )
         {
@@ -93,31 +75,20 @@ public final class JSONManyAssociationState
     @Override
     public boolean remove( EntityReference entityReference )
     {
-        int refIndex = indexOfReference( entityReference.identity().toString() );
-        if( refIndex != -1 )
-        {
-            entityState.stateCloneRemoveManyAssociation( stateName, entityReference );
-            entityState.markUpdated();
-            return true;
-        }
-        return false;
+        return entityState.manyAssociationRemove( stateName, entityReference.identity().toString() );
     }
 
     @Override
     public boolean clear()
     {
-        if( count() > 0 )
-        {
-            entityState.stateCloneClearManyAssociation( stateName );
-            entityState.markUpdated();
-        }
+        entityState.manyAssociationClear( stateName );
         return false;
     }
 
     @Override
     public EntityReference get( int i )
     {
-        return EntityReference.parseEntityReference( getReferences().getString( i ) );
+        return EntityReference.parseEntityReference( entityState.manyAssociationGet( stateName, i ) );
     }
 
     @Override
@@ -130,7 +101,7 @@ public final class JSONManyAssociationState
             @Override
             public boolean hasNext()
             {
-                return idx < getReferences().size();
+                return idx < count();
             }
 
             @Override
@@ -138,11 +109,11 @@ public final class JSONManyAssociationState
             {
                 try
                 {
-                    EntityReference ref = EntityReference.parseEntityReference( getReferences().getString( idx ) );
+                    EntityReference ref = get( idx );
                     idx++;
                     return ref;
                 }
-                catch( JsonException e )
+                catch( JsonException | IndexOutOfBoundsException e )
                 {
                     throw new NoSuchElementException();
                 }
@@ -159,19 +130,6 @@ public final class JSONManyAssociationState
     @Override
     public String toString()
     {
-        return getReferences().toString();
-    }
-
-    private int indexOfReference( String entityIdentityAsString )
-    {
-        JsonArray references = getReferences();
-        for( int idx = 0; idx < references.size(); idx++ )
-        {
-            if( entityIdentityAsString.equals( references.getString( idx, null ) ) )
-            {
-                return idx;
-            }
-        }
-        return -1;
+        return entityState.manyAssociationJson( stateName ).toString();
     }
 }
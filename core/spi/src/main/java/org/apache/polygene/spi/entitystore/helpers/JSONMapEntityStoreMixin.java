@@ -17,7 +17,6 @@
  */
 package org.apache.polygene.spi.entitystore.helpers;
 
-import java.io.BufferedReader;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -27,13 +26,23 @@ import java.io.StringReader;
 import java.io.Writer;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import javax.json.JsonArray;
+import javax.json.JsonException;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
 import org.apache.polygene.api.cache.CacheOptions;
 import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.entity.EntityDescriptor;
@@ -54,6 +63,8 @@ import org.apache.polygene.serialization.javaxjson.JavaxJsonFactories;
 import org.apache.polygene.spi.cache.Cache;
 import org.apache.polygene.spi.cache.CachePool;
 import org.apache.polygene.spi.cache.NullCache;
+import org.apache.polygene.spi.cache.TieredCache;
+import org.apache.polygene.spi.cache.WeighedMemoryCache;
 import org.apache.polygene.spi.entity.EntityState;
 import org.apache.polygene.spi.entity.EntityStatus;
 import org.apache.polygene.spi.entitystore.DefaultEntityStoreUnitOfWork;
@@ -61,10 +72,15 @@ import org.apache.polygene.spi.entitystore.EntityStore;
 import org.apache.polygene.spi.entitystore.EntityStoreException;
 import org.apache.polygene.spi.entitystore.EntityStoreSPI;
 import org.apache.polygene.spi.entitystore.EntityStoreUnitOfWork;
+import org.apache.polygene.spi.entitystore.OrderedEntityStates;
 import org.apache.polygene.spi.entitystore.StateCommitter;
+import org.apache.polygene.spi.metrics.LatencyHistogram;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
+import org.apache.polygene.spi.module.ModuleSpi;
 import org.apache.polygene.spi.serialization.JsonSerialization;
+import org.apache.polygene.spi.util.NonClosingWriter;
 
-import static java.util.stream.Collectors.joining;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Implementation of EntityStore that works with an implementation of MapEntityStore.
@@ -73,9 +89,11 @@ import static java.util.stream.Collectors.joining;
  * <p>See {@link org.apache.polygene.entitystore.memory.MemoryMapEntityStoreMixin} for reference.</p>
  * <p>EntityStores based on this mixin gets support for the <b>Migration</b> and <b>Cache</b> extensions.</p>
  * <p>MapEntityStore implementations will get their values as JSON.</p>
+ * <p>Services whose MapEntityStore supports {@link MapEntityStore#entityStatesAfter(EntityReference)} can also
+ * declare {@link OrderedEntityStates}.</p>
  */
 public class JSONMapEntityStoreMixin
-    implements EntityStore, EntityStoreSPI, StateStore, JSONMapEntityStoreActivation
+    implements EntityStore, EntityStoreSPI, StateStore, OrderedEntityStates, JSONMapEntityStoreActivation
 {
     @This
     private MapEntityStore mapEntityStore;
@@ -86,6 +104,9 @@ public class JSONMapEntityStoreMixin
     @Structure
     private Application application;
 
+    @Structure
+    private ModuleSpi storeModule;
+
     @Service
     private JsonSerialization serialization;
 
@@ -107,6 +128,14 @@ public class JSONMapEntityStoreMixin
     private CachePool caching;
     private Cache<CacheState> cache;
 
+    private LongAdder loads;
+    private LongAdder cacheHits;
+    private LongAdder cacheMisses;
+    private LongAdder migrations;
+    private LatencyHistogram reads;
+
+    private final EntityStripes stripes = new EntityStripes();
+
     protected String uuid;
 
     public JSONMapEntityStoreMixin()
@@ -126,6 +155,33 @@ public class JSONMapEntityStoreMixin
         {
             cache = new NullCache<>();
         }
+        EntityStateCacheOptions cacheOptions = descriptor.metaInfo( EntityStateCacheOptions.class );
+        if( cacheOptions != null )
+        {
+            // Parsed states on the heap in front of the pooled cache, if any
+            cache = new TieredCache<>( new WeighedMemoryCache<>( cacheOptions.maxBytes(), CacheState::weight ),
+                                       cache );
+        }
+        setUpMetrics();
+    }
+
+    private void setUpMetrics()
+    {
+        RuntimeMetrics metrics = storeModule.runtimeMetrics();
+        String store = descriptor.identity().toString();
+        loads = metrics.counter( metrics.nameFor( EntityStore.class, store, "loads" ) );
+        cacheHits = metrics.counter( metrics.nameFor( EntityStore.class, store, "cache", "hits" ) );
+        cacheMisses = metrics.counter( metrics.nameFor( EntityStore.class, store, "cache", "misses" ) );
+        migrations = metrics.counter( metrics.nameFor( EntityStore.class, store, "migrations" ) );
+        reads = metrics.histogram( metrics.nameFor( EntityStore.class, store, "reads" ) );
+        LongAdder hits = cacheHits;
+        LongAdder misses = cacheMisses;
+        metrics.gauge( metrics.nameFor( EntityStore.class, store, "cache", "hitRatio" ), () ->
+        {
+            long hit = hits.sum();
+            long total = hit + misses.sum();
+            return total == 0 ? 0D : (double) hit / total;
+        } );
     }
 
     @Override
@@ -134,9 +190,9 @@ public class JSONMapEntityStoreMixin
     {
         if( caching != null )
         {
-            caching.returnCache( cache );
-            cache = null;
+            caching.returnCache( cache instanceof TieredCache ? ( (TieredCache<CacheState>) cache ).second() : cache );
         }
+        cache = null;
     }
 
     // EntityStore
@@ -178,9 +234,9 @@ public class JSONMapEntityStoreMixin
     }
 
     @Override
-    public synchronized EntityState entityStateOf( EntityStoreUnitOfWork uow,
-                                                   ModuleDescriptor module,
-                                                   EntityReference reference )
+    public EntityState entityStateOf( EntityStoreUnitOfWork uow,
+                                      ModuleDescriptor module,
+                                      EntityReference reference )
     {
         try
         {
@@ -189,22 +245,79 @@ public class JSONMapEntityStoreMixin
             {
                 return state;
             }
-            // Get state
+            // Get state, without holding any lock while talking to the underlying store
+            long stamp = stripes.stamp( reference );
+            long start = System.nanoTime();
             try( Reader in = mapEntityStore.get( reference ) )
             {
                 JSONEntityState loadedState = readEntityState( module, in );
-                if( loadedState.status() == EntityStatus.UPDATED )
+                reads.record( System.nanoTime() - start );
+                loads.increment();
+                return publishLoadedState( uow, reference, stamp, loadedState );
+            }
+        }
+        catch( EntityStoreException ex )
+        {
+            throw ex;
+        }
+        catch( Exception ex )
+        {
+            throw new EntityStoreException( ex );
+        }
+    }
+
+    @Override
+    public Map<EntityReference, EntityState> entityStatesOf( EntityStoreUnitOfWork uow,
+                                                             ModuleDescriptor module,
+                                                             Iterable<EntityReference> references )
+    {
+        try
+        {
+            Map<EntityReference, EntityState> states = new LinkedHashMap<>();
+            Map<EntityReference, Long> stamps = new HashMap<>();
+            List<EntityReference> missing = new ArrayList<>();
+            for( EntityReference reference : references )
+            {
+                EntityState state = fetchCachedState( reference, module, uow.currentTime() );
+                if( state != null )
                 {
-                    List<JSONEntityState> migrated = new ArrayList<>( 1 );
-                    migrated.add( loadedState );
-                    synchMigratedEntities( migrated );
+                    states.put( reference, state );
                 }
-                if( doCacheOnRead( uow ) )
+                else
                 {
-                    cache.put( reference.identity().toString(), new CacheState( loadedState.state().toString() ) );
+                    stamps.put( reference, stripes.stamp( reference ) );
+                    missing.add( reference );
                 }
-                return loadedState;
             }
+            if( missing.isEmpty() )
+            {
+                return states;
+            }
+            long start = System.nanoTime();
+            Map<EntityReference, Reader> loaded = mapEntityStore.get( missing );
+            for( Map.Entry<EntityReference, Reader> entry : loaded.entrySet() )
+            {
+                EntityReference reference = entry.getKey();
+                try( Reader in = entry.getValue() )
+                {
+                    JSONEntityState loadedState = readEntityState( module, in );
+                    loads.increment();
+                    states.put( reference, publishLoadedState( uow, reference, stamps.get( reference ), loadedState ) );
+                }
+            }
+            // One round-trip to the underlying store
+            reads.record( System.nanoTime() - start );
+            // Keep the order of the given references
+            Map<EntityReference, EntityState> result = new LinkedHashMap<>();
+            for( EntityReference reference : references )
+            {
+                EntityState state = states.get( reference );
+                if( state != null )
+                {
+                    result.put( reference, state );
+                }
+            }
+            return result;
         }
         catch( EntityStoreException ex )
         {
@@ -216,14 +329,41 @@ public class JSONMapEntityStoreMixin
         }
     }
 
+    private JSONEntityState publishLoadedState( EntityStoreUnitOfWork uow, EntityReference reference, long stamp,
+                                                JSONEntityState loadedState )
+    {
+        boolean migrate = loadedState.status() == EntityStatus.UPDATED;
+        boolean cacheOnRead = doCacheOnRead( uow );
+        if( migrate || cacheOnRead )
+        {
+            // Only publish what was read if nobody wrote to this entity in the meantime
+            stripes.publishIfUnchanged(
+                reference, stamp,
+                () ->
+                {
+                    if( migrate )
+                    {
+                        List<JSONEntityState> migrated = new ArrayList<>( 1 );
+                        migrated.add( loadedState );
+                        synchMigratedEntities( migrated );
+                    }
+                    if( cacheOnRead )
+                    {
+                        cache.put( reference.identity().toString(),
+                                   new CacheState( loadedState.version(), loadedState.state() ) );
+                    }
+                } );
+        }
+        return loadedState;
+    }
+
     @Override
-    public synchronized String versionOf( EntityStoreUnitOfWork uow, EntityReference reference )
+    public String versionOf( EntityStoreUnitOfWork uow, EntityReference reference )
     {
         CacheState cacheState = cache.get( reference.identity().toString() );
         if( cacheState != null )
         {
-            return jsonFactories.readerFactory().createReader( new StringReader( cacheState.string ) ).readObject()
-                                .getString( JSONKeys.VERSION );
+            return cacheState.version();
         }
         // Get state
         try( JsonReader reader = jsonFactories.readerFactory().createReader( mapEntityStore.get( reference ) ) )
@@ -240,6 +380,51 @@ public class JSONMapEntityStoreMixin
         }
     }
 
+    @Override
+    public Map<EntityReference, String> versionsOf( EntityStoreUnitOfWork uow, Iterable<EntityReference> references )
+    {
+        Map<EntityReference, String> versions = new LinkedHashMap<>();
+        List<EntityReference> missing = new ArrayList<>();
+        for( EntityReference reference : references )
+        {
+            CacheState cacheState = cache.get( reference.identity().toString() );
+            versions.put( reference, cacheState == null ? null : cacheState.version() );
+            if( cacheState == null )
+            {
+                missing.add( reference );
+            }
+        }
+        if( !missing.isEmpty() )
+        {
+            try
+            {
+                for( Map.Entry<EntityReference, Reader> entry : mapEntityStore.get( missing ).entrySet() )
+                {
+                    try( JsonReader reader = jsonFactories.readerFactory().createReader( entry.getValue() ) )
+                    {
+                        versions.put( entry.getKey(), reader.readObject().getString( JSONKeys.VERSION ) );
+                    }
+                }
+            }
+            catch( EntityStoreException ex )
+            {
+                throw ex;
+            }
+            catch( Exception ex )
+            {
+                throw new EntityStoreException( ex );
+            }
+        }
+        versions.values().removeIf( Objects::isNull );
+        return versions;
+    }
+
+    @Override
+    public boolean hasConditionalUpdates()
+    {
+        return mapEntityStore.checksPreviousVersion();
+    }
+
     @Override
     public StateCommitter applyChanges( EntityStoreUnitOfWork uow, Iterable<EntityState> entityStates )
         throws EntityStoreException
@@ -249,20 +434,27 @@ public class JSONMapEntityStoreMixin
             @Override
             public void commit()
             {
+                CacheOptions options = uow.usecase().metaInfo( CacheOptions.class );
+                if( options == null )
+                {
+                    options = CacheOptions.ALWAYS;
+                }
+                List<JSONEntityState> changed = new ArrayList<>();
+                for( EntityState entityState : entityStates )
+                {
+                    if( entityState.status() != EntityStatus.LOADED )
+                    {
+                        changed.add( (JSONEntityState) entityState );
+                    }
+                }
+                changed.forEach( state -> stripes.beginWrite( state.entityReference() ) );
                 try
                 {
                     mapEntityStore.applyChanges(
                         changer ->
                         {
-                            CacheOptions options = uow.usecase().metaInfo( CacheOptions.class );
-                            if( options == null )
+                            for( JSONEntityState state : changed )
                             {
-                                options = CacheOptions.ALWAYS;
-                            }
-
-                            for( EntityState entityState : entityStates )
-                            {
-                                JSONEntityState state = (JSONEntityState) entityState;
                                 String newVersion = uow.identity().toString();
                                 Instant lastModified = uow.currentTime();
                                 if( state.status().equals( EntityStatus.NEW ) )
@@ -272,11 +464,6 @@ public class JSONMapEntityStoreMixin
                                     {
                                         writeEntityState( state, writer, newVersion, lastModified );
                                     }
-                                    if( options.cacheOnNew() )
-                                    {
-                                        cache.put( state.entityReference().identity().toString(),
-                                                   new CacheState( state.state().toString() ) );
-                                    }
                                 }
                                 else if( state.status().equals( EntityStatus.UPDATED ) )
                                 {
@@ -288,24 +475,43 @@ public class JSONMapEntityStoreMixin
                                     {
                                         writeEntityState( state, writer, newVersion, lastModified );
                                     }
-                                    if( options.cacheOnWrite() )
-                                    {
-                                        cache.put( state.entityReference().identity().toString(),
-                                                   new CacheState( state.state().toString() ) );
-                                    }
                                 }
                                 else if( state.status().equals( EntityStatus.REMOVED ) )
                                 {
                                     changer.removeEntity( state.entityReference(), state.entityDescriptor() );
-                                    cache.remove( state.entityReference().identity().toString() );
                                 }
                             }
                         } );
+                    // Cache only once the changes are in the store, concurrent loads will not populate the cache
+                    // for these entities until endWrite()
+                    for( JSONEntityState state : changed )
+                    {
+                        String key = state.entityReference().identity().toString();
+                        if( state.status().equals( EntityStatus.NEW ) && options.cacheOnNew()
+                            || state.status().equals( EntityStatus.UPDATED ) && options.cacheOnWrite() )
+                        {
+                            // The state holds the version just written, state.version() is the one it was loaded with
+                            cache.put( key, new CacheState( state.state().getString( JSONKeys.VERSION ),
+                                                            state.state() ) );
+                        }
+                        else
+                        {
+                            cache.remove( key );
+                        }
+                    }
+                }
+                catch( EntityStoreException ex )
+                {
+                    throw ex;
                 }
                 catch( Exception e )
                 {
                     throw new EntityStoreException( e );
                 }
+                finally
+                {
+                    changed.forEach( state -> stripes.endWrite( state.entityReference() ) );
+                }
             }
 
             @Override
@@ -320,31 +526,7 @@ public class JSONMapEntityStoreMixin
     {
         try
         {
-            Stream<Reader> stateStream = mapEntityStore.entityStates();
-            List<JSONEntityState> migrated = new ArrayList<>();
-            Function<Reader, EntityState> function = reader ->
-            {
-                JSONEntityState entity = readEntityState( module, reader );
-                if( entity.status() == EntityStatus.UPDATED )
-                {
-                    migrated.add( entity );
-                    // Synch back 100 at a time
-                    if( migrated.size() > 100 )
-                    {
-                        synchMigratedEntities( migrated );
-                    }
-                }
-                return entity;
-            };
-            Runnable closer = () ->
-            {
-                // Synch any remaining migrated entities
-                if( !migrated.isEmpty() )
-                {
-                    synchMigratedEntities( migrated );
-                }
-            };
-            return stateStream.map( function ).onClose( closer );
+            return entityStates( module, mapEntityStore.entityStates() );
         }
         catch( EntityStoreException ex )
         {
@@ -356,8 +538,56 @@ public class JSONMapEntityStoreMixin
         }
     }
 
+    @Override
+    public Stream<EntityState> entityStatesAfter( ModuleDescriptor module, EntityReference after )
+    {
+        try
+        {
+            return entityStates( module, mapEntityStore.entityStatesAfter( after ) );
+        }
+        catch( EntityStoreException | UnsupportedOperationException ex )
+        {
+            throw ex;
+        }
+        catch( Exception ex )
+        {
+            throw new EntityStoreException( ex );
+        }
+    }
+
+    private Stream<EntityState> entityStates( ModuleDescriptor module, Stream<Reader> stateStream )
+    {
+        List<JSONEntityState> migrated = new ArrayList<>();
+        Function<Reader, EntityState> function = reader ->
+        {
+            JSONEntityState entity = readEntityState( module, reader );
+            if( entity.status() == EntityStatus.UPDATED )
+            {
+                migrated.add( entity );
+                // Synch back 100 at a time
+                if( migrated.size() > 100 )
+                {
+                    synchMigratedEntities( migrated );
+                }
+            }
+            return entity;
+        };
+        Runnable closer = () ->
+        {
+            // Synch any remaining migrated entities
+            if( !migrated.isEmpty() )
+            {
+                synchMigratedEntities( migrated );
+            }
+        };
+        return stateStream.map( function ).onClose( closer );
+    }
+
     private void synchMigratedEntities( List<JSONEntityState> migratedEntities )
     {
+        List<EntityReference> references = new ArrayList<>( migratedEntities.size() );
+        migratedEntities.forEach( state -> references.add( state.entityReference() ) );
+        references.forEach( stripes::beginWrite );
         try
         {
             mapEntityStore.applyChanges(
@@ -387,6 +617,10 @@ public class JSONMapEntityStoreMixin
         {
             throw new EntityStoreException( "Synchronization of Migrated Entities failed.", ex );
         }
+        finally
+        {
+            references.forEach( stripes::endWrite );
+        }
     }
 
     protected Identity newUnitOfWorkId()
@@ -400,9 +634,13 @@ public class JSONMapEntityStoreMixin
         try
         {
             state.stateCloneWithVersionAndModified( version, lastModified );
-            writer.append( state.state().toString() );
+            // Stream the state to the writer, without serializing it to a String first
+            try( JsonWriter jsonWriter = jsonFactories.writerFactory().createWriter( new NonClosingWriter( writer ) ) )
+            {
+                jsonWriter.writeObject( state.state() );
+            }
         }
-        catch( IOException e )
+        catch( JsonException e )
         {
             throw new EntityStoreException( "Could not store EntityState", e );
         }
@@ -442,6 +680,7 @@ public class JSONMapEntityStoreMixin
                 }
                 // State changed
                 status = EntityStatus.UPDATED;
+                migrations.increment();
             }
 
             String type = state.getString( JSONKeys.TYPE );
@@ -490,15 +729,19 @@ public class JSONMapEntityStoreMixin
     private EntityState fetchCachedState( EntityReference reference, ModuleDescriptor module, Instant currentTime )
     {
         CacheState cacheState = cache.get( reference.identity().toString() );
-        if( cacheState != null )
+        if( cacheState == null )
+        {
+            cacheMisses.increment();
+        }
+        else
         {
-            JsonObject state = jsonFactories.readerFactory().createReader( new StringReader( cacheState.string ) )
-                                            .readObject();
+            cacheHits.increment();
             try
             {
+                JsonObject state = cacheState.state( jsonFactories );
                 String type = state.getString( JSONKeys.TYPE );
                 EntityDescriptor entityDescriptor = module.entityDescriptor( type );
-                String version = state.getString( JSONKeys.VERSION );
+                String version = cacheState.version();
                 Instant modified = Instant.ofEpochMilli( state.getJsonNumber( JSONKeys.MODIFIED ).longValueExact() );
                 return new JSONEntityState( entityDescriptor.module(), serialization, jsonFactories,
                                             version, modified,
@@ -521,35 +764,111 @@ public class JSONMapEntityStoreMixin
         return cacheOptions == null || cacheOptions.cacheOnRead();
     }
 
+    /**
+     * Cached entity state.
+     * <p>
+     * Holds the parsed, immutable, state so that cache hits do not need to parse anything, and the version in its own
+     * slot so that version checks do not need to look into the state. The serialized form is only computed if the
+     * underlying Cache implementation serializes its values, and is not kept.
+     * </p>
+     */
     public static class CacheState
         implements Externalizable
     {
-        public String string;
+        private String version;
+        private JsonObject state;
+        private String string;
 
         public CacheState()
         {
         }
 
-        private CacheState( String string )
+        private CacheState( String version, JsonObject state )
         {
-            this.string = string;
+            this.version = version;
+            this.state = state;
+        }
+
+        public String version()
+        {
+            return version;
+        }
+
+        /**
+         * @param factories used to parse the state if this CacheState was deserialized
+         * @return the parsed state
+         */
+        public JsonObject state( JavaxJsonFactories factories )
+        {
+            JsonObject parsed = state;
+            if( parsed == null )
+            {
+                try( JsonReader reader = factories.readerFactory().createReader( new StringReader( string ) ) )
+                {
+                    parsed = reader.readObject();
+                }
+                state = parsed;
+            }
+            return parsed;
+        }
+
+        /**
+         * @return the estimated heap footprint of this CacheState in bytes
+         */
+        public long weight()
+        {
+            JsonObject parsed = state;
+            return 64L + ( parsed == null ? 2L * string.length() : weigh( parsed ) );
+        }
+
+        private static long weigh( JsonValue value )
+        {
+            switch( value.getValueType() )
+            {
+                case OBJECT:
+                    long objectWeight = 48L;
+                    for( Map.Entry<String, JsonValue> entry : ( (JsonObject) value ).entrySet() )
+                    {
+                        objectWeight += 32L + 2L * entry.getKey().length() + weigh( entry.getValue() );
+                    }
+                    return objectWeight;
+                case ARRAY:
+                    long arrayWeight = 48L;
+                    for( JsonValue element : (JsonArray) value )
+                    {
+                        arrayWeight += 8L + weigh( element );
+                    }
+                    return arrayWeight;
+                case STRING:
+                    return 40L + 2L * ( (JsonString) value ).getString().length();
+                case NUMBER:
+                    return 32L;
+                default:
+                    // Shared true, false and null instances
+                    return 0L;
+            }
         }
 
         @Override
         public void writeExternal( ObjectOutput out )
             throws IOException
         {
-            out.writeUTF( string );
+            out.writeUTF( version );
+            JsonObject parsed = state;
+            byte[] bytes = ( parsed == null ? string : parsed.toString() ).getBytes( UTF_8 );
+            out.writeInt( bytes.length );
+            out.write( bytes );
         }
 
         @Override
         public void readExternal( ObjectInput in )
             throws IOException, ClassNotFoundException
         {
-            try( BufferedReader reader = new BufferedReader( new StringReader( in.readUTF() ) ) )
-            {
-                string = reader.lines().collect( joining( "\n" ) );
-            }
+            version = in.readUTF();
+            byte[] bytes = new byte[ in.readInt() ];
+            in.readFully( bytes );
+            string = new String( bytes, UTF_8 );
+            state = null;
         }
     }
 }
@@ -19,13 +19,10 @@
  */
 package org.apache.polygene.spi.entitystore.helpers;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import javax.json.JsonException;
-import javax.json.JsonObject;
-import javax.json.JsonValue;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.serialization.javaxjson.JavaxJsonFactories;
 import org.apache.polygene.spi.entity.NamedAssociationState;
@@ -33,7 +30,7 @@ import org.apache.polygene.spi.entitystore.EntityStoreException;
 
 /**
  * JSON implementation of NamedAssociationState.
- * <p>Backed by a JsonObject.</p>
+ * <p>Backed by a JsonObject of the owning JSONEntityState, copied once changed.</p>
  */
 public final class JSONNamedAssociationState
     implements NamedAssociationState
@@ -51,26 +48,16 @@ public final class JSONNamedAssociationState
         this.stateName = stateName;
     }
 
-    private JsonObject getReferences()
-    {
-        JsonValue references = entityState.state().getJsonObject( JSONKeys.VALUE ).get( stateName );
-        if( references != null && references.getValueType() == JsonValue.ValueType.OBJECT )
-        {
-            return (JsonObject) references;
-        }
-        return jsonFactories.builderFactory().createObjectBuilder().build();
-    }
-
     @Override
     public int count()
     {
-        return getReferences().size();
+        return entityState.namedAssociationCount( stateName );
     }
 
     @Override
     public boolean containsName( String name )
     {
-        return getReferences().containsKey( name );
+        return entityState.namedAssociationGet( stateName, name ) != null;
     }
 
     @Override
@@ -78,14 +65,7 @@ public final class JSONNamedAssociationState
     {
         try
         {
-            if( containsName( name )
-                && entityReference.identity().toString().equals( getReferences().getString( name ) ) )
-            {
-                return false;
-            }
-            entityState.stateCloneAddNamedAssociation( stateName, name, entityReference );
-            entityState.markUpdated();
-            return true;
+            return entityState.namedAssociationPut( stateName, name, entityReference.identity().toString() );
         }
         catch( JsonException ex )
         {
@@ -96,30 +76,20 @@ public final class JSONNamedAssociationState
     @Override
     public boolean remove( String name )
     {
-        if( !containsName( name ) )
-        {
-            return false;
-        }
-        entityState.stateCloneRemoveNamedAssociation( stateName, name );
-        entityState.markUpdated();
-        return true;
+        return entityState.namedAssociationRemove( stateName, name );
     }
 
     @Override
     public boolean clear()
     {
-        if( count() > 0 )
-        {
-            entityState.stateCloneClearNamedAssociation( stateName );
-            entityState.markUpdated();
-        }
+        entityState.namedAssociationClear( stateName );
         return false;
     }
 
     @Override
     public EntityReference get( String name )
     {
-        String stringRef = getReferences().getString( name, null );
+        String stringRef = entityState.namedAssociationGet( stateName, name );
         return stringRef == null ? null : EntityReference.parseEntityReference( stringRef );
     }
 
@@ -128,10 +98,10 @@ public final class JSONNamedAssociationState
     {
         try
         {
-            JsonObject references = getReferences();
-            for( String name : references.keySet() )
+            String identity = entityReference.identity().toString();
+            for( String name : entityState.namedAssociationNames( stateName ) )
             {
-                if( entityReference.identity().toString().equals( references.getString( name ) ) )
+                if( identity.equals( entityState.namedAssociationGet( stateName, name ) ) )
                 {
                     return name;
                 }
@@ -147,7 +117,7 @@ public final class JSONNamedAssociationState
     @Override
     public Iterator<String> iterator()
     {
-        List<String> names = new ArrayList<>( getReferences().keySet() );
+        List<String> names = entityState.namedAssociationNames( stateName );
         return new Iterator<String>()
         {
             private int idx = 0;
@@ -167,7 +137,7 @@ public final class JSONNamedAssociationState
                     idx++;
                     return next;
                 }
-                catch( JsonException ex )
+                catch( JsonException | IndexOutOfBoundsException ex )
                 {
                     throw new NoSuchElementException();
                 }
@@ -184,6 +154,6 @@ public final class JSONNamedAssociationState
     @Override
     public String toString()
     {
-        return getReferences().toString();
+        return entityState.namedAssociationJson( stateName ).toString();
     }
 }
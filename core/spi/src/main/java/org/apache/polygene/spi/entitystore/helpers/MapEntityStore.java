@@ -23,9 +23,13 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Stream;
+import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.entity.EntityDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.spi.entitystore.EntityNotFoundException;
 
 /**
  * MapEntityStore.
@@ -38,13 +42,73 @@ public interface MapEntityStore
      */
     Reader get( EntityReference entityReference ) throws Exception;
 
+    /**
+     * Get the state of several entities at once.
+     * <p>
+     * Entities that do not exist are absent from the returned Map.
+     * The default implementation does one {@link #get(EntityReference)} per reference, implementations backed by a
+     * remote store should override this with a native multi-get.
+     * </p>
+     * @param entityReferences The references to the entities that we want to get.
+     * @return Entity state Readers by reference, in iteration order of the given references
+     */
+    default Map<EntityReference, Reader> get( Iterable<EntityReference> entityReferences ) throws Exception
+    {
+        Map<EntityReference, Reader> states = new LinkedHashMap<>();
+        for( EntityReference entityReference : entityReferences )
+        {
+            try
+            {
+                states.put( entityReference, get( entityReference ) );
+            }
+            catch( EntityNotFoundException notFound )
+            {
+                // Absent from the returned Map
+            }
+        }
+        return states;
+    }
+
     /**
      * @return All entities state Readers, must be closed
      */
     Stream<Reader> entityStates() throws Exception;
 
+    /**
+     * Resume streaming entities after the given one.
+     * <p>
+     * Only supported by implementations whose {@link #entityStates()} streams entities in a stable order of their
+     * references, they should then be used by an EntityStore that is also
+     * {@link org.apache.polygene.spi.entitystore.OrderedEntityStates}.
+     * </p>
+     * @param after Reference to resume after, excluded, or null to stream all entities
+     * @return State Readers of the entities following the given one, in the order of {@link #entityStates()}, must
+     * be closed
+     * @throws UnsupportedOperationException if entities are not streamed in a stable order
+     */
+    default Stream<Reader> entityStatesAfter( @Optional EntityReference after ) throws Exception
+    {
+        throw new UnsupportedOperationException( getClass().getName() + " does not stream entities in a stable order" );
+    }
+
     void applyChanges( MapChanges changes ) throws Exception;
 
+    /**
+     * Whether updates are conditional on the stored version.
+     * <p>
+     * Implementations returning true must only apply changes if the stored versions of all updated entities still
+     * are their {@link MapChange#previousVersion()}, and otherwise fail with a
+     * {@link org.apache.polygene.spi.entitystore.ConcurrentEntityStateModificationException} without applying any
+     * of them. This catches concurrent modifications made after versions were checked.
+     * </p>
+     *
+     * @return true if updates are conditional on the stored version, false by default
+     */
+    default boolean checksPreviousVersion()
+    {
+        return false;
+    }
+
     /**
      * Changes to be applied on a MapEntityStore.
      */
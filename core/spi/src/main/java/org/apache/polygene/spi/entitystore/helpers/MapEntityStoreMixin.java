@@ -95,6 +95,8 @@ public class MapEntityStoreMixin
     @Service
     private IdentityGenerator identityGenerator;
 
+    private final EntityStripes stripes = new EntityStripes();
+
     @Override
     public void activateMapEntityStore() {}
 
@@ -115,20 +117,47 @@ public class MapEntityStoreMixin
     }
 
     @Override
-    public synchronized EntityState entityStateOf( EntityStoreUnitOfWork uow,
-                                                   ModuleDescriptor module, EntityReference reference )
+    public EntityState entityStateOf( EntityStoreUnitOfWork uow,
+                                      ModuleDescriptor module, EntityReference reference )
     {
         try
         {
+            long stamp = stripes.stamp( reference );
             Reader in = mapEntityStore.get( reference );
-            EntityState loadedState = readEntityState( module, in );
-            if( loadedState.status() == EntityStatus.UPDATED )
+            return migrateLoadedState( reference, stamp, readEntityState( module, in ) );
+        }
+        catch( EntityStoreException ex )
+        {
+            throw ex;
+        }
+        catch( Exception ex )
+        {
+            throw new EntityStoreException( ex );
+        }
+    }
+
+    @Override
+    public Map<EntityReference, EntityState> entityStatesOf( EntityStoreUnitOfWork uow,
+                                                             ModuleDescriptor module,
+                                                             Iterable<EntityReference> references )
+    {
+        try
+        {
+            Map<EntityReference, Long> stamps = new HashMap<>();
+            List<EntityReference> requested = new ArrayList<>();
+            for( EntityReference reference : references )
             {
-                List<EntityState> migrated = new ArrayList<>( 1 );
-                migrated.add( loadedState );
-                synchMigratedEntities( migrated );
+                stamps.put( reference, stripes.stamp( reference ) );
+                requested.add( reference );
             }
-            return loadedState;
+            Map<EntityReference, EntityState> states = new LinkedHashMap<>();
+            for( Map.Entry<EntityReference, Reader> entry : mapEntityStore.get( requested ).entrySet() )
+            {
+                EntityReference reference = entry.getKey();
+                EntityState loadedState = readEntityState( module, entry.getValue() );
+                states.put( reference, migrateLoadedState( reference, stamps.get( reference ), loadedState ) );
+            }
+            return states;
         }
         catch( EntityStoreException ex )
         {
@@ -140,8 +169,36 @@ public class MapEntityStoreMixin
         }
     }
 
+    private EntityState migrateLoadedState( EntityReference reference, long stamp, EntityState loadedState )
+    {
+        if( loadedState.status() == EntityStatus.UPDATED )
+        {
+            // Only write back the migrated state if nobody wrote to this entity in the meantime
+            stripes.publishIfUnchanged(
+                reference, stamp,
+                () ->
+                {
+                    List<EntityState> migrated = new ArrayList<>( 1 );
+                    migrated.add( loadedState );
+                    try
+                    {
+                        synchMigratedEntities( migrated );
+                    }
+                    catch( EntityStoreException ex )
+                    {
+                        throw ex;
+                    }
+                    catch( Exception ex )
+                    {
+                        throw new EntityStoreException( "Synchronization of Migrated Entities failed.", ex );
+                    }
+                } );
+        }
+        return loadedState;
+    }
+
     @Override
-    public synchronized String versionOf( EntityStoreUnitOfWork uow, EntityReference reference )
+    public String versionOf( EntityStoreUnitOfWork uow, EntityReference reference )
     {
         try( JsonReader jsonReader = jsonFactories.readerFactory().createReader( mapEntityStore.get( reference ) ) )
         {
@@ -157,6 +214,12 @@ public class MapEntityStoreMixin
         }
     }
 
+    @Override
+    public boolean hasConditionalUpdates()
+    {
+        return mapEntityStore.checksPreviousVersion();
+    }
+
     @Override
     public StateCommitter applyChanges( EntityStoreUnitOfWork uow, Iterable<EntityState> state )
         throws EntityStoreException
@@ -166,6 +229,9 @@ public class MapEntityStoreMixin
             @Override
             public void commit()
             {
+                List<EntityReference> references = new ArrayList<>();
+                state.forEach( entityState -> references.add( entityState.entityReference() ) );
+                references.forEach( stripes::beginWrite );
                 try
                 {
                     mapEntityStore.applyChanges(
@@ -210,6 +276,10 @@ public class MapEntityStoreMixin
                 {
                     throw new EntityStoreException( ex );
                 }
+                finally
+                {
+                    references.forEach( stripes::endWrite );
+                }
             }
 
             @Override
@@ -286,25 +356,35 @@ public class MapEntityStoreMixin
     private void synchMigratedEntities( final List<EntityState> migratedEntities )
         throws Exception
     {
-        mapEntityStore.applyChanges(
-            changer ->
-            {
-                for( EntityState migratedEntity : migratedEntities )
+        List<EntityReference> references = new ArrayList<>( migratedEntities.size() );
+        migratedEntities.forEach( entityState -> references.add( entityState.entityReference() ) );
+        references.forEach( stripes::beginWrite );
+        try
+        {
+            mapEntityStore.applyChanges(
+                changer ->
                 {
-                    DefaultEntityState state = (DefaultEntityState) migratedEntity;
-                    String version = state.version();
-                    Instant lastModified = state.lastModified();
-                    MapEntityStore.MapChange mapChange = new MapEntityStore.MapChange(
-                        state.entityReference(), state.entityDescriptor(),
-                        version, version, lastModified
-                    );
-                    try( Writer writer = changer.updateEntity( mapChange ) )
+                    for( EntityState migratedEntity : migratedEntities )
                     {
-                        writeEntityState( state, writer, version, lastModified );
+                        DefaultEntityState state = (DefaultEntityState) migratedEntity;
+                        String version = state.version();
+                        Instant lastModified = state.lastModified();
+                        MapEntityStore.MapChange mapChange = new MapEntityStore.MapChange(
+                            state.entityReference(), state.entityDescriptor(),
+                            version, version, lastModified
+                        );
+                        try( Writer writer = changer.updateEntity( mapChange ) )
+                        {
+                            writeEntityState( state, writer, version, lastModified );
+                        }
                     }
-                }
-            } );
-        migratedEntities.clear();
+                } );
+            migratedEntities.clear();
+        }
+        finally
+        {
+            references.forEach( stripes::endWrite );
+        }
     }
 
     protected Identity newUnitOfWorkId()
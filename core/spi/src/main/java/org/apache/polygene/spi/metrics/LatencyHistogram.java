@@ -0,0 +1,163 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the spirit of HdrHistogram.
+ * <p>
+ * Values below 16 have their own bucket, larger values are recorded in one of 8 buckets per power of two, so that
+ * percentiles are reported with a relative error below 12.5% over the whole range of positive longs, using a fixed
+ * amount of memory. Recording a value is wait-free and never allocates.
+ * </p>
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+    private static final int BUCKETS = ( 64 - SUB_BUCKET_BITS ) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator( Math::max, 0 );
+
+    /**
+     * Record a value.
+     *
+     * @param value Value, typically a duration in nanoseconds, negative values are recorded as 0
+     */
+    public void record( long value )
+    {
+        long recorded = Math.max( 0, value );
+        buckets.incrementAndGet( bucketOf( recorded ) );
+        count.increment();
+        sum.add( recorded );
+        max.accumulate( recorded );
+    }
+
+    /**
+     * @return Number of recorded values
+     */
+    public long count()
+    {
+        return count.sum();
+    }
+
+    /**
+     * @return Mean of the recorded values, 0 if none
+     */
+    public double mean()
+    {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @return Largest recorded value, 0 if none
+     */
+    public long max()
+    {
+        return max.get();
+    }
+
+    /**
+     * Value at a given percentile.
+     * <p>
+     * The reported value is the highest value of the bucket holding the percentile, capped by the largest recorded
+     * value.
+     * </p>
+     *
+     * @param percentile Percentile, between 0 and 100
+     * @return Value at the percentile, 0 if no value was recorded
+     */
+    public long percentile( double percentile )
+    {
+        if( percentile < 0 || percentile > 100 )
+        {
+            throw new IllegalArgumentException( "percentile must be between 0 and 100, was " + percentile );
+        }
+        long total = 0;
+        long[] snapshot = new long[ BUCKETS ];
+        for( int bucket = 0; bucket < BUCKETS; bucket++ )
+        {
+            snapshot[ bucket ] = buckets.get( bucket );
+            total += snapshot[ bucket ];
+        }
+        if( total == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( percentile / 100 * total ) );
+        long seen = 0;
+        for( int bucket = 0; bucket < BUCKETS; bucket++ )
+        {
+            seen += snapshot[ bucket ];
+            if( seen >= rank )
+            {
+                return Math.min( highestValueOf( bucket ), max() );
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Forget all recorded values.
+     * <p>
+     * Values recorded concurrently may be partially forgotten.
+     * </p>
+     */
+    public void reset()
+    {
+        for( int bucket = 0; bucket < BUCKETS; bucket++ )
+        {
+            buckets.set( bucket, 0 );
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucketOf( long value )
+    {
+        if( value < LINEAR_LIMIT )
+        {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros( value );
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ( shift + 1 ) * SUB_BUCKETS + (int) ( ( value >>> shift ) & ( SUB_BUCKETS - 1 ) );
+    }
+
+    static long highestValueOf( int bucket )
+    {
+        if( bucket < LINEAR_LIMIT )
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) ( SUB_BUCKETS + bucket % SUB_BUCKETS ) << shift;
+        return lowest + ( 1L << shift ) - 1;
+    }
+}
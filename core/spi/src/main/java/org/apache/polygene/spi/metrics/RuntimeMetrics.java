@@ -0,0 +1,236 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.metrics;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.polygene.api.metrics.MetricNames;
+import org.apache.polygene.api.metrics.MetricsGauge;
+import org.apache.polygene.api.metrics.MetricsGaugeFactory;
+import org.apache.polygene.api.metrics.MetricsNotSupportedException;
+import org.apache.polygene.api.metrics.MetricsProvider;
+import org.apache.polygene.api.structure.Module;
+
+/**
+ * Built-in runtime metrics of a Module.
+ * <p>
+ * The runtime and the entity store helpers record unit of work conflicts, entity loads, cache hits, migrations,
+ * state change notification latencies and instance pool misses here, see
+ * {@link org.apache.polygene.spi.module.ModuleSpi#runtimeMetrics()}.
+ * </p>
+ * <p>
+ * Counters are striped {@link LongAdder}s and latencies are recorded in {@link LatencyHistogram}s, so that recording
+ * is cheap and does not contend. Every metric is published once, as gauges, to the {@link MetricsProvider} visible
+ * from the Module, and all current values are available as a {@link #snapshot()}.
+ * </p>
+ */
+public final class RuntimeMetrics
+{
+    private final Module module;
+    private final Supplier<MetricsProvider> provider;
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+    private final Queue<String> unpublished = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishing = new AtomicBoolean();
+
+    /**
+     * @param module   Module
+     * @param provider Lookup of the MetricsProvider of the Module, called when metrics are published
+     */
+    public RuntimeMetrics( Module module, Supplier<MetricsProvider> provider )
+    {
+        this.module = module;
+        this.provider = provider;
+    }
+
+    /**
+     * Build a Metric name for the given Type and optional fragments in this Module.
+     *
+     * @param type      Type
+     * @param fragments Name fragments
+     * @return Metric name
+     */
+    public String nameFor( Class<?> type, String... fragments )
+    {
+        return MetricNames.nameFor( module, type, fragments );
+    }
+
+    /**
+     * Get or create a counter.
+     *
+     * @param name Metric name
+     * @return The counter
+     */
+    public LongAdder counter( String name )
+    {
+        LongAdder counter = counters.get( name );
+        if( counter == null )
+        {
+            LongAdder created = new LongAdder();
+            counter = counters.putIfAbsent( name, created );
+            if( counter == null )
+            {
+                counter = created;
+                publish( name );
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Get or create a latency histogram.
+     * <p>
+     * Histograms are published as {@literal count}, {@literal mean}, {@literal p50}, {@literal p99} and
+     * {@literal max} gauges suffixed to the name.
+     * </p>
+     *
+     * @param name Metric name
+     * @return The histogram
+     */
+    public LatencyHistogram histogram( String name )
+    {
+        LatencyHistogram histogram = histograms.get( name );
+        if( histogram == null )
+        {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent( name, created );
+            if( histogram == null )
+            {
+                histogram = created;
+                publish( name );
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Register a gauge, once.
+     *
+     * @param name  Metric name
+     * @param gauge Current value of the gauge
+     */
+    public void gauge( String name, Supplier<? extends Number> gauge )
+    {
+        if( gauges.putIfAbsent( name, gauge ) == null )
+        {
+            publish( name );
+        }
+    }
+
+    /**
+     * @return Current values of all metrics, by name, histograms expanded into their gauges
+     */
+    public SortedMap<String, Number> snapshot()
+    {
+        SortedMap<String, Number> snapshot = new TreeMap<>();
+        counters.forEach( ( name, counter ) -> snapshot.put( name, counter.sum() ) );
+        gauges.forEach( ( name, gauge ) -> snapshot.put( name, gauge.get() ) );
+        histograms.forEach( ( name, histogram ) -> histogramGauges( name, histogram ).forEach(
+            ( gaugeName, gauge ) -> snapshot.put( gaugeName, gauge.value() ) ) );
+        return snapshot;
+    }
+
+    private void publish( String name )
+    {
+        // Looking up or activating the MetricsProvider may create metrics on this thread, they are published by
+        // the outermost call
+        unpublished.add( name );
+        while( !unpublished.isEmpty() && publishing.compareAndSet( false, true ) )
+        {
+            try
+            {
+                MetricsProvider metrics = provider.get();
+                MetricsGaugeFactory factory = metrics == null
+                                              ? null
+                                              : metrics.createFactory( MetricsGaugeFactory.class );
+                String next;
+                while( ( next = unpublished.poll() ) != null )
+                {
+                    if( factory != null )
+                    {
+                        gaugesOf( next ).forEach( ( gaugeName, gauge ) -> register( factory, gaugeName, gauge ) );
+                    }
+                }
+            }
+            catch( MetricsNotSupportedException e )
+            {
+                // Runtime metrics stay available from snapshots
+                unpublished.clear();
+            }
+            finally
+            {
+                publishing.set( false );
+            }
+        }
+    }
+
+    private Map<String, MetricsGauge<?>> gaugesOf( String name )
+    {
+        Map<String, MetricsGauge<?>> published = new TreeMap<>();
+        LongAdder counter = counters.get( name );
+        if( counter != null )
+        {
+            published.put( name, (MetricsGauge<Long>) counter::sum );
+        }
+        Supplier<? extends Number> gauge = gauges.get( name );
+        if( gauge != null )
+        {
+            published.put( name, (MetricsGauge<Number>) gauge::get );
+        }
+        LatencyHistogram histogram = histograms.get( name );
+        if( histogram != null )
+        {
+            published.putAll( histogramGauges( name, histogram ) );
+        }
+        return published;
+    }
+
+    private static Map<String, MetricsGauge<? extends Number>> histogramGauges( String name,
+                                                                               LatencyHistogram histogram )
+    {
+        Map<String, MetricsGauge<? extends Number>> published = new TreeMap<>();
+        published.put( name + ".count", (MetricsGauge<Long>) histogram::count );
+        published.put( name + ".mean", (MetricsGauge<Double>) histogram::mean );
+        published.put( name + ".p50", (MetricsGauge<Long>) () -> histogram.percentile( 50 ) );
+        published.put( name + ".p99", (MetricsGauge<Long>) () -> histogram.percentile( 99 ) );
+        published.put( name + ".max", (MetricsGauge<Long>) histogram::max );
+        return published;
+    }
+
+    private static void register( MetricsGaugeFactory factory, String name, MetricsGauge<?> gauge )
+    {
+        try
+        {
+            factory.registerGauge( name, gauge );
+        }
+        catch( IllegalArgumentException e )
+        {
+            // Name already taken in the underlying metrics system, keep the existing metric
+        }
+    }
+}
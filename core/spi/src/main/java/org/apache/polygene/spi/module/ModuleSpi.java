@@ -24,6 +24,7 @@ import org.apache.polygene.api.metrics.MetricsProvider;
 import org.apache.polygene.api.serialization.Serialization;
 import org.apache.polygene.api.structure.Module;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
 import org.apache.polygene.spi.type.ValueTypeFactory;
 
 public interface ModuleSpi extends Module
@@ -36,5 +37,7 @@ public interface ModuleSpi extends Module
 
     MetricsProvider metricsProvider();
 
+    RuntimeMetrics runtimeMetrics();
+
     ValueTypeFactory valueTypeFactory();
 }
@@ -0,0 +1,264 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.polygene.api.metrics.MetricNames;
+import org.apache.polygene.api.metrics.MetricsGaugeFactory;
+import org.apache.polygene.api.metrics.MetricsNotSupportedException;
+import org.apache.polygene.api.metrics.MetricsProvider;
+import org.apache.polygene.api.structure.Module;
+
+/**
+ * Cache of query plans, the translations of queries into the syntax of an indexing backend, keyed by
+ * {@link QueryShape}.
+ * <p>
+ * Variables given to the translation are tracked, see {@link QueryVariables}. A cached plan is reused for other
+ * variable values as long as the variables inlined in the plan keep the same values, variables passed as bind
+ * parameters being rebound by the backend on each execution, see {@link Plan#bind(List, Map)}.
+ * </p>
+ * <p>
+ * Least recently used plans are evicted once the cache is full.
+ * </p>
+ *
+ * @param <P> Backend specific plan type, must be immutable or at least never modified once translated
+ */
+public final class QueryPlanCache<P>
+{
+    /**
+     * Default maximum number of cached plans.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final int maxSize;
+    private final LinkedHashMap<QueryShape, Plan<P>> plans;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicBoolean gaugesRegistered = new AtomicBoolean();
+
+    public QueryPlanCache()
+    {
+        this( DEFAULT_MAX_SIZE );
+    }
+
+    /**
+     * @param maxSize Maximum number of cached plans, 0 disables caching
+     */
+    public QueryPlanCache( int maxSize )
+    {
+        if( maxSize < 0 )
+        {
+            throw new IllegalArgumentException( "maxSize must not be negative, was " + maxSize );
+        }
+        this.maxSize = maxSize;
+        this.plans = new LinkedHashMap<QueryShape, Plan<P>>( 16, 0.75F, true )
+        {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<QueryShape, Plan<P>> eldest )
+            {
+                return size() > QueryPlanCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the plan of a query, translating it on a miss.
+     *
+     * @param shape      Shape of the query, null if it cannot be cached
+     * @param variables  Query variables
+     * @param translator Translation of the query given the variables to use
+     * @return The query plan
+     */
+    public Plan<P> plan( QueryShape shape, Map<String, Object> variables, Function<Map<String, Object>, P> translator )
+    {
+        if( shape != null && maxSize > 0 )
+        {
+            Plan<P> plan;
+            synchronized( plans )
+            {
+                plan = plans.get( shape );
+            }
+            if( plan != null && plan.matches( variables ) )
+            {
+                hits.increment();
+                return plan;
+            }
+        }
+        misses.increment();
+        QueryVariables tracked = new QueryVariables( variables == null ? Collections.emptyMap() : variables );
+        P translated = translator.apply( tracked );
+        Plan<P> plan = new Plan<>( translated, tracked.inlined(), tracked.parameters() );
+        if( shape != null && maxSize > 0 )
+        {
+            synchronized( plans )
+            {
+                plans.put( shape, plan );
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return Number of queries whose plan was found in the cache
+     */
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of queries that had to be translated
+     */
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of cached plans
+     */
+    public int size()
+    {
+        synchronized( plans )
+        {
+            return plans.size();
+        }
+    }
+
+    /**
+     * Evict all cached plans.
+     */
+    public void clear()
+    {
+        synchronized( plans )
+        {
+            plans.clear();
+        }
+    }
+
+    /**
+     * Register hits, misses and size gauges, once.
+     *
+     * @param metrics   Metrics provider, may be null
+     * @param module    Module of the service owning the cache
+     * @param type      Type of the service owning the cache
+     * @param fragments Optional name fragments
+     */
+    public void registerGauges( Module module, MetricsProvider metrics, Class<?> type, String... fragments )
+    {
+        if( metrics == null || !gaugesRegistered.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        try
+        {
+            MetricsGaugeFactory gauges = metrics.createFactory( MetricsGaugeFactory.class );
+            gauges.registerGauge( MetricNames.nameFor( module, type, withSuffix( fragments, "hits" ) ), this::hits );
+            gauges.registerGauge( MetricNames.nameFor( module, type, withSuffix( fragments, "misses" ) ), this::misses );
+            gauges.registerGauge( MetricNames.nameFor( module, type, withSuffix( fragments, "size" ) ), this::size );
+        }
+        catch( MetricsNotSupportedException ignored )
+        {
+            // Query plan cache metrics are not mandatory
+        }
+    }
+
+    private static String[] withSuffix( String[] fragments, String suffix )
+    {
+        List<String> name = new ArrayList<>( fragments.length + 2 );
+        Collections.addAll( name, fragments );
+        name.add( "queryPlans" );
+        name.add( suffix );
+        return name.toArray( new String[ name.size() ] );
+    }
+
+    /**
+     * Query plan.
+     *
+     * @param <P> Backend specific plan type
+     */
+    public static final class Plan<P>
+    {
+        private final P plan;
+        private final Map<String, Object> inlined;
+        private final Map<Integer, String> parameters;
+
+        private Plan( P plan, Map<String, Object> inlined, Map<Integer, String> parameters )
+        {
+            this.plan = plan;
+            this.inlined = inlined;
+            this.parameters = parameters;
+        }
+
+        /**
+         * @return The backend specific plan
+         */
+        public P plan()
+        {
+            return plan;
+        }
+
+        /**
+         * @return Names of the variables passed as bind parameters, by parameter index
+         */
+        public Map<Integer, String> parameters()
+        {
+            return Collections.unmodifiableMap( parameters );
+        }
+
+        /**
+         * Rebind parameters to the values of the current query variables.
+         *
+         * @param parameterValues Parameter values as translated
+         * @param variables       Current query variables
+         * @return A copy of the parameter values with variable parameters rebound
+         */
+        public List<Object> bind( List<Object> parameterValues, Map<String, Object> variables )
+        {
+            List<Object> bound = new ArrayList<>( parameterValues );
+            for( Map.Entry<Integer, String> parameter : parameters.entrySet() )
+            {
+                bound.set( parameter.getKey(), variables.get( parameter.getValue() ) );
+            }
+            return bound;
+        }
+
+        private boolean matches( Map<String, Object> variables )
+        {
+            for( Map.Entry<String, Object> variable : inlined.entrySet() )
+            {
+                Object value = variables == null ? null : variables.get( variable.getKey() );
+                if( !Objects.equals( variable.getValue(), value ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
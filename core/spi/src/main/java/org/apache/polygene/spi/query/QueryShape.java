@@ -0,0 +1,347 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.query;
+
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.identity.HasIdentity;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.query.grammar.AssociationFunction;
+import org.apache.polygene.api.query.grammar.AssociationNotNullPredicate;
+import org.apache.polygene.api.query.grammar.AssociationNullPredicate;
+import org.apache.polygene.api.query.grammar.BinaryPredicate;
+import org.apache.polygene.api.query.grammar.ComparisonPredicate;
+import org.apache.polygene.api.query.grammar.ContainsAllPredicate;
+import org.apache.polygene.api.query.grammar.ContainsPredicate;
+import org.apache.polygene.api.query.grammar.ManyAssociationContainsPredicate;
+import org.apache.polygene.api.query.grammar.ManyAssociationFunction;
+import org.apache.polygene.api.query.grammar.MatchesPredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationContainsNamePredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationContainsPredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationFunction;
+import org.apache.polygene.api.query.grammar.Notpredicate;
+import org.apache.polygene.api.query.grammar.OrderBy;
+import org.apache.polygene.api.query.grammar.PropertyFunction;
+import org.apache.polygene.api.query.grammar.PropertyNotNullPredicate;
+import org.apache.polygene.api.query.grammar.PropertyNullPredicate;
+import org.apache.polygene.api.query.grammar.QuerySpecification;
+import org.apache.polygene.api.query.grammar.Variable;
+import org.apache.polygene.api.value.ValueComposite;
+
+/**
+ * Structural key of a query, used to cache its translation into the syntax of an indexing backend.
+ * <p>
+ * Two queries have the same shape when they have the same result type, the same predicate tree, referencing the same
+ * properties and associations with the same literals, the same ordering and paging. Variables are part of the shape
+ * by name and by the type of their bound value only, so that a translation can be reused for other values bound to
+ * the same variables.
+ * </p>
+ * <p>
+ * Predicates that cannot be described structurally, lambdas or unknown expressions for example, make the query
+ * uncacheable.
+ * </p>
+ */
+public final class QueryShape
+{
+    private final List<Object> tokens;
+    private final int hashCode;
+
+    private QueryShape( List<Object> tokens )
+    {
+        this.tokens = tokens;
+        this.hashCode = tokens.hashCode();
+    }
+
+    /**
+     * Compute the shape of a query.
+     *
+     * @param operation       Finder operation, plans of different operations are kept apart
+     * @param resultType      Type that the entities must have
+     * @param whereClause     Where clause specification
+     * @param orderBySegments Ordering
+     * @param firstResult     Index of the first returned entity
+     * @param maxResults      Maximum returned entities
+     * @param variables       Query variables
+     * @return The query shape, or null if the query cannot be cached
+     */
+    public static QueryShape of( String operation,
+                                 Class<?> resultType,
+                                 Predicate<Composite> whereClause,
+                                 List<OrderBy> orderBySegments,
+                                 Integer firstResult,
+                                 Integer maxResults,
+                                 Map<String, Object> variables )
+    {
+        List<Object> tokens = new ArrayList<>();
+        tokens.add( operation );
+        tokens.add( resultType );
+        if( !predicate( whereClause, variables, tokens ) )
+        {
+            return null;
+        }
+        if( orderBySegments == null )
+        {
+            tokens.add( null );
+        }
+        else
+        {
+            tokens.add( orderBySegments.size() );
+            for( OrderBy orderBy : orderBySegments )
+            {
+                if( !property( orderBy.property(), tokens ) )
+                {
+                    return null;
+                }
+                tokens.add( orderBy.order() );
+            }
+        }
+        tokens.add( firstResult );
+        tokens.add( maxResults );
+        return new QueryShape( Collections.unmodifiableList( tokens ) );
+    }
+
+    private static boolean predicate( Predicate<Composite> predicate, Map<String, Object> variables, List<Object> tokens )
+    {
+        if( predicate == null )
+        {
+            tokens.add( null );
+            return true;
+        }
+        tokens.add( predicate.getClass() );
+        if( predicate instanceof BinaryPredicate )
+        {
+            Collection<Predicate<Composite>> operands = ( (BinaryPredicate) predicate ).operands();
+            tokens.add( operands.size() );
+            for( Predicate<Composite> operand : operands )
+            {
+                if( !predicate( operand, variables, tokens ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if( predicate instanceof Notpredicate )
+        {
+            return predicate( ( (Notpredicate) predicate ).operand(), variables, tokens );
+        }
+        if( predicate instanceof ComparisonPredicate )
+        {
+            ComparisonPredicate<?> comparison = (ComparisonPredicate<?>) predicate;
+            return property( comparison.property(), tokens ) && value( comparison.value(), variables, tokens );
+        }
+        if( predicate instanceof ContainsPredicate )
+        {
+            ContainsPredicate<?> contains = (ContainsPredicate<?>) predicate;
+            return property( contains.collectionProperty(), tokens ) && value( contains.value(), variables, tokens );
+        }
+        if( predicate instanceof ContainsAllPredicate )
+        {
+            ContainsAllPredicate<?> containsAll = (ContainsAllPredicate<?>) predicate;
+            return property( containsAll.collectionProperty(), tokens )
+                   && value( containsAll.containedValues(), variables, tokens );
+        }
+        if( predicate instanceof MatchesPredicate )
+        {
+            MatchesPredicate matches = (MatchesPredicate) predicate;
+            return property( matches.property(), tokens ) && value( matches.value(), variables, tokens );
+        }
+        if( predicate instanceof PropertyNullPredicate )
+        {
+            return property( ( (PropertyNullPredicate<?>) predicate ).property(), tokens );
+        }
+        if( predicate instanceof PropertyNotNullPredicate )
+        {
+            return property( ( (PropertyNotNullPredicate<?>) predicate ).property(), tokens );
+        }
+        if( predicate instanceof AssociationNullPredicate )
+        {
+            return association( ( (AssociationNullPredicate<?>) predicate ).association(), tokens );
+        }
+        if( predicate instanceof AssociationNotNullPredicate )
+        {
+            return association( ( (AssociationNotNullPredicate<?>) predicate ).association(), tokens );
+        }
+        if( predicate instanceof ManyAssociationContainsPredicate )
+        {
+            ManyAssociationContainsPredicate<?> contains = (ManyAssociationContainsPredicate<?>) predicate;
+            return manyAssociation( contains.manyAssociation(), tokens )
+                   && value( contains.value(), variables, tokens );
+        }
+        if( predicate instanceof NamedAssociationContainsPredicate )
+        {
+            NamedAssociationContainsPredicate<?> contains = (NamedAssociationContainsPredicate<?>) predicate;
+            return namedAssociation( contains.namedAssociation(), tokens )
+                   && value( contains.value(), variables, tokens );
+        }
+        if( predicate instanceof NamedAssociationContainsNamePredicate )
+        {
+            NamedAssociationContainsNamePredicate<?> contains = (NamedAssociationContainsNamePredicate<?>) predicate;
+            return namedAssociation( contains.namedAssociation(), tokens )
+                   && value( contains.name(), variables, tokens );
+        }
+        if( predicate instanceof QuerySpecification )
+        {
+            QuerySpecification specification = (QuerySpecification) predicate;
+            tokens.add( specification.language() );
+            tokens.add( specification.query() );
+            return true;
+        }
+        // Lambdas and unknown expressions
+        return false;
+    }
+
+    private static boolean value( Object value, Map<String, Object> variables, List<Object> tokens )
+    {
+        if( value instanceof Variable )
+        {
+            String name = ( (Variable) value ).variableName();
+            Object bound = variables == null ? null : variables.get( name );
+            tokens.add( Variable.class );
+            tokens.add( name );
+            tokens.add( bound == null ? null : bound.getClass() );
+            return true;
+        }
+        if( value instanceof Collection )
+        {
+            Collection<?> collection = (Collection<?>) value;
+            tokens.add( value.getClass() );
+            tokens.add( collection.size() );
+            for( Object element : collection )
+            {
+                if( !value( element, variables, tokens ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if( value == null
+            || value instanceof String || value instanceof Number || value instanceof Boolean
+            || value instanceof Character || value instanceof Enum
+            || value instanceof TemporalAccessor || value instanceof TemporalAmount
+            || value instanceof Identity || value instanceof EntityReference
+            || value instanceof ValueComposite )
+        {
+            // Literals with value equality
+            tokens.add( value );
+            return true;
+        }
+        if( value instanceof HasIdentity )
+        {
+            tokens.add( HasIdentity.class );
+            tokens.add( ( (HasIdentity) value ).identity().get() );
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean property( PropertyFunction<?> function, List<Object> tokens )
+    {
+        if( function == null )
+        {
+            tokens.add( null );
+            return true;
+        }
+        tokens.add( PropertyFunction.class );
+        tokens.add( function.accessor() );
+        return property( function.traversedProperty(), tokens )
+               && association( function.traversedAssociation(), tokens )
+               && manyAssociation( function.traversedManyAssociation(), tokens )
+               && namedAssociation( function.traversedNamedAssociation(), tokens );
+    }
+
+    private static boolean association( AssociationFunction<?> function, List<Object> tokens )
+    {
+        if( function == null )
+        {
+            tokens.add( null );
+            return true;
+        }
+        tokens.add( AssociationFunction.class );
+        tokens.add( function.accessor() );
+        return association( function.traversedAssociation(), tokens )
+               && manyAssociation( function.traversedManyAssociation(), tokens )
+               && namedAssociation( function.traversedNamedAssociation(), tokens );
+    }
+
+    private static boolean manyAssociation( ManyAssociationFunction<?> function, List<Object> tokens )
+    {
+        if( function == null )
+        {
+            tokens.add( null );
+            return true;
+        }
+        tokens.add( ManyAssociationFunction.class );
+        tokens.add( function.accessor() );
+        return association( function.traversedAssociation(), tokens )
+               && manyAssociation( function.traversedManyAssociation(), tokens )
+               && namedAssociation( function.traversedNamedAssociation(), tokens );
+    }
+
+    private static boolean namedAssociation( NamedAssociationFunction<?> function, List<Object> tokens )
+    {
+        if( function == null )
+        {
+            tokens.add( null );
+            return true;
+        }
+        tokens.add( NamedAssociationFunction.class );
+        tokens.add( function.accessor() );
+        return association( function.traversedAssociation(), tokens )
+               && manyAssociation( function.traversedManyAssociation(), tokens )
+               && namedAssociation( function.traversedNamedAssociation(), tokens );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if( this == o )
+        {
+            return true;
+        }
+        if( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        QueryShape that = (QueryShape) o;
+        return hashCode == that.hashCode && tokens.equals( that.tokens );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "QueryShape" + tokens;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.query;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Query variables given to a translation while its plan is being cached.
+ * <p>
+ * Every variable read through {@link #get(Object)} is considered inlined in the translated query, the plan is then
+ * only reused for the same value. Translations that pass a variable as a bind parameter instead declare it with
+ * {@link #parameter(Map, String, int)}, the plan is then reused whatever the value and the parameter rebound.
+ * </p>
+ * <p>
+ * Instances are only used by the thread translating a query and are not thread safe.
+ * </p>
+ */
+public final class QueryVariables
+    extends AbstractMap<String, Object>
+{
+    private final Map<String, Object> variables;
+    private final Map<String, Integer> reads = new HashMap<>();
+    private final Map<Integer, String> parameters = new TreeMap<>();
+
+    QueryVariables( Map<String, Object> variables )
+    {
+        this.variables = variables;
+    }
+
+    /**
+     * Declare that a variable is passed to the backend as a bind parameter rather than inlined in the query.
+     * <p>
+     * The variable is expected to have been read once through {@link #get(Object)} beforehand. Does nothing if the
+     * given variables are not tracked by a {@link QueryPlanCache}.
+     * </p>
+     *
+     * @param variables Query variables given to the translation
+     * @param name      Variable name
+     * @param index     Index of the parameter in the backend specific parameter list
+     */
+    public static void parameter( Map<String, Object> variables, String name, int index )
+    {
+        if( variables instanceof QueryVariables )
+        {
+            ( (QueryVariables) variables ).parameter( name, index );
+        }
+    }
+
+    /**
+     * @param variables Query variables given to the translation
+     * @return true if the translation is being cached and can pass variables as bind parameters
+     */
+    public static boolean isTracked( Map<String, Object> variables )
+    {
+        return variables instanceof QueryVariables;
+    }
+
+    @Override
+    public Object get( Object key )
+    {
+        Object value = variables.get( key );
+        if( key instanceof String )
+        {
+            reads.merge( (String) key, 1, Integer::sum );
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return variables.containsKey( key );
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet()
+    {
+        return variables.entrySet();
+    }
+
+    private void parameter( String name, int index )
+    {
+        reads.computeIfPresent( name, ( key, count ) -> count > 1 ? count - 1 : null );
+        parameters.put( index, name );
+    }
+
+    /**
+     * @return Values of the variables inlined in the translated query
+     */
+    Map<String, Object> inlined()
+    {
+        Map<String, Object> inlined = new HashMap<>();
+        for( String name : reads.keySet() )
+        {
+            inlined.put( name, variables.get( name ) );
+        }
+        return inlined;
+    }
+
+    /**
+     * @return Names of the variables passed as bind parameters, by parameter index
+     */
+    Map<Integer, String> parameters()
+    {
+        return parameters;
+    }
+}
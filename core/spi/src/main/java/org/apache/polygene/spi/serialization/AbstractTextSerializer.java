@@ -19,8 +19,9 @@ package org.apache.polygene.spi.serialization;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import org.apache.polygene.api.common.Optional;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -29,7 +30,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 /**
  * Base Text Serializer.
  *
- * Implementations work on Strings, this base serializer encode these strings in UTF-8 to produce bytes.
+ * Implementations work on Writers, this base serializer encode what they write in UTF-8 to produce bytes.
  *
  * See {@link AbstractTextDeserializer}.
  */
@@ -40,9 +41,9 @@ public abstract class AbstractTextSerializer extends AbstractSerializer
     {
         try
         {
-            StringWriter writer = new StringWriter();
+            Writer writer = new OutputStreamWriter( output, UTF_8 );
             serialize( options, writer, object );
-            output.write( writer.toString().getBytes( UTF_8 ) );
+            writer.flush();
         }
         catch( IOException ex )
         {
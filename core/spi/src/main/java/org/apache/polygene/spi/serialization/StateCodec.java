@@ -0,0 +1,137 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.serialization;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.polygene.api.association.AssociationDescriptor;
+import org.apache.polygene.api.property.PropertyDescriptor;
+import org.apache.polygene.api.serialization.Converter;
+import org.apache.polygene.api.type.StatefulAssociationValueType;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * State of a stateful association value type, resolved once per descriptor by {@link ValueCodecs}.
+ * <p>
+ * Holds the state descriptors in serialization order, along with their names and property converters, so that
+ * serializers do not need to look them up for each value.
+ * </p>
+ */
+public final class StateCodec
+{
+    private final StatefulAssociationValueType<?> valueType;
+    private final List<Member<PropertyDescriptor>> properties;
+    private final List<Member<AssociationDescriptor>> associations;
+    private final List<Member<AssociationDescriptor>> manyAssociations;
+    private final List<Member<AssociationDescriptor>> namedAssociations;
+
+    StateCodec( StatefulAssociationValueType<?> valueType, Function<PropertyDescriptor, Converter<Object>> converters )
+    {
+        this.valueType = valueType;
+        this.properties = members( valueType.properties(),
+                                   property -> property.qualifiedName().name(),
+                                   converters );
+        this.associations = members( valueType.associations(),
+                                     association -> association.qualifiedName().name(),
+                                     association -> null );
+        this.manyAssociations = members( valueType.manyAssociations(),
+                                         association -> association.qualifiedName().name(),
+                                         association -> null );
+        this.namedAssociations = members( valueType.namedAssociations(),
+                                          association -> association.qualifiedName().name(),
+                                          association -> null );
+    }
+
+    private static <D> List<Member<D>> members( Stream<? extends D> descriptors,
+                                                Function<D, String> names,
+                                                Function<D, Converter<Object>> converters )
+    {
+        return unmodifiableList( descriptors.map( descriptor -> new Member<D>( descriptor,
+                                                                               names.apply( descriptor ),
+                                                                               converters.apply( descriptor ) ) )
+                                            .collect( toList() ) );
+    }
+
+    public StatefulAssociationValueType<?> valueType()
+    {
+        return valueType;
+    }
+
+    public List<Member<PropertyDescriptor>> properties()
+    {
+        return properties;
+    }
+
+    public List<Member<AssociationDescriptor>> associations()
+    {
+        return associations;
+    }
+
+    public List<Member<AssociationDescriptor>> manyAssociations()
+    {
+        return manyAssociations;
+    }
+
+    public List<Member<AssociationDescriptor>> namedAssociations()
+    {
+        return namedAssociations;
+    }
+
+    /**
+     * A property or association of a stateful association value type.
+     *
+     * @param <D> the descriptor type
+     */
+    public static final class Member<D>
+    {
+        private final D descriptor;
+        private final String name;
+        private final Converter<Object> converter;
+
+        private Member( D descriptor, String name, Converter<Object> converter )
+        {
+            this.descriptor = descriptor;
+            this.name = name;
+            this.converter = converter;
+        }
+
+        public D descriptor()
+        {
+            return descriptor;
+        }
+
+        /**
+         * @return the serialized name
+         */
+        public String name()
+        {
+            return name;
+        }
+
+        /**
+         * @return the converter registered as meta-info of a property, {@literal null} if none
+         */
+        public Converter<Object> converter()
+        {
+            return converter;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.serialization;
+
+import org.apache.polygene.api.serialization.Converter;
+
+/**
+ * How a type is (de)serialized, resolved once per type by {@link ValueCodecs}.
+ *
+ * @param <A> the adapter type of the serialization format
+ */
+public final class ValueCodec<A>
+{
+    /**
+     * How values are handled, in the order serializers and deserializers look for them.
+     */
+    public enum Kind
+    {
+        /** Handled by a {@link Converter} */
+        CONVERTED,
+        /** Handled by an adapter of the serialization format */
+        ADAPTED,
+        ENUM,
+        STATEFUL_ASSOCIATION_VALUE,
+        MAP,
+        ARRAY,
+        /** Deserialization only, see {@link #ITERABLE} for serialization */
+        COLLECTION,
+        /** Serialization only, see {@link #COLLECTION} for deserialization */
+        ITERABLE,
+        /** Serialization only */
+        STREAM,
+        /** No match, serializers fail and deserializers guess */
+        UNKNOWN
+    }
+
+    private final Kind kind;
+    private final Converter<Object> converter;
+    private final A adapter;
+
+    ValueCodec( Kind kind, Converter<Object> converter, A adapter )
+    {
+        this.kind = kind;
+        this.converter = converter;
+        this.adapter = adapter;
+    }
+
+    public Kind kind()
+    {
+        return kind;
+    }
+
+    /**
+     * @return the converter if {@link Kind#CONVERTED}, {@literal null} otherwise
+     */
+    public Converter<Object> converter()
+    {
+        return converter;
+    }
+
+    /**
+     * @return the adapter if {@link Kind#ADAPTED}, {@literal null} otherwise
+     */
+    public A adapter()
+    {
+        return adapter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ValueCodec{" + kind + "}";
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.serialization;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.polygene.api.composite.StatefulAssociationCompositeDescriptor;
+import org.apache.polygene.api.serialization.Converter;
+import org.apache.polygene.api.serialization.Converters;
+import org.apache.polygene.api.type.ArrayType;
+import org.apache.polygene.api.type.CollectionType;
+import org.apache.polygene.api.type.EnumType;
+import org.apache.polygene.api.type.MapType;
+import org.apache.polygene.api.type.StatefulAssociationValueType;
+import org.apache.polygene.api.type.ValueType;
+import org.apache.polygene.spi.serialization.ValueCodec.Kind;
+
+/**
+ * Per type codecs of a serialization format.
+ * <p>
+ * Serializers dispatch on the class of each object and deserializers on the expected {@link ValueType}. Both look
+ * for a {@link Converter}, then for an adapter of the format, then at the type itself. Codecs capture the result of
+ * these lookups, they are resolved lazily, once per type, and are safe to use concurrently.
+ * </p>
+ * <p>
+ * Converters and adapters are expected to be registered before codecs are first resolved, typically when the
+ * serialization service is initialized.
+ * </p>
+ *
+ * @param <A> the adapter type of the serialization format
+ */
+public final class ValueCodecs<A>
+{
+    private final Converters converters;
+    private final Function<ValueType, A> adapters;
+    private final ConcurrentMap<Class<?>, ValueCodec<A>> classCodecs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ValueType, ValueCodec<A>> typeCodecs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<StatefulAssociationCompositeDescriptor, StateCodec> stateCodecs =
+        new ConcurrentHashMap<>();
+
+    /**
+     * @param converters the converters
+     * @param adapters the adapter lookup of the serialization format, returning {@literal null} if none
+     */
+    public ValueCodecs( Converters converters, Function<ValueType, A> adapters )
+    {
+        this.converters = converters;
+        this.adapters = adapters;
+    }
+
+    /**
+     * @param type the class of objects to serialize
+     * @return the codec to serialize them
+     */
+    public ValueCodec<A> serializationCodecFor( Class<?> type )
+    {
+        ValueCodec<A> codec = classCodecs.get( type );
+        if( codec == null )
+        {
+            codec = classCodecs.computeIfAbsent( type, this::resolveSerializationCodec );
+        }
+        return codec;
+    }
+
+    /**
+     * @param valueType the value type to deserialize
+     * @return the codec to deserialize it
+     */
+    public ValueCodec<A> deserializationCodecFor( ValueType valueType )
+    {
+        ValueCodec<A> codec = typeCodecs.get( valueType );
+        if( codec == null )
+        {
+            codec = typeCodecs.computeIfAbsent( valueType, this::resolveDeserializationCodec );
+        }
+        return codec;
+    }
+
+    /**
+     * @param descriptor the descriptor of a stateful association value
+     * @return the codec of its state
+     */
+    public StateCodec stateCodecFor( StatefulAssociationCompositeDescriptor descriptor )
+    {
+        StateCodec codec = stateCodecs.get( descriptor );
+        if( codec == null )
+        {
+            codec = stateCodecs.computeIfAbsent(
+                descriptor, key -> new StateCodec( key.valueType(), converters::converterFor ) );
+        }
+        return codec;
+    }
+
+    private ValueCodec<A> resolveSerializationCodec( Class<?> type )
+    {
+        ValueType valueType = ValueType.of( type );
+        Converter<Object> converter = converters.converterFor( valueType );
+        if( converter != null )
+        {
+            return new ValueCodec<>( Kind.CONVERTED, converter, null );
+        }
+        A adapter = adapters.apply( valueType );
+        if( adapter != null )
+        {
+            return new ValueCodec<>( Kind.ADAPTED, null, adapter );
+        }
+        if( EnumType.isEnum( type ) )
+        {
+            return codec( Kind.ENUM );
+        }
+        if( StatefulAssociationValueType.isStatefulAssociationValue( type ) )
+        {
+            return codec( Kind.STATEFUL_ASSOCIATION_VALUE );
+        }
+        if( MapType.isMap( type ) )
+        {
+            return codec( Kind.MAP );
+        }
+        if( ArrayType.isArray( type ) )
+        {
+            return codec( Kind.ARRAY );
+        }
+        if( Iterable.class.isAssignableFrom( type ) )
+        {
+            return codec( Kind.ITERABLE );
+        }
+        if( Stream.class.isAssignableFrom( type ) )
+        {
+            return codec( Kind.STREAM );
+        }
+        return codec( Kind.UNKNOWN );
+    }
+
+    private ValueCodec<A> resolveDeserializationCodec( ValueType valueType )
+    {
+        Converter<Object> converter = converters.converterFor( valueType );
+        if( converter != null )
+        {
+            return new ValueCodec<>( Kind.CONVERTED, converter, null );
+        }
+        A adapter = adapters.apply( valueType );
+        if( adapter != null )
+        {
+            return new ValueCodec<>( Kind.ADAPTED, null, adapter );
+        }
+        if( valueType instanceof EnumType )
+        {
+            return codec( Kind.ENUM );
+        }
+        if( valueType instanceof ArrayType )
+        {
+            return codec( Kind.ARRAY );
+        }
+        if( valueType instanceof CollectionType )
+        {
+            return codec( Kind.COLLECTION );
+        }
+        if( valueType instanceof MapType )
+        {
+            return codec( Kind.MAP );
+        }
+        if( valueType instanceof StatefulAssociationValueType )
+        {
+            return codec( Kind.STATEFUL_ASSOCIATION_VALUE );
+        }
+        return codec( Kind.UNKNOWN );
+    }
+
+    private ValueCodec<A> codec( Kind kind )
+    {
+        return new ValueCodec<>( kind, null, null );
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.cache;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class WeighedMemoryCacheTest
+{
+    @Test
+    public void givenCacheOverWeightWhenPuttingExpectLeastRecentlyUsedEvicted()
+    {
+        // Keys in the same segment share a 10 bytes budget
+        WeighedMemoryCache<String> cache = new WeighedMemoryCache<>( 16 * 10, String::length );
+        String first = "a";
+        String second = sameSegmentAs( first, 1 );
+        String third = sameSegmentAs( first, 2 );
+        cache.put( first, "1234" );
+        cache.put( second, "1234" );
+        assertThat( cache.get( first ), equalTo( "1234" ) );
+        cache.put( third, "1234" );
+        assertThat( cache.get( first ), equalTo( "1234" ) );
+        assertThat( cache.get( second ), nullValue() );
+        assertThat( cache.get( third ), equalTo( "1234" ) );
+        assertTrue( cache.weight() <= 16 * 10 );
+    }
+
+    @Test
+    public void givenValueHeavierThanSegmentWhenPuttingExpectNotCached()
+    {
+        WeighedMemoryCache<String> cache = new WeighedMemoryCache<>( 16, String::length );
+        cache.put( "key", "too heavy" );
+        assertThat( cache.get( "key" ), nullValue() );
+        assertThat( cache.weight(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void givenTieredCacheWhenSecondLevelHitExpectPromotedToFirstLevel()
+    {
+        WeighedMemoryCache<String> first = new WeighedMemoryCache<>( 1024, String::length );
+        WeighedMemoryCache<String> second = new WeighedMemoryCache<>( 1024, String::length );
+        TieredCache<String> cache = new TieredCache<>( first, second );
+        second.put( "key", "value" );
+        assertThat( cache.get( "key" ), equalTo( "value" ) );
+        assertThat( first.get( "key" ), equalTo( "value" ) );
+        cache.remove( "key" );
+        assertThat( first.exists( "key" ), equalTo( false ) );
+        assertThat( second.exists( "key" ), equalTo( false ) );
+    }
+
+    private static String sameSegmentAs( String key, int nth )
+    {
+        int target = segment( key );
+        int found = 0;
+        for( int i = 0; ; i++ )
+        {
+            String candidate = key + i;
+            if( segment( candidate ) == target && ++found == nth )
+            {
+                return candidate;
+            }
+        }
+    }
+
+    private static int segment( String key )
+    {
+        int hash = key.hashCode();
+        return ( hash ^ ( hash >>> 16 ) ) & 15;
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.polygene.api.common.QualifiedName;
+import org.apache.polygene.api.entity.EntityBuilder;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.identity.StringIdentity;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entity.EntityStatus;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AsyncStateChangeListenerTest extends AbstractPolygeneTest
+{
+    private static final QualifiedName NAME = QualifiedName.fromClass( Thing.class, "name" );
+    private static final List<List<String>> DELIVERED = new ArrayList<>();
+    private static final Map<String, Integer> ATTEMPTS = new ConcurrentHashMap<>();
+    private static final Semaphore ENTERED = new Semaphore( 0 );
+    private static final AtomicReference<Throwable> LISTENER_FAILURE = new AtomicReference<>();
+    private static volatile CountDownLatch gate;
+
+    private final AsyncStateChangeOptions options
+        = new AsyncStateChangeOptions( 2, 4, Duration.ofMillis( 10 ), null, 3 );
+
+    @Override
+    public void assemble( ModuleAssembly module )
+    {
+        module.entities( Thing.class );
+        module.services( RecordingListener.class ).setMetaInfo( options );
+        new EntityTestAssembler().assemble( module );
+    }
+
+    @Before
+    public void resetListener()
+    {
+        synchronized( DELIVERED )
+        {
+            DELIVERED.clear();
+        }
+        ATTEMPTS.clear();
+        ENTERED.drainPermits();
+        LISTENER_FAILURE.set( null );
+        gate = null;
+    }
+
+    @After
+    public void verifyListener()
+        throws Throwable
+    {
+        if( gate != null )
+        {
+            gate.countDown();
+        }
+        Throwable failure = LISTENER_FAILURE.get();
+        if( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    @Test
+    public void givenAsyncListenerWhenCommittingThenChangesAreDeliveredCoalesced()
+        throws Exception
+    {
+        gate = new CountDownLatch( 1 );
+        create( "thing" );
+        assertThat( ENTERED.tryAcquire( 10, TimeUnit.SECONDS ), is( true ) );
+
+        // Queued while the listener is busy
+        Identity identity = StringIdentity.identityOf( "thing" );
+        for( int i = 0; i < 20; i++ )
+        {
+            try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+            {
+                uow.get( Thing.class, identity ).name().set( "name-" + i );
+                uow.complete();
+            }
+        }
+        gate.countDown();
+
+        assertThat( options.awaitDelivery( Duration.ofSeconds( 10 ) ), is( true ) );
+        assertThat( delivered(), equalTo( Arrays.asList( singletonList( "thing:NEW:thing" ),
+                                                         singletonList( "thing:UPDATED:name-19" ) ) ) );
+    }
+
+    @Test
+    public void givenFullQueueWhenCommittingThenCommitterBlocksUntilDelivery()
+        throws Exception
+    {
+        gate = new CountDownLatch( 1 );
+        create( "a" );
+        assertThat( ENTERED.tryAcquire( 10, TimeUnit.SECONDS ), is( true ) );
+        create( "b" );
+        create( "c" );
+
+        AtomicReference<Throwable> committerFailure = new AtomicReference<>();
+        Thread committer = new Thread( () ->
+        {
+            try
+            {
+                create( "d" );
+            }
+            catch( Throwable e )
+            {
+                committerFailure.set( e );
+            }
+        } );
+        committer.start();
+        committer.join( 500 );
+        assertThat( "Committer blocked on queueCapacity", committer.isAlive(), is( true ) );
+
+        gate.countDown();
+        committer.join( 10_000 );
+        assertThat( committer.isAlive(), is( false ) );
+        assertThat( committerFailure.get(), is( (Throwable) null ) );
+        assertThat( options.awaitDelivery( Duration.ofSeconds( 10 ) ), is( true ) );
+        List<String> identities = new ArrayList<>();
+        delivered().forEach( identities::addAll );
+        Collections.sort( identities );
+        assertThat( identities, equalTo( Arrays.asList( "a:NEW:a", "b:NEW:b", "c:NEW:c", "d:NEW:d" ) ) );
+    }
+
+    @Test
+    public void givenFailingEntityWhenDeliveringThenOthersAreDeliveredAndItIsDropped()
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            for( String name : Arrays.asList( "poison", "ok" ) )
+            {
+                EntityBuilder<Thing> builder = uow.newEntityBuilder( Thing.class, StringIdentity.identityOf( name ) );
+                builder.instance().name().set( name );
+                builder.newInstance();
+            }
+            uow.complete();
+        }
+
+        assertThat( options.awaitDelivery( Duration.ofSeconds( 10 ) ), is( true ) );
+        assertThat( delivered(), equalTo( singletonList( singletonList( "ok:NEW:ok" ) ) ) );
+        assertThat( ATTEMPTS.get( "poison" ), equalTo( 3 ) );
+    }
+
+    @Test
+    public void givenFailedDeliveryThreadWhenCommittingThenCommitFails()
+        throws Exception
+    {
+        create( "fatal" );
+        try
+        {
+            options.awaitDelivery( Duration.ofSeconds( 10 ) );
+            fail( "Delivery thread failure not reported" );
+        }
+        catch( EntityStoreException expected )
+        {
+            // Expected
+        }
+        try
+        {
+            create( "next" );
+            fail( "Committed while changes cannot be delivered" );
+        }
+        catch( Exception expected )
+        {
+            Throwable cause = expected;
+            while( cause != null && !( cause instanceof EntityStoreException ) )
+            {
+                cause = cause.getCause();
+            }
+            assertThat( cause instanceof EntityStoreException, is( true ) );
+        }
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            // Committed before the failure
+            assertThat( uow.get( Thing.class, StringIdentity.identityOf( "fatal" ) ).name().get(),
+                        equalTo( "fatal" ) );
+        }
+    }
+
+    private void create( String name )
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            EntityBuilder<Thing> builder = uow.newEntityBuilder( Thing.class, StringIdentity.identityOf( name ) );
+            builder.instance().name().set( name );
+            builder.newInstance();
+            uow.complete();
+        }
+    }
+
+    private static List<List<String>> delivered()
+    {
+        synchronized( DELIVERED )
+        {
+            return new ArrayList<>( DELIVERED );
+        }
+    }
+
+    public interface Thing
+    {
+        Property<String> name();
+    }
+
+    @Mixins( RecordingListener.Mixin.class )
+    public interface RecordingListener
+        extends StateChangeListener
+    {
+        class Mixin
+            implements StateChangeListener
+        {
+            @Override
+            public void notifyChanges( Iterable<EntityState> changedStates )
+            {
+                List<String> batch = new ArrayList<>();
+                for( EntityState state : changedStates )
+                {
+                    String identity = state.entityReference().identity().toString();
+                    if( state.status() == EntityStatus.LOADED )
+                    {
+                        // Handed back to the test thread
+                        LISTENER_FAILURE.compareAndSet( null, new AssertionError( "Loaded state of " + identity
+                                                                                  + " delivered" ) );
+                    }
+                    batch.add( identity + ':' + state.status() + ':' + state.propertyValueOf( NAME ) );
+                }
+                ENTERED.release();
+                CountDownLatch current = gate;
+                if( current != null )
+                {
+                    try
+                    {
+                        current.await( 10, TimeUnit.SECONDS );
+                    }
+                    catch( InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if( batch.stream().anyMatch( change -> change.startsWith( "poison:" ) ) )
+                {
+                    ATTEMPTS.merge( "poison", 1, Integer::sum );
+                    throw new IllegalStateException( "Poison" );
+                }
+                if( batch.stream().anyMatch( change -> change.startsWith( "fatal:" ) ) )
+                {
+                    throw new Error( "Fatal" );
+                }
+                synchronized( DELIVERED )
+                {
+                    DELIVERED.add( batch );
+                }
+            }
+        }
+    }
+}
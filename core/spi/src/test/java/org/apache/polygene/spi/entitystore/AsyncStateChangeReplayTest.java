@@ -0,0 +1,134 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.entitystore.memory.MemoryEntityStoreService;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Replay of the changes journaled before a simulated crash, when the EntityStore is activated.
+ */
+public class AsyncStateChangeReplayTest extends AbstractPolygeneTest
+{
+    private static final List<String> DELIVERED = Collections.synchronizedList( new ArrayList<>() );
+
+    private final CrashedJournal journal = new CrashedJournal();
+    private final AsyncStateChangeOptions options
+        = new AsyncStateChangeOptions( 10, 4, Duration.ofMillis( 10 ), journal );
+
+    @Override
+    public void assemble( ModuleAssembly module )
+    {
+        // Replayed as soon as the store is activated, possibly before any @Before method
+        DELIVERED.clear();
+        module.entities( Thing.class );
+        module.services( RecordingListener.class ).setMetaInfo( options );
+        new EntityTestAssembler().assemble( module );
+        module.services( MemoryEntityStoreService.class ).instantiateOnStartup();
+    }
+
+    @Test
+    public void givenUndeliveredRemovalWhenActivatingStoreThenRemovalIsReplayed()
+        throws Exception
+    {
+        // No commit needed
+        assertThat( options.awaitDelivery( Duration.ofSeconds( 10 ) ), is( true ) );
+        assertThat( DELIVERED, equalTo( singletonList( "gone:REMOVED:Thing" ) ) );
+        assertThat( journal.acknowledged, equalTo( 1L ) );
+        assertThat( journal.unacknowledged().isEmpty(), is( true ) );
+    }
+
+    public interface Thing
+    {
+        Property<String> name();
+    }
+
+    /**
+     * Journal left with a removal that was committed but never delivered.
+     */
+    private static class CrashedJournal
+        implements StateChangeJournal
+    {
+        private final List<Entry> entries = new ArrayList<>( singletonList(
+            new Entry( EntityReference.parseEntityReference( "gone" ), Thing.class.getName() ) ) );
+        private long lastPosition = 1;
+        private volatile long acknowledged;
+
+        @Override
+        public synchronized long append( Collection<Entry> appended )
+        {
+            return ++lastPosition;
+        }
+
+        @Override
+        public synchronized void acknowledge( long position )
+        {
+            acknowledged = Math.max( acknowledged, position );
+            entries.clear();
+        }
+
+        @Override
+        public synchronized long lastPosition()
+        {
+            return lastPosition;
+        }
+
+        @Override
+        public synchronized Collection<Entry> unacknowledged()
+        {
+            return new ArrayList<>( entries );
+        }
+    }
+
+    @Mixins( RecordingListener.Mixin.class )
+    public interface RecordingListener
+        extends StateChangeListener
+    {
+        class Mixin
+            implements StateChangeListener
+        {
+            @Override
+            public void notifyChanges( Iterable<EntityState> changedStates )
+            {
+                for( EntityState state : changedStates )
+                {
+                    DELIVERED.add( state.entityReference().identity() + ":" + state.status() + ':'
+                                   + state.entityDescriptor().primaryType().getSimpleName() );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.spi.entitystore;
+
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.polygene.api.entity.EntityReference;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FileStateChangeJournalTest
+{
+    private static final String TYPE = "org.example.Thing";
+
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder();
+
+    @Test
+    public void givenAcknowledgedRecordsWhenReopeningThenOnlyUnacknowledgedAreReplayed()
+        throws Exception
+    {
+        File file = new File( tmpDir.getRoot(), "journal" );
+        FileStateChangeJournal journal = new FileStateChangeJournal( file );
+        assertThat( journal.append( entries( "a" ) ), equalTo( 1L ) );
+        assertThat( journal.append( entries( "b", "c" ) ), equalTo( 2L ) );
+        journal.acknowledge( 1 );
+
+        FileStateChangeJournal reopened = new FileStateChangeJournal( file );
+        assertThat( reopened.unacknowledged(), equalTo( entries( "b", "c" ) ) );
+        assertThat( reopened.lastPosition(), equalTo( 2L ) );
+        assertThat( reopened.append( entries( "d" ) ), equalTo( 3L ) );
+    }
+
+    @Test
+    public void givenReopenedJournalWhenAcknowledgingThenLaterRecordsAreKept()
+        throws Exception
+    {
+        File file = new File( tmpDir.getRoot(), "journal" );
+        FileStateChangeJournal journal = new FileStateChangeJournal( file );
+        journal.append( entries( "a" ) );
+        journal.append( entries( "b" ) );
+        journal.append( entries( "c" ) );
+
+        FileStateChangeJournal reopened = new FileStateChangeJournal( file );
+        reopened.append( entries( "d" ) );
+        reopened.acknowledge( 2 );
+        assertThat( reopened.unacknowledged(), equalTo( entries( "c" ) ) );
+
+        assertThat( new FileStateChangeJournal( file ).unacknowledged(), equalTo( entries( "c", "d" ) ) );
+    }
+
+    @Test
+    public void givenRepeatedEntityWhenReopeningThenLatestEntryIsReplayedOnce()
+        throws Exception
+    {
+        File file = new File( tmpDir.getRoot(), "journal" );
+        FileStateChangeJournal journal = new FileStateChangeJournal( file );
+        journal.append( entries( "a", "b" ) );
+        journal.append( entries( "a" ) );
+
+        assertThat( new FileStateChangeJournal( file ).unacknowledged(), equalTo( entries( "b", "a" ) ) );
+    }
+
+    @Test
+    public void givenEverythingAcknowledgedThenFileIsEmptied()
+        throws Exception
+    {
+        File file = new File( tmpDir.getRoot(), "journal" );
+        FileStateChangeJournal journal = new FileStateChangeJournal( file );
+        journal.append( entries( "a" ) );
+        long position = journal.append( entries( "b" ) );
+        journal.acknowledge( position );
+
+        assertThat( file.length(), equalTo( 0L ) );
+        FileStateChangeJournal reopened = new FileStateChangeJournal( file );
+        assertThat( reopened.unacknowledged().isEmpty(), is( true ) );
+        assertThat( reopened.lastPosition(), equalTo( 0L ) );
+    }
+
+    private static List<StateChangeJournal.Entry> entries( String... identities )
+    {
+        StateChangeJournal.Entry[] entries = new StateChangeJournal.Entry[ identities.length ];
+        for( int i = 0; i < identities.length; i++ )
+        {
+            entries[ i ] = new StateChangeJournal.Entry( EntityReference.parseEntityReference( identities[ i ] ),
+                                                         TYPE );
+        }
+        return Arrays.asList( entries );
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.entitystore.helpers;
+
+import org.apache.polygene.api.entity.EntityBuilder;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.identity.StringIdentity;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.entitystore.memory.MemoryEntityStoreService;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class EntityStateCacheTest extends AbstractPolygeneTest
+{
+    private static final Identity ID = StringIdentity.identityOf( "counter" );
+
+    @Override
+    public void assemble( ModuleAssembly module )
+    {
+        module.entities( Counter.class );
+        module.services( MemoryEntityStoreService.class )
+              .setMetaInfo( new EntityStateCacheOptions( 1024 * 1024 ) );
+        module.defaultServices();
+    }
+
+    @Test
+    public void givenCachedEntityWhenUpdatedInSuccessiveUnitOfWorksExpectNoConcurrentModification()
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            EntityBuilder<Counter> builder = uow.newEntityBuilder( Counter.class, ID );
+            builder.instance().count().set( 0 );
+            builder.newInstance();
+            uow.complete();
+        }
+        for( int i = 1; i <= 3; i++ )
+        {
+            try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+            {
+                Counter counter = uow.get( Counter.class, ID );
+                counter.count().set( counter.count().get() + 1 );
+                uow.complete();
+            }
+        }
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            assertThat( uow.get( Counter.class, ID ).count().get(), equalTo( 3 ) );
+        }
+    }
+
+    public interface Counter
+    {
+        Property<Integer> count();
+    }
+}
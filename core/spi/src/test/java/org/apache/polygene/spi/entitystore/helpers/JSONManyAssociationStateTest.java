@@ -148,4 +148,31 @@ public class JSONManyAssociationStateTest extends AbstractPolygeneTest
                                    "C", "B", "A", "0", "2", "1"
                                }, refList.toArray() );
     }
+
+    @Test
+    public void givenLoadedStateWhenAddingReferencesExpectSharedStateUntouchedUntilStateIsBuilt()
+    {
+        JsonObject state = Json.createObjectBuilder()
+                               .add( JSONKeys.VALUE, Json.createObjectBuilder()
+                                                         .add( "under-test", Json.createArrayBuilder().add( "0" ) ) )
+                               .build();
+        JSONEntityState entityState = new JSONEntityState( module,
+                                                           serialization,
+                                                           jsonFactories,
+                                                           "0",
+                                                           SystemTime.now(),
+                                                           EntityReference.parseEntityReference( "123" ),
+                                                           EntityStatus.LOADED,
+                                                           null,
+                                                           state );
+        JSONManyAssociationState jsonState = new JSONManyAssociationState( jsonFactories, entityState, "under-test" );
+
+        assertThat( jsonState.add( 1, EntityReference.parseEntityReference( "1" ) ), is( true ) );
+        assertThat( jsonState.add( 2, EntityReference.parseEntityReference( "0" ) ), is( false ) );
+
+        assertThat( entityState.status(), equalTo( EntityStatus.UPDATED ) );
+        assertThat( state.getJsonObject( JSONKeys.VALUE ).getJsonArray( "under-test" ).size(), equalTo( 1 ) );
+        assertThat( entityState.state().getJsonObject( JSONKeys.VALUE ).getJsonArray( "under-test" ).size(),
+                    equalTo( 2 ) );
+    }
 }
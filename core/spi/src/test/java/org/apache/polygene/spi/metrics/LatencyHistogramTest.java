@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void givenEmptyHistogramExpectZeroes()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat( histogram.count(), is( 0L ) );
+        assertThat( histogram.mean(), is( 0D ) );
+        assertThat( histogram.max(), is( 0L ) );
+        assertThat( histogram.percentile( 99 ), is( 0L ) );
+    }
+
+    @Test
+    public void givenSmallValuesExpectExactPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for( long value = 1; value <= 10; value++ )
+        {
+            histogram.record( value );
+        }
+        assertThat( histogram.count(), is( 10L ) );
+        assertThat( histogram.mean(), is( 5.5D ) );
+        assertThat( histogram.percentile( 50 ), is( 5L ) );
+        assertThat( histogram.percentile( 100 ), is( 10L ) );
+        assertThat( histogram.max(), is( 10L ) );
+    }
+
+    @Test
+    public void givenLargeValuesExpectPercentilesWithinRelativeError()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for( long value = 1; value <= 100_000; value++ )
+        {
+            histogram.record( value * 1_000 );
+        }
+        assertWithin( histogram.percentile( 50 ), 50_000_000L );
+        assertWithin( histogram.percentile( 99 ), 99_000_000L );
+        assertThat( histogram.percentile( 100 ), is( 100_000_000L ) );
+    }
+
+    @Test
+    public void givenNegativeOrHugeValuesExpectThemRecorded()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( -5 );
+        histogram.record( Long.MAX_VALUE );
+        assertThat( histogram.count(), is( 2L ) );
+        assertThat( histogram.percentile( 50 ), is( 0L ) );
+        assertThat( histogram.percentile( 100 ), is( Long.MAX_VALUE ) );
+    }
+
+    @Test
+    public void givenEveryBucketExpectHighestValueMapsBackToIt()
+    {
+        for( int bucket = 0; bucket < 488; bucket++ )
+        {
+            long highest = LatencyHistogram.highestValueOf( bucket );
+            assertThat( LatencyHistogram.bucketOf( highest ), is( bucket ) );
+            if( highest < Long.MAX_VALUE )
+            {
+                assertThat( LatencyHistogram.bucketOf( highest + 1 ), is( bucket + 1 ) );
+            }
+        }
+    }
+
+    private static void assertWithin( long actual, long expected )
+    {
+        assertTrue( "Expected " + expected + " within 12.5%, was " + actual,
+                    Math.abs( actual - expected ) <= expected / 8 );
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.polygene.api.metrics.Metric;
+import org.apache.polygene.api.metrics.MetricsGauge;
+import org.apache.polygene.api.metrics.MetricsGaugeFactory;
+import org.apache.polygene.api.metrics.MetricsProvider;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class RuntimeMetricsTest
+{
+    private final List<String> registered = new ArrayList<>();
+    private final List<MetricsGauge<?>> gauges = new ArrayList<>();
+    private final MetricsProvider provider = new MetricsProviderAdapter()
+    {
+        @Override
+        protected MetricsGaugeFactory createMetricsGaugeFactory()
+        {
+            return new MetricsGaugeFactory()
+            {
+                @Override
+                public <T> MetricsGauge<T> registerGauge( String name, MetricsGauge<T> gauge )
+                {
+                    if( registered.contains( name ) )
+                    {
+                        throw new IllegalArgumentException( "A metric named " + name + " already exists" );
+                    }
+                    registered.add( name );
+                    gauges.add( gauge );
+                    return gauge;
+                }
+
+                @Override
+                public Stream<Metric> registered()
+                {
+                    return gauges.stream().map( Metric.class::cast );
+                }
+            };
+        }
+    };
+
+    @Test
+    public void givenCounterWhenRequestedTwiceExpectSameCounterPublishedOnce()
+    {
+        RuntimeMetrics metrics = new RuntimeMetrics( null, () -> provider );
+        LongAdder counter = metrics.counter( "store.loads" );
+        counter.add( 3 );
+        assertSame( counter, metrics.counter( "store.loads" ) );
+        assertThat( registered.size(), is( 1 ) );
+        assertThat( gauges.get( 0 ).value(), is( 3L ) );
+        assertThat( metrics.snapshot().get( "store.loads" ), is( 3L ) );
+    }
+
+    @Test
+    public void givenHistogramExpectPublishedAsGauges()
+    {
+        RuntimeMetrics metrics = new RuntimeMetrics( null, () -> provider );
+        metrics.histogram( "listener.latency" ).record( 42 );
+        metrics.histogram( "listener.latency" ).record( 42 );
+        assertThat( registered.size(), is( 5 ) );
+        assertThat( metrics.snapshot().get( "listener.latency.count" ), is( 2L ) );
+        assertThat( metrics.snapshot().get( "listener.latency.max" ), is( 42L ) );
+    }
+
+    @Test
+    public void givenMetricCreatedWhilePublishingExpectItPublishedToo()
+    {
+        RuntimeMetrics[] holder = new RuntimeMetrics[ 1 ];
+        holder[ 0 ] = new RuntimeMetrics( null, () ->
+        {
+            // Activating the provider uses the runtime that records metrics
+            holder[ 0 ].counter( "provider.misses" ).increment();
+            return provider;
+        } );
+        holder[ 0 ].counter( "store.loads" );
+        assertThat( registered.contains( "store.loads" ), is( true ) );
+        assertThat( registered.contains( "provider.misses" ), is( true ) );
+    }
+
+    @Test
+    public void givenNoProviderExpectSnapshotOnly()
+    {
+        RuntimeMetrics metrics = new RuntimeMetrics( null, () -> null );
+        metrics.gauge( "cache.hitRatio", () -> 0.5D );
+        assertThat( metrics.snapshot().get( "cache.hitRatio" ), is( 0.5D ) );
+    }
+}
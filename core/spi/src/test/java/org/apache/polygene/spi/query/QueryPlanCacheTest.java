@@ -0,0 +1,150 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.property.Property;
+import org.junit.Test;
+
+import static org.apache.polygene.api.query.QueryExpressions.and;
+import static org.apache.polygene.api.query.QueryExpressions.eq;
+import static org.apache.polygene.api.query.QueryExpressions.gt;
+import static org.apache.polygene.api.query.QueryExpressions.templateFor;
+import static org.apache.polygene.api.query.QueryExpressions.variable;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class QueryPlanCacheTest
+{
+    @Test
+    public void givenSameQueryWithOtherLiteralsWhenComputingShapeExpectDifferentShapes()
+    {
+        Person person = templateFor( Person.class );
+        assertThat( shapeOf( eq( person.name(), "Jane" ), null ), equalTo( shapeOf( eq( person.name(), "Jane" ), null ) ) );
+        assertThat( shapeOf( eq( person.name(), "Jane" ), null ), not( equalTo( shapeOf( eq( person.name(), "John" ), null ) ) ) );
+        assertThat( shapeOf( eq( person.name(), "Jane" ), null ), not( equalTo( shapeOf( eq( person.city(), "Jane" ), null ) ) ) );
+    }
+
+    @Test
+    public void givenQueryWithVariablesWhenComputingShapeExpectIndependentFromValues()
+    {
+        Person person = templateFor( Person.class );
+        Predicate<Composite> where = and( eq( person.name(), variable( "name" ) ), gt( person.age(), variable( "age" ) ) );
+        assertThat( shapeOf( where, variables( "Jane", 30 ) ), equalTo( shapeOf( where, variables( "John", 40 ) ) ) );
+        assertThat( shapeOf( where, variables( "Jane", 30 ) ), not( equalTo( shapeOf( where, variables( "Jane", 30L ) ) ) ) );
+    }
+
+    @Test
+    public void givenLambdaWhereClauseWhenComputingShapeExpectUncacheable()
+    {
+        assertThat( shapeOf( composite -> true, null ), nullValue() );
+    }
+
+    @Test
+    public void givenParameterVariableWhenPlanningExpectReusedAndRebound()
+    {
+        Person person = templateFor( Person.class );
+        Predicate<Composite> where = eq( person.name(), variable( "name" ) );
+        QueryPlanCache<String> cache = new QueryPlanCache<>();
+        int[] translations = new int[ 1 ];
+
+        for( String name : Arrays.asList( "Jane", "John" ) )
+        {
+            Map<String, Object> variables = Collections.singletonMap( "name", name );
+            QueryPlanCache.Plan<String> plan = cache.plan( shapeOf( where, variables ), variables, tracked ->
+            {
+                translations[ 0 ]++;
+                tracked.get( "name" );
+                QueryVariables.parameter( tracked, "name", 0 );
+                return "name = ?";
+            } );
+            List<Object> parameters = plan.bind( Collections.singletonList( null ), variables );
+            assertThat( parameters.get( 0 ), equalTo( name ) );
+        }
+
+        assertThat( translations[ 0 ], equalTo( 1 ) );
+        assertThat( cache.hits(), equalTo( 1L ) );
+        assertThat( cache.misses(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void givenInlinedVariableWhenPlanningWithOtherValueExpectTranslatedAgain()
+    {
+        Person person = templateFor( Person.class );
+        Predicate<Composite> where = eq( person.name(), variable( "name" ) );
+        QueryPlanCache<String> cache = new QueryPlanCache<>();
+
+        for( String name : Arrays.asList( "Jane", "Jane", "John" ) )
+        {
+            Map<String, Object> variables = Collections.singletonMap( "name", name );
+            String plan = cache.plan( shapeOf( where, variables ), variables,
+                                      tracked -> "name = '" + tracked.get( "name" ) + "'" ).plan();
+            assertThat( plan, equalTo( "name = '" + name + "'" ) );
+        }
+
+        assertThat( cache.hits(), equalTo( 1L ) );
+        assertThat( cache.misses(), equalTo( 2L ) );
+    }
+
+    @Test
+    public void givenFullCacheWhenPlanningExpectLeastRecentlyUsedEvicted()
+    {
+        Person person = templateFor( Person.class );
+        QueryPlanCache<String> cache = new QueryPlanCache<>( 2 );
+        for( String name : Arrays.asList( "a", "b", "a", "c", "a", "b" ) )
+        {
+            cache.plan( shapeOf( eq( person.name(), name ), null ), null, tracked -> name );
+        }
+
+        assertThat( cache.size(), equalTo( 2 ) );
+        assertThat( cache.hits(), equalTo( 2L ) );
+        assertThat( cache.misses(), equalTo( 4L ) );
+    }
+
+    private static QueryShape shapeOf( Predicate<Composite> where, Map<String, Object> variables )
+    {
+        return QueryShape.of( "find", Person.class, where, null, null, null, variables );
+    }
+
+    private static Map<String, Object> variables( String name, Object age )
+    {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put( "name", name );
+        variables.put( "age", age );
+        return variables;
+    }
+
+    public interface Person
+    {
+        Property<String> name();
+
+        Property<String> city();
+
+        Property<Integer> age();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.spi.serialization;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.polygene.api.serialization.Converter;
+import org.apache.polygene.api.serialization.Converters;
+import org.apache.polygene.api.type.CollectionType;
+import org.apache.polygene.api.type.EnumType;
+import org.apache.polygene.api.type.MapType;
+import org.apache.polygene.api.type.ValueType;
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ValueCodecsTest
+{
+    @Test
+    public void givenClassesWhenResolvingSerializationCodecsExpectFormatsDispatchOrder()
+    {
+        ValueCodecs<String> codecs = new ValueCodecs<>( bigDecimalConverter(), adapterFor( ValueType.STRING ) );
+
+        assertThat( codecs.serializationCodecFor( BigDecimal.class ).kind(), equalTo( ValueCodec.Kind.CONVERTED ) );
+        assertThat( codecs.serializationCodecFor( String.class ).kind(), equalTo( ValueCodec.Kind.ADAPTED ) );
+        assertThat( codecs.serializationCodecFor( String.class ).adapter(), equalTo( "adapter" ) );
+        // Enums have a built-in converter
+        assertThat( codecs.serializationCodecFor( TimeUnit.class ).kind(), equalTo( ValueCodec.Kind.CONVERTED ) );
+        assertThat( codecs.serializationCodecFor( HashMap.class ).kind(), equalTo( ValueCodec.Kind.MAP ) );
+        assertThat( codecs.serializationCodecFor( int[].class ).kind(), equalTo( ValueCodec.Kind.ARRAY ) );
+        assertThat( codecs.serializationCodecFor( ArrayList.class ).kind(), equalTo( ValueCodec.Kind.ITERABLE ) );
+        assertThat( codecs.serializationCodecFor( Stream.empty().getClass() ).kind(),
+                    equalTo( ValueCodec.Kind.STREAM ) );
+        assertThat( codecs.serializationCodecFor( Object.class ).kind(), equalTo( ValueCodec.Kind.UNKNOWN ) );
+    }
+
+    @Test
+    public void givenValueTypesWhenResolvingDeserializationCodecsExpectFormatsDispatchOrder()
+    {
+        ValueCodecs<String> codecs = new ValueCodecs<>( bigDecimalConverter(), adapterFor( ValueType.STRING ) );
+
+        assertThat( codecs.deserializationCodecFor( ValueType.of( BigDecimal.class ) ).kind(),
+                    equalTo( ValueCodec.Kind.CONVERTED ) );
+        assertThat( codecs.deserializationCodecFor( ValueType.STRING ).kind(), equalTo( ValueCodec.Kind.ADAPTED ) );
+        assertThat( codecs.deserializationCodecFor( EnumType.of( TimeUnit.class ) ).kind(),
+                    equalTo( ValueCodec.Kind.CONVERTED ) );
+        assertThat( codecs.deserializationCodecFor( CollectionType.setOf( String.class ) ).kind(),
+                    equalTo( ValueCodec.Kind.COLLECTION ) );
+        assertThat( codecs.deserializationCodecFor( MapType.of( String.class, Integer.class ) ).kind(),
+                    equalTo( ValueCodec.Kind.MAP ) );
+        assertThat( codecs.deserializationCodecFor( ValueType.of( Object.class ) ).kind(),
+                    equalTo( ValueCodec.Kind.UNKNOWN ) );
+    }
+
+    @Test
+    public void givenResolvedCodecWhenResolvingAgainExpectCachedCodec()
+    {
+        AtomicInteger lookups = new AtomicInteger();
+        ValueCodecs<String> codecs = new ValueCodecs<>( new Converters.Mixin(), valueType ->
+        {
+            lookups.incrementAndGet();
+            return null;
+        } );
+
+        ValueCodec<String> codec = codecs.serializationCodecFor( ArrayList.class );
+        assertThat( codecs.serializationCodecFor( ArrayList.class ), sameInstance( codec ) );
+        assertThat( codecs.serializationCodecFor( ArrayList.class ).adapter(), nullValue() );
+        assertThat( lookups.get(), equalTo( 1 ) );
+
+        codec = codecs.deserializationCodecFor( CollectionType.listOf( String.class ) );
+        assertThat( codecs.deserializationCodecFor( CollectionType.listOf( String.class ) ), sameInstance( codec ) );
+        assertThat( lookups.get(), equalTo( 2 ) );
+    }
+
+    private static Converters bigDecimalConverter()
+    {
+        Converters converters = new Converters.Mixin();
+        converters.registerConverter( ValueType.of( BigDecimal.class ), new Converter<BigDecimal>()
+        {
+            @Override
+            public Class<BigDecimal> type()
+            {
+                return BigDecimal.class;
+            }
+
+            @Override
+            public String toString( BigDecimal object )
+            {
+                return object.toString();
+            }
+
+            @Override
+            public BigDecimal fromString( String string )
+            {
+                return new BigDecimal( string );
+            }
+        } );
+        return converters;
+    }
+
+    private static Function<ValueType, String> adapterFor( ValueType adapted )
+    {
+        return valueType -> valueType.equals( adapted ) ? "adapter" : null;
+    }
+}
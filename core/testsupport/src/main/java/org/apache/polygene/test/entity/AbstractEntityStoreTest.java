@@ -28,6 +28,8 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Period;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +42,7 @@ import org.apache.polygene.api.common.UseDefaults;
 import org.apache.polygene.api.entity.EntityBuilder;
 import org.apache.polygene.api.entity.EntityComposite;
 import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.identity.StringIdentity;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.Structure;
 import org.apache.polygene.api.property.Property;
@@ -320,6 +323,47 @@ public abstract class AbstractEntityStoreTest
         }
     }
 
+    @Test
+    public void whenGetSeveralEntitiesThenAllAreFoundInOrder()
+        throws Exception
+    {
+        List<Identity> identities = new ArrayList<>();
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            for( int i = 0; i < 5; i++ )
+            {
+                TestEntity instance = createEntity( unitOfWork );
+                instance.name().set( "Test " + i );
+                identities.add( instance.identity().get() );
+            }
+            unitOfWork.complete();
+        }
+        Collections.reverse( identities );
+
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            List<TestEntity> entities = unitOfWork.get( TestEntity.class, identities );
+            assertThat( entities.size(), equalTo( identities.size() ) );
+            for( int i = 0; i < identities.size(); i++ )
+            {
+                assertThat( entities.get( i ).identity().get(), equalTo( identities.get( i ) ) );
+                assertThat( entities.get( i ).name().get(), equalTo( "Test " + ( identities.size() - 1 - i ) ) );
+            }
+        }
+
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            List<Identity> withMissing = new ArrayList<>( identities );
+            withMissing.add( StringIdentity.identityOf( "does-not-exist" ) );
+            unitOfWork.get( TestEntity.class, withMissing );
+            fail( "Should not be able to find all entities" );
+        }
+        catch( NoSuchEntityException e )
+        {
+            // Ok!
+        }
+    }
+
     @Test
     public void givenEntityIsNotModifiedWhenUnitOfWorkCompletesThenDontStoreState()
         throws UnitOfWorkCompletionException
@@ -490,6 +534,69 @@ public abstract class AbstractEntityStoreTest
         }
     }
 
+    @Test
+    public void givenConcurrentUnitOfWorksWhenOneOfTwoEntitiesConflictsThenNoChangeIsApplied()
+        throws UnitOfWorkCompletionException
+    {
+        TestEntity[] entities = new TestEntity[ 2 ];
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            entities[ 0 ] = unitOfWork.newEntityBuilder( TestEntity.class ).newInstance();
+            entities[ 1 ] = unitOfWork.newEntityBuilder( TestEntity.class ).newInstance();
+            unitOfWork.complete();
+        }
+
+        // Stores may apply changes in any order, make each entity conflict in turn
+        String[] names = new String[ 2 ];
+        for( int conflicting = 0; conflicting < 2; conflicting++ )
+        {
+            UnitOfWork unitOfWork1 = unitOfWorkFactory.newUnitOfWork();
+            try
+            {
+                // Change both entities in one UoW
+                TestEntity first = unitOfWork1.get( entities[ 0 ] );
+                if( spi.entityStateOf( first ).version().isEmpty() )
+                {
+                    return; // Store doesn't track versions - no point in testing it
+                }
+                first.name().set( "A" );
+                unitOfWork1.get( entities[ 1 ] ).name().set( "A" );
+                try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+                {
+                    // Change one of them in another UoW, and complete it
+                    names[ conflicting ] = "B" + conflicting;
+                    unitOfWork.get( entities[ conflicting ] ).name().set( names[ conflicting ] );
+                    unitOfWork.complete();
+                }
+                try
+                {
+                    unitOfWork1.complete();
+                    fail( "Should have thrown concurrent modification exception" );
+                }
+                catch( ConcurrentEntityModificationException e )
+                {
+                    // Expected
+                }
+            }
+            finally
+            {
+                if( unitOfWork1.isOpen() )
+                {
+                    unitOfWork1.discard();
+                }
+            }
+
+            try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+            {
+                assertThat( "conflicting change not applied",
+                            unitOfWork.get( entities[ conflicting ] ).name().get(), equalTo( names[ conflicting ] ) );
+                assertThat( "unconflicting change not applied",
+                            unitOfWork.get( entities[ 1 - conflicting ] ).name().get(),
+                            equalTo( names[ 1 - conflicting ] ) );
+            }
+        }
+    }
+
     @Test
     public void givenEntityStoredLoadedChangedWhenUnitOfWorkDiscardsThenDontStoreState()
         throws UnitOfWorkCompletionException
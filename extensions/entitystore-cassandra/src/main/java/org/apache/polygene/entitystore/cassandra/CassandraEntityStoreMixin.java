@@ -21,6 +21,7 @@ package org.apache.polygene.entitystore.cassandra;
 
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -115,6 +116,32 @@ public class CassandraEntityStoreMixin
         return queryFor( cluster.entityRetrieveStatement().bind( reference.identity().toString() ), module, reference );
     }
 
+    @Override
+    public Map<EntityReference, EntityState> entityStatesOf( EntityStoreUnitOfWork unitOfWork,
+                                                             ModuleDescriptor module,
+                                                             Iterable<EntityReference> references )
+    {
+        // Partition key lookups are issued concurrently rather than with an IN clause, so that each one is routed
+        // to its own replica instead of funnelling through a single coordinator
+        Session session = cluster.cassandraClientSession();
+        Map<EntityReference, ResultSetFuture> pending = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            BoundStatement statement = cluster.entityRetrieveStatement().bind( reference.identity().toString() );
+            pending.put( reference, session.executeAsync( statement ) );
+        }
+        Map<EntityReference, EntityState> states = new LinkedHashMap<>();
+        for( Map.Entry<EntityReference, ResultSetFuture> entry : pending.entrySet() )
+        {
+            Row row = entry.getValue().getUninterruptibly().one();
+            if( row != null )
+            {
+                states.put( entry.getKey(), deserialize( row, module ) );
+            }
+        }
+        return states;
+    }
+
     private EntityState queryFor( BoundStatement statement, ModuleDescriptor module, EntityReference reference )
     {
         ResultSet result = cluster.cassandraClientSession().execute( statement );
@@ -27,6 +27,7 @@ import org.apache.polygene.library.locking.LockingAbstractComposite;
 import org.apache.polygene.spi.entitystore.ConcurrentModificationCheckConcern;
 import org.apache.polygene.spi.entitystore.EntityStateVersions;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.StateChangeNotificationActivation;
 import org.apache.polygene.spi.entitystore.StateChangeNotificationConcern;
 
 /**
@@ -39,7 +40,8 @@ public interface CassandraEntityStoreService
             EntityStateVersions,
             ServiceActivation,
             LockingAbstractComposite,
-            Configuration
+            Configuration,
+            StateChangeNotificationActivation
 {
     String CURRENT_STORAGE_VERSION = "1";
     String DEFAULT_KEYSPACE_NAME = "polygene";
@@ -27,6 +27,7 @@ import org.apache.polygene.spi.entitystore.BackupRestore;
 import org.apache.polygene.spi.entitystore.ConcurrentModificationCheckConcern;
 import org.apache.polygene.spi.entitystore.EntityStateVersions;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.StateChangeNotificationActivation;
 import org.apache.polygene.spi.entitystore.StateChangeNotificationConcern;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreActivation;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreMixin;
@@ -46,6 +47,7 @@ public interface FileEntityStoreService
                 StateStore,
                 BackupRestore,
                 LockingAbstractComposite,
-                Configuration
+                Configuration,
+                StateChangeNotificationActivation
 {
 }
@@ -30,6 +30,10 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 import org.apache.polygene.api.configuration.Configuration;
 import org.apache.polygene.api.entity.EntityDescriptor;
@@ -102,6 +106,25 @@ public class HazelcastEntityStoreMixin
         return new StringReader( serializedState );
     }
 
+    @Override
+    public Map<EntityReference, Reader> get( Iterable<EntityReference> refs )
+        throws EntityStoreException
+    {
+        Set<String> keys = new LinkedHashSet<>();
+        refs.forEach( ref -> keys.add( ref.identity().toString() ) );
+        Map<String, String> serializedStates = stringMap.getAll( keys );
+        Map<EntityReference, Reader> states = new LinkedHashMap<>();
+        for( EntityReference ref : refs )
+        {
+            String serializedState = serializedStates.get( ref.identity().toString() );
+            if( serializedState != null )
+            {
+                states.put( ref, new StringReader( serializedState ) );
+            }
+        }
+        return states;
+    }
+
     @Override
     public void applyChanges( MapChanges changes )
         throws Exception
@@ -27,6 +27,7 @@ import org.apache.polygene.library.locking.LockingAbstractComposite;
 import org.apache.polygene.spi.entitystore.ConcurrentModificationCheckConcern;
 import org.apache.polygene.spi.entitystore.EntityStateVersions;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.StateChangeNotificationActivation;
 import org.apache.polygene.spi.entitystore.StateChangeNotificationConcern;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreActivation;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreMixin;
@@ -43,6 +44,7 @@ public interface JCloudsEntityStoreService
             EntityStore,
             EntityStateVersions,
             LockingAbstractComposite,
-            Configuration
+            Configuration,
+            StateChangeNotificationActivation
 {
 }
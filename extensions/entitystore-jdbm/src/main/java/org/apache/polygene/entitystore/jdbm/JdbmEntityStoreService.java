@@ -29,6 +29,7 @@ import org.apache.polygene.spi.entitystore.BackupRestore;
 import org.apache.polygene.spi.entitystore.ConcurrentModificationCheckConcern;
 import org.apache.polygene.spi.entitystore.EntityStateVersions;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.StateChangeNotificationActivation;
 import org.apache.polygene.spi.entitystore.StateChangeNotificationConcern;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreActivation;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreMixin;
@@ -48,6 +49,7 @@ public interface JdbmEntityStoreService
             StateStore,
             BackupRestore,
             LockingAbstractComposite,
-            Configuration<JdbmEntityStoreConfiguration>
+            Configuration<JdbmEntityStoreConfiguration>,
+            StateChangeNotificationActivation
 {
 }
@@ -26,6 +26,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.function.Consumer;
@@ -206,6 +207,28 @@ public class LevelDBEntityStoreMixin
     {
         DBIterator iterator = db.iterator();
         iterator.seekToFirst();
+        return entityStates( iterator );
+    }
+
+    @Override
+    public Stream<Reader> entityStatesAfter( EntityReference after )
+    {
+        if( after == null )
+        {
+            return entityStates();
+        }
+        byte[] key = after.identity().toString().getBytes( charset );
+        DBIterator iterator = db.iterator();
+        iterator.seek( key );
+        if( iterator.hasNext() && Arrays.equals( iterator.peekNext().getKey(), key ) )
+        {
+            iterator.next();
+        }
+        return entityStates( iterator );
+    }
+
+    private Stream<Reader> entityStates( DBIterator iterator )
+    {
         return StreamSupport.stream(
             new Spliterators.AbstractSpliterator<Reader>( Long.MAX_VALUE, Spliterator.ORDERED )
             {
@@ -27,6 +27,8 @@ import org.apache.polygene.library.locking.LockingAbstractComposite;
 import org.apache.polygene.spi.entitystore.ConcurrentModificationCheckConcern;
 import org.apache.polygene.spi.entitystore.EntityStateVersions;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.OrderedEntityStates;
+import org.apache.polygene.spi.entitystore.StateChangeNotificationActivation;
 import org.apache.polygene.spi.entitystore.StateChangeNotificationConcern;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreActivation;
 import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreMixin;
@@ -48,9 +50,11 @@ import org.apache.polygene.spi.entitystore.helpers.JSONMapEntityStoreMixin;
 public interface LevelDBEntityStoreService
     extends EntityStore,
             EntityStateVersions,
+            OrderedEntityStates,
             ServiceActivation,
             JSONMapEntityStoreActivation,
             LockingAbstractComposite,
-            Configuration
+            Configuration,
+            StateChangeNotificationActivation
 {
 }
@@ -38,7 +38,10 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.apache.polygene.api.configuration.Configuration;
@@ -53,6 +56,7 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -237,6 +241,44 @@ public class MongoDBEntityStoreMixin
         return new StringReader( jsonState );
     }
 
+    @Override
+    public Map<EntityReference, Reader> get( Iterable<EntityReference> entityReferences )
+        throws EntityStoreException
+    {
+        List<EntityReference> references = new ArrayList<>();
+        List<String> identities = new ArrayList<>();
+        for( EntityReference reference : entityReferences )
+        {
+            references.add( reference );
+            identities.add( reference.identity().toString() );
+        }
+        Map<String, String> found = new HashMap<>();
+        if( !identities.isEmpty() )
+        {
+            try( MongoCursor<Document> cursor = db.getCollection( collectionName )
+                                                  .find( in( IDENTITY_COLUMN, identities ) )
+                                                  .iterator() )
+            {
+                while( cursor.hasNext() )
+                {
+                    Document entity = cursor.next();
+                    Document bsonState = (Document) entity.get( STATE_COLUMN );
+                    found.put( entity.getString( IDENTITY_COLUMN ), JSON.serialize( bsonState ) );
+                }
+            }
+        }
+        Map<EntityReference, Reader> states = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            String jsonState = found.get( reference.identity().toString() );
+            if( jsonState != null )
+            {
+                states.put( reference, new StringReader( jsonState ) );
+            }
+        }
+        return states;
+    }
+
     @Override
     public void applyChanges( MapChanges changes )
         throws Exception
@@ -67,5 +67,13 @@ public interface RedisEntityStoreConfiguration
     @Optional
     Property<Integer> database();
 
+    /**
+     * Number of keys requested per SCAN page when iterating over all entities.
+     *
+     * Each page is then loaded with a single MGET. Defaulted to 1000.
+     */
+    @Optional
+    Property<Integer> scanCount();
+
 }
 // END SNIPPET: config
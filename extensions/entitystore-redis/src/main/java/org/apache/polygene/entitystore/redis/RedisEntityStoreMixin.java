@@ -24,12 +24,23 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.polygene.api.configuration.Configuration;
 import org.apache.polygene.api.entity.EntityDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.service.ServiceActivation;
+import org.apache.polygene.spi.entitystore.ConcurrentEntityStateModificationException;
 import org.apache.polygene.spi.entitystore.EntityAlreadyExistsException;
 import org.apache.polygene.spi.entitystore.EntityNotFoundException;
 import org.apache.polygene.spi.entitystore.EntityStoreException;
@@ -37,7 +48,12 @@ import org.apache.polygene.spi.entitystore.helpers.MapEntityStore;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Transaction;
 
 /**
  * Redis implementation of MapEntityStore.
@@ -47,9 +63,11 @@ public class RedisEntityStoreMixin
 {
     private static final String DEFAULT_HOST = "127.0.0.1";
     private static final String NIL = "nil";
+    private static final int DEFAULT_SCAN_COUNT = 1000;
     @This
     private Configuration<RedisEntityStoreConfiguration> configuration;
     private JedisPool pool;
+    private int scanCount;
 
     @Override
     public void activateService()
@@ -64,6 +82,8 @@ public class RedisEntityStoreMixin
         String password = config.password().get();
         int database = config.database().get() == null ? Protocol.DEFAULT_DATABASE : config.database().get();
 
+        scanCount = config.scanCount().get() == null ? DEFAULT_SCAN_COUNT : config.scanCount().get();
+
         pool = new JedisPool( new JedisPoolConfig(), host, port, timeout, password, database );
     }
 
@@ -96,82 +116,215 @@ public class RedisEntityStoreMixin
         }
     }
 
+    @Override
+    public Map<EntityReference, Reader> get( Iterable<EntityReference> entityReferences )
+        throws EntityStoreException
+    {
+        List<EntityReference> references = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for( EntityReference reference : entityReferences )
+        {
+            references.add( reference );
+            keys.add( reference.identity().toString() );
+        }
+        Map<EntityReference, Reader> states = new LinkedHashMap<>();
+        if( keys.isEmpty() )
+        {
+            return states;
+        }
+        try( Jedis jedis = pool.getResource() )
+        {
+            List<String> jsonStates = jedis.mget( keys.toArray( new String[ keys.size() ] ) );
+            for( int i = 0; i < references.size(); i++ )
+            {
+                String jsonState = jsonStates.get( i );
+                if( !notFound( jsonState ) )
+                {
+                    states.put( references.get( i ), new StringReader( jsonState ) );
+                }
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Apply changes in a constant number of round-trips.
+     * <p>
+     * All touched keys are WATCHed, their existence is checked in a single pipeline, and the writes are then queued
+     * in a MULTI/EXEC transaction. If another client modifies one of the keys in between, EXEC is discarded by Redis
+     * and a {@link ConcurrentEntityStateModificationException} is thrown, so a UnitOfWork is applied all or nothing.
+     * </p>
+     */
     @Override
     public void applyChanges( MapChanges changes )
         throws Exception
     {
-        try( Jedis jedis = pool.getResource() )
+        List<Change> batch = new ArrayList<>();
+        changes.visitMap( new MapChanger()
         {
-            changes.visitMap( new MapChanger()
+            @Override
+            public Writer newEntity( EntityReference ref, EntityDescriptor entityDescriptor )
+                throws IOException
             {
-                @Override
-                public Writer newEntity( EntityReference ref, EntityDescriptor entityDescriptor )
-                    throws IOException
+                return new StringWriter( 1000 )
                 {
-                    return new StringWriter( 1000 )
+                    @Override
+                    public void close()
+                        throws IOException
                     {
-                        @Override
-                        public void close()
-                            throws IOException
-                        {
-                            super.close();
-                            String statusCode = jedis.set( ref.identity().toString(), toString(), "NX" );
-                            if( !"OK".equals( statusCode ) )
-                            {
-                                throw new EntityAlreadyExistsException( ref );
-                            }
-                        }
-                    };
-                }
+                        super.close();
+                        batch.add( new Change( ref, toString(), false ) );
+                    }
+                };
+            }
 
-                @Override
-                public Writer updateEntity( MapChange mapChange )
-                    throws IOException
+            @Override
+            public Writer updateEntity( MapChange mapChange )
+                throws IOException
+            {
+                return new StringWriter( 1000 )
                 {
-                    return new StringWriter( 1000 )
+                    @Override
+                    public void close()
+                        throws IOException
                     {
-                        @Override
-                        public void close()
-                            throws IOException
-                        {
-                            super.close();
-                            String statusCode = jedis.set( mapChange.reference().identity().toString(),
-                                                           toString(),
-                                                           "XX" );
-                            if( !"OK".equals( statusCode ) )
-                            {
-                                throw new EntityNotFoundException( mapChange.reference() );
-                            }
-                        }
-                    };
-                }
+                        super.close();
+                        batch.add( new Change( mapChange.reference(), toString(), true ) );
+                    }
+                };
+            }
 
-                @Override
-                public void removeEntity( EntityReference ref, EntityDescriptor entityDescriptor )
-                    throws EntityNotFoundException
+            @Override
+            public void removeEntity( EntityReference ref, EntityDescriptor entityDescriptor )
+                throws EntityNotFoundException
+            {
+                batch.add( new Change( ref, null, true ) );
+            }
+        } );
+        if( batch.isEmpty() )
+        {
+            return;
+        }
+        try( Jedis jedis = pool.getResource() )
+        {
+            String[] keys = new String[ batch.size() ];
+            for( int i = 0; i < keys.length; i++ )
+            {
+                keys[ i ] = batch.get( i ).key;
+            }
+            jedis.watch( keys );
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Boolean>> existence = new ArrayList<>( keys.length );
+            for( String key : keys )
+            {
+                existence.add( pipeline.exists( key ) );
+            }
+            pipeline.sync();
+            for( int i = 0; i < keys.length; i++ )
+            {
+                Change change = batch.get( i );
+                boolean exists = existence.get( i ).get();
+                if( change.mustExist != exists )
                 {
-                    String jsonState = jedis.get( ref.identity().toString() );
-                    if( notFound( jsonState ) )
+                    jedis.unwatch();
+                    if( exists )
                     {
-                        throw new EntityNotFoundException( ref );
+                        throw new EntityAlreadyExistsException( change.reference );
                     }
-                    jedis.del( ref.identity().toString() );
+                    throw new EntityNotFoundException( change.reference );
+                }
+            }
+            Transaction transaction = jedis.multi();
+            for( Change change : batch )
+            {
+                if( change.state == null )
+                {
+                    transaction.del( change.key );
                 }
-            } );
+                else
+                {
+                    transaction.set( change.key, change.state );
+                }
+            }
+            List<Object> results = transaction.exec();
+            if( results == null || results.isEmpty() )
+            {
+                List<EntityReference> references = new ArrayList<>( batch.size() );
+                batch.forEach( change -> references.add( change.reference ) );
+                throw new ConcurrentEntityStateModificationException( references );
+            }
         }
     }
 
+    /**
+     * Iterate over all entities without blocking the Redis server.
+     * <p>
+     * Keys are walked with SCAN and each page is loaded with a single MGET. As per the SCAN guarantees, an entity
+     * added or removed during the iteration may or may not be returned.
+     * </p>
+     */
     @Override
     public Stream<Reader> entityStates()
     {
         Jedis jedis = pool.getResource();
-        return jedis.keys( "*" ).stream()
-                    .map( key -> (Reader) new StringReader( jedis.get( key ) ) )
-                    .onClose( jedis::close );
+        ScanParams params = new ScanParams().count( scanCount );
+        Spliterator<Reader> spliterator = new Spliterators.AbstractSpliterator<Reader>( Long.MAX_VALUE,
+                                                                                       Spliterator.NONNULL )
+        {
+            private final Deque<String> page = new ArrayDeque<>();
+            private String cursor = ScanParams.SCAN_POINTER_START;
+            private boolean done;
+
+            @Override
+            public boolean tryAdvance( Consumer<? super Reader> action )
+            {
+                while( page.isEmpty() )
+                {
+                    if( done )
+                    {
+                        return false;
+                    }
+                    ScanResult<String> scan = jedis.scan( cursor, params );
+                    cursor = scan.getStringCursor();
+                    done = ScanParams.SCAN_POINTER_START.equals( cursor );
+                    List<String> keys = scan.getResult();
+                    if( !keys.isEmpty() )
+                    {
+                        for( String jsonState : jedis.mget( keys.toArray( new String[ keys.size() ] ) ) )
+                        {
+                            // Removed since SCAN returned its key
+                            if( !notFound( jsonState ) )
+                            {
+                                page.add( jsonState );
+                            }
+                        }
+                    }
+                }
+                action.accept( new StringReader( page.poll() ) );
+                return true;
+            }
+        };
+        return StreamSupport.stream( spliterator, false ).onClose( jedis::close );
     }
 
     private static boolean notFound( String jsonState )
     {
         return jsonState == null || NIL.equals( jsonState );
     }
+
+    private static class Change
+    {
+        private final EntityReference reference;
+        private final String key;
+        private final String state;
+        private final boolean mustExist;
+
+        private Change( EntityReference reference, String state, boolean mustExist )
+        {
+            this.reference = reference;
+            this.key = reference.identity().toString();
+            this.state = state;
+            this.mustExist = mustExist;
+        }
+    }
 }
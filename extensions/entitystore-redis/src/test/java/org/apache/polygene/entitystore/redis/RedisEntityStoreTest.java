@@ -19,17 +19,25 @@
  */
 package org.apache.polygene.entitystore.redis;
 
+import java.util.stream.Stream;
 import org.apache.polygene.api.common.Visibility;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
 import org.apache.polygene.bootstrap.AssemblyException;
 import org.apache.polygene.bootstrap.ModuleAssembly;
 import org.apache.polygene.entitystore.redis.assembly.RedisEntityStoreAssembler;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entitystore.EntityStore;
 import org.apache.polygene.test.EntityTestAssembler;
 import org.apache.polygene.test.docker.DockerRule;
 import org.apache.polygene.test.entity.AbstractEntityStoreTest;
 import org.junit.ClassRule;
+import org.junit.Test;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
 public class RedisEntityStoreTest
     extends AbstractEntityStoreTest
 {
@@ -52,6 +60,7 @@ public class RedisEntityStoreTest
                                                           .declareDefaults();
         redisConfig.host().set( DOCKER.getDockerHost() );
         redisConfig.port().set( DOCKER.getExposedContainerPort( "6379/tcp" ) );
+        redisConfig.scanCount().set( 3 );
         // START SNIPPET: assembly
     }
     // END SNIPPET: assembly
@@ -77,4 +86,24 @@ public class RedisEntityStoreTest
         }
         super.tearDown();
     }
+
+    @Test
+    public void givenManyEntitiesWhenStreamingEntityStatesThenAllScanPagesAreRead()
+        throws Exception
+    {
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            for( int i = 0; i < 25; i++ )
+            {
+                createEntity( unitOfWork );
+            }
+            unitOfWork.complete();
+        }
+
+        EntityStore entityStore = serviceFinder.findService( EntityStore.class ).get();
+        try( Stream<EntityState> states = entityStore.entityStates( module ) )
+        {
+            assertThat( states.count(), is( 25L ) );
+        }
+    }
 }
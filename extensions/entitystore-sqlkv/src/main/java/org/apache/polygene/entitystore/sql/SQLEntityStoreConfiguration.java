@@ -43,5 +43,15 @@ public interface SQLEntityStoreConfiguration extends SQLConfiguration
      */
     @UseDefaults( "true" )
     Property<Boolean> createIfMissing();
+
+    /**
+     * Number of rows fetched per round-trip when streaming all entity states.
+     * <p>
+     * Full scans such as reindexing, migration or backups use a server-side cursor so that memory use does not
+     * depend on the table size. On MySQL and MariaDB rows are always streamed one by one and this setting is ignored.
+     * </p>
+     */
+    @UseDefaults( "1000" )
+    Property<Integer> fetchSize();
 }
 // END SNIPPET: config
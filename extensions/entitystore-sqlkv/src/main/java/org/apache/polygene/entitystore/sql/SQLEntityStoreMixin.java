@@ -22,10 +22,14 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
+import javax.json.JsonObject;
 import javax.sql.DataSource;
 import liquibase.Contexts;
 import liquibase.Liquibase;
@@ -42,13 +46,17 @@ import org.apache.polygene.api.service.ServiceActivation;
 import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.library.sql.liquibase.LiquibaseService;
 import org.apache.polygene.serialization.javaxjson.JavaxJsonFactories;
+import org.apache.polygene.spi.entitystore.BackupRestore;
 import org.apache.polygene.spi.entitystore.EntityNotFoundException;
+import org.apache.polygene.spi.entitystore.EntityStoreException;
 import org.apache.polygene.spi.entitystore.helpers.JSONKeys;
 import org.apache.polygene.spi.entitystore.helpers.MapEntityStore;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Query;
 import org.jooq.Record;
+import org.jooq.Record1;
 import org.jooq.SQLDialect;
 import org.jooq.Schema;
 import org.jooq.Table;
@@ -56,12 +64,14 @@ import org.jooq.conf.Settings;
 import org.jooq.impl.DSL;
 
 public class SQLEntityStoreMixin
-    implements ServiceActivation, MapEntityStore
+    implements ServiceActivation, MapEntityStore, BackupRestore
 {
     private static final String TABLE_NAME_LIQUIBASE_PARAMETER = "es-sql.table";
     private static final String IDENTITY_COLUMN_NAME = "ENTITY_IDENTITY";
     private static final String VERSION_COLUMN_NAME = "ENTITY_VERSION";
     private static final String STATE_COLUMN_NAME = "ENTITY_STATE";
+    private static final int MAX_IN_CLAUSE_SIZE = 500;
+    private static final int RESTORE_BATCH_SIZE = 1000;
 
     @Service
     private DataSource dataSource;
@@ -84,6 +94,9 @@ public class SQLEntityStoreMixin
     private Field<String> versionColumn;
     private Field<String> stateColumn;
     private DSLContext dsl;
+    private SQLDialect dialect;
+    private Settings settings;
+    private int fetchSize;
 
     @Override
     public void activateService() throws Exception
@@ -92,8 +105,10 @@ public class SQLEntityStoreMixin
         SQLEntityStoreConfiguration config = configuration.get();
 
         // Prepare jooq DSL
-        SQLDialect dialect = descriptor.metaInfo( SQLDialect.class );
-        Settings settings = descriptor.metaInfo( Settings.class );
+        dialect = descriptor.metaInfo( SQLDialect.class );
+        settings = descriptor.metaInfo( Settings.class );
+        Integer configuredFetchSize = config.fetchSize().get();
+        fetchSize = configuredFetchSize == null || configuredFetchSize <= 0 ? 1000 : configuredFetchSize;
         String schemaName = config.schemaName().get();
         String tableName = config.entityTableName().get();
         schema = DSL.schema( DSL.name( schemaName ) );
@@ -153,6 +168,8 @@ public class SQLEntityStoreMixin
     public void passivateService() throws Exception
     {
         dsl = null;
+        dialect = null;
+        settings = null;
         schema = null;
         table = null;
         identityColumn = null;
@@ -171,14 +188,153 @@ public class SQLEntityStoreMixin
         return new StringReader( state );
     }
 
+    @Override
+    public Map<EntityReference, Reader> get( Iterable<EntityReference> entityReferences )
+    {
+        List<EntityReference> references = new ArrayList<>();
+        entityReferences.forEach( references::add );
+        Map<String, String> found = new LinkedHashMap<>();
+        // Chunk the IN clause to stay within bind parameter limits of all dialects
+        for( int from = 0; from < references.size(); from += MAX_IN_CLAUSE_SIZE )
+        {
+            List<String> identities = new ArrayList<>();
+            for( EntityReference reference : references.subList( from, Math.min( from + MAX_IN_CLAUSE_SIZE,
+                                                                                  references.size() ) ) )
+            {
+                identities.add( reference.identity().toString() );
+            }
+            dsl.select( identityColumn, stateColumn )
+               .from( table )
+               .where( identityColumn.in( identities ) )
+               .fetch()
+               .forEach( record -> found.put( record.get( identityColumn ), record.get( stateColumn ) ) );
+        }
+        Map<EntityReference, Reader> states = new LinkedHashMap<>();
+        for( EntityReference reference : references )
+        {
+            String state = found.get( reference.identity().toString() );
+            if( state != null )
+            {
+                states.put( reference, new StringReader( state ) );
+            }
+        }
+        return states;
+    }
+
     @Override
     public Stream<Reader> entityStates()
     {
-        return dsl.select( stateColumn )
-                  .from( table )
-                  .fetch( stateColumn )
-                  .stream()
-                  .map( StringReader::new );
+        return streamStates().map( StringReader::new );
+    }
+
+    @Override
+    public Stream<String> backup()
+    {
+        return streamStates();
+    }
+
+    @Override
+    public void restore( Stream<String> states )
+    {
+        dsl.transaction( transaction ->
+        {
+            DSLContext tx = DSL.using( transaction );
+            tx.deleteFrom( table ).execute();
+            List<Query> inserts = new ArrayList<>( RESTORE_BATCH_SIZE );
+            states.forEach( state ->
+            {
+                JsonObject json = jsonFactories.readerFactory().createReader( new StringReader( state ) ).readObject();
+                inserts.add(
+                    tx.insertInto( table )
+                      .columns( identityColumn, versionColumn, stateColumn )
+                      .values( json.getString( JSONKeys.IDENTITY ), json.getString( JSONKeys.VERSION ), state )
+                );
+                if( inserts.size() >= RESTORE_BATCH_SIZE )
+                {
+                    tx.batch( inserts ).execute();
+                    inserts.clear();
+                }
+            } );
+            if( !inserts.isEmpty() )
+            {
+                tx.batch( inserts ).execute();
+            }
+        } );
+    }
+
+    /**
+     * Stream all entity states through a server-side cursor.
+     * <p>
+     * The cursor runs on a dedicated connection that is released when the returned stream is closed. PostgreSQL only
+     * honours the fetch size outside of auto-commit mode, and MySQL/MariaDB drivers only stream rows when the fetch
+     * size is {@link Integer#MIN_VALUE}; every other dialect streams with the configured fetch size as is.
+     * </p>
+     */
+    private Stream<String> streamStates()
+    {
+        Connection connection = null;
+        boolean disableAutoCommit = false;
+        try
+        {
+            connection = dataSource.getConnection();
+            if( connection.getAutoCommit() && dialect.family() == SQLDialect.POSTGRES )
+            {
+                connection.setAutoCommit( false );
+                disableAutoCommit = true;
+            }
+            boolean rowByRow = dialect.family() == SQLDialect.MYSQL || dialect.family() == SQLDialect.MARIADB;
+            Cursor<Record1<String>> cursor = DSL.using( connection, dialect, settings )
+                                                .select( stateColumn )
+                                                .from( table )
+                                                .fetchSize( rowByRow ? Integer.MIN_VALUE : fetchSize )
+                                                .fetchLazy();
+            Connection cursorConnection = connection;
+            boolean restoreAutoCommit = disableAutoCommit;
+            return cursor.stream()
+                         .map( Record1::value1 )
+                         .onClose( () -> release( cursor, cursorConnection, restoreAutoCommit ) );
+        }
+        catch( RuntimeException | SQLException ex )
+        {
+            if( connection != null )
+            {
+                try( Connection closed = connection )
+                {
+                    if( disableAutoCommit )
+                    {
+                        closed.rollback();
+                        closed.setAutoCommit( true );
+                    }
+                }
+                catch( SQLException closeEx )
+                {
+                    ex.addSuppressed( closeEx );
+                }
+            }
+            if( ex instanceof EntityStoreException )
+            {
+                throw (EntityStoreException) ex;
+            }
+            throw new EntityStoreException( ex );
+        }
+    }
+
+    private void release( Cursor<?> cursor, Connection connection, boolean restoreAutoCommit )
+    {
+        try( Connection closed = connection )
+        {
+            cursor.close();
+            if( restoreAutoCommit )
+            {
+                // Read only transaction, nothing to commit
+                closed.rollback();
+                closed.setAutoCommit( true );
+            }
+        }
+        catch( SQLException ex )
+        {
+            throw new EntityStoreException( ex );
+        }
     }
 
     @Override
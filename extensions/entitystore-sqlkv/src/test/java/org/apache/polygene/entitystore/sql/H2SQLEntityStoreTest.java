@@ -19,14 +19,25 @@
  */
 package org.apache.polygene.entitystore.sql;
 
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.polygene.api.common.Visibility;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
 import org.apache.polygene.bootstrap.AssemblyException;
 import org.apache.polygene.bootstrap.ModuleAssembly;
 import org.apache.polygene.entitystore.sql.assembly.H2SQLEntityStoreAssembler;
 import org.apache.polygene.library.sql.assembly.DataSourceAssembler;
 import org.apache.polygene.library.sql.dbcp.DBCPDataSourceServiceAssembler;
+import org.apache.polygene.spi.entitystore.BackupRestore;
 import org.apache.polygene.test.EntityTestAssembler;
 import org.apache.polygene.test.entity.AbstractEntityStoreTest;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 
 public class H2SQLEntityStoreTest
     extends AbstractEntityStoreTest
@@ -64,4 +75,39 @@ public class H2SQLEntityStoreTest
             .assemble( module );
     }
     // END SNIPPET: assembly
+
+    @Test
+    public void givenEntitiesWhenBackupAndRestoreThenEntitiesAreRestored()
+        throws Exception
+    {
+        Identity identity;
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            identity = createEntity( unitOfWork ).identity().get();
+            for( int i = 0; i < 10; i++ )
+            {
+                createEntity( unitOfWork );
+            }
+            unitOfWork.complete();
+        }
+
+        BackupRestore backupRestore = serviceFinder.findService( BackupRestore.class ).get();
+        List<String> backup;
+        try( Stream<String> states = backupRestore.backup() )
+        {
+            backup = states.collect( Collectors.toList() );
+        }
+        assertThat( backup.isEmpty(), is( false ) );
+
+        backupRestore.restore( backup.stream() );
+
+        try( Stream<String> states = backupRestore.backup() )
+        {
+            assertThat( states.count(), is( (long) backup.size() ) );
+        }
+        try( UnitOfWork unitOfWork = unitOfWorkFactory.newUnitOfWork() )
+        {
+            assertThat( unitOfWork.get( TestEntity.class, identity ).identity().get(), equalTo( identity ) );
+        }
+    }
 }
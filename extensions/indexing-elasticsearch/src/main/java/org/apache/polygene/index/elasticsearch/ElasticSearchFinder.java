@@ -23,12 +23,19 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.composite.Composite;
 import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.metrics.MetricsProvider;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.query.grammar.AndPredicate;
 import org.apache.polygene.api.query.grammar.AssociationNotNullPredicate;
@@ -53,14 +60,22 @@ import org.apache.polygene.api.query.grammar.OrderBy;
 import org.apache.polygene.api.query.grammar.PropertyNotNullPredicate;
 import org.apache.polygene.api.query.grammar.PropertyNullPredicate;
 import org.apache.polygene.api.query.grammar.QuerySpecification;
+import org.apache.polygene.api.structure.Module;
 import org.apache.polygene.api.value.ValueComposite;
 import org.apache.polygene.index.elasticsearch.ElasticSearchFinderSupport.ComplexTypeSupport;
 import org.apache.polygene.spi.query.EntityFinder;
+import org.apache.polygene.spi.query.QueryPlanCache;
+import org.apache.polygene.spi.query.QueryShape;
 import org.apache.polygene.spi.query.EntityFinderException;
+import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,10 +98,20 @@ public interface ElasticSearchFinder
     {
         private static final Logger LOGGER = LoggerFactory.getLogger( ElasticSearchFinder.class );
         private static final Map<Class<?>, ComplexTypeSupport> COMPLEX_TYPE_SUPPORTS = new HashMap<>( 0 );
+        private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes( 1 );
 
         @This
         private ElasticSearchSupport support;
 
+        @Optional
+        @Service
+        private MetricsProvider metrics;
+
+        @Structure
+        private Module module;
+
+        private final QueryPlanCache<QueryBuilder> queryPlans = new QueryPlanCache<>();
+
         @Override
         public Stream<EntityReference> findEntities( Class<?> resultType,
                                                      Predicate<Composite> whereClause,
@@ -97,23 +122,7 @@ public interface ElasticSearchFinder
         {
             // Prepare request
             SearchRequestBuilder request = support.client().prepareSearch( support.index() );
-
-            BoolQueryBuilder baseQueryBuilder = baseQuery( resultType );
-            QueryBuilder whereQueryBuilder = processWhereSpecification( baseQueryBuilder, whereClause, variables );
-
-            request.setQuery( boolQuery().must( whereQueryBuilder ).filter( baseQueryBuilder ) );
-            if( firstResult != null )
-            {
-                request.setFrom( firstResult );
-            }
-            if( maxResults != null )
-            {
-                request.setSize( maxResults );
-            }
-            else
-            {
-                //request.setSize( Integer.MAX_VALUE ); // TODO Use scrolls?
-            }
+            request.setQuery( query( resultType, whereClause, variables ) );
             if( orderBySegments != null )
             {
                 for( OrderBy order : orderBySegments )
@@ -123,14 +132,38 @@ public interface ElasticSearchFinder
                 }
             }
 
+            int from = firstResult == null ? 0 : firstResult;
+            int pageSize = support.pageSize();
+            if( maxResults != null && (long) from + maxResults <= pageSize )
+            {
+                // Fits in a single page
+                request.setFrom( from ).setSize( maxResults );
+
+                // Log
+                LOGGER.debug( "Will search Entities: {}", request );
+
+                // Execute
+                SearchResponse response = request.execute().actionGet();
+
+                return Stream.of( response.getHits().getHits() )
+                             .map( hit -> EntityReference.parseEntityReference( hit.getId() ) );
+            }
+
+            // Scroll through pages, scrolls do not support offsets so skip hits client side
+            if( orderBySegments == null || orderBySegments.isEmpty() )
+            {
+                request.addSort( FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC );
+            }
+            request.setSize( pageSize ).setScroll( SCROLL_KEEP_ALIVE );
+
             // Log
-            LOGGER.debug( "Will search Entities: {}", request );
+            LOGGER.debug( "Will scroll Entities: {}", request );
 
             // Execute
-            SearchResponse response = request.execute().actionGet();
-
-            return StreamSupport.stream( response.getHits().spliterator(), false )
-                                .map( hit -> EntityReference.parseEntityReference( hit.getId() ) );
+            long limit = maxResults == null ? Long.MAX_VALUE : (long) from + maxResults;
+            ScrollSpliterator hits = new ScrollSpliterator( support.client(), pageSize, limit,
+                                                            request.execute().actionGet() );
+            return StreamSupport.stream( hits, false ).onClose( hits::close ).skip( from );
         }
 
         @Override
@@ -141,11 +174,7 @@ public interface ElasticSearchFinder
         {
             // Prepare request
             SearchRequestBuilder request = support.client().prepareSearch( support.index() );
-
-            BoolQueryBuilder baseQueryBuilder = baseQuery( resultType );
-            QueryBuilder whereQueryBuilder = processWhereSpecification( baseQueryBuilder, whereClause, variables );
-
-            request.setQuery( boolQuery().must( whereQueryBuilder ).filter( baseQueryBuilder ) );
+            request.setQuery( query( resultType, whereClause, variables ) );
             request.setSize( 1 );
 
             // Log
@@ -170,11 +199,7 @@ public interface ElasticSearchFinder
         {
             // Prepare request
             SearchRequestBuilder request = support.client().prepareSearch( support.index() ).setSize( 0 );
-
-            BoolQueryBuilder baseQueryBuilder = baseQuery( resultType );
-            QueryBuilder whereQueryBuilder = processWhereSpecification( baseQueryBuilder, whereClause, variables );
-
-            request.setQuery( boolQuery().must( whereQueryBuilder ).filter( baseQueryBuilder ) );
+            request.setQuery( query( resultType, whereClause, variables ) );
 
             // Log
             LOGGER.debug( "Will count Entities: {}", request );
@@ -185,6 +210,27 @@ public interface ElasticSearchFinder
             return count.getHits().getTotalHits();
         }
 
+        /**
+         * Translate the where clause, or reuse the cached translation of the same where clause.
+         * <p>
+         * Variables are inlined in the query builders, cached queries are reused only for the same variable values.
+         * Paging and ordering are set on the request and do not take part in the cached query.
+         * </p>
+         */
+        private QueryBuilder query( Class<?> resultType,
+                                    Predicate<Composite> whereClause,
+                                    Map<String, Object> variables )
+        {
+            queryPlans.registerGauges( module, metrics, ElasticSearchFinder.class );
+            QueryShape shape = QueryShape.of( "query", resultType, whereClause, null, null, null, variables );
+            return queryPlans.plan( shape, variables, tracked ->
+            {
+                BoolQueryBuilder baseQueryBuilder = baseQuery( resultType );
+                QueryBuilder whereQueryBuilder = processWhereSpecification( baseQueryBuilder, whereClause, tracked );
+                return boolQuery().must( whereQueryBuilder ).filter( baseQueryBuilder );
+            } ).plan();
+        }
+
         private static BoolQueryBuilder baseQuery( Class<?> resultType )
         {
             return boolQuery().must( termQuery( "_types", resultType.getName() ) );
@@ -519,5 +565,83 @@ public interface ElasticSearchFinder
             Object value = resolveVariable( spec.name(), variables );
             queryBuilder.must( termQuery( name, value ) );
         }
+
+        /**
+         * Lazily walks the pages of a scroll.
+         * <p>
+         * As soon as a page is received the next one is requested so that it is fetched while the current page is
+         * being consumed. Only two pages are held in memory at any time. The scroll context is released once
+         * exhausted, once {@literal limit} hits have been returned, or when closed.
+         * </p>
+         */
+        private static class ScrollSpliterator
+            extends Spliterators.AbstractSpliterator<EntityReference>
+        {
+            private final Client client;
+            private final int pageSize;
+            private long remaining;
+            private SearchHit[] page;
+            private int position;
+            private String scrollId;
+            private ActionFuture<SearchResponse> next;
+
+            private ScrollSpliterator( Client client, int pageSize, long limit, SearchResponse first )
+            {
+                super( Math.min( limit, first.getHits().getTotalHits() ), Spliterator.ORDERED | Spliterator.NONNULL );
+                this.client = client;
+                this.pageSize = pageSize;
+                this.remaining = limit;
+                accept( first );
+            }
+
+            @Override
+            public boolean tryAdvance( Consumer<? super EntityReference> action )
+            {
+                while( position >= page.length )
+                {
+                    if( next == null )
+                    {
+                        return false;
+                    }
+                    ActionFuture<SearchResponse> current = next;
+                    next = null;
+                    accept( current.actionGet() );
+                }
+                action.accept( EntityReference.parseEntityReference( page[ position++ ].getId() ) );
+                if( --remaining == 0 )
+                {
+                    page = new SearchHit[ 0 ];
+                    next = null;
+                    close();
+                }
+                return true;
+            }
+
+            private void accept( SearchResponse response )
+            {
+                page = response.getHits().getHits();
+                position = 0;
+                scrollId = response.getScrollId();
+                if( page.length < pageSize || page.length >= remaining )
+                {
+                    // Last page
+                    close();
+                }
+                else
+                {
+                    // Prefetch
+                    next = client.prepareSearchScroll( scrollId ).setScroll( SCROLL_KEEP_ALIVE ).execute();
+                }
+            }
+
+            private void close()
+            {
+                if( scrollId != null )
+                {
+                    client.prepareClearScroll().addScrollId( scrollId ).execute();
+                    scrollId = null;
+                }
+            }
+        }
     }
 }
@@ -45,5 +45,12 @@ public interface ElasticSearchIndexingConfiguration
      */
     @UseDefaults Property<Boolean> indexNonAggregatedAssociations();
 
+    /**
+     * Number of hits fetched per page when streaming query results.
+     * Results larger than a page are scrolled through, the next page being fetched while the current one is consumed.
+     * Must be positive, activation fails otherwise. Defaults to '1000'.
+     */
+    @Optional Property<Integer> pageSize();
+
 }
 // END SNIPPET: config
@@ -33,4 +33,6 @@ public interface ElasticSearchSupport extends ServiceActivation
 
     boolean indexNonAggregatedAssociations();
 
+    int pageSize();
+
 }
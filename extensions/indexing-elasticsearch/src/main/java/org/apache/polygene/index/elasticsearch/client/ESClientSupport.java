@@ -41,6 +41,7 @@ public class ESClientSupport extends AbstractElasticSearchSupport
 
         index = config.index().get() == null ? DEFAULT_INDEX_NAME : config.index().get();
         indexNonAggregatedAssociations = config.indexNonAggregatedAssociations().get();
+        pageSize = pageSize( config.pageSize().get() );
 
         client = descriptor.metaInfo( Client.class );
     }
@@ -46,6 +46,7 @@ public class ESClusterSupport
         String clusterName = config.clusterName().get() == null ? DEFAULT_CLUSTER_NAME : config.clusterName().get();
         index = config.index().get() == null ? DEFAULT_INDEX_NAME : config.index().get();
         indexNonAggregatedAssociations = config.indexNonAggregatedAssociations().get();
+        pageSize = pageSize( config.pageSize().get() );
 
         String[] nodes = config.nodes().get() == null
                          ? new String[] { "localhost:9300" }
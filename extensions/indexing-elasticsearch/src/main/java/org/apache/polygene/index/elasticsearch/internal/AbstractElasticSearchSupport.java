@@ -35,10 +35,12 @@ public abstract class AbstractElasticSearchSupport
     protected static final String DEFAULT_CLUSTER_NAME = "polygene_cluster";
     protected static final String DEFAULT_INDEX_NAME = "polygene_index";
     protected static final String ENTITIES_TYPE = "polygene_entities";
+    protected static final int DEFAULT_PAGE_SIZE = 1000;
 
     protected Client client;
     protected String index;
     protected boolean indexNonAggregatedAssociations;
+    protected int pageSize = DEFAULT_PAGE_SIZE;
 
     @Override
     public final void activateService()
@@ -108,6 +110,24 @@ public abstract class AbstractElasticSearchSupport
     protected abstract void activateElasticSearch()
         throws Exception;
 
+    /**
+     * @param configured Configured page size, may be null
+     * @return The page size to use, {@link #DEFAULT_PAGE_SIZE} if not configured
+     * @throws IllegalArgumentException if the configured page size is less than 1, scrolling would never end
+     */
+    protected static int pageSize( Integer configured )
+    {
+        if( configured == null )
+        {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if( configured < 1 )
+        {
+            throw new IllegalArgumentException( "pageSize must be positive, was " + configured );
+        }
+        return configured;
+    }
+
     @Override
     public final void passivateService()
         throws Exception
@@ -115,6 +135,7 @@ public abstract class AbstractElasticSearchSupport
         passivateClient();
         index = null;
         indexNonAggregatedAssociations = false;
+        pageSize = DEFAULT_PAGE_SIZE;
         passivateElasticSearch();
     }
 
@@ -153,4 +174,10 @@ public abstract class AbstractElasticSearchSupport
     {
         return indexNonAggregatedAssociations;
     }
+
+    @Override
+    public final int pageSize()
+    {
+        return pageSize;
+    }
 }
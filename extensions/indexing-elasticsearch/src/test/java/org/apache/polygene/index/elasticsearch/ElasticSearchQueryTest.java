@@ -77,6 +77,8 @@ public class ElasticSearchQueryTest extends AbstractQueryTest
         esConfig.index().set( ELASTIC_SEARCH.indexName( ElasticSearchQueryTest.class.getName(),
                                                         testName.getMethodName() ) );
         esConfig.indexNonAggregatedAssociations().set( Boolean.TRUE );
+        // Small pages so that query results are scrolled through
+        esConfig.pageSize().set( 2 );
 
         // FileConfig
         new FileConfigurationAssembler()
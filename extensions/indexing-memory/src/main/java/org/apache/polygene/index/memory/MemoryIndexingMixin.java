@@ -0,0 +1,165 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.memory;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.entity.EntityDescriptor;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.query.grammar.OrderBy;
+import org.apache.polygene.api.util.Classes;
+import org.apache.polygene.index.memory.internal.EntitySnapshot;
+import org.apache.polygene.index.memory.internal.MemoryIndex;
+import org.apache.polygene.index.memory.internal.MemoryQuery;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entitystore.StateChangeListener;
+import org.apache.polygene.spi.query.EntityFinder;
+import org.apache.polygene.spi.query.EntityFinderException;
+import org.apache.polygene.spi.query.IndexExporter;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * In-memory Index/Query mixin.
+ * <p>
+ * Queries are answered from the snapshots of the entities held by a {@link MemoryIndex}. Candidates are narrowed down
+ * using its indexes when the where clause allows it, ordering on a single property walks its sorted index when the
+ * where clause does not narrow down the candidates.
+ * </p>
+ */
+public class MemoryIndexingMixin
+    implements EntityFinder, StateChangeListener, IndexExporter
+{
+    private final MemoryIndex index = new MemoryIndex();
+
+    @Override
+    public void notifyChanges( Iterable<EntityState> changedStates )
+    {
+        index.update( changedStates );
+    }
+
+    @Override
+    public Stream<EntityReference> findEntities( Class<?> resultType,
+                                                 Predicate<Composite> whereClause,
+                                                 List<OrderBy> orderBySegments,
+                                                 Integer firstResult,
+                                                 Integer maxResults,
+                                                 Map<String, Object> variables )
+        throws EntityFinderException
+    {
+        MemoryQuery query = new MemoryQuery( index, variables );
+        Predicate<EntitySnapshot> predicate = query.predicate( whereClause );
+        Collection<EntityReference> candidates = index.candidates( whereClause, query );
+        boolean ordered = orderBySegments != null && !orderBySegments.isEmpty();
+
+        Stream<EntitySnapshot> matches;
+        Stream<EntityReference> walked = ordered && candidates == null
+                                         ? index.ordered( resultType, orderBySegments )
+                                         : null;
+        if( walked != null )
+        {
+            // Already in order
+            matches = matches( walked, resultType, predicate );
+        }
+        else
+        {
+            if( candidates == null )
+            {
+                candidates = index.ofType( resultType );
+            }
+            matches = matches( candidates.stream(), resultType, predicate );
+            if( ordered )
+            {
+                Comparator<EntitySnapshot> comparator = query.comparator( orderBySegments );
+                matches = matches.sorted( comparator );
+            }
+        }
+        if( firstResult != null && firstResult > 0 )
+        {
+            matches = matches.skip( firstResult );
+        }
+        if( maxResults != null )
+        {
+            matches = matches.limit( Math.max( 0, maxResults ) );
+        }
+        return matches.map( EntitySnapshot::reference );
+    }
+
+    @Override
+    public EntityReference findEntity( Class<?> resultType,
+                                       Predicate<Composite> whereClause,
+                                       Map<String, Object> variables )
+        throws EntityFinderException
+    {
+        return findEntities( resultType, whereClause, null, null, 1, variables ).findFirst().orElse( null );
+    }
+
+    @Override
+    public long countEntities( Class<?> resultType,
+                               Predicate<Composite> whereClause,
+                               Map<String, Object> variables )
+        throws EntityFinderException
+    {
+        return findEntities( resultType, whereClause, null, null, null, variables ).count();
+    }
+
+    @Override
+    public void exportReadableToStream( PrintStream out )
+    {
+        index.snapshots().stream()
+             .sorted( Comparator.comparing( snapshot -> snapshot.reference().identity().toString() ) )
+             .forEach( snapshot -> out.println(
+                 snapshot.reference() + " "
+                 + snapshot.descriptor().types().map( Classes.toClassName() ).collect( joining( ",", "[", "]" ) )
+                 + "\n\tproperties: " + snapshot.properties()
+                 + "\n\tassociations: " + snapshot.associations()
+                 + "\n\tmanyAssociations: " + snapshot.manyAssociations()
+                 + "\n\tnamedAssociations: " + snapshot.namedAssociations() ) );
+        out.flush();
+    }
+
+    @Override
+    public void exportFormalToWriter( PrintWriter out )
+        throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException( "The in-memory index has no machine-readable export format" );
+    }
+
+    private Stream<EntitySnapshot> matches( Stream<EntityReference> references,
+                                            Class<?> resultType,
+                                            Predicate<EntitySnapshot> predicate )
+    {
+        Map<EntityDescriptor, Boolean> assignable = new HashMap<>();
+        return references.map( index::get )
+                         .filter( Objects::nonNull )
+                         .filter( snapshot -> assignable.computeIfAbsent(
+                             snapshot.descriptor(), descriptor -> descriptor.isAssignableTo( resultType ) ) )
+                         .filter( predicate );
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.memory;
+
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.spi.entitystore.StateChangeListener;
+import org.apache.polygene.spi.query.EntityFinder;
+import org.apache.polygene.spi.query.IndexExporter;
+
+/**
+ * In-memory Index/Query service.
+ * <p>
+ * Listen to Entity state changes, keep the queryable state of entities in memory and answer queries from it.
+ * </p>
+ */
+@Mixins( MemoryIndexingMixin.class )
+public interface MemoryIndexingService
+    extends EntityFinder, StateChangeListener, IndexExporter
+{
+}
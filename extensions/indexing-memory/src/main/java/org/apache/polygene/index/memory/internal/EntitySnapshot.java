@@ -0,0 +1,184 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.memory.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.polygene.api.association.AssociationStateDescriptor;
+import org.apache.polygene.api.common.QualifiedName;
+import org.apache.polygene.api.entity.EntityDescriptor;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entity.ManyAssociationState;
+import org.apache.polygene.spi.entity.NamedAssociationState;
+
+/**
+ * Immutable copy of the queryable state of an entity, as indexed.
+ */
+public final class EntitySnapshot
+{
+    private final EntityReference reference;
+    private final EntityDescriptor descriptor;
+    private final Map<QualifiedName, Object> properties;
+    private final Map<QualifiedName, EntityReference> associations;
+    private final Map<QualifiedName, List<EntityReference>> manyAssociations;
+    private final Map<QualifiedName, Map<String, EntityReference>> namedAssociations;
+
+    private EntitySnapshot( EntityReference reference,
+                            EntityDescriptor descriptor,
+                            Map<QualifiedName, Object> properties,
+                            Map<QualifiedName, EntityReference> associations,
+                            Map<QualifiedName, List<EntityReference>> manyAssociations,
+                            Map<QualifiedName, Map<String, EntityReference>> namedAssociations )
+    {
+        this.reference = reference;
+        this.descriptor = descriptor;
+        this.properties = properties;
+        this.associations = associations;
+        this.manyAssociations = manyAssociations;
+        this.namedAssociations = namedAssociations;
+    }
+
+    static EntitySnapshot of( EntityState state )
+    {
+        AssociationStateDescriptor stateDescriptor = state.entityDescriptor().state();
+
+        Map<QualifiedName, Object> properties = new HashMap<>();
+        stateDescriptor.properties().forEach(
+            descriptor ->
+            {
+                if( descriptor.queryable() )
+                {
+                    properties.put( descriptor.qualifiedName(), state.propertyValueOf( descriptor.qualifiedName() ) );
+                }
+            } );
+
+        Map<QualifiedName, EntityReference> associations = new HashMap<>();
+        stateDescriptor.associations().forEach(
+            descriptor ->
+            {
+                if( descriptor.queryable() )
+                {
+                    associations.put( descriptor.qualifiedName(), state.associationValueOf( descriptor.qualifiedName() ) );
+                }
+            } );
+
+        Map<QualifiedName, List<EntityReference>> manyAssociations = new HashMap<>();
+        stateDescriptor.manyAssociations().forEach(
+            descriptor ->
+            {
+                if( descriptor.queryable() )
+                {
+                    List<EntityReference> references = new ArrayList<>();
+                    ManyAssociationState many = state.manyAssociationValueOf( descriptor.qualifiedName() );
+                    many.forEach( references::add );
+                    manyAssociations.put( descriptor.qualifiedName(), Collections.unmodifiableList( references ) );
+                }
+            } );
+
+        Map<QualifiedName, Map<String, EntityReference>> namedAssociations = new HashMap<>();
+        stateDescriptor.namedAssociations().forEach(
+            descriptor ->
+            {
+                if( descriptor.queryable() )
+                {
+                    Map<String, EntityReference> references = new LinkedHashMap<>();
+                    NamedAssociationState named = state.namedAssociationValueOf( descriptor.qualifiedName() );
+                    for( String name : named )
+                    {
+                        references.put( name, named.get( name ) );
+                    }
+                    namedAssociations.put( descriptor.qualifiedName(), Collections.unmodifiableMap( references ) );
+                }
+            } );
+
+        return new EntitySnapshot( state.entityReference(), state.entityDescriptor(),
+                                   properties, associations, manyAssociations, namedAssociations );
+    }
+
+    public EntityReference reference()
+    {
+        return reference;
+    }
+
+    public EntityDescriptor descriptor()
+    {
+        return descriptor;
+    }
+
+    /**
+     * @return Queryable property values, null values included
+     */
+    public Map<QualifiedName, Object> properties()
+    {
+        return Collections.unmodifiableMap( properties );
+    }
+
+    public Object propertyValueOf( QualifiedName name )
+    {
+        return properties.get( name );
+    }
+
+    /**
+     * @return Queryable associations, null references included
+     */
+    public Map<QualifiedName, EntityReference> associations()
+    {
+        return Collections.unmodifiableMap( associations );
+    }
+
+    public EntityReference associationValueOf( QualifiedName name )
+    {
+        return associations.get( name );
+    }
+
+    public Map<QualifiedName, List<EntityReference>> manyAssociations()
+    {
+        return Collections.unmodifiableMap( manyAssociations );
+    }
+
+    public List<EntityReference> manyAssociationValueOf( QualifiedName name )
+    {
+        List<EntityReference> references = manyAssociations.get( name );
+        return references == null ? Collections.emptyList() : references;
+    }
+
+    public Map<QualifiedName, Map<String, EntityReference>> namedAssociations()
+    {
+        return Collections.unmodifiableMap( namedAssociations );
+    }
+
+    public Map<String, EntityReference> namedAssociationValueOf( QualifiedName name )
+    {
+        Map<String, EntityReference> references = namedAssociations.get( name );
+        return references == null ? Collections.emptyMap() : references;
+    }
+
+    @Override
+    public String toString()
+    {
+        return reference + "{" + properties + ", " + associations + ", " + manyAssociations + ", "
+               + namedAssociations + "}";
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.memory.internal;
+
+import java.lang.reflect.AccessibleObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.apache.polygene.api.common.QualifiedName;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.entity.EntityDescriptor;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.identity.HasIdentity;
+import org.apache.polygene.api.query.grammar.AndPredicate;
+import org.apache.polygene.api.query.grammar.AssociationFunction;
+import org.apache.polygene.api.query.grammar.ComparisonPredicate;
+import org.apache.polygene.api.query.grammar.EqPredicate;
+import org.apache.polygene.api.query.grammar.GePredicate;
+import org.apache.polygene.api.query.grammar.GtPredicate;
+import org.apache.polygene.api.query.grammar.LePredicate;
+import org.apache.polygene.api.query.grammar.LtPredicate;
+import org.apache.polygene.api.query.grammar.ManyAssociationContainsPredicate;
+import org.apache.polygene.api.query.grammar.ManyAssociationFunction;
+import org.apache.polygene.api.query.grammar.NamedAssociationContainsPredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationFunction;
+import org.apache.polygene.api.query.grammar.OrPredicate;
+import org.apache.polygene.api.query.grammar.OrderBy;
+import org.apache.polygene.api.query.grammar.PropertyFunction;
+import org.apache.polygene.spi.entity.EntityState;
+
+/**
+ * In-memory index of entity snapshots.
+ * <p>
+ * Snapshots are kept by reference and by entity type. Direct property values are indexed in hash maps for equality
+ * and in sorted maps, one per value type, for ranges and ordering. Associations, ManyAssociations and
+ * NamedAssociations are indexed in reverse, from associated to associating entities.
+ * </p>
+ * <p>
+ * Writers are serialized, readers never block. Indexes are only used to narrow down the candidates of a query, the
+ * where clause is always evaluated against the current snapshot of each candidate so that readers never see entities
+ * that do not match, even while the index is being updated.
+ * </p>
+ */
+public final class MemoryIndex
+{
+    private final ConcurrentMap<EntityReference, EntitySnapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityDescriptor, Set<EntityReference>> byType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QualifiedName, PropertyIndex> properties = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QualifiedName, ConcurrentMap<EntityReference, Set<EntityReference>>> associations
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Apply entity state changes to the index.
+     *
+     * @param changedStates Changed entity states
+     */
+    public void update( Iterable<EntityState> changedStates )
+    {
+        synchronized( this )
+        {
+            for( EntityState state : changedStates )
+            {
+                if( !state.entityDescriptor().queryable() )
+                {
+                    continue;
+                }
+                switch( state.status() )
+                {
+                    case NEW:
+                    case UPDATED:
+                        EntitySnapshot snapshot = EntitySnapshot.of( state );
+                        unindex( snapshots.put( snapshot.reference(), snapshot ) );
+                        index( snapshot );
+                        break;
+                    case REMOVED:
+                        unindex( snapshots.remove( state.entityReference() ) );
+                        break;
+                    case LOADED:
+                    default:
+                        // Ignored
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all entities from the index.
+     */
+    public void clear()
+    {
+        synchronized( this )
+        {
+            snapshots.clear();
+            byType.clear();
+            properties.clear();
+            associations.clear();
+        }
+    }
+
+    public EntitySnapshot get( EntityReference reference )
+    {
+        return snapshots.get( reference );
+    }
+
+    public int size()
+    {
+        return snapshots.size();
+    }
+
+    /**
+     * @return All indexed snapshots
+     */
+    public Collection<EntitySnapshot> snapshots()
+    {
+        return Collections.unmodifiableCollection( snapshots.values() );
+    }
+
+    /**
+     * Candidates of a query, a superset of the entities matching its where clause, narrowed down by the indexes.
+     *
+     * @param whereClause Where clause, may be null
+     * @param query       Query evaluation, used to resolve variables
+     * @return References of the candidate entities, not checked against the result type, or null if the where clause
+     * cannot be answered from an index
+     */
+    public Collection<EntityReference> candidates( Predicate<Composite> whereClause, MemoryQuery query )
+    {
+        return narrow( whereClause, query );
+    }
+
+    /**
+     * Walk the entities in the order of a property, using its sorted index.
+     * <p>
+     * Only possible for a single ordering segment on a direct property of all the entity types matching the result
+     * type, whose non-null values are all of the same type. Entities with a null value come first, as with the other
+     * query sources.
+     * </p>
+     *
+     * @param resultType      Type that the entities must have
+     * @param orderBySegments Ordering
+     * @return References of the entities in order, not checked against the result type, or null if not possible
+     */
+    public Stream<EntityReference> ordered( Class<?> resultType, List<OrderBy> orderBySegments )
+    {
+        if( orderBySegments.size() != 1 || !isDirect( orderBySegments.get( 0 ).property() ) )
+        {
+            return null;
+        }
+        OrderBy orderBy = orderBySegments.get( 0 );
+        QualifiedName name = MemoryQuery.qualifiedName( orderBy.property().accessor() );
+        for( EntityDescriptor descriptor : byType.keySet() )
+        {
+            if( descriptor.isAssignableTo( resultType )
+                && descriptor.state().properties().noneMatch( property -> property.qualifiedName().equals( name ) ) )
+            {
+                // Entities of this type have no value at all, they would not be walked
+                return null;
+            }
+        }
+        PropertyIndex index = properties.get( name );
+        NavigableMap<Object, Set<EntityReference>> sorted = index == null ? null : index.sortedByValue();
+        if( sorted == null )
+        {
+            return null;
+        }
+        if( orderBy.order() == OrderBy.Order.DESCENDING )
+        {
+            sorted = sorted.descendingMap();
+        }
+        // Entities moved by concurrent updates may be walked twice
+        Set<EntityReference> walked = new HashSet<>();
+        return Stream.concat( Stream.of( index.nulls ), sorted.values().stream() )
+                     .flatMap( Collection::stream )
+                     .filter( walked::add );
+    }
+
+    /**
+     * @param resultType Type that the entities must have
+     * @return References of the entities of the given type
+     */
+    public Collection<EntityReference> ofType( Class<?> resultType )
+    {
+        List<Set<EntityReference>> ofType = new ArrayList<>();
+        byType.forEach( ( descriptor, references ) ->
+                        {
+                            if( descriptor.isAssignableTo( resultType ) )
+                            {
+                                ofType.add( references );
+                            }
+                        } );
+        if( ofType.size() == 1 )
+        {
+            return ofType.get( 0 );
+        }
+        List<EntityReference> references = new ArrayList<>();
+        ofType.forEach( references::addAll );
+        return references;
+    }
+
+    private Collection<EntityReference> narrow( Predicate<Composite> predicate, MemoryQuery query )
+    {
+        if( predicate instanceof AndPredicate )
+        {
+            // Narrow down to the most selective indexable operand
+            Collection<EntityReference> narrowest = null;
+            for( Predicate<Composite> operand : ( (AndPredicate) predicate ).operands() )
+            {
+                Collection<EntityReference> narrowed = narrow( operand, query );
+                if( narrowed != null && ( narrowest == null || narrowed.size() < narrowest.size() ) )
+                {
+                    narrowest = narrowed;
+                }
+            }
+            return narrowest;
+        }
+        if( predicate instanceof OrPredicate )
+        {
+            // Union of the operands, all of them must be indexable
+            Set<EntityReference> union = new HashSet<>();
+            for( Predicate<Composite> operand : ( (OrPredicate) predicate ).operands() )
+            {
+                Collection<EntityReference> narrowed = narrow( operand, query );
+                if( narrowed == null )
+                {
+                    return null;
+                }
+                union.addAll( narrowed );
+            }
+            return union;
+        }
+        if( predicate instanceof ComparisonPredicate )
+        {
+            return narrow( (ComparisonPredicate<?>) predicate, query );
+        }
+        if( predicate instanceof ManyAssociationContainsPredicate )
+        {
+            ManyAssociationContainsPredicate<?> contains = (ManyAssociationContainsPredicate<?>) predicate;
+            ManyAssociationFunction<?> manyAssociation = contains.manyAssociation();
+            if( manyAssociation.traversedAssociation() == null
+                && manyAssociation.traversedManyAssociation() == null
+                && manyAssociation.traversedNamedAssociation() == null )
+            {
+                return associating( manyAssociation.accessor(),
+                                    MemoryQuery.referenceOf( query.resolve( contains.value() ) ) );
+            }
+        }
+        if( predicate instanceof NamedAssociationContainsPredicate )
+        {
+            NamedAssociationContainsPredicate<?> contains = (NamedAssociationContainsPredicate<?>) predicate;
+            NamedAssociationFunction<?> namedAssociation = contains.namedAssociation();
+            if( namedAssociation.traversedAssociation() == null
+                && namedAssociation.traversedManyAssociation() == null
+                && namedAssociation.traversedNamedAssociation() == null )
+            {
+                return associating( namedAssociation.accessor(),
+                                    MemoryQuery.referenceOf( query.resolve( contains.value() ) ) );
+            }
+        }
+        return null;
+    }
+
+    private Collection<EntityReference> narrow( ComparisonPredicate<?> comparison, MemoryQuery query )
+    {
+        PropertyFunction<?> property = comparison.property();
+        Object resolved = query.resolve( comparison.value() );
+        Object value = MemoryQuery.normalize( resolved );
+        if( value == null )
+        {
+            // Never matches
+            return Collections.emptySet();
+        }
+        if( comparison instanceof EqPredicate )
+        {
+            if( isDirect( property ) )
+            {
+                PropertyIndex index = properties.get( MemoryQuery.qualifiedName( property.accessor() ) );
+                return index == null ? Collections.emptySet() : index.equal( value );
+            }
+            AssociationFunction<?> association = property.traversedAssociation();
+            if( property.traversedProperty() == null && association != null
+                && association.traversedAssociation() == null
+                && association.traversedManyAssociation() == null
+                && association.traversedNamedAssociation() == null
+                && HasIdentity.IDENTITY_STATE_NAME.equals( MemoryQuery.qualifiedName( property.accessor() ) ) )
+            {
+                // eq( association, entity )
+                return associating( association.accessor(), MemoryQuery.referenceOf( resolved ) );
+            }
+            return null;
+        }
+        if( !isDirect( property ) )
+        {
+            return null;
+        }
+        PropertyIndex index = properties.get( MemoryQuery.qualifiedName( property.accessor() ) );
+        if( index == null )
+        {
+            return Collections.emptySet();
+        }
+        if( comparison instanceof GtPredicate )
+        {
+            return index.range( value, false, true );
+        }
+        if( comparison instanceof GePredicate )
+        {
+            return index.range( value, true, true );
+        }
+        if( comparison instanceof LtPredicate )
+        {
+            return index.range( value, false, false );
+        }
+        if( comparison instanceof LePredicate )
+        {
+            return index.range( value, true, false );
+        }
+        return null;
+    }
+
+    private Collection<EntityReference> associating( AccessibleObject accessor, EntityReference associated )
+    {
+        if( associated == null )
+        {
+            return null;
+        }
+        Map<EntityReference, Set<EntityReference>> index = associations.get( MemoryQuery.qualifiedName( accessor ) );
+        Set<EntityReference> associating = index == null ? null : index.get( associated );
+        return associating == null ? Collections.emptySet() : associating;
+    }
+
+    private void index( EntitySnapshot snapshot )
+    {
+        EntityReference reference = snapshot.reference();
+        byType.computeIfAbsent( snapshot.descriptor(), descriptor -> ConcurrentHashMap.newKeySet() ).add( reference );
+        snapshot.properties().forEach(
+            ( name, value ) -> properties.computeIfAbsent( name, key -> new PropertyIndex() ).add( reference, value ) );
+        snapshot.associations().forEach( ( name, associated ) -> associate( name, associated, reference ) );
+        snapshot.manyAssociations().forEach(
+            ( name, associated ) -> associated.forEach( each -> associate( name, each, reference ) ) );
+        snapshot.namedAssociations().forEach(
+            ( name, associated ) -> associated.values().forEach( each -> associate( name, each, reference ) ) );
+    }
+
+    private void unindex( EntitySnapshot snapshot )
+    {
+        if( snapshot == null )
+        {
+            return;
+        }
+        EntityReference reference = snapshot.reference();
+        remove( byType, snapshot.descriptor(), reference );
+        snapshot.properties().forEach(
+            ( name, value ) ->
+            {
+                PropertyIndex index = properties.get( name );
+                if( index != null )
+                {
+                    index.remove( reference, value );
+                }
+            } );
+        snapshot.associations().forEach( ( name, associated ) -> dissociate( name, associated, reference ) );
+        snapshot.manyAssociations().forEach(
+            ( name, associated ) -> associated.forEach( each -> dissociate( name, each, reference ) ) );
+        snapshot.namedAssociations().forEach(
+            ( name, associated ) -> associated.values().forEach( each -> dissociate( name, each, reference ) ) );
+    }
+
+    private void associate( QualifiedName name, EntityReference associated, EntityReference associating )
+    {
+        if( associated != null )
+        {
+            associations.computeIfAbsent( name, key -> new ConcurrentHashMap<>() )
+                        .computeIfAbsent( associated, key -> ConcurrentHashMap.newKeySet() )
+                        .add( associating );
+        }
+    }
+
+    private void dissociate( QualifiedName name, EntityReference associated, EntityReference associating )
+    {
+        ConcurrentMap<EntityReference, Set<EntityReference>> index = associations.get( name );
+        if( associated != null && index != null )
+        {
+            remove( index, associated, associating );
+        }
+    }
+
+    private static boolean isDirect( PropertyFunction<?> property )
+    {
+        return property.traversedProperty() == null
+               && property.traversedAssociation() == null
+               && property.traversedManyAssociation() == null
+               && property.traversedNamedAssociation() == null;
+    }
+
+    private static <K> void remove( Map<K, Set<EntityReference>> index, K key, EntityReference reference )
+    {
+        Set<EntityReference> references = index.get( key );
+        if( references != null )
+        {
+            references.remove( reference );
+            if( references.isEmpty() )
+            {
+                index.remove( key );
+            }
+        }
+    }
+
+    /**
+     * Entities by value of a property.
+     */
+    private static final class PropertyIndex
+    {
+        private final Set<EntityReference> nulls = ConcurrentHashMap.newKeySet();
+        private final ConcurrentMap<Object, Set<EntityReference>> byValue = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<?>, ConcurrentNavigableMap<Object, Set<EntityReference>>> sorted
+            = new ConcurrentHashMap<>();
+
+        private void add( EntityReference reference, Object value )
+        {
+            Object key = MemoryQuery.normalize( value );
+            if( key == null )
+            {
+                nulls.add( reference );
+                return;
+            }
+            byValue.computeIfAbsent( key, k -> ConcurrentHashMap.newKeySet() ).add( reference );
+            if( key instanceof Comparable )
+            {
+                sorted.computeIfAbsent( key.getClass(), type -> new ConcurrentSkipListMap<>() )
+                      .computeIfAbsent( key, k -> ConcurrentHashMap.newKeySet() )
+                      .add( reference );
+            }
+        }
+
+        private void remove( EntityReference reference, Object value )
+        {
+            Object key = MemoryQuery.normalize( value );
+            if( key == null )
+            {
+                nulls.remove( reference );
+                return;
+            }
+            MemoryIndex.remove( byValue, key, reference );
+            ConcurrentNavigableMap<Object, Set<EntityReference>> values = sorted.get( key.getClass() );
+            if( values != null )
+            {
+                MemoryIndex.remove( values, key, reference );
+                if( values.isEmpty() )
+                {
+                    sorted.remove( key.getClass() );
+                }
+            }
+        }
+
+        private Collection<EntityReference> equal( Object value )
+        {
+            Set<EntityReference> references = byValue.get( value );
+            return references == null ? Collections.emptySet() : references;
+        }
+
+        private Collection<EntityReference> range( Object bound, boolean inclusive, boolean above )
+        {
+            if( sorted.isEmpty() )
+            {
+                // No comparable value
+                return Collections.emptySet();
+            }
+            if( sorted.size() != 1 || !sorted.containsKey( bound.getClass() ) )
+            {
+                // Values of several types, some may be comparable with the bound
+                return null;
+            }
+            ConcurrentNavigableMap<Object, Set<EntityReference>> values = sorted.get( bound.getClass() );
+            if( values == null )
+            {
+                return null;
+            }
+            NavigableMap<Object, Set<EntityReference>> range = above
+                                                               ? values.tailMap( bound, inclusive )
+                                                               : values.headMap( bound, inclusive );
+            Set<EntityReference> references = new HashSet<>();
+            range.values().forEach( references::addAll );
+            return references;
+        }
+
+        /**
+         * @return Entities by value, in order, or null if values are not all of the same comparable type
+         */
+        private NavigableMap<Object, Set<EntityReference>> sortedByValue()
+        {
+            if( sorted.size() != 1 )
+            {
+                return null;
+            }
+            NavigableMap<Object, Set<EntityReference>> values = sorted.values().iterator().next();
+            return values.size() == byValue.size() ? values : null;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.memory.internal;
+
+import java.lang.reflect.AccessibleObject;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.apache.polygene.api.common.QualifiedName;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.composite.CompositeInstance;
+import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.identity.HasIdentity;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.query.grammar.AndPredicate;
+import org.apache.polygene.api.query.grammar.AssociationFunction;
+import org.apache.polygene.api.query.grammar.AssociationNotNullPredicate;
+import org.apache.polygene.api.query.grammar.AssociationNullPredicate;
+import org.apache.polygene.api.query.grammar.ComparisonPredicate;
+import org.apache.polygene.api.query.grammar.ContainsAllPredicate;
+import org.apache.polygene.api.query.grammar.ContainsPredicate;
+import org.apache.polygene.api.query.grammar.EqPredicate;
+import org.apache.polygene.api.query.grammar.GePredicate;
+import org.apache.polygene.api.query.grammar.GtPredicate;
+import org.apache.polygene.api.query.grammar.LePredicate;
+import org.apache.polygene.api.query.grammar.LtPredicate;
+import org.apache.polygene.api.query.grammar.ManyAssociationContainsPredicate;
+import org.apache.polygene.api.query.grammar.ManyAssociationFunction;
+import org.apache.polygene.api.query.grammar.MatchesPredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationContainsNamePredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationContainsPredicate;
+import org.apache.polygene.api.query.grammar.NamedAssociationFunction;
+import org.apache.polygene.api.query.grammar.NePredicate;
+import org.apache.polygene.api.query.grammar.Notpredicate;
+import org.apache.polygene.api.query.grammar.OrPredicate;
+import org.apache.polygene.api.query.grammar.OrderBy;
+import org.apache.polygene.api.query.grammar.PropertyFunction;
+import org.apache.polygene.api.query.grammar.PropertyNotNullPredicate;
+import org.apache.polygene.api.query.grammar.PropertyNullPredicate;
+import org.apache.polygene.api.query.grammar.Variable;
+import org.apache.polygene.spi.query.EntityFinderException;
+
+/**
+ * Evaluation of a query against the entity snapshots of a {@link MemoryIndex}.
+ * <p>
+ * The where clause is translated once into a predicate on snapshots, with its variables resolved. Traversals through
+ * associations look up the associated snapshots in the index, traversals through ManyAssociations and
+ * NamedAssociations match if any of the associated entities match. As with the other Index/Query engines, comparing
+ * a null or missing value never matches.
+ * </p>
+ */
+public final class MemoryQuery
+{
+    private static final Map<AccessibleObject, QualifiedName> QUALIFIED_NAMES = new ConcurrentHashMap<>();
+
+    private final MemoryIndex index;
+    private final Map<String, Object> variables;
+
+    public MemoryQuery( MemoryIndex index, Map<String, Object> variables )
+    {
+        this.index = index;
+        this.variables = variables == null ? Collections.emptyMap() : variables;
+    }
+
+    /**
+     * @param whereClause Where clause, may be null
+     * @return Predicate on entity snapshots
+     * @throws EntityFinderException if the where clause is not supported
+     */
+    public Predicate<EntitySnapshot> predicate( Predicate<Composite> whereClause )
+    {
+        if( whereClause == null )
+        {
+            return snapshot -> true;
+        }
+        if( whereClause instanceof AndPredicate )
+        {
+            Predicate<EntitySnapshot> and = snapshot -> true;
+            for( Predicate<Composite> operand : ( (AndPredicate) whereClause ).operands() )
+            {
+                and = and.and( predicate( operand ) );
+            }
+            return and;
+        }
+        if( whereClause instanceof OrPredicate )
+        {
+            Predicate<EntitySnapshot> or = snapshot -> false;
+            for( Predicate<Composite> operand : ( (OrPredicate) whereClause ).operands() )
+            {
+                or = or.or( predicate( operand ) );
+            }
+            return or;
+        }
+        if( whereClause instanceof Notpredicate )
+        {
+            return predicate( ( (Notpredicate) whereClause ).operand() ).negate();
+        }
+        if( whereClause instanceof ComparisonPredicate )
+        {
+            return comparison( (ComparisonPredicate<?>) whereClause );
+        }
+        if( whereClause instanceof PropertyNullPredicate )
+        {
+            PropertyFunction<?> property = ( (PropertyNullPredicate<?>) whereClause ).property();
+            return snapshot -> valuesOf( property, snapshot ).stream().allMatch( Objects::isNull );
+        }
+        if( whereClause instanceof PropertyNotNullPredicate )
+        {
+            PropertyFunction<?> property = ( (PropertyNotNullPredicate<?>) whereClause ).property();
+            return snapshot -> valuesOf( property, snapshot ).stream().anyMatch( Objects::nonNull );
+        }
+        if( whereClause instanceof AssociationNullPredicate )
+        {
+            AssociationFunction<?> association = ( (AssociationNullPredicate<?>) whereClause ).association();
+            return snapshot -> referencesOf( association, snapshot ).isEmpty();
+        }
+        if( whereClause instanceof AssociationNotNullPredicate )
+        {
+            AssociationFunction<?> association = ( (AssociationNotNullPredicate<?>) whereClause ).association();
+            return snapshot -> !referencesOf( association, snapshot ).isEmpty();
+        }
+        if( whereClause instanceof MatchesPredicate )
+        {
+            MatchesPredicate matches = (MatchesPredicate) whereClause;
+            Object regexp = resolve( matches.value() );
+            if( regexp == null )
+            {
+                return snapshot -> false;
+            }
+            Pattern pattern = Pattern.compile( regexp.toString() );
+            return snapshot -> valuesOf( matches.property(), snapshot ).stream().anyMatch(
+                value -> value != null && pattern.matcher( value.toString() ).matches() );
+        }
+        if( whereClause instanceof ContainsPredicate )
+        {
+            ContainsPredicate<?> contains = (ContainsPredicate<?>) whereClause;
+            Object expected = normalize( resolve( contains.value() ) );
+            return snapshot -> valuesOf( contains.collectionProperty(), snapshot ).stream().anyMatch(
+                value -> value instanceof Collection && normalized( (Collection<?>) value ).contains( expected ) );
+        }
+        if( whereClause instanceof ContainsAllPredicate )
+        {
+            ContainsAllPredicate<?> containsAll = (ContainsAllPredicate<?>) whereClause;
+            List<Object> expected = new ArrayList<>();
+            for( Object value : containsAll.containedValues() )
+            {
+                expected.add( normalize( resolve( value ) ) );
+            }
+            return snapshot -> valuesOf( containsAll.collectionProperty(), snapshot ).stream().anyMatch(
+                value -> value instanceof Collection && normalized( (Collection<?>) value ).containsAll( expected ) );
+        }
+        if( whereClause instanceof ManyAssociationContainsPredicate )
+        {
+            ManyAssociationContainsPredicate<?> contains = (ManyAssociationContainsPredicate<?>) whereClause;
+            EntityReference expected = referenceOf( resolve( contains.value() ) );
+            return snapshot -> expected != null
+                               && referencesOf( contains.manyAssociation(), snapshot ).contains( expected );
+        }
+        if( whereClause instanceof NamedAssociationContainsPredicate )
+        {
+            NamedAssociationContainsPredicate<?> contains = (NamedAssociationContainsPredicate<?>) whereClause;
+            EntityReference expected = referenceOf( resolve( contains.value() ) );
+            return snapshot -> expected != null
+                               && namedReferencesOf( contains.namedAssociation(), snapshot ).stream().anyMatch(
+                named -> named.containsValue( expected ) );
+        }
+        if( whereClause instanceof NamedAssociationContainsNamePredicate )
+        {
+            NamedAssociationContainsNamePredicate<?> contains = (NamedAssociationContainsNamePredicate<?>) whereClause;
+            Object name = resolve( contains.name() );
+            return snapshot -> name != null
+                               && namedReferencesOf( contains.namedAssociation(), snapshot ).stream().anyMatch(
+                named -> named.containsKey( name.toString() ) );
+        }
+        throw new EntityFinderException( "Unsupported where clause in the in-memory index: " + whereClause );
+    }
+
+    private Predicate<EntitySnapshot> comparison( ComparisonPredicate<?> comparison )
+    {
+        PropertyFunction<?> property = comparison.property();
+        Object expected = normalize( resolve( comparison.value() ) );
+        if( expected == null )
+        {
+            return snapshot -> false;
+        }
+        Predicate<Object> test;
+        if( comparison instanceof EqPredicate )
+        {
+            test = expected::equals;
+        }
+        else if( comparison instanceof NePredicate )
+        {
+            test = value -> !expected.equals( value );
+        }
+        else if( comparison instanceof GtPredicate )
+        {
+            test = value -> comparable( value, expected ) && compare( value, expected ) > 0;
+        }
+        else if( comparison instanceof GePredicate )
+        {
+            test = value -> comparable( value, expected ) && compare( value, expected ) >= 0;
+        }
+        else if( comparison instanceof LtPredicate )
+        {
+            test = value -> comparable( value, expected ) && compare( value, expected ) < 0;
+        }
+        else if( comparison instanceof LePredicate )
+        {
+            test = value -> comparable( value, expected ) && compare( value, expected ) <= 0;
+        }
+        else
+        {
+            throw new EntityFinderException( "Unsupported comparison in the in-memory index: " + comparison );
+        }
+        return snapshot ->
+        {
+            for( Object value : valuesOf( property, snapshot ) )
+            {
+                Object normalized = normalize( value );
+                if( normalized != null && test.test( normalized ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * @param orderBySegments Ordering
+     * @return Comparator of snapshots, null values first as in the other query sources
+     */
+    public Comparator<EntitySnapshot> comparator( List<OrderBy> orderBySegments )
+    {
+        Comparator<EntitySnapshot> comparator = ( left, right ) -> 0;
+        for( OrderBy orderBy : orderBySegments )
+        {
+            Comparator<Object> values = ( left, right ) ->
+            {
+                int result = compare( left, right );
+                return orderBy.order() == OrderBy.Order.ASCENDING ? result : -result;
+            };
+            comparator = comparator.thenComparing( snapshot -> firstValueOf( orderBy.property(), snapshot ),
+                                                   Comparator.nullsFirst( values ) );
+        }
+        return comparator;
+    }
+
+    /**
+     * Values of a property, as reached from an entity.
+     * <p>
+     * There are several values when traversing ManyAssociations or NamedAssociations, none if a traversed
+     * association is not set. Null values are included.
+     * </p>
+     *
+     * @param property Property function
+     * @param snapshot Entity
+     * @return Values of the property
+     */
+    public List<Object> valuesOf( PropertyFunction<?> property, EntitySnapshot snapshot )
+    {
+        if( property.traversedProperty() != null )
+        {
+            List<Object> values = new ArrayList<>();
+            for( Object traversed : valuesOf( property.traversedProperty(), snapshot ) )
+            {
+                if( traversed instanceof Composite )
+                {
+                    // Property of a ValueComposite
+                    CompositeInstance instance = CompositeInstance.compositeInstanceOf( (Composite) traversed );
+                    Property<?> nested = instance.state().propertyFor( property.accessor() );
+                    values.add( nested == null ? null : nested.get() );
+                }
+            }
+            return values;
+        }
+        QualifiedName name = qualifiedName( property.accessor() );
+        if( property.traversedAssociation() == null
+            && property.traversedManyAssociation() == null
+            && property.traversedNamedAssociation() == null )
+        {
+            return Collections.singletonList( snapshot.propertyValueOf( name ) );
+        }
+        List<Object> values = new ArrayList<>();
+        for( EntityReference owner : ownersOf( property.traversedAssociation(),
+                                               property.traversedManyAssociation(),
+                                               property.traversedNamedAssociation(),
+                                               snapshot ) )
+        {
+            if( HasIdentity.IDENTITY_STATE_NAME.equals( name ) )
+            {
+                values.add( owner.identity() );
+            }
+            else
+            {
+                EntitySnapshot ownerSnapshot = index.get( owner );
+                if( ownerSnapshot != null )
+                {
+                    values.add( ownerSnapshot.propertyValueOf( name ) );
+                }
+            }
+        }
+        return values;
+    }
+
+    private Object firstValueOf( PropertyFunction<?> property, EntitySnapshot snapshot )
+    {
+        for( Object value : valuesOf( property, snapshot ) )
+        {
+            if( value != null )
+            {
+                return normalize( value );
+            }
+        }
+        return null;
+    }
+
+    private List<EntityReference> referencesOf( AssociationFunction<?> association, EntitySnapshot snapshot )
+    {
+        QualifiedName name = qualifiedName( association.accessor() );
+        List<EntityReference> references = new ArrayList<>();
+        for( EntitySnapshot owner : snapshotsOf( association.traversedAssociation(),
+                                                 association.traversedManyAssociation(),
+                                                 association.traversedNamedAssociation(),
+                                                 snapshot ) )
+        {
+            EntityReference reference = owner.associationValueOf( name );
+            if( reference != null )
+            {
+                references.add( reference );
+            }
+        }
+        return references;
+    }
+
+    private List<EntityReference> referencesOf( ManyAssociationFunction<?> manyAssociation, EntitySnapshot snapshot )
+    {
+        QualifiedName name = qualifiedName( manyAssociation.accessor() );
+        List<EntityReference> references = new ArrayList<>();
+        for( EntitySnapshot owner : snapshotsOf( manyAssociation.traversedAssociation(),
+                                                 manyAssociation.traversedManyAssociation(),
+                                                 manyAssociation.traversedNamedAssociation(),
+                                                 snapshot ) )
+        {
+            references.addAll( owner.manyAssociationValueOf( name ) );
+        }
+        return references;
+    }
+
+    private List<Map<String, EntityReference>> namedReferencesOf( NamedAssociationFunction<?> namedAssociation,
+                                                                  EntitySnapshot snapshot )
+    {
+        QualifiedName name = qualifiedName( namedAssociation.accessor() );
+        List<Map<String, EntityReference>> references = new ArrayList<>();
+        for( EntitySnapshot owner : snapshotsOf( namedAssociation.traversedAssociation(),
+                                                 namedAssociation.traversedManyAssociation(),
+                                                 namedAssociation.traversedNamedAssociation(),
+                                                 snapshot ) )
+        {
+            references.add( owner.namedAssociationValueOf( name ) );
+        }
+        return references;
+    }
+
+    private List<EntityReference> ownersOf( AssociationFunction<?> association,
+                                            ManyAssociationFunction<?> manyAssociation,
+                                            NamedAssociationFunction<?> namedAssociation,
+                                            EntitySnapshot snapshot )
+    {
+        if( association != null )
+        {
+            return referencesOf( association, snapshot );
+        }
+        if( manyAssociation != null )
+        {
+            return referencesOf( manyAssociation, snapshot );
+        }
+        if( namedAssociation != null )
+        {
+            List<EntityReference> references = new ArrayList<>();
+            namedReferencesOf( namedAssociation, snapshot ).forEach( named -> references.addAll( named.values() ) );
+            return references;
+        }
+        return Collections.singletonList( snapshot.reference() );
+    }
+
+    private List<EntitySnapshot> snapshotsOf( AssociationFunction<?> association,
+                                              ManyAssociationFunction<?> manyAssociation,
+                                              NamedAssociationFunction<?> namedAssociation,
+                                              EntitySnapshot snapshot )
+    {
+        if( association == null && manyAssociation == null && namedAssociation == null )
+        {
+            return Collections.singletonList( snapshot );
+        }
+        List<EntitySnapshot> snapshots = new ArrayList<>();
+        for( EntityReference reference : ownersOf( association, manyAssociation, namedAssociation, snapshot ) )
+        {
+            EntitySnapshot owner = index.get( reference );
+            if( owner != null )
+            {
+                snapshots.add( owner );
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * @param value Query value, possibly a variable
+     * @return The value, or the value bound to the variable
+     */
+    public Object resolve( Object value )
+    {
+        if( value instanceof Variable )
+        {
+            return variables.get( ( (Variable) value ).variableName() );
+        }
+        return value;
+    }
+
+    /**
+     * Normalize values so that equal values have equal keys in hash indexes.
+     *
+     * @param value Value
+     * @return Normalized value
+     */
+    public static Object normalize( Object value )
+    {
+        if( value instanceof BigDecimal )
+        {
+            return ( (BigDecimal) value ).stripTrailingZeros();
+        }
+        if( value instanceof Identity || value instanceof EntityReference || value instanceof HasIdentity )
+        {
+            EntityReference reference = referenceOf( value );
+            return reference == null ? null : reference.identity().toString();
+        }
+        return value;
+    }
+
+    /**
+     * @param left  Left value, not null
+     * @param right Right value, not null
+     * @return true if the values can be compared with each other
+     */
+    public static boolean comparable( Object left, Object right )
+    {
+        return left instanceof Comparable
+               && ( left.getClass().isInstance( right ) || right.getClass().isInstance( left ) );
+    }
+
+    /**
+     * Compare two normalized values, values that are not {@link #comparable(Object, Object)} being equal.
+     *
+     * @param left  Left value, not null
+     * @param right Right value, not null
+     * @return Comparison result
+     */
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public static int compare( Object left, Object right )
+    {
+        if( comparable( left, right ) )
+        {
+            try
+            {
+                return ( (Comparable) left ).compareTo( right );
+            }
+            catch( ClassCastException ignored )
+            {
+                // Not mutually comparable after all
+            }
+        }
+        return 0;
+    }
+
+    static EntityReference referenceOf( Object value )
+    {
+        if( value instanceof EntityReference )
+        {
+            return (EntityReference) value;
+        }
+        if( value instanceof Identity )
+        {
+            return EntityReference.create( (Identity) value );
+        }
+        if( value instanceof HasIdentity )
+        {
+            return EntityReference.entityReferenceFor( value );
+        }
+        return null;
+    }
+
+    static QualifiedName qualifiedName( AccessibleObject accessor )
+    {
+        return QUALIFIED_NAMES.computeIfAbsent( accessor, QualifiedName::fromAccessor );
+    }
+
+    private static List<Object> normalized( Collection<?> values )
+    {
+        List<Object> normalized = new ArrayList<>( values.size() );
+        for( Object value : values )
+        {
+            normalized.add( normalize( value ) );
+        }
+        return normalized;
+    }
+}
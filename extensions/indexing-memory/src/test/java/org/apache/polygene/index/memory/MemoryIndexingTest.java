@@ -0,0 +1,153 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.memory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import org.apache.polygene.api.common.Optional;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.entity.EntityBuilder;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.identity.StringIdentity;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.query.Query;
+import org.apache.polygene.api.query.QueryBuilder;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.index.memory.assembly.MemoryIndexingAssembler;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static java.util.stream.Collectors.toList;
+import static org.apache.polygene.api.query.QueryExpressions.eq;
+import static org.apache.polygene.api.query.QueryExpressions.gt;
+import static org.apache.polygene.api.query.QueryExpressions.orderBy;
+import static org.apache.polygene.api.query.QueryExpressions.templateFor;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class MemoryIndexingTest
+    extends AbstractPolygeneTest
+{
+    public interface Item
+    {
+        Property<String> name();
+
+        @Optional
+        Property<Integer> rank();
+    }
+
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        module.entities( Item.class );
+        new EntityTestAssembler().assemble( module );
+        new MemoryIndexingAssembler().assemble( module );
+    }
+
+    @Test
+    public void givenUpdatedEntityWhenQueryingExpectIndexUpToDate()
+        throws Exception
+    {
+        create( "a", "apple", 3 );
+        create( "b", "banana", 1 );
+
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            uow.get( Item.class, StringIdentity.identityOf( "a" ) ).name().set( "avocado" );
+            uow.complete();
+        }
+
+        Item template = templateFor( Item.class );
+        assertThat( names( eq( template.name(), "apple" ) ), equalTo( names() ) );
+        assertThat( names( eq( template.name(), "avocado" ) ), equalTo( names( "avocado" ) ) );
+    }
+
+    @Test
+    public void givenRemovedEntityWhenQueryingExpectNotFound()
+        throws Exception
+    {
+        create( "a", "apple", 3 );
+        create( "b", "banana", 1 );
+
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            uow.remove( uow.get( Item.class, StringIdentity.identityOf( "b" ) ) );
+            uow.complete();
+        }
+
+        Item template = templateFor( Item.class );
+        assertThat( names( gt( template.rank(), 0 ) ), equalTo( names( "apple" ) ) );
+    }
+
+    @Test
+    public void givenOrderingOnIndexedPropertyWhenQueryingExpectSortedAndBounded()
+        throws Exception
+    {
+        create( "a", "apple", 3 );
+        create( "b", "banana", 1 );
+        create( "c", "cherry", 2 );
+        create( "d", "date", null );
+
+        Item template = templateFor( Item.class );
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            QueryBuilder<Item> builder = queryBuilderFactory.newQueryBuilder( Item.class );
+            Query<Item> query = uow.newQuery( builder ).orderBy( orderBy( template.rank() ) ).maxResults( 3 );
+            List<String> names = query.stream().map( item -> item.name().get() ).collect( toList() );
+            assertThat( names, equalTo( names( "date", "banana", "cherry" ) ) );
+            // Counting ignores paging
+            assertThat( query.count(), equalTo( 4L ) );
+        }
+    }
+
+    private void create( String identity, String name, Integer rank )
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            Identity id = StringIdentity.identityOf( identity );
+            EntityBuilder<Item> builder = uow.newEntityBuilder( Item.class, id );
+            builder.instance().name().set( name );
+            builder.instance().rank().set( rank );
+            builder.newInstance();
+            uow.complete();
+        }
+    }
+
+    private List<String> names( Predicate<Composite> where )
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            QueryBuilder<Item> builder = queryBuilderFactory.newQueryBuilder( Item.class ).where( where );
+            return uow.newQuery( builder ).stream().map( item -> item.name().get() ).collect( toList() );
+        }
+    }
+
+    private static List<String> names( String... names )
+    {
+        return Arrays.asList( names );
+    }
+}
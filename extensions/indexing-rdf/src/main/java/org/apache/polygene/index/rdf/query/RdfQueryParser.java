@@ -28,6 +28,12 @@ import org.apache.polygene.api.query.grammar.OrderBy;
 
 public interface RdfQueryParser
 {
+    /**
+     * Prefix of the SPARQL variables standing for query variables passed as bindings rather than inlined, see
+     * {@link org.apache.polygene.spi.query.QueryVariables}.
+     */
+    String PARAMETER_PREFIX = "qv_";
+
     String constructQuery( Class<?> resultType,
                            Predicate<Composite> whereClause,
                            List<OrderBy> orderBySegments,
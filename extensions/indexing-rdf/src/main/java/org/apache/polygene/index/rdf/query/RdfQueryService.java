@@ -20,19 +20,26 @@
 
 package org.apache.polygene.index.rdf.query;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.apache.polygene.api.composite.Composite;
 import org.apache.polygene.api.entity.EntityReference;
+import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.metrics.MetricsProvider;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.query.grammar.OrderBy;
 import org.apache.polygene.api.query.grammar.QuerySpecification;
+import org.apache.polygene.api.structure.Module;
 import org.apache.polygene.spi.query.EntityFinder;
 import org.apache.polygene.spi.query.EntityFinderException;
+import org.apache.polygene.spi.query.QueryPlanCache;
+import org.apache.polygene.spi.query.QueryShape;
 import org.openrdf.query.QueryLanguage;
 
 /**
@@ -57,6 +64,15 @@ public interface RdfQueryService
         @This
         TupleQueryExecutor tupleExecutor;
 
+        @Optional
+        @Service
+        private MetricsProvider metrics;
+
+        @Structure
+        private Module module;
+
+        private final QueryPlanCache<String> queryPlans = new QueryPlanCache<>();
+
         @Override
         public Stream<EntityReference> findEntities( Class<?> resultType,
                                                      Predicate<Composite> whereClause,
@@ -75,10 +91,9 @@ public interface RdfQueryService
 
             } else
             {
-                RdfQueryParser rdfQueryParser = queryParserFactory.newQueryParser( language );
-                String query = rdfQueryParser.constructQuery( resultType, whereClause, orderBySegments, firstResult, maxResults, variables );
-
-                tupleExecutor.performTupleQuery( language, query, variables, collectingCallback );
+                QueryPlanCache.Plan<String> plan = constructQuery( "find", resultType, whereClause, orderBySegments,
+                                                                   firstResult, maxResults, variables );
+                tupleExecutor.performTupleQuery( language, plan.plan(), bindings( plan, variables ), collectingCallback );
                 return collectingCallback.entities().stream();
             }
         }
@@ -96,9 +111,9 @@ public interface RdfQueryService
                 return singleCallback.qualifiedIdentity();
             } else
             {
-                RdfQueryParser rdfQueryParser = queryParserFactory.newQueryParser( language );
-                String query = rdfQueryParser.constructQuery( resultType, whereClause, null, null, null, variables );
-                tupleExecutor.performTupleQuery( QueryLanguage.SPARQL, query, variables, singleCallback );
+                QueryPlanCache.Plan<String> plan = constructQuery( "findOne", resultType, whereClause, null,
+                                                                   null, null, variables );
+                tupleExecutor.performTupleQuery( language, plan.plan(), bindings( plan, variables ), singleCallback );
                 return singleCallback.qualifiedIdentity();
             }
         }
@@ -113,11 +128,44 @@ public interface RdfQueryService
                 return tupleExecutor.performTupleQuery( QueryLanguage.SERQL, query, variables, null );
 
             } else
+            {
+                QueryPlanCache.Plan<String> plan = constructQuery( "count", resultType, whereClause, null,
+                                                                   null, null, variables );
+                return tupleExecutor.performTupleQuery( language, plan.plan(), bindings( plan, variables ), null );
+            }
+        }
+
+        private QueryPlanCache.Plan<String> constructQuery( String operation,
+                                                            Class<?> resultType,
+                                                            Predicate<Composite> whereClause,
+                                                            List<OrderBy> orderBySegments,
+                                                            Integer firstResult,
+                                                            Integer maxResults,
+                                                            Map<String, Object> variables )
+        {
+            queryPlans.registerGauges( module, metrics, RdfQueryService.class );
+            QueryShape shape = QueryShape.of( operation, resultType, whereClause, orderBySegments,
+                                              firstResult, maxResults, variables );
+            return queryPlans.plan( shape, variables, tracked ->
             {
                 RdfQueryParser rdfQueryParser = queryParserFactory.newQueryParser( language );
-                String query = rdfQueryParser.constructQuery( resultType, whereClause, null, null, null, variables );
-                return tupleExecutor.performTupleQuery( language, query, variables, null );
+                return rdfQueryParser.constructQuery( resultType, whereClause, orderBySegments,
+                                                      firstResult, maxResults, tracked );
+            } );
+        }
+
+        private static Map<String, Object> bindings( QueryPlanCache.Plan<String> plan, Map<String, Object> variables )
+        {
+            if( plan.parameters().isEmpty() )
+            {
+                return variables;
+            }
+            Map<String, Object> bindings = new HashMap<>( variables );
+            for( String name : plan.parameters().values() )
+            {
+                bindings.put( RdfQueryParser.PARAMETER_PREFIX + name, variables.get( name ) );
             }
+            return bindings;
         }
     }
 }
@@ -26,6 +26,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.function.Predicate;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.polygene.api.composite.Composite;
@@ -54,6 +55,7 @@ import org.apache.polygene.api.query.grammar.Variable;
 import org.apache.polygene.api.serialization.Serializer;
 import org.apache.polygene.index.rdf.query.RdfQueryParser;
 import org.apache.polygene.spi.PolygeneSPI;
+import org.apache.polygene.spi.query.QueryVariables;
 import org.apache.polygene.spi.serialization.JsonSerializer;
 import org.slf4j.LoggerFactory;
 
@@ -67,12 +69,14 @@ public class RdfQueryParserImpl
 {
     private static final Map<Class<? extends ComparisonPredicate>, String> OPERATORS;
     private static final Set<Character> RESERVED_CHARS;
+    private static final Pattern PARAMETER_NAME = Pattern.compile( "[A-Za-z0-9_]+" );
 
     private final Namespaces namespaces = new Namespaces();
     private final Triples triples = new Triples( namespaces );
     private final PolygeneSPI spi;
     private final JsonSerializer stateSerializer;
     private Map<String, Object> variables;
+    private int parameterIndex;
 
     static
     {
@@ -429,16 +433,16 @@ public class RdfQueryParserImpl
             // Don't use FILTER for equals-comparison. Do direct match instead
             if( predicate instanceof EqPredicate && allowInline )
             {
-                triple.setValue( "\"" + toString( comparisonPredicate.value() ) + "\"" );
+                triple.setValue( toLiteral( comparisonPredicate.value() ) );
             }
             else
             {
                 String valueVariable = triple.value();
                 builder.append( String.format(
-                    "(%s %s \"%s\")",
+                    "(%s %s %s)",
                     valueVariable,
                     getOperator( comparisonPredicate.getClass() ),
-                    toString( comparisonPredicate.value() ) ) );
+                    toLiteral( comparisonPredicate.value() ) ) );
             }
         }
         else
@@ -526,6 +530,29 @@ public class RdfQueryParserImpl
         return operator;
     }
 
+    /**
+     * Plain literal of a comparison value.
+     * <p>
+     * When the query plan is cached, variables are not inlined but passed as bindings of SPARQL variables so that
+     * the query is reused whatever their values.
+     * </p>
+     */
+    private String toLiteral( Object value )
+    {
+        if( value instanceof Variable && QueryVariables.isTracked( variables ) )
+        {
+            String name = ( (Variable) value ).variableName();
+            Object realValue = variables.get( name );
+            if( realValue != null && !( realValue instanceof EntityComposite )
+                && PARAMETER_NAME.matcher( name ).matches() )
+            {
+                QueryVariables.parameter( variables, name, parameterIndex++ );
+                return "?" + PARAMETER_PREFIX + name;
+            }
+        }
+        return "\"" + toString( value ) + "\"";
+    }
+
     private String toString( Object value )
     {
         if( value == null )
@@ -33,11 +33,17 @@ import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.composite.Composite;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.metrics.MetricsProvider;
 import org.apache.polygene.api.query.grammar.OrderBy;
+import org.apache.polygene.api.structure.Module;
+import org.apache.polygene.index.sql.SQLIndexingService;
 import org.apache.polygene.index.sql.support.api.SQLQuerying;
 import org.apache.polygene.library.sql.common.SQLUtil;
 import org.apache.polygene.spi.query.EntityFinder;
 import org.apache.polygene.spi.query.EntityFinderException;
+import org.apache.polygene.spi.query.QueryPlanCache;
+import org.apache.polygene.spi.query.QueryShape;
 
 public class SQLEntityFinder
     implements EntityFinder
@@ -48,6 +54,15 @@ public class SQLEntityFinder
     @Service
     private DataSource _dataSource;
 
+    @Optional
+    @Service
+    private MetricsProvider metrics;
+
+    @Structure
+    private Module module;
+
+    private final QueryPlanCache<SQLQuery> queryPlans = new QueryPlanCache<>();
+
     /**
      * Helper interface to perform some SQL query. Using this simplifies the structure of some of the methods.
      *
@@ -63,10 +78,8 @@ public class SQLEntityFinder
     public long countEntities( Class<?> resultType, @Optional Predicate<Composite> whereClause, Map<String, Object> variables )
         throws EntityFinderException
     {
-        final List<Object> values = new ArrayList<>();
-        final List<Integer> valueSQLTypes = new ArrayList<>();
-        final String query = this.parser.constructQuery( resultType, whereClause, null, null, null, variables, values,
-                                                         valueSQLTypes, true );
+        final SQLQuery query = this.constructQuery( "count", resultType, whereClause, null, null, null, variables,
+                                                   true );
 
         return this.performQuery( new DoQuery<Long>()
         {
@@ -79,7 +92,7 @@ public class SQLEntityFinder
                 ResultSet rs = null;
                 try
                 {
-                    ps = createPS( connection, query, values, valueSQLTypes );
+                    ps = createPS( connection, query );
                     rs = ps.executeQuery();
                     rs.next();
                     return rs.getLong( 1 );
@@ -105,10 +118,8 @@ public class SQLEntityFinder
         // these values - does it match with Polygene's way?
         if( maxResults == null || maxResults > 0 )
         {
-            final List<Object> values = new ArrayList<>();
-            final List<Integer> valueSQLTypes = new ArrayList<>();
-            final String query = this.parser.constructQuery( resultType, whereClause, orderBySegments, firstResult,
-                                                             maxResults, variables, values, valueSQLTypes, false );
+            final SQLQuery query = this.constructQuery( "find", resultType, whereClause, orderBySegments, firstResult,
+                                                       maxResults, variables, false );
 
             List<EntityReference> result = this.performQuery( new DoQuery<List<EntityReference>>()
             {
@@ -123,8 +134,7 @@ public class SQLEntityFinder
                     {
                         // TODO possibility to further optimize by setting fetch size (not too small not too little).
                         Integer rsType = parser.getResultSetType( firstResult, maxResults );
-                        ps = createPS( connection, query, values, valueSQLTypes,
-                                       rsType, ResultSet.CLOSE_CURSORS_AT_COMMIT );
+                        ps = createPS( connection, query, rsType, ResultSet.CLOSE_CURSORS_AT_COMMIT );
                         rs = ps.executeQuery();
                         if( firstResult != null
                             && !parser.isFirstResultSettingSupported()
@@ -162,10 +172,8 @@ public class SQLEntityFinder
                                        Map<String, Object> variables )
         throws EntityFinderException
     {
-        final List<Object> values = new ArrayList<>();
-        final List<Integer> valueSQLTypes = new ArrayList<>();
-        final String query = this.parser.constructQuery( resultType, whereClause, null, null, null, variables, values,
-                                                         valueSQLTypes, false );
+        final SQLQuery query = this.constructQuery( "findOne", resultType, whereClause, null, null, null, variables,
+                                                   false );
 
         return this.performQuery( new DoQuery<EntityReference>()
         {
@@ -178,7 +186,7 @@ public class SQLEntityFinder
                 EntityReference result = null;
                 try
                 {
-                    ps = createPS( connection, query, values, valueSQLTypes );
+                    ps = createPS( connection, query );
                     ps.setFetchSize( 1 );
                     ps.setMaxRows( 1 );
                     rs = ps.executeQuery();
@@ -198,20 +206,44 @@ public class SQLEntityFinder
         } );
     }
 
-    private PreparedStatement createPS( Connection connection, String query,
-                                        List<Object> values, List<Integer> valueSQLTypes )
+    /**
+     * Translate a query, or reuse the cached translation of a query of the same shape.
+     * <p>
+     * Primitive variables are bind parameters of the cached statement and are rebound to the current values.
+     * </p>
+     */
+    private SQLQuery constructQuery( String operation, Class<?> resultType, Predicate<Composite> whereClause,
+                                     List<OrderBy> orderBySegments, Integer firstResult, Integer maxResults,
+                                     Map<String, Object> variables, boolean countOnly )
+    {
+        this.queryPlans.registerGauges( this.module, this.metrics, SQLIndexingService.class );
+        QueryShape shape = QueryShape.of( operation, resultType, whereClause, orderBySegments, firstResult,
+                                          maxResults, variables );
+        QueryPlanCache.Plan<SQLQuery> plan = this.queryPlans.plan( shape, variables, tracked ->
+        {
+            List<Object> values = new ArrayList<>();
+            List<Integer> valueSQLTypes = new ArrayList<>();
+            String sql = this.parser.constructQuery( resultType, whereClause, orderBySegments, firstResult,
+                                                     maxResults, tracked, values, valueSQLTypes, countOnly );
+            return new SQLQuery( sql, values, valueSQLTypes );
+        } );
+        SQLQuery query = plan.plan();
+        return new SQLQuery( query.sql, plan.bind( query.values, variables ), query.valueSQLTypes );
+    }
+
+    private PreparedStatement createPS( Connection connection, SQLQuery query )
         throws SQLException
     {
-        return this.createPS( connection, query, values, valueSQLTypes,
-                              ResultSet.TYPE_FORWARD_ONLY, ResultSet.CLOSE_CURSORS_AT_COMMIT );
+        return this.createPS( connection, query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CLOSE_CURSORS_AT_COMMIT );
     }
 
-    private PreparedStatement createPS( Connection connection, String query,
-                                        List<Object> values, List<Integer> valueSQLTypes,
+    private PreparedStatement createPS( Connection connection, SQLQuery query,
                                         Integer resultSetType, Integer resultSetHoldability )
         throws SQLException
     {
-        PreparedStatement ps = connection.prepareStatement( query, resultSetType,
+        List<Object> values = query.values;
+        List<Integer> valueSQLTypes = query.valueSQLTypes;
+        PreparedStatement ps = connection.prepareStatement( query.sql, resultSetType,
                                                             ResultSet.CONCUR_READ_ONLY, resultSetHoldability );
         if( values.size() != valueSQLTypes.size() )
         {
@@ -253,4 +285,20 @@ public class SQLEntityFinder
         return result;
     }
 
+    /**
+     * Translated query, the SQL statement and its parameters.
+     */
+    private static final class SQLQuery
+    {
+        private final String sql;
+        private final List<Object> values;
+        private final List<Integer> valueSQLTypes;
+
+        private SQLQuery( String sql, List<Object> values, List<Integer> valueSQLTypes )
+        {
+            this.sql = sql;
+            this.values = values;
+            this.valueSQLTypes = valueSQLTypes;
+        }
+    }
 }
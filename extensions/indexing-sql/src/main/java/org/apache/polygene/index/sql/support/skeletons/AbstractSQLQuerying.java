@@ -95,6 +95,7 @@ import org.apache.polygene.library.sql.generator.grammar.query.joins.JoinType;
 import org.apache.polygene.library.sql.generator.vendor.SQLVendor;
 import org.apache.polygene.spi.PolygeneSPI;
 import org.apache.polygene.spi.query.EntityFinderException;
+import org.apache.polygene.spi.query.QueryVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -1709,9 +1710,11 @@ public abstract class AbstractSQLQuerying
         final List<Object> values, final List<Integer> valueSQLTypes
     )
     {
+        String variableName = null;
         if( value instanceof Variable )
         {
-            value = variables.get( ( (Variable) value ).variableName() );
+            variableName = ( (Variable) value ).variableName();
+            value = variables.get( variableName );
         }
 
         final String schemaName = this._state.schemaName().get();
@@ -1871,6 +1874,11 @@ public abstract class AbstractSQLQuerying
                 {
                     dbValue = this._state.enumPKs().get().get( value.getClass().getName() );
                 }
+                else if( variableName != null )
+                {
+                    // Cached plans rebind this parameter to the variable value
+                    QueryVariables.parameter( variables, variableName, values.size() );
+                }
                 whereClause.and( b.and( b.isNotNull( valueCol ),
                                         this.getOperator( predicate ).getExpression( b, valueCol, l.param() ) ) );
                 values.add( dbValue );
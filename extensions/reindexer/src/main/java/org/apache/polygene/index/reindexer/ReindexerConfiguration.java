@@ -35,4 +35,53 @@ public interface ReindexerConfiguration
      */
     @Optional
     Property<Integer> loadValue();
+
+    /**
+     * How many threads should send EntityStates to the indexers concurrently.
+     *
+     * If not specified, the value of 1 will be used and EntityStates are sent from the calling thread.
+     *
+     * @return the property containing the number of threads.
+     */
+    @Optional
+    Property<Integer> threads();
+
+    /**
+     * Every how many EntityStates progress should be saved to {@link #checkpoint()}.
+     *
+     * If not specified, progress is not saved and an interrupted reindexing starts over from scratch.
+     * Progress is only saved for EntityStores that stream EntityStates in a stable order, i.e. that are
+     * {@link org.apache.polygene.spi.entitystore.OrderedEntityStates}.
+     *
+     * @return the property containing the checkpoint interval.
+     */
+    @Optional
+    Property<Integer> checkpointInterval();
+
+    /**
+     * Reference of the last EntityState, in the order the EntityStore streams them, that an unfinished reindexing
+     * sent to all indexers along with all the EntityStates before it.
+     *
+     * Reindexing resumes after that reference. It is reset once reindexing completes.
+     *
+     * @return the property containing the checkpoint.
+     */
+    @Optional
+    Property<String> checkpoint();
+
+    /**
+     * How many EntityStates were sent to all indexers up to the {@link #checkpoint()}, used to report progress.
+     *
+     * @return the property containing the checkpoint count.
+     */
+    @Optional
+    Property<Long> checkpointCount();
+
+    /**
+     * How many EntityStates the last complete reindexing sent, used to estimate the remaining time of the next one.
+     *
+     * @return the property containing the last reindexing total.
+     */
+    @Optional
+    Property<Long> lastTotal();
 }
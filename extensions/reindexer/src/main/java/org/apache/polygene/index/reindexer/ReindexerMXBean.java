@@ -0,0 +1,55 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+
+package org.apache.polygene.index.reindexer;
+
+/**
+ * JMX view of the progress of a Reindexer.
+ * <p>
+ * Registered as {@code org.apache.polygene:type=Reindexer,name=<service identity>} while reindexing.
+ * </p>
+ */
+public interface ReindexerMXBean
+{
+    /**
+     * @return true while reindexing
+     */
+    boolean isRunning();
+
+    /**
+     * @return EntityStates sent to all indexers by the current or last reindexing, including skipped ones
+     */
+    long getIndexed();
+
+    /**
+     * @return EntityStates read from the EntityStore but not sent to all indexers yet
+     */
+    long getLag();
+
+    /**
+     * @return EntityStates sent to all indexers per second, since reindexing started
+     */
+    double getEntitiesPerSecond();
+
+    /**
+     * @return Estimated seconds until reindexing completes, or -1 if unknown
+     */
+    long getEstimatedSecondsRemaining();
+}
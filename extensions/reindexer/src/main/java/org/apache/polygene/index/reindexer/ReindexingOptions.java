@@ -0,0 +1,47 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+
+package org.apache.polygene.index.reindexer;
+
+/**
+ * Set an instance of this as MetaInfo on a StateChangeListener service to control how the Reindexer feeds it.
+ */
+public final class ReindexingOptions
+{
+    private final int batchSize;
+
+    /**
+     * @param batchSize How many EntityStates should be sent to the listener at a time, regardless of the
+     *                  {@link ReindexerConfiguration#loadValue()} of the Reindexer
+     */
+    public ReindexingOptions( int batchSize )
+    {
+        if( batchSize <= 0 )
+        {
+            throw new IllegalArgumentException( "batchSize must be positive, was " + batchSize );
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int batchSize()
+    {
+        return batchSize;
+    }
+}
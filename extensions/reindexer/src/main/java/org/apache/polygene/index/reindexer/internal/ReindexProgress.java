@@ -0,0 +1,105 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+
+package org.apache.polygene.index.reindexer.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.polygene.index.reindexer.ReindexerMXBean;
+
+/**
+ * Progress of a Reindexer, shared by its threads.
+ */
+class ReindexProgress
+    implements ReindexerMXBean
+{
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+    private volatile boolean running;
+    private volatile long skipped;
+    private volatile long expectedTotal;
+    private volatile long startNanos;
+
+    void start( long skipped, long expectedTotal )
+    {
+        this.skipped = skipped;
+        this.expectedTotal = expectedTotal;
+        read.set( skipped );
+        indexed.set( skipped );
+        startNanos = System.nanoTime();
+        running = true;
+    }
+
+    void read( int count )
+    {
+        read.addAndGet( count );
+    }
+
+    void indexed( int count )
+    {
+        indexed.addAndGet( count );
+    }
+
+    void stop()
+    {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    @Override
+    public long getIndexed()
+    {
+        return indexed.get();
+    }
+
+    @Override
+    public long getLag()
+    {
+        return read.get() - indexed.get();
+    }
+
+    @Override
+    public double getEntitiesPerSecond()
+    {
+        long elapsed = System.nanoTime() - startNanos;
+        if( startNanos == 0 || elapsed <= 0 )
+        {
+            return 0;
+        }
+        return ( indexed.get() - skipped ) * (double) TimeUnit.SECONDS.toNanos( 1 ) / elapsed;
+    }
+
+    @Override
+    public long getEstimatedSecondsRemaining()
+    {
+        double rate = getEntitiesPerSecond();
+        long remaining = expectedTotal - indexed.get();
+        if( !running || expectedTotal <= 0 || rate <= 0 )
+        {
+            return -1;
+        }
+        return Math.max( 0, (long) ( remaining / rate ) );
+    }
+}
@@ -20,19 +20,43 @@
 
 package org.apache.polygene.index.reindexer.internal;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.configuration.Configuration;
+import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.identity.HasIdentity;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.Structure;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.injection.scope.Uses;
+import org.apache.polygene.api.metrics.MetricNames;
+import org.apache.polygene.api.metrics.MetricsGaugeFactory;
+import org.apache.polygene.api.metrics.MetricsNotSupportedException;
+import org.apache.polygene.api.metrics.MetricsProvider;
+import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.api.service.ServiceReference;
 import org.apache.polygene.api.structure.ModuleDescriptor;
 import org.apache.polygene.index.reindexer.Reindexer;
 import org.apache.polygene.index.reindexer.ReindexerConfiguration;
+import org.apache.polygene.index.reindexer.ReindexerMXBean;
+import org.apache.polygene.index.reindexer.ReindexingOptions;
 import org.apache.polygene.spi.entity.EntityState;
 import org.apache.polygene.spi.entitystore.EntityStore;
+import org.apache.polygene.spi.entitystore.OrderedEntityStates;
 import org.apache.polygene.spi.entitystore.StateChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +64,8 @@ import org.slf4j.LoggerFactory;
 public class ReindexerMixin
     implements Reindexer
 {
+    private static final int DEFAULT_LOAD_VALUE = 50;
+
     @This
     private Configuration<ReindexerConfiguration> configuration;
 
@@ -49,9 +75,19 @@ public class ReindexerMixin
     @Service
     private Iterable<ServiceReference<StateChangeListener>> listeners;
 
+    @Optional
+    @Service
+    private MetricsProvider metrics;
+
     @Structure
     private ModuleDescriptor module;
 
+    @Uses
+    private ServiceDescriptor descriptor;
+
+    private final ReindexProgress progress = new ReindexProgress();
+    private boolean gaugesRegistered;
+
     private Logger logger = LoggerFactory.getLogger( Reindexer.class );
 
     @Override
@@ -59,55 +95,303 @@ public class ReindexerMixin
     {
         configuration.refresh();
         ReindexerConfiguration conf = configuration.get();
-        Integer loadValue = conf.loadValue().get();
-        if( loadValue == null )
+        int loadValue = valueOr( conf.loadValue().get(), DEFAULT_LOAD_VALUE );
+        int threads = valueOr( conf.threads().get(), 1 );
+        int checkpointInterval = valueOr( conf.checkpointInterval().get(), 0 );
+        if( checkpointInterval > 0 && !( store instanceof OrderedEntityStates ) )
+        {
+            // Offsets or references are meaningless when the order changes between runs
+            logger.warn( "EntityStore does not stream entities in a stable order, reindexing cannot be resumed" );
+            checkpointInterval = 0;
+        }
+        String checkpoint = checkpointInterval > 0 ? conf.checkpoint().get() : null;
+        long checkpointCount = checkpoint != null && conf.checkpointCount().get() != null
+                               ? conf.checkpointCount().get() : 0;
+        long lastTotal = conf.lastTotal().get() == null ? 0 : conf.lastTotal().get();
+        if( checkpoint != null )
+        {
+            logger.info( "Resuming reindexing after " + checkpoint + ", " + checkpointCount + " entities" );
+        }
+
+        registerGauges();
+        ObjectName objectName = registerMBean();
+        progress.start( checkpointCount, lastTotal );
+        try
+        {
+            ReindexerHelper helper = new ReindexerHelper( loadValue, threads, checkpointCount, checkpointInterval );
+            long total = helper.reindex( checkpoint );
+            synchronized( configuration )
+            {
+                configuration.get().checkpoint().set( null );
+                configuration.get().checkpointCount().set( null );
+                configuration.get().lastTotal().set( total );
+                configuration.save();
+            }
+        }
+        finally
         {
-            loadValue = 50;
+            progress.stop();
+            unregisterMBean( objectName );
         }
-        ReindexerHelper helper = new ReindexerHelper( loadValue );
-        helper.reindex( store );
     }
 
-    private class ReindexerHelper
+    private static int valueOr( Integer value, int defaultValue )
     {
-        private int count;
-        private int loadValue;
-        private ArrayList<EntityState> states;
+        return value == null ? defaultValue : value;
+    }
 
-        private ReindexerHelper( int loadValue )
+    private void registerGauges()
+    {
+        if( gaugesRegistered || metrics == null )
         {
-            this.loadValue = loadValue;
-            states = new ArrayList<>();
+            return;
         }
+        gaugesRegistered = true;
+        try
+        {
+            MetricsGaugeFactory gauges = metrics.createFactory( MetricsGaugeFactory.class );
+            String identity = descriptor.identity().toString();
+            gauges.registerGauge( MetricNames.nameFor( module.instance(), Reindexer.class, identity, "indexed" ),
+                                  progress::getIndexed );
+            gauges.registerGauge( MetricNames.nameFor( module.instance(), Reindexer.class, identity, "lag" ),
+                                  progress::getLag );
+            gauges.registerGauge( MetricNames.nameFor( module.instance(), Reindexer.class, identity, "rate" ),
+                                  progress::getEntitiesPerSecond );
+            gauges.registerGauge( MetricNames.nameFor( module.instance(), Reindexer.class, identity, "eta" ),
+                                  progress::getEstimatedSecondsRemaining );
+        }
+        catch( MetricsNotSupportedException ex )
+        {
+            logger.debug( "Reindexer metrics not supported by " + metrics, ex );
+        }
+    }
 
-        private void reindex( EntityStore store )
+    private ObjectName registerMBean()
+    {
+        try
         {
-            try( Stream<EntityState> entityStates = store.entityStates( module ) )
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName( "org.apache.polygene:type=Reindexer,name="
+                                              + ObjectName.quote( descriptor.identity().toString() ) );
+            if( !server.isRegistered( name ) )
             {
-                entityStates
-                    .forEach( entityState ->
-                              {
-                                  count++;
-                                  entityState.setPropertyValue( HasIdentity.IDENTITY_STATE_NAME,
-                                                                entityState.entityReference().identity() );
-                                  states.add( entityState );
-                                  if( states.size() >= loadValue )
-                                  {
-                                      reindexState();
-                                  }
-                              } );
+                server.registerMBean( new StandardMBean( progress, ReindexerMXBean.class, true ), name );
             }
-            reindexState();
+            return name;
+        }
+        catch( JMException ex )
+        {
+            logger.warn( "Unable to register Reindexer MBean", ex );
+            return null;
         }
+    }
 
-        private void reindexState()
+    private void unregisterMBean( ObjectName name )
+    {
+        if( name == null )
+        {
+            return;
+        }
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if( server.isRegistered( name ) )
+            {
+                server.unregisterMBean( name );
+            }
+        }
+        catch( JMException ex )
         {
+            logger.warn( "Unable to unregister Reindexer MBean", ex );
+        }
+    }
+
+    private class ReindexerHelper
+    {
+        private final int chunkSize;
+        private final int threads;
+        private final long alreadyIndexed;
+        private final int checkpointInterval;
+        private final List<ServiceReference<StateChangeListener>> targets = new ArrayList<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        // Chunks completed out of order, by sequence number, waiting for their predecessors to be checkpointed
+        private final Map<Long, CompletedChunk> completed = new TreeMap<>();
+        private long nextSequence;
+        private long checkpointed;
+        private EntityReference checkpointedReference;
+        private long lastSaved;
+
+        private ReindexerHelper( int loadValue, int threads, long alreadyIndexed, int checkpointInterval )
+        {
+            this.threads = Math.max( 1, threads );
+            this.alreadyIndexed = alreadyIndexed;
+            this.checkpointInterval = checkpointInterval;
+            int size = loadValue;
             for( ServiceReference<StateChangeListener> listener : listeners )
             {
-                listener.get().notifyChanges( states );
+                targets.add( listener );
+                ReindexingOptions options = listener.metaInfo( ReindexingOptions.class );
+                if( options != null )
+                {
+                    size = Math.max( size, options.batchSize() );
+                }
+            }
+            this.chunkSize = size;
+            this.checkpointed = alreadyIndexed;
+            this.lastSaved = alreadyIndexed;
+        }
+
+        private long reindex( String checkpoint )
+        {
+            ThreadPoolExecutor executor = null;
+            if( threads > 1 )
+            {
+                // Bounded queue, the streaming thread indexes chunks itself when workers fall behind
+                executor = new ThreadPoolExecutor( threads, threads, 0, TimeUnit.MILLISECONDS,
+                                                   new ArrayBlockingQueue<>( threads * 2 ),
+                                                   new ThreadPoolExecutor.CallerRunsPolicy() );
             }
-            states.clear();
+            long count = alreadyIndexed;
+            try( Stream<EntityState> entityStates = entityStates( checkpoint ) )
+            {
+                List<EntityState> chunk = new ArrayList<>( chunkSize );
+                long sequence = 0;
+                Iterator<EntityState> iterator = entityStates.iterator();
+                while( iterator.hasNext() )
+                {
+                    EntityState entityState = iterator.next();
+                    checkFailure();
+                    count++;
+                    entityState.setPropertyValue( HasIdentity.IDENTITY_STATE_NAME,
+                                                  entityState.entityReference().identity() );
+                    chunk.add( entityState );
+                    if( chunk.size() >= chunkSize )
+                    {
+                        submit( executor, sequence++, chunk );
+                        chunk = new ArrayList<>( chunkSize );
+                    }
+                }
+                if( !chunk.isEmpty() )
+                {
+                    submit( executor, sequence, chunk );
+                }
+            }
+            finally
+            {
+                if( executor != null )
+                {
+                    executor.shutdown();
+                    try
+                    {
+                        executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+                    }
+                    catch( InterruptedException ex )
+                    {
+                        executor.shutdownNow();
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            checkFailure();
             logger.debug( "Reindexed " + count + " entities" );
+            return count;
+        }
+
+        private Stream<EntityState> entityStates( String checkpoint )
+        {
+            if( checkpointInterval <= 0 )
+            {
+                return store.entityStates( module );
+            }
+            // Same order as the run that saved the checkpoint, resumed without reading what was already indexed
+            EntityReference after = checkpoint == null ? null : EntityReference.parseEntityReference( checkpoint );
+            return ( (OrderedEntityStates) store ).entityStatesAfter( module, after );
+        }
+
+        private void submit( ThreadPoolExecutor executor, long sequence, List<EntityState> chunk )
+        {
+            progress.read( chunk.size() );
+            Runnable task = () ->
+            {
+                try
+                {
+                    reindexState( chunk );
+                    completed( sequence, new CompletedChunk( chunk ) );
+                }
+                catch( RuntimeException ex )
+                {
+                    failure.compareAndSet( null, ex );
+                }
+            };
+            if( executor == null )
+            {
+                task.run();
+            }
+            else
+            {
+                executor.execute( task );
+            }
+        }
+
+        private void checkFailure()
+        {
+            RuntimeException ex = failure.get();
+            if( ex != null )
+            {
+                throw ex;
+            }
+        }
+
+        private void reindexState( List<EntityState> states )
+        {
+            for( ServiceReference<StateChangeListener> listener : targets )
+            {
+                ReindexingOptions options = listener.metaInfo( ReindexingOptions.class );
+                int batchSize = options == null ? states.size() : options.batchSize();
+                for( int from = 0; from < states.size(); from += batchSize )
+                {
+                    listener.get().notifyChanges( states.subList( from, Math.min( states.size(),
+                                                                                  from + batchSize ) ) );
+                }
+            }
+            progress.indexed( states.size() );
+        }
+
+        private synchronized void completed( long sequence, CompletedChunk chunk )
+        {
+            completed.put( sequence, chunk );
+            CompletedChunk next;
+            while( ( next = completed.remove( nextSequence ) ) != null )
+            {
+                nextSequence++;
+                checkpointed += next.size;
+                checkpointedReference = next.last;
+            }
+            if( checkpointInterval > 0 && checkpointed - lastSaved >= checkpointInterval )
+            {
+                lastSaved = checkpointed;
+                synchronized( configuration )
+                {
+                    configuration.get().checkpoint().set( checkpointedReference.toString() );
+                    configuration.get().checkpointCount().set( checkpointed );
+                    configuration.save();
+                }
+                logger.debug( "Reindexing checkpoint at " + checkpointedReference + ", " + checkpointed
+                              + " entities" );
+            }
+        }
+    }
+
+    private static final class CompletedChunk
+    {
+        private final int size;
+        private final EntityReference last;
+
+        private CompletedChunk( List<EntityState> chunk )
+        {
+            size = chunk.size();
+            last = chunk.get( chunk.size() - 1 ).entityReference();
         }
     }
 }
@@ -0,0 +1,119 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.index.reindexer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.polygene.api.entity.EntityBuilder;
+import org.apache.polygene.api.entity.EntityComposite;
+import org.apache.polygene.api.identity.StringIdentity;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.spi.entity.EntityState;
+import org.apache.polygene.spi.entitystore.StateChangeListener;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Resuming an interrupted reindexing from the reference it was checkpointed at.
+ */
+public class ReindexerResumeTest
+    extends AbstractPolygeneTest
+{
+    private static final List<String> REINDEXED = Collections.synchronizedList( new ArrayList<>() );
+
+    @Override
+    public void assemble( ModuleAssembly module )
+    {
+        new EntityTestAssembler().assemble( module );
+        module.services( ReindexerService.class );
+        module.services( RecordingListener.class );
+        module.entities( ReindexerConfiguration.class );
+        module.forMixin( ReindexerConfiguration.class ).declareDefaults().checkpointInterval().set( 2 );
+        module.forMixin( ReindexerConfiguration.class ).declareDefaults().checkpoint().set( "e3" );
+        module.forMixin( ReindexerConfiguration.class ).declareDefaults().checkpointCount().set( 3L );
+        module.entities( MyEntity.class );
+    }
+
+    @Test
+    public void givenCheckpointWhenReindexingThenResumesAfterCheckpointedReference()
+        throws Exception
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            for( String identity : asList( "e5", "e1", "e6", "e3", "e2", "e4" ) )
+            {
+                EntityBuilder<MyEntity> builder = uow.newEntityBuilder( MyEntity.class,
+                                                                        StringIdentity.identityOf( identity ) );
+                builder.instance().name().set( identity );
+                builder.newInstance();
+            }
+            uow.complete();
+        }
+        REINDEXED.clear();
+
+        serviceFinder.findService( Reindexer.class ).get().reindex();
+
+        assertThat( REINDEXED, equalTo( asList( "e4", "e5", "e6" ) ) );
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            ReindexerConfiguration configuration = uow.get( ReindexerConfiguration.class,
+                                                            StringIdentity.identityOf( "ReindexerService" ) );
+            assertThat( configuration.checkpoint().get(), nullValue() );
+            assertThat( configuration.checkpointCount().get(), nullValue() );
+            assertThat( configuration.lastTotal().get(), equalTo( 6L ) );
+        }
+    }
+
+    public interface MyEntity extends EntityComposite
+    {
+        Property<String> name();
+    }
+
+    @Mixins( RecordingListener.Mixin.class )
+    public interface RecordingListener
+        extends StateChangeListener
+    {
+        class Mixin
+            implements StateChangeListener
+        {
+            @Override
+            public void notifyChanges( Iterable<EntityState> changedStates )
+            {
+                for( EntityState state : changedStates )
+                {
+                    if( MyEntity.class.equals( state.entityDescriptor().primaryType() ) )
+                    {
+                        REINDEXED.add( state.entityReference().identity().toString() );
+                    }
+                }
+            }
+        }
+    }
+}
@@ -18,18 +18,24 @@
 package org.apache.polygene.serialization.javaxjson;
 
 import java.io.StringReader;
+import java.io.StringWriter;
 import javax.json.JsonObject;
 import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.serialization.Serializer;
+import org.apache.polygene.api.structure.Module;
 import org.apache.polygene.api.unitofwork.UnitOfWork;
 import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.bootstrap.SingletonAssembler;
 import org.apache.polygene.serialization.javaxjson.assembly.JavaxJsonSerializationAssembler;
 import org.apache.polygene.spi.serialization.JsonSerialization;
 import org.apache.polygene.test.serialization.AbstractValueCompositeSerializationTest;
 import org.junit.Test;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
 
 public class JavaxJsonValueCompositeSerializationTest extends AbstractValueCompositeSerializationTest
@@ -80,4 +86,61 @@ public class JavaxJsonValueCompositeSerializationTest extends AbstractValueCompo
         }
         // END SNIPPET: json-serialization
     }
+
+    @Test
+    public void streamedJsonEqualsJsonTree()
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            Some valueInstance = buildSomeValue( moduleInstance, uow, "42" );
+
+            StringWriter writer = new StringWriter();
+            jsonSerialization.serialize( writer, valueInstance );
+            assertThat( "Streamed JSON equality",
+                        writer.toString(), equalTo( jsonSerialization.toJson( valueInstance ).toString() ) );
+
+            Some valueFromStream = jsonSerialization.deserialize( module, Some.class,
+                                                                  new StringReader( writer.toString() ) );
+            assertThat( "Value streamed back JSON equality",
+                        jsonSerialization.toJson( valueFromStream ), equalTo( jsonSerialization.toJson( valueInstance ) ) );
+        }
+    }
+
+    @Test
+    public void streamedJsonHonoursGeneratorProperties()
+        throws Exception
+    {
+        JavaxJsonSettings settings = new JavaxJsonSettings();
+        settings.getJsonGeneratorProperties().put( JsonGenerator.PRETTY_PRINTING, true );
+        SingletonAssembler assembler = new SingletonAssembler( module ->
+        {
+            new JavaxJsonSerializationAssembler().withJsonSettings( settings ).assemble( module );
+            super.assemble( module );
+        } );
+        Module prettyModule = assembler.module();
+        JsonSerialization prettySerialization = prettyModule.findService( JsonSerialization.class ).get();
+        try( UnitOfWork uow = prettyModule.unitOfWorkFactory().newUnitOfWork() )
+        {
+            Some valueInstance = buildSomeValue( prettyModule, uow, "42" );
+
+            // Pretty printed when streamed, unlike JsonValue.toString()
+            StringWriter writer = new StringWriter();
+            prettySerialization.serialize( writer, valueInstance );
+            JsonValue jsonTree = prettySerialization.toJson( valueInstance );
+            assertThat( "Streamed JSON is pretty printed", writer.toString(), containsString( "\n" ) );
+            assertThat( "JSON tree is not pretty printed", jsonTree.toString(), not( containsString( "\n" ) ) );
+            assertThat( "Streamed JSON equality",
+                        jsonFactories.readerFactory().createReader( new StringReader( writer.toString() ) ).read(),
+                        equalTo( jsonTree ) );
+
+            Some valueFromStream = prettySerialization.deserialize( prettyModule.descriptor(), Some.class,
+                                                                    new StringReader( writer.toString() ) );
+            assertThat( "Value streamed back JSON equality",
+                        prettySerialization.toJson( valueFromStream ), equalTo( jsonTree ) );
+        }
+        finally
+        {
+            assembler.application().passivate();
+        }
+    }
 }
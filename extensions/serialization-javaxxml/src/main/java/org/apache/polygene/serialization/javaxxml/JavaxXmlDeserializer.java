@@ -52,12 +52,13 @@ import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.api.structure.ModuleDescriptor;
 import org.apache.polygene.api.type.ArrayType;
 import org.apache.polygene.api.type.CollectionType;
-import org.apache.polygene.api.type.EnumType;
 import org.apache.polygene.api.type.MapType;
 import org.apache.polygene.api.type.StatefulAssociationValueType;
 import org.apache.polygene.api.type.ValueType;
 import org.apache.polygene.api.value.ValueBuilder;
 import org.apache.polygene.spi.serialization.AbstractTextDeserializer;
+import org.apache.polygene.spi.serialization.ValueCodec;
+import org.apache.polygene.spi.serialization.ValueCodecs;
 import org.apache.polygene.spi.serialization.XmlDeserializer;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -86,11 +87,13 @@ public class JavaxXmlDeserializer extends AbstractTextDeserializer
     private ServiceDescriptor descriptor;
 
     private JavaxXmlSettings settings;
+    private ValueCodecs<JavaxXmlAdapter<?>> codecs;
 
     @Override
     public void initialize() throws Exception
     {
         settings = JavaxXmlSettings.orDefault( descriptor.metaInfo( JavaxXmlSettings.class ) );
+        codecs = new ValueCodecs<>( converters, adapters::adapterFor );
     }
 
     @Override
@@ -132,38 +135,28 @@ public class JavaxXmlDeserializer extends AbstractTextDeserializer
         {
             return null;
         }
-        Converter<Object> converter = converters.converterFor( valueType );
-        if( converter != null )
+        ValueCodec<JavaxXmlAdapter<?>> codec = codecs.deserializationCodecFor( valueType );
+        switch( codec.kind() )
         {
-            return (T) converter.fromString( doDeserialize( module, ValueType.STRING, xml ).toString() );
+            case CONVERTED:
+                return (T) codec.converter().fromString( doDeserialize( module, ValueType.STRING, xml ).toString() );
+            case ADAPTED:
+                return (T) codec.adapter().deserialize( xml, ( element, type ) -> doDeserialize( module, type,
+                                                                                                 element ) );
+            case ENUM:
+                return (T) Enum.valueOf( (Class) valueType.primaryType(), xml.getNodeValue() );
+            case ARRAY:
+                return (T) deserializeArray( module, (ArrayType) valueType, xml );
+            case COLLECTION:
+                return (T) deserializeCollection( module, (CollectionType) valueType, xml );
+            case MAP:
+                return (T) deserializeMap( module, (MapType) valueType, xml );
+            case STATEFUL_ASSOCIATION_VALUE:
+                return (T) deserializeStatefulAssociationValue( module, (StatefulAssociationValueType<?>) valueType,
+                                                                xml );
+            default:
+                return (T) doGuessDeserialize( module, valueType, xml );
         }
-        JavaxXmlAdapter<?> adapter = adapters.adapterFor( valueType );
-        if( adapter != null )
-        {
-            return (T) adapter.deserialize( xml, ( element, type ) -> doDeserialize( module, type, element ) );
-        }
-        Class<? extends ValueType> valueTypeClass = valueType.getClass();
-        if( EnumType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) Enum.valueOf( (Class) valueType.primaryType(), xml.getNodeValue() );
-        }
-        if( ArrayType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeArray( module, (ArrayType) valueType, xml );
-        }
-        if( CollectionType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeCollection( module, (CollectionType) valueType, xml );
-        }
-        if( MapType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeMap( module, (MapType) valueType, xml );
-        }
-        if( StatefulAssociationValueType.class.isAssignableFrom( valueTypeClass ) )
-        {
-            return (T) deserializeStatefulAssociationValue( module, (StatefulAssociationValueType<?>) valueType, xml );
-        }
-        return (T) doGuessDeserialize( module, valueType, xml );
     }
 
     private Object deserializeStatefulAssociationValue( ModuleDescriptor module,
@@ -29,6 +29,7 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import org.apache.polygene.api.PolygeneAPI;
+import org.apache.polygene.api.association.AssociationDescriptor;
 import org.apache.polygene.api.association.AssociationStateHolder;
 import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.composite.Composite;
@@ -38,15 +39,15 @@ import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.injection.scope.Uses;
 import org.apache.polygene.api.mixin.Initializable;
-import org.apache.polygene.api.serialization.Converter;
+import org.apache.polygene.api.property.PropertyDescriptor;
 import org.apache.polygene.api.serialization.Converters;
 import org.apache.polygene.api.serialization.SerializationException;
 import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.api.type.ArrayType;
-import org.apache.polygene.api.type.EnumType;
-import org.apache.polygene.api.type.MapType;
-import org.apache.polygene.api.type.StatefulAssociationValueType;
 import org.apache.polygene.spi.serialization.AbstractTextSerializer;
+import org.apache.polygene.spi.serialization.StateCodec;
+import org.apache.polygene.spi.serialization.ValueCodec;
+import org.apache.polygene.spi.serialization.ValueCodecs;
 import org.apache.polygene.spi.serialization.XmlSerializer;
 import org.apache.polygene.spi.util.ArrayIterable;
 import org.w3c.dom.DOMException;
@@ -78,11 +79,13 @@ public class JavaxXmlSerializer extends AbstractTextSerializer
     private ServiceDescriptor descriptor;
 
     private JavaxXmlSettings settings;
+    private ValueCodecs<JavaxXmlAdapter<?>> codecs;
 
     @Override
     public void initialize() throws Exception
     {
         settings = JavaxXmlSettings.orDefault( descriptor.metaInfo( JavaxXmlSettings.class ) );
+        codecs = new ValueCodecs<>( converters, adapters::adapterFor );
     }
 
     @Override
@@ -138,97 +141,75 @@ public class JavaxXmlSerializer extends AbstractTextSerializer
         {
             return document.createElement( NULL_ELEMENT_NAME );
         }
-        Class<?> objectClass = object.getClass();
-        Converter<Object> converter = converters.converterFor( objectClass );
-        if( converter != null )
+        ValueCodec<JavaxXmlAdapter<?>> codec = codecs.serializationCodecFor( object.getClass() );
+        switch( codec.kind() )
         {
-            return doSerialize( document, options, converter.toString( object ), false );
+            case CONVERTED:
+                return doSerialize( document, options, codec.converter().toString( object ), false );
+            case ADAPTED:
+                return codec.adapter().serialize( document, object,
+                                                  value -> doSerialize( document, options, value, false ) );
+            case ENUM:
+                return document.createTextNode( object.toString() );
+            case STATEFUL_ASSOCIATION_VALUE:
+                return serializeStatefulAssociationValue( document, options, object, root );
+            case MAP:
+                return serializeMap( document, options, (Map<?, ?>) object );
+            case ARRAY:
+                return serializeArray( document, options, object );
+            case ITERABLE:
+                return serializeIterable( document, options, (Iterable<?>) object );
+            case STREAM:
+                return serializeStream( document, options, (Stream<?>) object );
+            default:
+                throw new SerializationException( "Don't know how to serialize " + object );
         }
-        JavaxXmlAdapter<?> adapter = adapters.adapterFor( objectClass );
-        if( adapter != null )
-        {
-            return adapter.serialize( document, object, value -> doSerialize( document, options, value, false ) );
-        }
-        if( EnumType.isEnum( objectClass ) )
-        {
-            return document.createTextNode( object.toString() );
-        }
-        if( StatefulAssociationValueType.isStatefulAssociationValue( objectClass ) )
-        {
-            return serializeStatefulAssociationValue( document, options, object, root );
-        }
-        if( MapType.isMap( objectClass ) )
-        {
-            return serializeMap( document, options, (Map<?, ?>) object );
-        }
-        if( ArrayType.isArray( objectClass ) )
-        {
-            return serializeArray( document, options, object );
-        }
-        if( Iterable.class.isAssignableFrom( objectClass ) )
-        {
-            return serializeIterable( document, options, (Iterable<?>) object );
-        }
-        if( Stream.class.isAssignableFrom( objectClass ) )
-        {
-            return serializeStream( document, options, (Stream<?>) object );
-        }
-        throw new SerializationException( "Don't know how to serialize " + object );
     }
 
     private <T> Node serializeStatefulAssociationValue( Document document, Options options, T composite, boolean root )
     {
         CompositeInstance instance = PolygeneAPI.FUNCTION_COMPOSITE_INSTANCE_OF.apply( (Composite) composite );
-        StatefulAssociationCompositeDescriptor descriptor =
-            (StatefulAssociationCompositeDescriptor) instance.descriptor();
+        StateCodec codec = codecs.stateCodecFor( (StatefulAssociationCompositeDescriptor) instance.descriptor() );
         AssociationStateHolder state = (AssociationStateHolder) instance.state();
-        StatefulAssociationValueType<?> valueType = descriptor.valueType();
 
         Element valueElement = document.createElement( settings.getValueTagName() );
-        valueType.properties().forEach(
-            property ->
-            {
-                Object value = state.propertyFor( property.accessor() ).get();
-                Converter<Object> converter = converters.converterFor( property );
-                if( converter != null )
-                {
-                    value = converter.toString( value );
-                }
-                Element element = document.createElement( property.qualifiedName().name() );
-                element.appendChild( doSerialize( document, options, value, false ) );
-                valueElement.appendChild( element );
-            } );
-        valueType.associations().forEach(
-            association ->
-            {
-                EntityReference value = state.associationFor( association.accessor() ).reference();
-                Element element = document.createElement( association.qualifiedName().name() );
-                element.appendChild( doSerialize( document, options, value, false ) );
-                valueElement.appendChild( element );
-            }
-        );
-        valueType.manyAssociations().forEach(
-            association ->
-            {
-                Stream<EntityReference> value = state.manyAssociationFor( association.accessor() ).references();
-                Element element = document.createElement( association.qualifiedName().name() );
-                element.appendChild( doSerialize( document, options, value, false ) );
-                valueElement.appendChild( element );
-            }
-        );
-        valueType.namedAssociations().forEach(
-            association ->
+        for( StateCodec.Member<PropertyDescriptor> property : codec.properties() )
+        {
+            Object value = state.propertyFor( property.descriptor().accessor() ).get();
+            if( property.converter() != null )
             {
-                Map<String, EntityReference> value = state.namedAssociationFor( association.accessor() ).references()
-                                                          .collect( toMap() );
-                Element element = document.createElement( association.qualifiedName().name() );
-                element.appendChild( doSerialize( document, options, value, false ) );
-                valueElement.appendChild( element );
+                value = property.converter().toString( value );
             }
-        );
+            Element element = document.createElement( property.name() );
+            element.appendChild( doSerialize( document, options, value, false ) );
+            valueElement.appendChild( element );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.associations() )
+        {
+            EntityReference value = state.associationFor( association.descriptor().accessor() ).reference();
+            Element element = document.createElement( association.name() );
+            element.appendChild( doSerialize( document, options, value, false ) );
+            valueElement.appendChild( element );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.manyAssociations() )
+        {
+            Stream<EntityReference> value = state.manyAssociationFor( association.descriptor().accessor() )
+                                                 .references();
+            Element element = document.createElement( association.name() );
+            element.appendChild( doSerialize( document, options, value, false ) );
+            valueElement.appendChild( element );
+        }
+        for( StateCodec.Member<AssociationDescriptor> association : codec.namedAssociations() )
+        {
+            Map<String, EntityReference> value = state.namedAssociationFor( association.descriptor().accessor() )
+                                                      .references().collect( toMap() );
+            Element element = document.createElement( association.name() );
+            element.appendChild( doSerialize( document, options, value, false ) );
+            valueElement.appendChild( element );
+        }
         if( ( root && options.rootTypeInfo() ) || ( !root && options.nestedTypeInfo() ) )
         {
-            valueElement.setAttribute( settings.getTypeInfoTagName(), valueType.primaryType().getName() );
+            valueElement.setAttribute( settings.getTypeInfoTagName(), codec.valueType().primaryType().getName() );
         }
         return valueElement;
     }
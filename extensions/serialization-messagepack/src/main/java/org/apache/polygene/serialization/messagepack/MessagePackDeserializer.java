@@ -37,6 +37,7 @@ import org.apache.polygene.api.composite.CompositeDescriptor;
 import org.apache.polygene.api.composite.StatefulAssociationCompositeDescriptor;
 import org.apache.polygene.api.entity.EntityReference;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.mixin.Initializable;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.property.PropertyDescriptor;
 import org.apache.polygene.api.serialization.Converter;
@@ -46,12 +47,13 @@ import org.apache.polygene.api.serialization.SerializationException;
 import org.apache.polygene.api.structure.ModuleDescriptor;
 import org.apache.polygene.api.type.ArrayType;
 import org.apache.polygene.api.type.CollectionType;
-import org.apache.polygene.api.type.EnumType;
 import org.apache.polygene.api.type.MapType;
 import org.apache.polygene.api.type.StatefulAssociationValueType;
 import org.apache.polygene.api.type.ValueType;
 import org.apache.polygene.api.value.ValueBuilder;
 import org.apache.polygene.spi.serialization.AbstractBinaryDeserializer;
+import org.apache.polygene.spi.serialization.ValueCodec;
+import org.apache.polygene.spi.serialization.ValueCodecs;
 import org.msgpack.core.MessagePack;
 import org.msgpack.core.MessageUnpacker;
 import org.msgpack.value.ArrayValue;
@@ -68,6 +70,7 @@ import static org.apache.polygene.api.util.Collectors.toMap;
 public interface MessagePackDeserializer extends Deserializer
 {
     class Mixin extends AbstractBinaryDeserializer
+        implements Initializable
     {
         @This
         private Converters converters;
@@ -75,6 +78,14 @@ public interface MessagePackDeserializer extends Deserializer
         @This
         private MessagePackAdapters adapters;
 
+        private ValueCodecs<MessagePackAdapter<?>> codecs;
+
+        @Override
+        public void initialize() throws Exception
+        {
+            codecs = new ValueCodecs<>( converters, adapters::adapterFor );
+        }
+
         @Override
         public <T> T deserialize( ModuleDescriptor module, ValueType valueType, InputStream state )
         {
@@ -102,40 +113,31 @@ public interface MessagePackDeserializer extends Deserializer
                 {
                     return null;
                 }
-                Converter<Object> converter = converters.converterFor( valueType );
-                if( converter != null )
-                {
-                    return (T) converter.fromString( doDeserialize( module, ValueType.STRING, value ).toString() );
-                }
-                MessagePackAdapter<?> adapter = adapters.adapterFor( valueType );
-                if( adapter != null )
-                {
-                    return (T) adapter.deserialize( value, ( val, type ) -> doDeserialize( module, valueType, val ) );
-                }
-                Class<? extends ValueType> valueTypeClass = valueType.getClass();
-                if( EnumType.class.isAssignableFrom( valueTypeClass ) )
-                {
-                    return (T) Enum.valueOf( (Class) valueType.primaryType(), value.asStringValue().asString() );
-                }
-                if( ArrayType.class.isAssignableFrom( valueTypeClass ) )
-                {
-                    return (T) deserializeArray( module, (ArrayType) valueType, value );
-                }
-                if( CollectionType.class.isAssignableFrom( valueTypeClass ) )
-                {
-                    return (T) deserializeCollection( module, (CollectionType) valueType, value.asArrayValue() );
-                }
-                if( MapType.class.isAssignableFrom( valueTypeClass ) )
-                {
-                    return (T) deserializeMap( module, (MapType) valueType, value.asMapValue() );
-                }
-                if( StatefulAssociationValueType.class.isAssignableFrom( valueTypeClass ) )
+                ValueCodec<MessagePackAdapter<?>> codec = codecs.deserializationCodecFor( valueType );
+                switch( codec.kind() )
                 {
-                    return (T) deserializeStatefulAssociationValue( module,
-                                                                    (StatefulAssociationValueType<?>) valueType,
-                                                                    value.asMapValue() );
+                    case CONVERTED:
+                        return (T) codec.converter().fromString( doDeserialize( module, ValueType.STRING, value )
+                                                                     .toString() );
+                    case ADAPTED:
+                        return (T) codec.adapter().deserialize( value, ( val, type ) -> doDeserialize( module,
+                                                                                                       valueType,
+                                                                                                       val ) );
+                    case ENUM:
+                        return (T) Enum.valueOf( (Class) valueType.primaryType(), value.asStringValue().asString() );
+                    case ARRAY:
+                        return (T) deserializeArray( module, (ArrayType) valueType, value );
+                    case COLLECTION:
+                        return (T) deserializeCollection( module, (CollectionType) valueType, value.asArrayValue() );
+                    case MAP:
+                        return (T) deserializeMap( module, (MapType) valueType, value.asMapValue() );
+                    case STATEFUL_ASSOCIATION_VALUE:
+                        return (T) deserializeStatefulAssociationValue( module,
+                                                                        (StatefulAssociationValueType<?>) valueType,
+                                                                        value.asMapValue() );
+                    default:
+                        return (T) doGuessDeserialize( module, valueType, value );
                 }
-                return (T) doGuessDeserialize( module, valueType, value );
             }
             catch( IOException | ClassNotFoundException ex )
             {
@@ -23,22 +23,24 @@ import java.util.Map;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.apache.polygene.api.PolygeneAPI;
+import org.apache.polygene.api.association.AssociationDescriptor;
 import org.apache.polygene.api.association.AssociationStateHolder;
 import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.composite.Composite;
 import org.apache.polygene.api.composite.CompositeInstance;
 import org.apache.polygene.api.composite.StatefulAssociationCompositeDescriptor;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.mixin.Initializable;
 import org.apache.polygene.api.mixin.Mixins;
-import org.apache.polygene.api.serialization.Converter;
+import org.apache.polygene.api.property.PropertyDescriptor;
 import org.apache.polygene.api.serialization.Converters;
 import org.apache.polygene.api.serialization.SerializationException;
 import org.apache.polygene.api.serialization.Serializer;
 import org.apache.polygene.api.type.ArrayType;
-import org.apache.polygene.api.type.EnumType;
-import org.apache.polygene.api.type.MapType;
-import org.apache.polygene.api.type.StatefulAssociationValueType;
 import org.apache.polygene.spi.serialization.AbstractBinarySerializer;
+import org.apache.polygene.spi.serialization.StateCodec;
+import org.apache.polygene.spi.serialization.ValueCodec;
+import org.apache.polygene.spi.serialization.ValueCodecs;
 import org.apache.polygene.spi.util.ArrayIterable;
 import org.msgpack.core.MessagePack;
 import org.msgpack.core.MessagePacker;
@@ -54,6 +56,7 @@ import static org.apache.polygene.api.util.Collectors.toMap;
 public interface MessagePackSerializer extends Serializer
 {
     class Mixin extends AbstractBinarySerializer
+        implements Initializable
     {
         @This
         private Converters converters;
@@ -61,6 +64,14 @@ public interface MessagePackSerializer extends Serializer
         @This
         private MessagePackAdapters adapters;
 
+        private ValueCodecs<MessagePackAdapter<?>> codecs;
+
+        @Override
+        public void initialize() throws Exception
+        {
+            codecs = new ValueCodecs<>( converters, adapters::adapterFor );
+        }
+
         @Override
         public void serialize( Options options, OutputStream output, @Optional Object object )
         {
@@ -84,42 +95,28 @@ public interface MessagePackSerializer extends Serializer
                 {
                     return ValueFactory.newNil();
                 }
-                Class<?> objectClass = object.getClass();
-                Converter<Object> converter = converters.converterFor( objectClass );
-                if( converter != null )
-                {
-                    return doSerialize( options, converter.toString( object ), false );
-                }
-                MessagePackAdapter<?> adapter = adapters.adapterFor( objectClass );
-                if( adapter != null )
-                {
-                    return adapter.serialize( object, obj -> doSerialize( options, obj, false ) );
-                }
-                if( EnumType.isEnum( objectClass ) )
-                {
-                    return ValueFactory.newString( object.toString() );
-                }
-                if( StatefulAssociationValueType.isStatefulAssociationValue( objectClass ) )
-                {
-                    return serializeStatefulAssociationValue( options, object, root );
-                }
-                if( MapType.isMap( objectClass ) )
-                {
-                    return serializeMap( options, (Map<?, ?>) object );
-                }
-                if( ArrayType.isArray( objectClass ) )
-                {
-                    return serializeArray( options, object );
-                }
-                if( Iterable.class.isAssignableFrom( objectClass ) )
+                ValueCodec<MessagePackAdapter<?>> codec = codecs.serializationCodecFor( object.getClass() );
+                switch( codec.kind() )
                 {
-                    return serializeIterable( options, (Iterable<?>) object );
+                    case CONVERTED:
+                        return doSerialize( options, codec.converter().toString( object ), false );
+                    case ADAPTED:
+                        return codec.adapter().serialize( object, obj -> doSerialize( options, obj, false ) );
+                    case ENUM:
+                        return ValueFactory.newString( object.toString() );
+                    case STATEFUL_ASSOCIATION_VALUE:
+                        return serializeStatefulAssociationValue( options, object, root );
+                    case MAP:
+                        return serializeMap( options, (Map<?, ?>) object );
+                    case ARRAY:
+                        return serializeArray( options, object );
+                    case ITERABLE:
+                        return serializeIterable( options, (Iterable<?>) object );
+                    case STREAM:
+                        return serializeStream( options, (Stream<?>) object );
+                    default:
+                        throw new SerializationException( "Don't know how to serialize " + object );
                 }
-                if( Stream.class.isAssignableFrom( objectClass ) )
-                {
-                    return serializeStream( options, (Stream<?>) object );
-                }
-                throw new SerializationException( "Don't know how to serialize " + object );
             }
             catch( IOException ex )
             {
@@ -130,46 +127,42 @@ public interface MessagePackSerializer extends Serializer
         private MapValue serializeStatefulAssociationValue( Options options, Object composite, boolean root )
         {
             CompositeInstance instance = PolygeneAPI.FUNCTION_COMPOSITE_INSTANCE_OF.apply( (Composite) composite );
-            StatefulAssociationCompositeDescriptor descriptor =
-                (StatefulAssociationCompositeDescriptor) instance.descriptor();
+            StateCodec codec = codecs.stateCodecFor( (StatefulAssociationCompositeDescriptor) instance.descriptor() );
             AssociationStateHolder state = (AssociationStateHolder) instance.state();
-            StatefulAssociationValueType<?> valueType = descriptor.valueType();
 
             ValueFactory.MapBuilder builder = ValueFactory.newMapBuilder();
-            valueType.properties().forEach(
-                property ->
+            for( StateCodec.Member<PropertyDescriptor> property : codec.properties() )
+            {
+                Object value = state.propertyFor( property.descriptor().accessor() ).get();
+                if( property.converter() != null )
                 {
-                    Object value = state.propertyFor( property.accessor() ).get();
-                    Converter<Object> converter = converters.converterFor( property );
-                    if( converter != null )
-                    {
-                        value = converter.toString( value );
-                    }
-                    builder.put(
-                        ValueFactory.newString( property.qualifiedName().name() ),
-                        doSerialize( options, value, false ) );
-                } );
-            valueType.associations().forEach(
-                association -> builder.put(
-                    ValueFactory.newString( association.qualifiedName().name() ),
-                    doSerialize( options, state.associationFor( association.accessor() ).reference(), false ) ) );
-            valueType.manyAssociations().forEach(
-                association -> builder.put(
-                    ValueFactory.newString( association.qualifiedName().name() ),
-                    doSerialize( options,
-                                 state.manyAssociationFor( association.accessor() ).references().collect( toList() ),
-                                 false ) ) );
-            valueType.namedAssociations().forEach(
-                association -> builder.put(
-                    ValueFactory.newString( association.qualifiedName().name() ),
-                    doSerialize( options,
-                                 state.namedAssociationFor( association.accessor() ).references().collect( toMap() ),
-                                 false ) ) );
+                    value = property.converter().toString( value );
+                }
+                builder.put( ValueFactory.newString( property.name() ), doSerialize( options, value, false ) );
+            }
+            for( StateCodec.Member<AssociationDescriptor> association : codec.associations() )
+            {
+                builder.put( ValueFactory.newString( association.name() ),
+                             doSerialize( options, state.associationFor( association.descriptor().accessor() )
+                                                        .reference(), false ) );
+            }
+            for( StateCodec.Member<AssociationDescriptor> association : codec.manyAssociations() )
+            {
+                builder.put( ValueFactory.newString( association.name() ),
+                             doSerialize( options, state.manyAssociationFor( association.descriptor().accessor() )
+                                                        .references().collect( toList() ), false ) );
+            }
+            for( StateCodec.Member<AssociationDescriptor> association : codec.namedAssociations() )
+            {
+                builder.put( ValueFactory.newString( association.name() ),
+                             doSerialize( options, state.namedAssociationFor( association.descriptor().accessor() )
+                                                        .references().collect( toMap() ), false ) );
+            }
 
             if( ( root && options.rootTypeInfo() ) || ( !root && options.nestedTypeInfo() ) )
             {
                 builder.put( ValueFactory.newString( "_type" ),
-                             ValueFactory.newString( valueType.primaryType().getName() ) );
+                             ValueFactory.newString( codec.valueType().primaryType().getName() ) );
             }
             return builder.build();
         }
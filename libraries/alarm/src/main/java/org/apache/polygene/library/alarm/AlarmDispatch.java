@@ -0,0 +1,39 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.alarm;
+
+/**
+ * How the <code>AlarmSystem</code> dispatches <code>AlarmEvents</code> to the <code>AlarmListeners</code>.
+ * <p>
+ * Set as meta-info of the <code>AlarmSystemService</code>, defaults to {@link #ASYNCHRONOUS}.
+ * </p>
+ */
+public enum AlarmDispatch
+{
+    /**
+     * Listeners are called by the thread triggering the <code>AlarmPoint</code>.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * Listeners are called by a dispatch thread of the <code>AlarmSystem</code>, in the order the events occurred.
+     */
+    ASYNCHRONOUS
+}
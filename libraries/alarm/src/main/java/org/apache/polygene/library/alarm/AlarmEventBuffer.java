@@ -0,0 +1,209 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.alarm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, in-memory history of the <code>AlarmEvents</code> of an <code>AlarmPoint</code>.
+ * <p>
+ * Events are kept in a ring buffer, adding an event to a full buffer evicts the oldest one, which is then handed to
+ * the spill function given by the <code>AlarmSystem</code>. Neither adding nor reading events takes a lock.
+ * </p>
+ * <p>
+ * The capacity is given on each addition, so that changes of {@link AlarmHistory#maxSize()} apply on the next event.
+ * Events added while the buffer is being resized may be lost.
+ * </p>
+ */
+public final class AlarmEventBuffer
+{
+    private final Consumer<AlarmEvent> spill;
+    private final AtomicReference<Ring> ring = new AtomicReference<>( new Ring( 0 ) );
+
+    AlarmEventBuffer( Consumer<AlarmEvent> spill )
+    {
+        this.spill = spill;
+    }
+
+    /**
+     * Add an event, evicting the oldest ones if the buffer is full.
+     *
+     * @param event    the event to add
+     * @param capacity the maximum number of events to keep, 0 or less to keep none.
+     */
+    public void add( AlarmEvent event, int capacity )
+    {
+        Ring current = ring.get();
+        int size = Math.max( 0, capacity );
+        while( current.capacity != size )
+        {
+            current = resize( current, size );
+        }
+        if( size == 0 )
+        {
+            spill.accept( event );
+            return;
+        }
+
+        long sequence = current.tail.getAndIncrement();
+        int index = current.index( sequence );
+        Entry entry = new Entry( sequence, event );
+        Entry previous;
+        do
+        {
+            previous = current.slots.get( index );
+            if( previous != null && previous.sequence > sequence )
+            {
+                // Overtaken by a newer event, ours is already evicted
+                spill.accept( event );
+                return;
+            }
+        }
+        while( !current.slots.compareAndSet( index, previous, entry ) );
+        if( previous != null )
+        {
+            spill.accept( previous.event );
+        }
+    }
+
+    /**
+     * @return the number of events in the buffer.
+     */
+    public int size()
+    {
+        return ring.get().entries().size();
+    }
+
+    /**
+     * @param position the position counted from the oldest event, 0 being the oldest.
+     *
+     * @return the event at the given position, or null if there is none.
+     */
+    public AlarmEvent eventAt( int position )
+    {
+        List<Entry> entries = ring.get().entries();
+        if( position < 0 || position >= entries.size() )
+        {
+            return null;
+        }
+        return entries.get( position ).event;
+    }
+
+    /**
+     * @param position the position counted from the newest event, 0 being the newest.
+     *
+     * @return the event at the given position, or null if there is none.
+     */
+    public AlarmEvent eventAtEnd( int position )
+    {
+        List<Entry> entries = ring.get().entries();
+        if( position < 0 || position >= entries.size() )
+        {
+            return null;
+        }
+        return entries.get( entries.size() - position - 1 ).event;
+    }
+
+    /**
+     * @return the events in the buffer, oldest first.
+     */
+    public List<AlarmEvent> events()
+    {
+        List<Entry> entries = ring.get().entries();
+        List<AlarmEvent> events = new ArrayList<>( entries.size() );
+        for( Entry entry : entries )
+        {
+            events.add( entry.event );
+        }
+        return Collections.unmodifiableList( events );
+    }
+
+    private Ring resize( Ring current, int capacity )
+    {
+        List<Entry> entries = current.entries();
+        int evicted = Math.max( 0, entries.size() - capacity );
+        Ring resized = new Ring( capacity );
+        for( Entry entry : entries.subList( evicted, entries.size() ) )
+        {
+            long sequence = resized.tail.getAndIncrement();
+            resized.slots.set( resized.index( sequence ), new Entry( sequence, entry.event ) );
+        }
+        if( !ring.compareAndSet( current, resized ) )
+        {
+            return ring.get();
+        }
+        for( Entry entry : entries.subList( 0, evicted ) )
+        {
+            spill.accept( entry.event );
+        }
+        return resized;
+    }
+
+    private static final class Ring
+    {
+        private final int capacity;
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLong tail = new AtomicLong();
+
+        private Ring( int capacity )
+        {
+            this.capacity = capacity;
+            this.slots = new AtomicReferenceArray<>( capacity );
+        }
+
+        private int index( long sequence )
+        {
+            return (int) ( sequence % capacity );
+        }
+
+        private List<Entry> entries()
+        {
+            long tail = this.tail.get();
+            List<Entry> entries = new ArrayList<>( capacity );
+            for( long sequence = Math.max( 0, tail - capacity ); sequence < tail; sequence++ )
+            {
+                Entry entry = slots.get( index( sequence ) );
+                if( entry != null && entry.sequence == sequence )
+                {
+                    entries.add( entry );
+                }
+            }
+            return entries;
+        }
+    }
+
+    private static final class Entry
+    {
+        private final long sequence;
+        private final AlarmEvent event;
+
+        private Entry( long sequence, AlarmEvent event )
+        {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.alarm;
+
+/**
+ * Append-only log of the <code>AlarmEvents</code> evicted from the in-memory history of the <code>AlarmPoints</code>.
+ * <p>
+ * Set an <code>AlarmEventLog</code> as meta-info of the <code>AlarmSystemService</code> to keep the complete history
+ * of the <code>AlarmPoints</code> beyond their {@link AlarmHistory#maxSize()}. Events are appended from the dispatch
+ * thread of the <code>AlarmSystem</code>, in the order they were evicted.
+ * </p>
+ *
+ * @see FileAlarmEventLog
+ */
+public interface AlarmEventLog
+{
+    /**
+     * Appends an event to the log.
+     *
+     * @param event the event evicted from the history of its AlarmPoint.
+     */
+    void append( AlarmEvent event );
+}
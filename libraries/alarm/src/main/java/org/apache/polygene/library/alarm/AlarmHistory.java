@@ -23,14 +23,26 @@ package org.apache.polygene.library.alarm;
 import java.util.List;
 import java.util.Map;
 import org.apache.polygene.api.common.UseDefaults;
+import org.apache.polygene.api.entity.Lifecycle;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.unitofwork.UnitOfWorkCallback;
+import org.apache.polygene.api.unitofwork.UnitOfWorkFactory;
 
 /**
  * History of an AlarmPoint.
  * AlarmPoint system <i>should</i> implement <code>AlarmHistory</code> classes to
  * record the events of an <code>AlarmPoint</code>.
- *
+ * <p>
+ * The recorded events are not part of the state of the <code>AlarmPoint</code>, they are kept in memory by the
+ * <code>AlarmSystem</code>, see {@link AlarmEventBuffer}. Events evicted from the history can be kept in an
+ * {@link AlarmEventLog}. The history is dropped once the removal of its <code>AlarmPoint</code> is completed, or the
+ * creation discarded.
+ * </p>
  */
 @Mixins( AlarmHistory.AlarmHistoryMixin.class )
 public interface AlarmHistory
@@ -75,15 +87,15 @@ public interface AlarmHistory
     /**
      * Returns a <code>java.util.List</code> of all recorded <code>AlarmEvents</code>.
      *
-     * @return a <code>java.util.List</code> of all recorded <code>AlarmEvents</code>.
+     * @return an immutable snapshot of all recorded <code>AlarmEvents</code>, oldest first.
      */
-    @UseDefaults
-    Property<List<AlarmEvent>> allAlarmEvents();
+    List<AlarmEvent> allAlarmEvents();
 
     /**
      * The maximum size of the history buffer.
-     * If the sizes shrinks, the oldest <code>AlarmEvents</code> should be removed
-     * so that the number of stored events are equal to the new <i>MaxSize</i>.
+     * If the sizes shrinks, the oldest <code>AlarmEvents</code> are removed
+     * when the next event is recorded, so that the number of stored events
+     * are equal to the new <i>MaxSize</i>.
      *
      * @return The maxSize Property instance.
      */
@@ -134,60 +146,53 @@ public interface AlarmHistory
     void addEvent( AlarmEvent event, String trigger );
 
     abstract class AlarmHistoryMixin
-        implements AlarmHistory
+        implements AlarmHistory, Lifecycle
     {
+        @Service
+        private AlarmSystem alarmSystem;
+
+        @Structure
+        private UnitOfWorkFactory uowf;
+
+        @This
+        private AlarmPoint me;
+
+        private AlarmEventBuffer buffer;
+
         @Override
         public AlarmEvent firstEvent()
         {
-            List<AlarmEvent> eventList = allAlarmEvents().get();
-            if( eventList.isEmpty() )
-            {
-                return null;
-            }
-            return eventList.get( 0 );
+            return buffer().eventAt( 0 );
         }
 
         @Override
         public AlarmEvent lastEvent()
         {
-            List<AlarmEvent> eventList = allAlarmEvents().get();
-            if( eventList.isEmpty() )
-            {
-                return null;
-            }
-            return eventList.get( eventList.size() - 1 );
+            return buffer().eventAtEnd( 0 );
         }
 
         @Override
         public AlarmEvent eventAt( final int position )
         {
-            List<AlarmEvent> eventList = allAlarmEvents().get();
-            if( eventList.size() <= position || position < 0 )
-            {
-                return null;
-            }
-            return eventList.get( position );
+            return buffer().eventAt( position );
         }
 
         @Override
         public AlarmEvent eventAtEnd( final int position )
         {
-            List<AlarmEvent> eventList = allAlarmEvents().get();
-            int size = eventList.size();
-            if( size <= position || position < 0 )
-            {
-                return null;
-            }
-            return eventList.get( size - position - 1 );
+            return buffer().eventAtEnd( position );
+        }
+
+        @Override
+        public List<AlarmEvent> allAlarmEvents()
+        {
+            return buffer().events();
         }
 
         @Override
         public void addEvent( AlarmEvent event, String trigger )
         {
-            List<AlarmEvent> eventList = allAlarmEvents().get();
-            eventList.add( event );
-            purge();
-            allAlarmEvents().set( eventList );
+            buffer().add( event, maxSize().get() );
             Map<String, Integer> counters = counters().get();
             Integer counter = counters.get( trigger );
             if( counter == null )
@@ -209,7 +214,7 @@ public interface AlarmHistory
             buf.append( "history[maxsize=" );
             buf.append( maxSize().get() );
             buf.append( ", size=" );
-            buf.append( allAlarmEvents().get().size() );
+            buf.append( buffer().size() );
 
             for( Map.Entry<String, Integer> entry : counters().get().entrySet() )
             {
@@ -224,19 +229,46 @@ public interface AlarmHistory
             return buf.toString();
         }
 
-        private void purge()
+        private AlarmEventBuffer buffer()
         {
-            List<AlarmEvent> eventList = allAlarmEvents().get();
-            Integer maxSize = maxSize().get();
-            if( maxSize <= 0 )
+            if( buffer == null )
             {
-                eventList.clear();
+                buffer = alarmSystem.eventBuffer( me.identity().get() );
             }
+            return buffer;
+        }
+
+        @Override
+        public void create()
+        {
+            removeEventBufferOn( UnitOfWorkCallback.UnitOfWorkStatus.DISCARDED );
+        }
 
-            while( eventList.size() > maxSize )
+        @Override
+        public void remove()
+        {
+            removeEventBufferOn( UnitOfWorkCallback.UnitOfWorkStatus.COMPLETED );
+        }
+
+        private void removeEventBufferOn( UnitOfWorkCallback.UnitOfWorkStatus completion )
+        {
+            Identity identity = me.identity().get();
+            uowf.currentUnitOfWork().addUnitOfWorkCallback( new UnitOfWorkCallback()
             {
-                eventList.remove( 0 );
-            }
+                @Override
+                public void beforeCompletion()
+                {
+                }
+
+                @Override
+                public void afterCompletion( UnitOfWorkStatus status )
+                {
+                    if( status == completion )
+                    {
+                        alarmSystem.removeEventBuffer( identity );
+                    }
+                }
+            } );
         }
 
         @Override
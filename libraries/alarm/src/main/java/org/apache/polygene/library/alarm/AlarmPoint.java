@@ -351,23 +351,6 @@ public interface AlarmPoint extends HasIdentity
             return result;
         }
 
-        private void fireAlarm( AlarmEvent event )
-        {
-            // TODO: Should possibly just be delegated to AlarmSystem
-            for( AlarmListener listener : alarmSystem.alarmListeners() )
-            {
-                try
-                {
-                    listener.alarmFired( event );
-                }
-                catch( Exception e )
-                {
-
-                    // ignore.
-                }
-            }
-        }
-
         @Override
         public String toString()
         {
@@ -389,7 +372,7 @@ public interface AlarmPoint extends HasIdentity
                 state.currentStatus().set( event.newStatus().get() );
                 history.addEvent( event, trigger );
             }
-            fireAlarm( event );
+            alarmSystem.fireAlarm( event );
         }
 
         @Override
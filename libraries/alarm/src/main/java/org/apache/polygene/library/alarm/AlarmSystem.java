@@ -24,15 +24,24 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.polygene.api.entity.EntityBuilder;
+import org.apache.polygene.api.identity.Identity;
 import org.apache.polygene.api.identity.StringIdentity;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.injection.scope.Uses;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.query.Query;
 import org.apache.polygene.api.query.QueryBuilder;
 import org.apache.polygene.api.query.QueryBuilderFactory;
+import org.apache.polygene.api.service.ServiceActivation;
+import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.api.service.ServiceReference;
 import org.apache.polygene.api.unitofwork.UnitOfWork;
 import org.apache.polygene.api.unitofwork.UnitOfWorkFactory;
@@ -70,6 +79,12 @@ import org.apache.polygene.api.value.ValueBuilderFactory;
  *       module.addServices( StandardAlarmModelService.class );
  *   }
  * </code></pre>
+ * <p>
+ * <code>AlarmEvents</code> are dispatched to the <code>AlarmListeners</code> by a dispatch thread of the
+ * <code>AlarmSystem</code>, unless the service has {@link AlarmDispatch#SYNCHRONOUS} meta-info. The
+ * <code>AlarmSystem</code> also keeps the history of the <code>AlarmPoints</code> in memory, events evicted from
+ * it are appended to the {@link AlarmEventLog} set as meta-info of the service, if any.
+ * </p>
  *
  * @author Niclas Hedhman
  */
@@ -136,17 +151,49 @@ public interface AlarmSystem
      */
     List<AlarmListener> alarmListeners();
 
+    /**
+     * Dispatches an <code>AlarmEvent</code> to all registered <code>AlarmListeners</code>.
+     *
+     * @param event the event to dispatch.
+     */
+    void fireAlarm( AlarmEvent event );
+
+    /**
+     * Returns the in-memory history buffer of an <code>AlarmPoint</code>, created on first use.
+     *
+     * @param alarmPoint the identity of the AlarmPoint.
+     *
+     * @return the history buffer of the AlarmPoint.
+     */
+    AlarmEventBuffer eventBuffer( Identity alarmPoint );
+
+    /**
+     * Drops the in-memory history buffer of an <code>AlarmPoint</code> that no longer exists.
+     *
+     * @param alarmPoint the identity of the AlarmPoint.
+     */
+    void removeEventBuffer( Identity alarmPoint );
+
     /**
      * AlarmSystem implementation.
      */
     class AlarmSystemMixin
-        implements AlarmSystem
+        implements AlarmSystem, ServiceActivation
     {
         @Service
         private Iterable<ServiceReference<AlarmModel>> models;
 
+        @Uses
+        private ServiceDescriptor descriptor;
+
         private final CopyOnWriteArrayList<AlarmListener> alarmListeners;
 
+        private final Map<Identity, AlarmEventBuffer> buffers = new ConcurrentHashMap<>();
+
+        private ExecutorService dispatcher;
+
+        private AlarmEventLog eventLog;
+
         @Structure
         private UnitOfWorkFactory uowf;
 
@@ -161,6 +208,32 @@ public interface AlarmSystem
             alarmListeners = new CopyOnWriteArrayList<>();
         }
 
+        @Override
+        public void activateService()
+        {
+            eventLog = descriptor.metaInfo( AlarmEventLog.class );
+            if( descriptor.metaInfo( AlarmDispatch.class ) != AlarmDispatch.SYNCHRONOUS )
+            {
+                // A single thread, so that listeners get events in order
+                dispatcher = Executors.newSingleThreadExecutor( runnable ->
+                {
+                    Thread thread = new Thread( runnable, "AlarmSystem-" + descriptor.identity() );
+                    thread.setDaemon( true );
+                    return thread;
+                } );
+            }
+        }
+
+        @Override
+        public void passivateService()
+        {
+            if( dispatcher != null )
+            {
+                dispatcher.shutdown();
+                dispatcher = null;
+            }
+        }
+
         /**
          * Returns all the AlarmModels that has been installed.
          */
@@ -270,6 +343,51 @@ public interface AlarmSystem
             }
         }
 
+        @Override
+        public void fireAlarm( AlarmEvent event )
+        {
+            dispatch( () -> alarmFired( event ) );
+        }
+
+        @Override
+        public AlarmEventBuffer eventBuffer( Identity alarmPoint )
+        {
+            return buffers.computeIfAbsent( alarmPoint, identity -> new AlarmEventBuffer( this::spill ) );
+        }
+
+        @Override
+        public void removeEventBuffer( Identity alarmPoint )
+        {
+            buffers.remove( alarmPoint );
+        }
+
+        private void spill( AlarmEvent event )
+        {
+            AlarmEventLog log = eventLog;
+            if( log != null )
+            {
+                dispatch( () -> log.append( event ) );
+            }
+        }
+
+        private void dispatch( Runnable task )
+        {
+            ExecutorService executor = dispatcher;
+            if( executor != null )
+            {
+                try
+                {
+                    executor.execute( task );
+                    return;
+                }
+                catch( RejectedExecutionException e )
+                {
+                    // Passivated, dispatch on the caller thread
+                }
+            }
+            task.run();
+        }
+
         public void alarmFired( AlarmEvent event )
         {
             Iterator list;
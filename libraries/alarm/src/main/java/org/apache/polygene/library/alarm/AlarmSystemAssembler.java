@@ -26,11 +26,40 @@ import org.apache.polygene.bootstrap.ServiceDeclaration;
 public class AlarmSystemAssembler
     extends Assemblers.VisibilityIdentity<AlarmSystemAssembler>
 {
+    private AlarmDispatch dispatch = AlarmDispatch.ASYNCHRONOUS;
+    private AlarmEventLog eventLog;
+
+    /**
+     * @param dispatch How AlarmEvents are dispatched to the AlarmListeners
+     * @return This assembler
+     */
+    public AlarmSystemAssembler withDispatch( AlarmDispatch dispatch )
+    {
+        this.dispatch = dispatch;
+        return this;
+    }
+
+    /**
+     * @param eventLog Log appended with the AlarmEvents evicted from the AlarmPoints history
+     * @return This assembler
+     */
+    public AlarmSystemAssembler withEventLog( AlarmEventLog eventLog )
+    {
+        this.eventLog = eventLog;
+        return this;
+    }
+
     @Override
     public void assemble( ModuleAssembly module )
     {
         super.assemble( module );
-        ServiceDeclaration alarmSystem = module.services( AlarmSystemService.class ).visibleIn( visibility() );
+        ServiceDeclaration alarmSystem = module.services( AlarmSystemService.class )
+                                               .visibleIn( visibility() )
+                                               .setMetaInfo( dispatch );
+        if( eventLog != null )
+        {
+            alarmSystem.setMetaInfo( eventLog );
+        }
         if( hasIdentity() )
         {
             alarmSystem.identifiedBy( identity() );
@@ -19,6 +19,8 @@
  */
 package org.apache.polygene.library.alarm;
 
-public interface AlarmSystemService extends AlarmSystem
+import org.apache.polygene.api.service.ServiceActivation;
+
+public interface AlarmSystemService extends AlarmSystem, ServiceActivation
 {
 }
@@ -0,0 +1,69 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.alarm;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <code>AlarmEventLog</code> appending one line per event to a file.
+ * <p>
+ * Lines hold the event time, the identity of the AlarmPoint, the event name and the old and new status names,
+ * separated by tabs.
+ * </p>
+ */
+public class FileAlarmEventLog
+    implements AlarmEventLog
+{
+    private final Path file;
+
+    public FileAlarmEventLog( Path file )
+    {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void append( AlarmEvent event )
+    {
+        try( BufferedWriter writer = Files.newBufferedWriter( file, StandardCharsets.UTF_8,
+                                                              StandardOpenOption.CREATE,
+                                                              StandardOpenOption.APPEND ) )
+        {
+            writer.write( event.eventTime().get() + "\t" + event.identity().get() + "\t" + event.systemName().get()
+                          + "\t" + event.oldStatus().get().name( null ) + "\t" + event.newStatus().get().name( null ) );
+            writer.newLine();
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( "Unable to append to alarm event log " + file, e );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FileAlarmEventLog[" + file + "]";
+    }
+}
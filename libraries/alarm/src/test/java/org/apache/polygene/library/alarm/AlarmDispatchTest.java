@@ -0,0 +1,75 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.alarm;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.api.value.ValueBuilder;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class AlarmDispatchTest
+    extends AbstractPolygeneTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        new AlarmSystemAssembler().assemble( module );
+        new EntityTestAssembler().assemble( module );
+    }
+
+    @Test
+    public void givenAsynchronousDispatchWhenTriggeredThenListenersAreCalledInOrderOnDispatchThread()
+        throws Exception
+    {
+        BlockingQueue<AlarmEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+        AlarmSystem alarmSystem = serviceFinder.findService( AlarmSystem.class ).get();
+        alarmSystem.addAlarmListener( event ->
+                                      {
+                                          threads.add( Thread.currentThread() );
+                                          events.add( event );
+                                      } );
+
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            ValueBuilder<AlarmCategory> category = valueBuilderFactory.newValueBuilder( AlarmCategory.class );
+            category.prototype().name().set( "AlarmDispatchTest" );
+            AlarmPoint alarm = alarmSystem.createAlarm( "TestAlarm", category.newInstance() );
+            alarm.activate();
+            alarm.deactivate();
+            alarm.activate();
+        }
+
+        assertEquals( "activation", events.poll( 5, TimeUnit.SECONDS ).systemName().get() );
+        assertEquals( "deactivation", events.poll( 5, TimeUnit.SECONDS ).systemName().get() );
+        assertEquals( "activation", events.poll( 5, TimeUnit.SECONDS ).systemName().get() );
+        assertNotSame( Thread.currentThread(), threads.take() );
+    }
+}
@@ -30,6 +30,8 @@ import org.apache.polygene.api.value.ValueBuilder;
 import org.apache.polygene.bootstrap.AssemblyException;
 import org.apache.polygene.bootstrap.ModuleAssembly;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.apache.polygene.test.EntityTestAssembler;
 
@@ -40,6 +42,7 @@ public class AlarmHistoryImplTest
     implements AlarmListener
 {
     private int eventCounter = 0;
+    private final List<AlarmEvent> evicted = new ArrayList<>();
     private AlarmSystem alarmSystem;
 
     @Override
@@ -47,7 +50,9 @@ public class AlarmHistoryImplTest
         throws AssemblyException
     {
         module.services( TestAlarmModel.class );
-        module.services( AlarmSystemService.class );
+        module.services( AlarmSystemService.class )
+              .setMetaInfo( AlarmDispatch.SYNCHRONOUS )
+              .setMetaInfo( (AlarmEventLog) evicted::add );
         module.entities( AlarmPointEntity.class );
         new EntityTestAssembler().assemble( module );
         module.values( AlarmStatus.class );
@@ -126,7 +131,7 @@ public class AlarmHistoryImplTest
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
 
         assertEquals( 5, eventCounter );
-        assertEquals( 5, hist.allAlarmEvents().get().size() );
+        assertEquals( 5, hist.allAlarmEvents().size() );
 
         AlarmEvent event = hist.eventAt( -1 );
         assertNull( event );
@@ -159,7 +164,7 @@ public class AlarmHistoryImplTest
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
 
         assertEquals( 5, eventCounter );
-        assertEquals( 5, hist.allAlarmEvents().get().size() );
+        assertEquals( 5, hist.allAlarmEvents().size() );
 
         AlarmEvent event = hist.eventAtEnd( -1 );
         assertNull( event );
@@ -243,46 +248,97 @@ public class AlarmHistoryImplTest
         AlarmPoint underTest = createAlarm( "testSetMaxSize" );
         alarmSystem.addAlarmListener( this );
         AlarmHistory hist = underTest.history();
-        assertEquals( 0, hist.allAlarmEvents().get().size() );
+        assertEquals( 0, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
-        assertEquals( 1, hist.allAlarmEvents().get().size() );
+        assertEquals( 1, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE );
-        assertEquals( 2, hist.allAlarmEvents().get().size() );
+        assertEquals( 2, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
-        assertEquals( 3, hist.allAlarmEvents().get().size() );
+        assertEquals( 3, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE );
-        assertEquals( 4, hist.allAlarmEvents().get().size() );
+        assertEquals( 4, hist.allAlarmEvents().size() );
 
         int maxsize = hist.maxSize().get();
         assertEquals( 30, maxsize );
 
         hist.maxSize().set( 3 );    // The Polygene version doesn't intercept the maxSize().set() method and purge the old
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE ); // so we do another event to purge.
-        assertEquals( 3, hist.allAlarmEvents().get().size() );
+        assertEquals( 3, hist.allAlarmEvents().size() );
 
         hist.maxSize().set( 0 );
         underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE ); // so we do another event to purge.
-        assertEquals( 0, hist.allAlarmEvents().get().size() );
+        assertEquals( 0, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
-        assertEquals( 0, hist.allAlarmEvents().get().size() );
+        assertEquals( 0, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE );
-        assertEquals( 0, hist.allAlarmEvents().get().size() );
+        assertEquals( 0, hist.allAlarmEvents().size() );
         hist.maxSize().set( 2 );
-        assertEquals( 0, hist.allAlarmEvents().get().size() );
+        assertEquals( 0, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
-        assertEquals( 1, hist.allAlarmEvents().get().size() );
+        assertEquals( 1, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE );
-        assertEquals( 2, hist.allAlarmEvents().get().size() );
+        assertEquals( 2, hist.allAlarmEvents().size() );
         underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
-        assertEquals( 2, hist.allAlarmEvents().get().size() );
+        assertEquals( 2, hist.allAlarmEvents().size() );
         assertEquals( 11, eventCounter );
     }
 
+    @Test
+    public void testEvictedEventsAreLogged()
+        throws Exception
+    {
+        AlarmPoint underTest = createAlarm( "testEvictedEventsAreLogged" );
+        AlarmHistory hist = underTest.history();
+        hist.maxSize().set( 2 );
+        underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
+        underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE );
+        assertEquals( 0, evicted.size() );
+
+        underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
+        assertEquals( 1, evicted.size() );
+        assertEquals( "activation", evicted.get( 0 ).systemName().get() );
+        assertEquals( "deactivation", hist.firstEvent().systemName().get() );
+        assertEquals( "activation", hist.lastEvent().systemName().get() );
+
+        hist.maxSize().set( 1 );
+        underTest.trigger( AlarmPoint.TRIGGER_DEACTIVATE );
+        assertEquals( 3, evicted.size() );
+        assertEquals( "deactivation", evicted.get( 1 ).systemName().get() );
+        assertEquals( "activation", evicted.get( 2 ).systemName().get() );
+        assertEquals( 1, hist.allAlarmEvents().size() );
+        assertEquals( "deactivation", hist.lastEvent().systemName().get() );
+    }
+
     public void alarmFired( AlarmEvent event )
     {
         eventCounter++;
     }
 
+    @Test
+    public void testHistoryIsDroppedWithAlarm()
+        throws Exception
+    {
+        AlarmPoint underTest = createAlarm( "testHistoryIsDroppedWithAlarm" );
+        underTest.trigger( AlarmPoint.TRIGGER_ACTIVATE );
+        unitOfWorkFactory.currentUnitOfWork().complete();
+
+        // Discarded removal keeps the history
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            uow.remove( uow.get( underTest ) );
+        }
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            assertEquals( 1, uow.get( underTest ).history().allAlarmEvents().size() );
+            uow.remove( uow.get( underTest ) );
+            uow.complete();
+        }
+
+        unitOfWorkFactory.newUnitOfWork();
+        AlarmPoint recreated = createAlarm( "testHistoryIsDroppedWithAlarm" );
+        assertEquals( 0, recreated.history().allAlarmEvents().size() );
+    }
+
     private AlarmPoint createAlarm( String name )
     {
         ServiceReference<AlarmSystem> ref = serviceFinder.findService( AlarmSystem.class );
@@ -48,7 +48,7 @@ public class AlarmPointImplTest extends AbstractPolygeneTest
         throws AssemblyException
     {
         module.services( TestAlarmModel.class );
-        module.services( AlarmSystemService.class );
+        module.services( AlarmSystemService.class ).setMetaInfo( AlarmDispatch.SYNCHRONOUS );
         module.entities( AlarmPointEntity.class );
         module.values( AlarmEvent.class );
         module.values( AlarmCategory.class );
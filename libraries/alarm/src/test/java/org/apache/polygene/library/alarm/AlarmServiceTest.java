@@ -44,7 +44,7 @@ public class AlarmServiceTest
     {
         module.services( TestAlarmModel1.class ).setMetaInfo( new AlarmModelDescriptor("Simple", false) );
         module.services( TestAlarmModel2.class ).setMetaInfo( new AlarmModelDescriptor("Standard", true) );
-        module.services( AlarmSystemService.class );
+        module.services( AlarmSystemService.class ).setMetaInfo( AlarmDispatch.SYNCHRONOUS );
         module.entities( AlarmPointEntity.class );
         module.values( AlarmStatus.class );
         module.values( AlarmCategory.class );
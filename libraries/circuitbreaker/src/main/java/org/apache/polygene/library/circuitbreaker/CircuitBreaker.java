@@ -19,16 +19,41 @@
  */
 package org.apache.polygene.library.circuitbreaker;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
 import java.beans.VetoableChangeSupport;
 import java.time.Instant;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
 
 /**
  * Implementation of CircuitBreaker pattern
+ * <p>
+ * A CircuitBreaker either counts failures down from a threshold, successes counting back up, or trips when the
+ * failure rate over a sliding time window reaches a given rate.
+ * </p>
+ * <p>
+ * Once tripped it is turned back on after a timeout. If a number of probes is set, it is then half-open: only that
+ * number of invocations are permitted by {@link #tryAcquire()}, the first failure trips it again and it is fully
+ * turned back on once all probes succeeded. Probes that did not all report back within the timeout are replaced by
+ * new ones.
+ * </p>
+ * <p>
+ * Recording successes and failures does not lock. Property change listeners are notified asynchronously, in order,
+ * and successive service level changes are coalesced. Vetoable change listeners are still called by the thread
+ * turning the CircuitBreaker on.
+ * </p>
  */
 public class CircuitBreaker
 {
@@ -38,27 +63,67 @@ public class CircuitBreaker
         on
     }
 
-    private int threshold;
-    private long timeout;
-    private Predicate<Throwable> allowedThrowables;
+    private static final int WINDOW_BUCKETS = 10;
+    private static final Object SERVICE_LEVEL = new Object();
 
-    private int countDown;
-    private Instant trippedOn;
-    private Instant enableOn;
+    private final int threshold;
+    private final long timeout;
+    private final int probes;
+    private final Predicate<Throwable> allowedThrowables;
+    private final double failureRate;
+    private final FailureWindow window;
 
-    private Status status = Status.on;
+    private final AtomicReference<State> state = new AtomicReference<>( State.ON );
+    private final AtomicInteger countDown;
+    private final AtomicBoolean enabling = new AtomicBoolean();
 
-    private Throwable lastThrowable;
+    private volatile Throwable lastThrowable;
 
     PropertyChangeSupport pcs = new PropertyChangeSupport( this );
     VetoableChangeSupport vcs = new VetoableChangeSupport( this );
 
+    private volatile boolean listened;
+    private final Queue<Object> notifications = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean notifying = new AtomicBoolean();
+    private final AtomicBoolean serviceLevelChanged = new AtomicBoolean();
+    private double notifiedServiceLevel = 1.0;
+
+    /**
+     * Create a CircuitBreaker counting failures down from a threshold.
+     *
+     * @param threshold         Number of failures, less successes, that trips the CircuitBreaker
+     * @param timeout           Milliseconds after which a tripped CircuitBreaker is turned back on
+     * @param probes            Number of invocations permitted once turned back on, 0 to turn it fully on
+     * @param allowedThrowables Throwables counted as successes
+     */
+    public CircuitBreaker( int threshold, long timeout, int probes, Predicate<Throwable> allowedThrowables )
+    {
+        this( threshold, timeout, probes, allowedThrowables, 0, null );
+    }
+
+    /**
+     * Create a CircuitBreaker tripping on the failure rate over a sliding time window.
+     *
+     * @param failureRate       Rate of failures, between 0 exclusive and 1 inclusive, that trips the CircuitBreaker
+     * @param minimumCalls      Number of invocations in the window below which the CircuitBreaker does not trip
+     * @param window            Milliseconds over which the failure rate is measured
+     * @param timeout           Milliseconds after which a tripped CircuitBreaker is turned back on
+     * @param probes            Number of invocations permitted once turned back on, 0 to turn it fully on
+     * @param allowedThrowables Throwables counted as successes
+     */
+    public CircuitBreaker( double failureRate, int minimumCalls, long window, long timeout, int probes,
+                           Predicate<Throwable> allowedThrowables )
+    {
+        this( minimumCalls, timeout, probes, allowedThrowables, failureRate, new FailureWindow( window ) );
+        if( failureRate <= 0 || failureRate > 1 )
+        {
+            throw new IllegalArgumentException( "Failure rate must be greater than 0 and at most 1, was " + failureRate );
+        }
+    }
+
     public CircuitBreaker( int threshold, long timeout, Predicate<Throwable> allowedThrowables )
     {
-        this.threshold = threshold;
-        this.countDown = threshold;
-        this.timeout = timeout;
-        this.allowedThrowables = allowedThrowables;
+        this( threshold, timeout, 0, allowedThrowables );
     }
 
     public CircuitBreaker( int threshold, long timeout )
@@ -71,110 +136,119 @@ public class CircuitBreaker
         this( 1, 1000 * 60 * 5 ); // 5 minute timeout as default
     }
 
-    public synchronized void trip()
+    private CircuitBreaker( int threshold, long timeout, int probes, Predicate<Throwable> allowedThrowables,
+                            double failureRate, FailureWindow window )
     {
-        if( status == Status.on )
+        if( threshold < 1 )
         {
-            if( countDown != 0 )
-            {
-                // If this was invoked manually, then set countDown to zero automatically
-                int oldCountDown = countDown;
-                countDown = 0;
-                pcs.firePropertyChange( "serviceLevel", ( oldCountDown ) / ( (double) threshold ), countDown / ( (double) threshold ) );
-            }
-
-            status = Status.off;
-            pcs.firePropertyChange( "status", Status.on, Status.off );
-
-            trippedOn = Instant.now();
-            enableOn = trippedOn.plusMillis( timeout );
+            throw new IllegalArgumentException( ( window == null ? "Threshold" : "Minimum calls" )
+                                                + " must be at least 1, was " + threshold );
+        }
+        if( probes < 0 )
+        {
+            throw new IllegalArgumentException( "Probes must not be negative, was " + probes );
         }
+        this.threshold = threshold;
+        this.countDown = new AtomicInteger( threshold );
+        this.timeout = timeout;
+        this.probes = probes;
+        this.allowedThrowables = allowedThrowables;
+        this.failureRate = failureRate;
+        this.window = window;
     }
 
-    public synchronized void turnOn()
-        throws PropertyVetoException
+    public void trip()
     {
-        if( status == Status.off )
+        State current;
+        State tripped;
+        do
         {
-            try
+            current = state.get();
+            if( current.status == Status.off )
             {
-                vcs.fireVetoableChange( "status", Status.off, Status.on );
-                status = Status.on;
-                countDown = threshold;
-                trippedOn = null;
-                enableOn = null;
-                lastThrowable = null;
-
-                pcs.firePropertyChange( "status", Status.off, Status.on );
+                return;
             }
-            catch( PropertyVetoException e )
-            {
-                // Reset timeout
-                enableOn = Instant.now().plusMillis( timeout );
+            Instant trippedOn = Instant.now();
+            tripped = State.off( trippedOn, trippedOn.plusMillis( timeout ) );
+        }
+        while( !state.compareAndSet( current, tripped ) );
 
-                if( e.getCause() != null )
-                {
-                    lastThrowable = e.getCause();
-                }
-                else
-                {
-                    lastThrowable = e;
-                }
-                throw e;
-            }
+        // If this was invoked manually, then set countDown to zero automatically
+        countDown.set( 0 );
+        serviceLevelChanged();
+        notify( new PropertyChangeEvent( this, "status", Status.on, Status.off ) );
+    }
+
+    public void turnOn()
+        throws PropertyVetoException
+    {
+        State current = state.get();
+        if( current.status == Status.off )
+        {
+            turnOn( current, false );
         }
     }
 
+    /**
+     * @return Failure threshold, or the minimum number of invocations in the window when tripping on a failure rate
+     */
     public int threshold()
     {
         return threshold;
     }
 
-    public synchronized Throwable lastThrowable()
+    public Throwable lastThrowable()
     {
         return lastThrowable;
     }
 
-    public synchronized double serviceLevel()
+    public double serviceLevel()
     {
-        return countDown / ( (double) threshold );
+        if( state.get().status == Status.off )
+        {
+            return 0.0;
+        }
+        if( window != null )
+        {
+            long epoch = window.epoch();
+            long calls = window.calls( epoch );
+            return calls == 0 ? 1.0 : 1.0 - window.failures( epoch ) / (double) calls;
+        }
+        return countDown.get() / ( (double) threshold );
     }
 
-    public synchronized Status status()
+    public Status status()
     {
-        if( status == Status.off )
+        State current = state.get();
+        if( current.status == Status.off
+            && Instant.now().isAfter( current.enableOn )
+            && enabling.compareAndSet( false, true ) )
         {
-            if( Instant.now().isAfter( enableOn ) )
+            try
             {
-                try
-                {
-                    turnOn();
-                }
-                catch( PropertyVetoException e )
-                {
-                    if( e.getCause() != null )
-                    {
-                        lastThrowable = e.getCause();
-                    }
-                    else
-                    {
-                        lastThrowable = e;
-                    }
-                }
+                turnOn( current, probes > 0 );
             }
+            catch( PropertyVetoException e )
+            {
+                // Recorded as lastThrowable
+            }
+            finally
+            {
+                enabling.set( false );
+            }
+            current = state.get();
         }
-
-        return status;
+        return current.status;
     }
 
     public Instant trippedOn()
     {
-        return trippedOn;
+        return state.get().trippedOn;
     }
 
     public Instant enabledOn()
     {
-        return enableOn;
+        return state.get().enableOn;
     }
 
     public boolean isOn()
@@ -182,34 +256,135 @@ public class CircuitBreaker
         return status().equals( Status.on );
     }
 
-    public synchronized void throwable( Throwable throwable )
+    /**
+     * Ask permission to invoke the guarded resource.
+     * <p>
+     * Unlike {@link #isOn()}, this only permits as many invocations as there are probes while the CircuitBreaker is
+     * half-open. Invocations permitted by this method must report their outcome using {@link #success()} or
+     * {@link #throwable(Throwable)}.
+     * </p>
+     *
+     * @return true if the invocation is permitted
+     */
+    public boolean tryAcquire()
     {
-        if( status == Status.on )
+        if( status() == Status.off )
+        {
+            return false;
+        }
+        while( true )
+        {
+            State current = state.get();
+            AtomicInteger permits = current.permits;
+            if( permits == null )
+            {
+                return current.status == Status.on;
+            }
+            int available = permits.get();
+            if( available > 0 )
+            {
+                if( permits.compareAndSet( available, available - 1 ) )
+                {
+                    return true;
+                }
+            }
+            else if( Instant.now().isAfter( current.probesExpireOn ) )
+            {
+                // Probes did not all report back in time, permit new ones
+                state.compareAndSet( current, State.halfOpen( probes, Instant.now().plusMillis( timeout ) ) );
+            }
+            else
+            {
+                return false;
+            }
+        }
+    }
+
+    public void throwable( Throwable throwable )
+    {
+        State current = state.get();
+        if( current.status == Status.on )
         {
             if( allowedThrowables.test( throwable ) )
             {
                 // Allowed throwable, so counts as success
                 success();
+                return;
+            }
+
+            lastThrowable = throwable;
+            if( current.permits != null )
+            {
+                // Failed probe
+                trip();
+                return;
+            }
+
+            boolean trip;
+            if( window != null )
+            {
+                long epoch = window.epoch();
+                window.record( epoch, true );
+                long calls = window.calls( epoch );
+                trip = calls >= threshold && window.failures( epoch ) >= failureRate * calls;
             }
             else
             {
-                countDown--;
-                lastThrowable = throwable;
-                pcs.firePropertyChange( "serviceLevel", ( countDown + 1 ) / ( (double) threshold ), countDown / ( (double) threshold ) );
-                if( countDown == 0 )
+                int count;
+                do
                 {
-                    trip();
+                    count = countDown.get();
+                    if( count == 0 )
+                    {
+                        // Being tripped
+                        return;
+                    }
                 }
+                while( !countDown.compareAndSet( count, count - 1 ) );
+                trip = count == 1;
+            }
+            serviceLevelChanged();
+            if( trip )
+            {
+                trip();
             }
         }
     }
 
-    public synchronized void success()
+    public void success()
     {
-        if( status == Status.on && countDown < threshold )
+        State current = state.get();
+        if( current.status == Status.on )
         {
-            countDown++;
-            pcs.firePropertyChange( "serviceLevel", ( countDown - 1 ) / ( (double) threshold ), countDown / ( (double) threshold ) );
+            if( current.permits != null )
+            {
+                if( current.successes.incrementAndGet() == probes && state.compareAndSet( current, State.ON ) )
+                {
+                    // All probes succeeded
+                    lastThrowable = null;
+                }
+                return;
+            }
+
+            if( window != null )
+            {
+                window.record( window.epoch(), false );
+                serviceLevelChanged();
+            }
+            else
+            {
+                int count;
+                do
+                {
+                    count = countDown.get();
+                    if( count >= threshold )
+                    {
+                        return;
+                    }
+                }
+                while( !countDown.compareAndSet( count, count + 1 ) );
+                serviceLevelChanged();
+            }
         }
     }
 
@@ -226,10 +401,239 @@ public class CircuitBreaker
     public void addPropertyChangeListener( PropertyChangeListener pcl )
     {
         pcs.addPropertyChangeListener( pcl );
+        listened = pcs.getPropertyChangeListeners().length > 0;
     }
 
     public void removePropertyChangeListener( PropertyChangeListener pcl )
     {
         pcs.removePropertyChangeListener( pcl );
+        listened = pcs.getPropertyChangeListeners().length > 0;
+    }
+
+    private void turnOn( State from, boolean halfOpen )
+        throws PropertyVetoException
+    {
+        try
+        {
+            vcs.fireVetoableChange( "status", Status.off, Status.on );
+        }
+        catch( PropertyVetoException e )
+        {
+            // Reset timeout
+            state.compareAndSet( from, State.off( from.trippedOn, Instant.now().plusMillis( timeout ) ) );
+
+            if( e.getCause() != null )
+            {
+                lastThrowable = e.getCause();
+            }
+            else
+            {
+                lastThrowable = e;
+            }
+            throw e;
+        }
+
+        countDown.set( threshold );
+        if( window != null )
+        {
+            window.clear();
+        }
+        State to = halfOpen ? State.halfOpen( probes, Instant.now().plusMillis( timeout ) ) : State.ON;
+        if( state.compareAndSet( from, to ) )
+        {
+            if( !halfOpen )
+            {
+                lastThrowable = null;
+            }
+            serviceLevelChanged();
+            notify( new PropertyChangeEvent( this, "status", Status.off, Status.on ) );
+        }
+    }
+
+    private void serviceLevelChanged()
+    {
+        if( listened && serviceLevelChanged.compareAndSet( false, true ) )
+        {
+            notify( SERVICE_LEVEL );
+        }
+    }
+
+    private void notify( Object notification )
+    {
+        if( listened )
+        {
+            notifications.add( notification );
+            if( notifying.compareAndSet( false, true ) )
+            {
+                ForkJoinPool.commonPool().execute( this::drainNotifications );
+            }
+        }
+    }
+
+    private void drainNotifications()
+    {
+        do
+        {
+            Object notification;
+            while( ( notification = notifications.poll() ) != null )
+            {
+                try
+                {
+                    if( notification == SERVICE_LEVEL )
+                    {
+                        serviceLevelChanged.set( false );
+                        double serviceLevel = serviceLevel();
+                        if( serviceLevel != notifiedServiceLevel )
+                        {
+                            pcs.firePropertyChange( "serviceLevel", notifiedServiceLevel, serviceLevel );
+                            notifiedServiceLevel = serviceLevel;
+                        }
+                    }
+                    else
+                    {
+                        pcs.firePropertyChange( (PropertyChangeEvent) notification );
+                    }
+                }
+                catch( RuntimeException e )
+                {
+                    // A failing listener must not stop notifications
+                }
+            }
+            notifying.set( false );
+        }
+        while( !notifications.isEmpty() && notifying.compareAndSet( false, true ) );
+    }
+
+    /**
+     * Immutable status, replaced on each transition.
+     */
+    private static final class State
+    {
+        private static final State ON = new State( Status.on, null, null, null, null );
+
+        private final Status status;
+        private final Instant trippedOn;
+        private final Instant enableOn;
+        private final AtomicInteger permits;
+        private final AtomicInteger successes;
+        private final Instant probesExpireOn;
+
+        private State( Status status, Instant trippedOn, Instant enableOn, AtomicInteger permits,
+                       Instant probesExpireOn )
+        {
+            this.status = status;
+            this.trippedOn = trippedOn;
+            this.enableOn = enableOn;
+            this.permits = permits;
+            this.successes = permits == null ? null : new AtomicInteger();
+            this.probesExpireOn = probesExpireOn;
+        }
+
+        private static State off( Instant trippedOn, Instant enableOn )
+        {
+            return new State( Status.off, trippedOn, enableOn, null, null );
+        }
+
+        private static State halfOpen( int probes, Instant probesExpireOn )
+        {
+            return new State( Status.on, null, null, new AtomicInteger( probes ), probesExpireOn );
+        }
+    }
+
+    /**
+     * Invocations and failures over a sliding time window, in buckets.
+     */
+    private static final class FailureWindow
+    {
+        private final long bucketNanos;
+        private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>( WINDOW_BUCKETS );
+
+        private FailureWindow( long window )
+        {
+            if( window < 1 )
+            {
+                throw new IllegalArgumentException( "Window must be at least 1ms, was " + window );
+            }
+            this.bucketNanos = Math.max( 1, TimeUnit.MILLISECONDS.toNanos( window ) / WINDOW_BUCKETS );
+        }
+
+        private long epoch()
+        {
+            return System.nanoTime() / bucketNanos;
+        }
+
+        private void record( long epoch, boolean failure )
+        {
+            int index = (int) Math.floorMod( epoch, (long) WINDOW_BUCKETS );
+            Bucket bucket = buckets.get( index );
+            while( bucket == null || bucket.epoch < epoch )
+            {
+                Bucket fresh = new Bucket( epoch );
+                if( buckets.compareAndSet( index, bucket, fresh ) )
+                {
+                    bucket = fresh;
+                }
+                else
+                {
+                    bucket = buckets.get( index );
+                }
+            }
+            if( bucket.epoch == epoch )
+            {
+                bucket.calls.increment();
+                if( failure )
+                {
+                    bucket.failures.increment();
+                }
+            }
+        }
+
+        private long calls( long epoch )
+        {
+            long calls = 0;
+            for( int index = 0; index < WINDOW_BUCKETS; index++ )
+            {
+                Bucket bucket = buckets.get( index );
+                if( bucket != null && bucket.epoch > epoch - WINDOW_BUCKETS )
+                {
+                    calls += bucket.calls.sum();
+                }
+            }
+            return calls;
+        }
+
+        private long failures( long epoch )
+        {
+            long failures = 0;
+            for( int index = 0; index < WINDOW_BUCKETS; index++ )
+            {
+                Bucket bucket = buckets.get( index );
+                if( bucket != null && bucket.epoch > epoch - WINDOW_BUCKETS )
+                {
+                    failures += bucket.failures.sum();
+                }
+            }
+            return failures;
+        }
+
+        private void clear()
+        {
+            for( int index = 0; index < WINDOW_BUCKETS; index++ )
+            {
+                buckets.set( index, null );
+            }
+        }
+    }
+
+    private static final class Bucket
+    {
+        private final long epoch;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Bucket( long epoch )
+        {
+            this.epoch = epoch;
+        }
     }
 }
@@ -23,6 +23,7 @@ import java.lang.reflect.Method;
 import org.apache.polygene.api.common.AppliesTo;
 import org.apache.polygene.api.concern.GenericConcern;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.service.ServiceUnavailableException;
 import org.apache.polygene.library.circuitbreaker.CircuitBreaker;
 
 /**
@@ -42,13 +43,22 @@ public class BreakCircuitConcern
             throws Throwable
     {
         CircuitBreaker circuitBreaker = serviceCircuitBreaker.circuitBreaker();
-        try
+        if( !circuitBreaker.tryAcquire() )
         {
-            if( !circuitBreaker.isOn() )
+            // Rejected invocations are not reported, they would trip a half-open CircuitBreaker again
+            Throwable throwable = circuitBreaker.lastThrowable();
+            if( throwable != null )
+            {
+                throw throwable;
+            }
+            else
             {
-                throw circuitBreaker.lastThrowable();
+                throw new ServiceUnavailableException( "Circuit breaker for " + method.getName() + " is not on" );
             }
+        }
 
+        try
+        {
             Object result = next.invoke( proxy, method, args );
             circuitBreaker.success();
             return result;
@@ -20,11 +20,13 @@
 package org.apache.polygene.library.circuitbreaker;
 
 import java.beans.PropertyVetoException;
+import java.util.concurrent.CountDownLatch;
 import org.junit.Assert;
 import org.junit.Test;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.service.ServiceComposite;
 import org.apache.polygene.api.service.ServiceReference;
+import org.apache.polygene.api.service.ServiceUnavailableException;
 import org.apache.polygene.bootstrap.AssemblyException;
 import org.apache.polygene.bootstrap.ModuleAssembly;
 import org.apache.polygene.library.circuitbreaker.service.AbstractBreakOnThrowable;
@@ -43,6 +45,9 @@ public class BreaksCircuitOnThrowableTest
             throws AssemblyException
     {
         module.services( TestService.class ).setMetaInfo( new CircuitBreaker() );
+        // END SNIPPET: service
+        module.services( ProbedService.class ).setMetaInfo( new CircuitBreaker( 1, 100, 1, CircuitBreakers.in() ) );
+        // START SNIPPET: service
     }
     // END SNIPPET: service
 
@@ -87,6 +92,87 @@ public class BreaksCircuitOnThrowableTest
         }
     }
 
+    @Test
+    public void testManualTrip()
+    {
+        ServiceReference<TestService> serviceReference = serviceFinder.findService( TestService.class );
+        serviceReference.metaInfo( CircuitBreaker.class ).trip();
+
+        try {
+            serviceReference.get().successfulMethod();
+            Assert.fail( "Circuit breaker should have been tripped" );
+        } catch ( ServiceUnavailableException e ) {
+            // Ok
+        }
+    }
+
+    @Test
+    public void testHalfOpenWithMoreCallersThanProbes()
+        throws InterruptedException
+    {
+        ServiceReference<ProbedService> serviceReference = serviceFinder.findService( ProbedService.class );
+        ProbedService service = serviceReference.get();
+        CircuitBreaker circuitBreaker = serviceReference.metaInfo( CircuitBreaker.class );
+        circuitBreaker.trip();
+        Thread.sleep( 150 );
+
+        CountDownLatch probing = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+        Thread probe = new Thread( () -> service.probe( probing, release ) );
+        probe.start();
+        probing.await();
+
+        for( int caller = 0; caller < 3; caller++ )
+        {
+            try {
+                service.call();
+                Assert.fail( "Only one probe should have been permitted" );
+            } catch ( ServiceUnavailableException e ) {
+                // Ok
+            }
+        }
+        Assert.assertEquals( CircuitBreaker.Status.on, circuitBreaker.status() );
+
+        release.countDown();
+        probe.join();
+
+        // The probe succeeded, rejected callers did not trip the circuit breaker again
+        service.call();
+        Assert.assertEquals( CircuitBreaker.Status.on, circuitBreaker.status() );
+    }
+
+    @Mixins( ProbedService.Mixin.class )
+    public interface ProbedService
+            extends AbstractBreakOnThrowable, ServiceComposite
+    {
+        @BreaksCircuitOnThrowable
+        void probe( CountDownLatch probing, CountDownLatch release );
+
+        @BreaksCircuitOnThrowable
+        void call();
+
+        abstract class Mixin
+                implements ProbedService
+        {
+            public void probe( CountDownLatch probing, CountDownLatch release )
+            {
+                probing.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            public void call()
+            {
+            }
+        }
+    }
+
     @Mixins( TestService.Mixin.class )
     // START SNIPPET: service
     public interface TestService
@@ -24,7 +24,10 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
 import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.CoreMatchers;
 import org.junit.Before;
 import org.junit.Test;
@@ -223,4 +226,127 @@ public class CircuitBreakerTest
         assertThat( cb.lastThrowable().getMessage(), CoreMatchers.equalTo( "Service is down" ) );
     }
 
+    @Test
+    public void GivenWindowCBWhenFailureRateReachedThenStatusIsOff()
+    {
+        // Trip when half of at least 4 invocations over 1s failed
+        CircuitBreaker cb = new CircuitBreaker( 0.5, 4, 1000, 250, 0, CircuitBreakers.in( IllegalArgumentException.class ) );
+
+        cb.throwable( new IOException() );
+        cb.throwable( new IOException() );
+        cb.throwable( new IOException() );
+
+        // Not enough invocations yet
+        assertThat( cb.status(), CoreMatchers.equalTo( CircuitBreaker.Status.on ) );
+        assertThat( cb.serviceLevel(), CoreMatchers.equalTo( 0.0 ) );
+
+        cb.success();
+        cb.success();
+        cb.throwable( new IllegalArgumentException() );
+        assertThat( cb.serviceLevel(), CoreMatchers.equalTo( 0.5 ) );
+        assertThat( cb.status(), CoreMatchers.equalTo( CircuitBreaker.Status.on ) );
+
+        cb.throwable( new IOException() );
+        assertThat( cb.status(), CoreMatchers.equalTo( CircuitBreaker.Status.off ) );
+    }
+
+    @Test
+    public void GivenWindowCBWhenFailuresLeaveWindowThenStatusIsOn()
+        throws InterruptedException
+    {
+        CircuitBreaker cb = new CircuitBreaker( 0.5, 2, 100, 250, 0, CircuitBreakers.in() );
+
+        cb.throwable( new IOException() );
+        Thread.sleep( 150 );
+        cb.throwable( new IOException() );
+        cb.success();
+
+        assertThat( cb.status(), CoreMatchers.equalTo( CircuitBreaker.Status.on ) );
+        assertThat( cb.serviceLevel(), CoreMatchers.equalTo( 0.5 ) );
+    }
+
+    @Test
+    public void GivenHalfOpenCBWhenProbesSucceedThenStatusIsOn()
+        throws InterruptedException
+    {
+        CircuitBreaker cb = new CircuitBreaker( 1, 100, 2, CircuitBreakers.in() );
+        cb.throwable( new IOException( "Service is down" ) );
+        assertThat( cb.tryAcquire(), is( false ) );
+
+        Thread.sleep( 150 );
+
+        // Half-open, only two probes permitted
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( false ) );
+        assertThat( cb.lastThrowable().getMessage(), CoreMatchers.equalTo( "Service is down" ) );
+
+        cb.success();
+        cb.success();
+
+        // Fully on
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.lastThrowable(), CoreMatchers.nullValue() );
+    }
+
+    @Test
+    public void GivenHalfOpenCBWhenProbeFailsThenStatusIsOff()
+        throws InterruptedException
+    {
+        CircuitBreaker cb = new CircuitBreaker( 3, 100, 2, CircuitBreakers.in() );
+        cb.trip();
+
+        Thread.sleep( 150 );
+
+        assertThat( cb.tryAcquire(), is( true ) );
+        cb.throwable( new IOException() );
+
+        assertThat( cb.status(), CoreMatchers.equalTo( CircuitBreaker.Status.off ) );
+        assertThat( cb.tryAcquire(), is( false ) );
+    }
+
+    @Test
+    public void GivenHalfOpenCBWhenProbeDoesNotReportThenNewProbeIsPermitted()
+        throws InterruptedException
+    {
+        CircuitBreaker cb = new CircuitBreaker( 3, 100, 1, CircuitBreakers.in() );
+        cb.trip();
+
+        Thread.sleep( 150 );
+
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( false ) );
+
+        Thread.sleep( 150 );
+
+        // The probe never reported back
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( false ) );
+        cb.success();
+
+        assertThat( cb.tryAcquire(), is( true ) );
+        assertThat( cb.tryAcquire(), is( true ) );
+    }
+
+    @Test
+    public void GivenCBWhenStatusChangesThenListenersAreNotified()
+        throws InterruptedException
+    {
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        cb.addPropertyChangeListener( evt -> events.add( evt.getPropertyName() + "=" + evt.getNewValue() ) );
+
+        cb.throwable( new IOException() );
+        cb.throwable( new IOException() );
+        cb.throwable( new IOException() );
+
+        String event;
+        do
+        {
+            event = events.poll( 1, TimeUnit.SECONDS );
+        }
+        while( event != null && !event.startsWith( "status" ) );
+        assertThat( event, CoreMatchers.equalTo( "status=off" ) );
+    }
 }
@@ -0,0 +1,349 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.invocationcache;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.polygene.api.PolygeneAPI;
+import org.apache.polygene.api.common.Optional;
+import org.apache.polygene.api.composite.Composite;
+import org.apache.polygene.api.composite.CompositeDescriptor;
+import org.apache.polygene.api.injection.scope.Service;
+import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.metrics.MetricNames;
+import org.apache.polygene.api.metrics.MetricsGaugeFactory;
+import org.apache.polygene.api.metrics.MetricsNotSupportedException;
+import org.apache.polygene.api.metrics.MetricsProvider;
+import org.apache.polygene.api.service.ServiceDescriptor;
+import org.apache.polygene.api.structure.Module;
+
+/**
+ * Bounded implementation of InvocationCache.
+ * <p>
+ * At most {@link InvocationCacheOptions#maxEntries()} values are kept, least recently used values being evicted
+ * first. Values expire after the time to live of the {@link Cached} annotation of their method, if any. Concurrent
+ * misses on the same invocation load the value once, the other callers waiting for it.
+ * </p>
+ * <p>
+ * The cache is split in independently locked segments so that concurrent invocations do not contend, each segment
+ * getting an equal share of the entries.
+ * </p>
+ * <p>
+ * Hits, misses, waits, evictions and size are registered as gauges of services when a MetricsProvider is available.
+ * </p>
+ */
+public class BoundedInvocationCacheMixin
+    implements InvocationCache, InvocationCacheStatistics
+{
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final Map<InvocationKey, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Map<Method, Long> timesToLive = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedInvocationCacheMixin( @Structure PolygeneAPI api,
+                                        @Structure Module module,
+                                        @This Composite composite,
+                                        @Optional @Service MetricsProvider metrics )
+    {
+        CompositeDescriptor descriptor = api.compositeDescriptorFor( composite );
+        InvocationCacheOptions options = descriptor.metaInfo( InvocationCacheOptions.class );
+        int maxEntries = options == null ? InvocationCacheOptions.DEFAULT_MAX_ENTRIES : options.maxEntries();
+        segments = new Segment[ Math.min( MAX_SEGMENTS, Integer.highestOneBit( maxEntries ) ) ];
+        for( int i = 0; i < segments.length; i++ )
+        {
+            segments[ i ] = new Segment( maxEntries / segments.length );
+        }
+        if( metrics != null && descriptor instanceof ServiceDescriptor )
+        {
+            registerGauges( module, metrics, descriptor.primaryType() );
+        }
+    }
+
+    @Override
+    public Object setCachedValue( String name, Object aResult )
+    {
+        return segmentFor( name ).put( name, aResult, 0 );
+    }
+
+    @Override
+    public Object cachedValue( String name )
+    {
+        return segmentFor( name ).get( name );
+    }
+
+    @Override
+    public Object removeCachedValue( String name )
+    {
+        return segmentFor( name ).remove( name );
+    }
+
+    @Override
+    public Object setCachedValue( InvocationKey key, Object aResult )
+    {
+        return segmentFor( key ).put( key, aResult, timeToLive( key.method() ) );
+    }
+
+    @Override
+    public Object cachedValue( InvocationKey key )
+    {
+        return segmentFor( key ).get( key );
+    }
+
+    @Override
+    public Object removeCachedValue( InvocationKey key )
+    {
+        return segmentFor( key ).remove( key );
+    }
+
+    @Override
+    public Object cachedValue( InvocationKey key, Loader loader )
+        throws Throwable
+    {
+        Object cached = cachedValue( key );
+        if( cached != null )
+        {
+            hits.increment();
+            return cached;
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent( key, load );
+        if( inFlight != null )
+        {
+            // Another caller is loading the same value
+            waits.increment();
+            return await( inFlight );
+        }
+        try
+        {
+            // The value may have been loaded between the lookup and the registration
+            Object loaded = cachedValue( key );
+            if( loaded != null )
+            {
+                hits.increment();
+            }
+            else
+            {
+                misses.increment();
+                loaded = loader.load();
+                if( loaded != null )
+                {
+                    setCachedValue( key, loaded );
+                }
+            }
+            load.complete( loaded );
+            return loaded;
+        }
+        catch( Throwable e )
+        {
+            load.completeExceptionally( e );
+            throw e;
+        }
+        finally
+        {
+            loading.remove( key, load );
+        }
+    }
+
+    @Override
+    public void clearCachedValues()
+    {
+        for( Segment segment : segments )
+        {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public int currentCacheSize()
+    {
+        int size = 0;
+        for( Segment segment : segments )
+        {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    @Override
+    public long waits()
+    {
+        return waits.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor( Object key )
+    {
+        int hash = key.hashCode();
+        return segments[ ( hash ^ ( hash >>> 16 ) ) & ( segments.length - 1 ) ];
+    }
+
+    private long timeToLive( Method method )
+    {
+        return timesToLive.computeIfAbsent( method, candidate ->
+        {
+            Cached cached = candidate.getAnnotation( Cached.class );
+            if( cached == null )
+            {
+                cached = candidate.getDeclaringClass().getAnnotation( Cached.class );
+            }
+            return cached == null ? 0L : cached.unit().toNanos( cached.timeToLive() );
+        } );
+    }
+
+    private void registerGauges( Module module, MetricsProvider metrics, Class<?> type )
+    {
+        try
+        {
+            MetricsGaugeFactory gauges = metrics.createFactory( MetricsGaugeFactory.class );
+            gauges.registerGauge( MetricNames.nameFor( module, type, "invocationCache", "hits" ), this::hits );
+            gauges.registerGauge( MetricNames.nameFor( module, type, "invocationCache", "misses" ), this::misses );
+            gauges.registerGauge( MetricNames.nameFor( module, type, "invocationCache", "waits" ), this::waits );
+            gauges.registerGauge( MetricNames.nameFor( module, type, "invocationCache", "evictions" ), this::evictions );
+            gauges.registerGauge( MetricNames.nameFor( module, type, "invocationCache", "size" ), this::currentCacheSize );
+        }
+        catch( MetricsNotSupportedException ignored )
+        {
+            // Invocation cache metrics are not mandatory
+        }
+    }
+
+    private static Object await( CompletableFuture<Object> inFlight )
+        throws Throwable
+    {
+        try
+        {
+            return inFlight.get();
+        }
+        catch( ExecutionException e )
+        {
+            throw e.getCause();
+        }
+    }
+
+    private final class Segment
+    {
+        private final LinkedHashMap<Object, Entry> entries;
+
+        private Segment( int maxEntries )
+        {
+            entries = new LinkedHashMap<Object, Entry>( 16, 0.75F, true )
+            {
+                @Override
+                protected boolean removeEldestEntry( Map.Entry<Object, Entry> eldest )
+                {
+                    if( size() <= maxEntries )
+                    {
+                        return false;
+                    }
+                    if( !eldest.getValue().expired( System.nanoTime() ) )
+                    {
+                        evictions.increment();
+                    }
+                    return true;
+                }
+            };
+        }
+
+        private synchronized Object get( Object key )
+        {
+            Entry entry = entries.get( key );
+            if( entry == null )
+            {
+                return null;
+            }
+            if( entry.expired( System.nanoTime() ) )
+            {
+                entries.remove( key );
+                return null;
+            }
+            return entry.value;
+        }
+
+        private synchronized Object put( Object key, Object value, long timeToLive )
+        {
+            long now = System.nanoTime();
+            Entry previous = entries.put( key, new Entry( value, timeToLive, now ) );
+            return previous == null || previous.expired( now ) ? null : previous.value;
+        }
+
+        private synchronized Object remove( Object key )
+        {
+            Entry entry = entries.remove( key );
+            return entry == null || entry.expired( System.nanoTime() ) ? null : entry.value;
+        }
+
+        private synchronized void clear()
+        {
+            entries.clear();
+        }
+
+        private synchronized int size()
+        {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Object value;
+        private final boolean expires;
+        private final long deadline;
+
+        private Entry( Object value, long timeToLive, long now )
+        {
+            this.value = value;
+            this.expires = timeToLive > 0;
+            this.deadline = now + timeToLive;
+        }
+
+        private boolean expired( long now )
+        {
+            return expires && now - deadline >= 0;
+        }
+    }
+}
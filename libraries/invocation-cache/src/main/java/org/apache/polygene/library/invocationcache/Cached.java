@@ -25,9 +25,14 @@ import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Mark interfaces or methods whose results should be cached with this annotation.
+ * <p>
+ * The time to live is honoured by {@link BoundedInvocationCacheMixin}, an annotation on the method overrides the one
+ * on its interface.
+ * </p>
  */
 @Retention( RetentionPolicy.RUNTIME )
 @Target( { ElementType.METHOD, ElementType.TYPE } )
@@ -35,4 +40,13 @@ import java.lang.annotation.Target;
 @Inherited
 public @interface Cached
 {
+    /**
+     * @return Time to live of cached values, in {@link #unit()}, 0 to keep them until evicted
+     */
+    long timeToLive() default 0;
+
+    /**
+     * @return Unit of {@link #timeToLive()}
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
 }
@@ -23,6 +23,10 @@ import org.apache.polygene.api.mixin.Mixins;
 
 /**
  * Invocation Cache.
+ * <p>
+ * The concerns of this library use the {@link InvocationKey} based methods. Their default implementations delegate to
+ * the String based ones using {@link InvocationKey#name()} so that existing implementations keep working.
+ * </p>
  */
 @Mixins( SimpleInvocationCacheMixin.class )
 public interface InvocationCache
@@ -36,4 +40,53 @@ public interface InvocationCache
     void clearCachedValues();
 
     int currentCacheSize();
+
+    default Object setCachedValue( InvocationKey key, Object aResult )
+    {
+        return setCachedValue( key.name(), aResult );
+    }
+
+    default Object cachedValue( InvocationKey key )
+    {
+        return cachedValue( key.name() );
+    }
+
+    default Object removeCachedValue( InvocationKey key )
+    {
+        return removeCachedValue( key.name() );
+    }
+
+    /**
+     * Get a cached value, loading it on a miss.
+     * <p>
+     * This default implementation does not cache loaded values, implementations without a size limit would otherwise
+     * grow with every distinct invocation. Bounded implementations, as {@link BoundedInvocationCacheMixin}, override it
+     * to cache non null loaded values and may ensure that concurrent misses on the same key load the value once.
+     * </p>
+     *
+     * @param key    Invocation key
+     * @param loader Loads the value, typically by invoking the method
+     * @return The cached or loaded value
+     * @throws Throwable if loading failed
+     */
+    default Object cachedValue( InvocationKey key, Loader loader )
+        throws Throwable
+    {
+        Object cached = cachedValue( key );
+        if( cached != null )
+        {
+            return cached;
+        }
+        return loader.load();
+    }
+
+    /**
+     * Loads a value on a cache miss.
+     */
+    @FunctionalInterface
+    interface Loader
+    {
+        Object load()
+            throws Throwable;
+    }
 }
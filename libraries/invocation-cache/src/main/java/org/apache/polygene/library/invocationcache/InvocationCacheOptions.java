@@ -0,0 +1,56 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.invocationcache;
+
+/**
+ * Meta-info bounding the {@link BoundedInvocationCacheMixin} of a composite.
+ * <pre><code>
+ * module.services( ExpensiveOperation.class )
+ *       .withMixins( BoundedInvocationCacheMixin.class )
+ *       .withConcerns( ReturnCachedValueConcern.class )
+ *       .setMetaInfo( new InvocationCacheOptions( 10000 ) );
+ * </code></pre>
+ */
+public final class InvocationCacheOptions
+{
+    /**
+     * Maximum number of cached values when no options are set.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final int maxEntries;
+
+    /**
+     * @param maxEntries Maximum number of cached values
+     */
+    public InvocationCacheOptions( int maxEntries )
+    {
+        if( maxEntries <= 0 )
+        {
+            throw new IllegalArgumentException( "maxEntries must be positive, was " + maxEntries );
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    public int maxEntries()
+    {
+        return maxEntries;
+    }
+}
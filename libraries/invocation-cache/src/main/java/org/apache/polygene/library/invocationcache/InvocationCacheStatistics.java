@@ -0,0 +1,49 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.invocationcache;
+
+/**
+ * Statistics of an {@link InvocationCache}.
+ * <p>
+ * Implemented by {@link BoundedInvocationCacheMixin}, extend it in the composite type to read them.
+ * </p>
+ */
+public interface InvocationCacheStatistics
+{
+    /**
+     * @return Number of invocations answered from the cache
+     */
+    long hits();
+
+    /**
+     * @return Number of invocations that had to load their value
+     */
+    long misses();
+
+    /**
+     * @return Number of invocations that waited for a concurrent invocation to load their value
+     */
+    long waits();
+
+    /**
+     * @return Number of values evicted to honour the size limit, expired values excluded
+     */
+    long evictions();
+}
@@ -0,0 +1,103 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.invocationcache;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Key of a cached method invocation.
+ * <p>
+ * Keys are equal when they are for the same method and their arguments are equal, arrays being compared by content.
+ * The hash code is computed once, building a key neither formats nor concatenates anything.
+ * </p>
+ */
+public final class InvocationKey
+{
+    private static final Object[] NO_ARGUMENTS = new Object[ 0 ];
+
+    private final Method method;
+    private final Object[] arguments;
+    private final boolean nullArguments;
+    private final int hashCode;
+
+    private InvocationKey( Method method, Object[] arguments, boolean nullArguments )
+    {
+        this.method = method;
+        this.arguments = arguments;
+        this.nullArguments = nullArguments;
+        this.hashCode = 31 * method.hashCode() + Arrays.deepHashCode( arguments );
+    }
+
+    /**
+     * @param method    Invoked method
+     * @param arguments Invocation arguments, may be null, copied
+     * @return Key of the invocation
+     */
+    public static InvocationKey of( Method method, Object[] arguments )
+    {
+        return new InvocationKey( method,
+                                  arguments == null || arguments.length == 0 ? NO_ARGUMENTS : arguments.clone(),
+                                  arguments == null );
+    }
+
+    public Method method()
+    {
+        return method;
+    }
+
+    /**
+     * @return Name of the invocation, as used by String based {@link InvocationCache} implementations, i.e. the method
+     * name followed by the arguments list unless they were null
+     */
+    public String name()
+    {
+        return nullArguments ? method.getName() : method.getName() + Arrays.asList( arguments );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if( this == o )
+        {
+            return true;
+        }
+        if( !( o instanceof InvocationKey ) )
+        {
+            return false;
+        }
+        InvocationKey other = (InvocationKey) o;
+        return hashCode == other.hashCode
+               && method.equals( other.method )
+               && Arrays.deepEquals( arguments, other.arguments );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name();
+    }
+}
@@ -21,7 +21,6 @@ package org.apache.polygene.library.invocationcache;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import org.apache.polygene.api.common.AppliesTo;
 import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.concern.ConcernOf;
@@ -29,6 +28,10 @@ import org.apache.polygene.api.injection.scope.This;
 
 /**
  * Return value of @Cached calls if possible.
+ * <p>
+ * On a miss the method is invoked. Its result is cached only by InvocationCache implementations that load values
+ * themselves, as {@link BoundedInvocationCacheMixin}.
+ * </p>
  */
 @AppliesTo( Cached.class )
 public class ReturnCachedValueConcern
@@ -43,21 +46,11 @@ public class ReturnCachedValueConcern
         throws Throwable
     {
         boolean voidReturnType = method.getReturnType().equals( Void.TYPE );
-        if( cache != null || voidReturnType )
+        if( cache == null || voidReturnType ) // Skip if void return type or no InvocationCache has been defined.
         {
-            // Try cache
-            String cacheName = method.getName();
-            if( args != null )
-            {
-                cacheName += Arrays.asList( args );
-            }
-            Object result = cache.cachedValue( cacheName );
-            if( result != null )
-            {
-                return result;
-            }
+            return next.invoke( proxy, method, args );
         }
-        // No cached value found or no InvocationCache defined - call method
-        return next.invoke( proxy, method, args );
+        // Try cache, call method if no cached value found
+        return cache.cachedValue( InvocationKey.of( method, args ), () -> next.invoke( proxy, method, args ) );
     }
 }
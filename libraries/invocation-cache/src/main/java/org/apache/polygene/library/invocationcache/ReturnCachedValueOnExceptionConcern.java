@@ -21,8 +21,8 @@ package org.apache.polygene.library.invocationcache;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import org.apache.polygene.api.common.AppliesTo;
+import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.concern.ConcernOf;
 import org.apache.polygene.api.injection.scope.This;
 
@@ -37,7 +37,7 @@ public class ReturnCachedValueOnExceptionConcern
     extends ConcernOf<InvocationHandler>
     implements InvocationHandler
 {
-    @This
+    @This @Optional
     private InvocationCache cache;
 
     @Override
@@ -45,28 +45,31 @@ public class ReturnCachedValueOnExceptionConcern
         throws Throwable
     {
         boolean voidReturnType = method.getReturnType().equals( Void.TYPE );
-        if( cache != null || voidReturnType ) // Skip if void return type or no InvocationCache has been defined.
+        if( cache == null || voidReturnType ) // Skip if void return type or no InvocationCache has been defined.
         {
-            String cacheName = method.getName();
-            if( args != null )
-            {
-                cacheName += Arrays.asList( args );
-            }
-            try
+            return next.invoke( proxy, method, args );
+        }
+        InvocationKey key = InvocationKey.of( method, args );
+        try
+        {
+            // Invoke method
+            Object result = next.invoke( proxy, method, args );
+            // update cache
+            if( result != null )
             {
-                // Invoke method
-                Object result = next.invoke( proxy, method, args );
-                // update cache
-                cache.setCachedValue( cacheName, result );
-                return result;
+                cache.setCachedValue( key, result );
             }
-            catch( Exception e )
+            return result;
+        }
+        catch( Exception e )
+        {
+            // Try cache
+            Object cached = cache.cachedValue( key );
+            if( cached == null )
             {
-                // Try cache
-                return cache.cachedValue( cacheName );
+                throw e;
             }
+            return cached;
         }
-        // if no InvocationCache is present.
-        return next.invoke( proxy, method, args );
     }
 }
@@ -31,7 +31,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * </p>
  * <p>
  * <b>IMPORTANT: Only use this is you know that only a small set of arguments are used into your
- * method(s).</b>
+ * method(s).</b> See {@link BoundedInvocationCacheMixin} otherwise.
+ * </p>
+ * <p>
+ * Values are keyed by {@link InvocationKey#name()}, so values set using {@link #setCachedValue(String, Object)} are
+ * returned by the concerns. {@link ReturnCachedValueConcern} does not cache results into it, only values set
+ * explicitly or by {@link ReturnCachedValueOnExceptionConcern} are returned.
  * </p>
  */
 public class SimpleInvocationCacheMixin
@@ -0,0 +1,277 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.invocationcache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class BoundedInvocationCacheTest
+    extends AbstractPolygeneTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        module.services( CachedService.class )
+              .withMixins( BoundedInvocationCacheMixin.class )
+              .withConcerns( ReturnCachedValueConcern.class )
+              .setMetaInfo( new InvocationCacheOptions( 1 ) );
+        module.services( SimpleCachedService.class )
+              .withMixins( SimpleInvocationCacheMixin.class )
+              .withConcerns( ReturnCachedValueConcern.class );
+        module.services( UncachedService.class )
+              .withConcerns( ReturnCachedValueConcern.class, ReturnCachedValueOnExceptionConcern.class );
+    }
+
+    @Test
+    public void givenEqualArgumentsWhenInvokingExpectComputedOnce()
+    {
+        CachedService service = serviceFinder.findService( CachedService.class ).get();
+        assertThat( service.compute( 1, 2 ), equalTo( 3.0 ) );
+        assertThat( service.compute( 1, 2 ), equalTo( 3.0 ) );
+        assertThat( service.computations(), equalTo( 1 ) );
+        assertThat( service.hits(), equalTo( 1L ) );
+        assertThat( service.misses(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void givenFullCacheWhenInvokingExpectLeastRecentlyUsedEvicted()
+    {
+        CachedService service = serviceFinder.findService( CachedService.class ).get();
+        service.compute( 1, 2 );
+        service.compute( 3, 4 );
+        assertThat( service.currentCacheSize(), equalTo( 1 ) );
+        assertThat( service.evictions(), equalTo( 1L ) );
+        service.compute( 1, 2 );
+        assertThat( service.computations(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void givenTimeToLiveWhenExpiredExpectRecomputed()
+        throws InterruptedException
+    {
+        CachedService service = serviceFinder.findService( CachedService.class ).get();
+        service.shortLived( "a" );
+        service.shortLived( "a" );
+        assertThat( service.computations(), equalTo( 1 ) );
+        Thread.sleep( 50 );
+        service.shortLived( "a" );
+        assertThat( service.computations(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void givenConcurrentMissesWhenInvokingExpectComputedOnce()
+        throws Exception
+    {
+        CachedService service = serviceFinder.findService( CachedService.class ).get();
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<String>> results = new ArrayList<>();
+            for( int i = 0; i < 4; i++ )
+            {
+                results.add( executor.submit( () -> service.slow( "a" ) ) );
+            }
+            for( Future<String> result : results )
+            {
+                assertThat( result.get(), equalTo( "A" ) );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertThat( service.computations(), equalTo( 1 ) );
+        assertThat( service.misses(), equalTo( 1L ) );
+        assertThat( service.hits() + service.waits(), equalTo( 3L ) );
+    }
+
+    @Test
+    public void givenSimpleInvocationCacheWhenInvokingExpectNotFilled()
+    {
+        SimpleCachedService service = serviceFinder.findService( SimpleCachedService.class ).get();
+        service.compute( 1, 2 );
+        service.compute( 1, 2 );
+        assertThat( service.computations(), equalTo( 2 ) );
+        assertThat( service.currentCacheSize(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void givenSimpleInvocationCacheWithValueSetByNameWhenInvokingExpectCachedValue()
+    {
+        SimpleCachedService service = serviceFinder.findService( SimpleCachedService.class ).get();
+        service.setCachedValue( "lookup[a]", "cached" );
+        assertThat( service.lookup( "a" ), equalTo( "cached" ) );
+        assertThat( service.lookup( "b" ), equalTo( "B" ) );
+        assertThat( service.computations(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void givenNoInvocationCacheWhenInvokingVoidMethodExpectInvoked()
+    {
+        UncachedService service = serviceFinder.findService( UncachedService.class ).get();
+        service.run();
+        service.run();
+        assertThat( service.runs(), equalTo( 2 ) );
+    }
+
+    @Mixins( CachedService.Mixin.class )
+    public interface CachedService
+        extends InvocationCache, InvocationCacheStatistics
+    {
+        @Cached
+        double compute( double... arguments );
+
+        @Cached( timeToLive = 10, unit = TimeUnit.MILLISECONDS )
+        String shortLived( String argument );
+
+        @Cached
+        String slow( String argument );
+
+        int computations();
+
+        abstract class Mixin
+            implements CachedService
+        {
+            private int computations;
+
+            @Override
+            public synchronized double compute( double... arguments )
+            {
+                computations++;
+                double sum = 0;
+                for( double argument : arguments )
+                {
+                    sum += argument;
+                }
+                return sum;
+            }
+
+            @Override
+            public synchronized String shortLived( String argument )
+            {
+                computations++;
+                return argument.toUpperCase();
+            }
+
+            @Override
+            public String slow( String argument )
+            {
+                synchronized( this )
+                {
+                    computations++;
+                }
+                try
+                {
+                    Thread.sleep( 100 );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return argument.toUpperCase();
+            }
+
+            @Override
+            public synchronized int computations()
+            {
+                return computations;
+            }
+        }
+    }
+
+    @Mixins( SimpleCachedService.Mixin.class )
+    public interface SimpleCachedService
+        extends InvocationCache
+    {
+        @Cached
+        double compute( double... arguments );
+
+        @Cached
+        String lookup( String argument );
+
+        int computations();
+
+        abstract class Mixin
+            implements SimpleCachedService
+        {
+            private int computations;
+
+            @Override
+            public synchronized double compute( double... arguments )
+            {
+                computations++;
+                return arguments.length;
+            }
+
+            @Override
+            public synchronized String lookup( String argument )
+            {
+                computations++;
+                return argument.toUpperCase();
+            }
+
+            @Override
+            public synchronized int computations()
+            {
+                return computations;
+            }
+        }
+    }
+
+    @Mixins( UncachedService.Mixin.class )
+    public interface UncachedService
+    {
+        @Cached
+        void run();
+
+        int runs();
+
+        abstract class Mixin
+            implements UncachedService
+        {
+            private int runs;
+
+            @Override
+            public void run()
+            {
+                runs++;
+            }
+
+            @Override
+            public int runs()
+            {
+                return runs;
+            }
+        }
+    }
+}
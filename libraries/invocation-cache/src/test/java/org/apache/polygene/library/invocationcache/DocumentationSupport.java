@@ -19,6 +19,7 @@
  */
 package org.apache.polygene.library.invocationcache;
 
+import java.util.concurrent.TimeUnit;
 import org.apache.polygene.bootstrap.AssemblyException;
 import org.apache.polygene.bootstrap.LayerAssembly;
 import org.apache.polygene.bootstrap.ModuleAssembly;
@@ -49,4 +50,27 @@ public class DocumentationSupport
         }
     }
 // END SNIPPET: assembly
+
+// START SNIPPET: bounded
+    public interface ShortLivedOperation
+    {
+        @Cached( timeToLive = 30, unit = TimeUnit.SECONDS )
+        double compute( double... arguments );
+    }
+
+    public class BoundedModuleAssembler
+        implements ModuleAssembler{
+
+        @Override
+        public ModuleAssembly assemble( LayerAssembly layer, ModuleAssembly module )
+            throws AssemblyException
+        {
+            module.services( ShortLivedOperation.class )
+                .withMixins( BoundedInvocationCacheMixin.class )
+                .withConcerns( ReturnCachedValueConcern.class )
+                .setMetaInfo( new InvocationCacheOptions( 10000 ) );
+            return module;
+        }
+    }
+// END SNIPPET: bounded
 }
@@ -45,6 +45,7 @@ import org.apache.polygene.api.structure.LayerDescriptor;
 import org.apache.polygene.api.structure.Module;
 import org.apache.polygene.api.structure.ModuleDescriptor;
 import org.apache.polygene.api.util.HierarchicalVisitorAdapter;
+import org.apache.polygene.spi.module.ModuleSpi;
 
 import static org.apache.polygene.api.service.qualifier.ServiceQualifier.withId;
 
@@ -61,6 +62,10 @@ import static org.apache.polygene.api.service.qualifier.ServiceQualifier.withId;
  * <pre>
  * Polygene:application=MyApp,layer=Application,module=MyModule,class=Service,service=MyService,name=Configuration
  * </pre>
+ * The built-in runtime metrics of each module are exported as:
+ * <pre>
+ * Polygene:application=MyApp,layer=Application,module=MyModule,name=RuntimeMetrics
+ * </pre>
  * Use the following snippet to find the ObjectName of a service with a given reference:
  * <pre>
  * ObjectName serviceName = PolygeneMBeans.findService(mbeanServer, applicationName, serviceId);
@@ -158,6 +163,15 @@ public interface ApplicationManagerService
 
                         server.registerMBean( mbean, objectName );
                         mbeans.add( objectName );
+
+                        if( module instanceof ModuleSpi )
+                        {
+                            ObjectName metricsName = new ObjectName( objectName + ",name=RuntimeMetrics" );
+                            server.registerMBean( new RuntimeMetricsMBean( moduleDescriptor.name(),
+                                                                           ( (ModuleSpi) module ).runtimeMetrics() ),
+                                                  metricsName );
+                            mbeans.add( metricsName );
+                        }
                     }
                     else if( visited instanceof ServiceDescriptor )
                     {
@@ -0,0 +1,110 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import org.apache.polygene.spi.metrics.RuntimeMetrics;
+
+/**
+ * Read-only MBean exposing the built-in {@link RuntimeMetrics} of a Module, one attribute per metric.
+ * <p>
+ * Metrics are created lazily by the runtime, so attributes appear as the Module gets used.
+ * </p>
+ */
+public class RuntimeMetricsMBean
+    implements DynamicMBean
+{
+    private final String moduleName;
+    private final RuntimeMetrics metrics;
+
+    public RuntimeMetricsMBean( String moduleName, RuntimeMetrics metrics )
+    {
+        this.moduleName = moduleName;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object getAttribute( String name )
+        throws AttributeNotFoundException
+    {
+        Number value = metrics.snapshot().get( name );
+        if( value == null )
+        {
+            throw new AttributeNotFoundException( name );
+        }
+        return value;
+    }
+
+    @Override
+    public void setAttribute( Attribute attribute )
+        throws AttributeNotFoundException
+    {
+        throw new AttributeNotFoundException( "Runtime metrics are read-only" );
+    }
+
+    @Override
+    public AttributeList getAttributes( String[] names )
+    {
+        Map<String, Number> snapshot = metrics.snapshot();
+        AttributeList list = new AttributeList();
+        for( String name : names )
+        {
+            Number value = snapshot.get( name );
+            if( value != null )
+            {
+                list.add( new Attribute( name, value ) );
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes( AttributeList attributes )
+    {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke( String actionName, Object[] params, String[] signature )
+    {
+        throw new UnsupportedOperationException( actionName );
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo()
+    {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        metrics.snapshot().forEach(
+            ( name, value ) -> attributes.add(
+                new MBeanAttributeInfo( name, value.getClass().getName(), name, true, false, false ) ) );
+        return new MBeanInfo( RuntimeMetrics.class.getName(), "Runtime metrics of " + moduleName,
+                              attributes.toArray( new MBeanAttributeInfo[ attributes.size() ] ),
+                              null, new MBeanOperationInfo[ 0 ], null );
+    }
+}
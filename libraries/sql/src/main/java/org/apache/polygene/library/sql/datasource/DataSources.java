@@ -57,7 +57,7 @@ public class DataSources
             public Object invoke( Object proxy, Method method, Object[] args )
                     throws Throwable
             {
-                if ( !circuitBreaker.isOn() ) {
+                if ( !circuitBreaker.tryAcquire() ) {
                     Throwable throwable = circuitBreaker.lastThrowable();
                     if ( throwable != null ) {
                         throw throwable;
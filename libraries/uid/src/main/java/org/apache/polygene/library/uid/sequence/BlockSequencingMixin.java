@@ -0,0 +1,267 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.uid.sequence;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.polygene.api.PolygeneAPI;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.injection.scope.Structure;
+import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.service.ServiceActivation;
+import org.apache.polygene.api.service.ServiceComposite;
+import org.apache.polygene.api.unitofwork.ConcurrentEntityModificationException;
+import org.apache.polygene.api.unitofwork.NoSuchEntityException;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.api.unitofwork.UnitOfWorkCompletionException;
+import org.apache.polygene.api.unitofwork.UnitOfWorkFactory;
+import org.apache.polygene.api.usecase.Usecase;
+import org.apache.polygene.api.usecase.UsecaseBuilder;
+
+/**
+ * Block allocating (hi/lo) Sequencing.
+ * <p>
+ * The {@link SequenceEntity} identified as the service holds the high-water mark of the sequence, all values up to it
+ * may have been handed out. Allocating a block of {@link BlockSequencingOptions#blockSize()} values moves the mark in
+ * one UnitOfWork, values of the block are then handed out without locking. Once half of a block is handed out, the
+ * next one is allocated in the background.
+ * </p>
+ * <p>
+ * Values are unique, across restarts and across services sharing the EntityStore, and increasing within each service.
+ * Services sharing the EntityStore allocate interleaved blocks, so their values are not increasing across them. Values
+ * allocated but not handed out before the service is passivated are lost, leaving a gap in the sequence. After a
+ * restart, {@link #currentSequenceValue()} returns the high-water mark until a new value is handed out.
+ * </p>
+ */
+public class BlockSequencingMixin
+    implements Sequencing, ServiceActivation
+{
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Structure private PolygeneAPI api;
+    @Structure private UnitOfWorkFactory uowf;
+    @This private ServiceComposite me;
+
+    private final AtomicReference<Block> current = new AtomicReference<>();
+    private final Object allocation = new Object();
+    private Future<Block> prefetched;
+    private ExecutorService prefetcher;
+    private Identity identity;
+    private int blockSize;
+
+    @Override
+    public void activateService()
+        throws Exception
+    {
+        BlockSequencingOptions options = api.serviceDescriptorFor( me ).metaInfo( BlockSequencingOptions.class );
+        blockSize = options == null ? BlockSequencingOptions.DEFAULT_BLOCK_SIZE : options.blockSize();
+        identity = me.identity().get();
+        prefetcher = Executors.newSingleThreadExecutor( runnable ->
+        {
+            Thread thread = new Thread( runnable, "BlockSequencing-" + identity );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
+
+    @Override
+    public void passivateService()
+        throws Exception
+    {
+        prefetcher.shutdownNow();
+        synchronized( allocation )
+        {
+            prefetched = null;
+            current.set( null );
+        }
+    }
+
+    @Override
+    public Long newSequenceValue()
+        throws SequencingException
+    {
+        while( true )
+        {
+            Block block = currentBlock();
+            long value = block.next.incrementAndGet();
+            if( value <= block.last )
+            {
+                if( value == block.refillAt )
+                {
+                    prefetch( block );
+                }
+                return value;
+            }
+            nextBlock( block );
+        }
+    }
+
+    @Override
+    public Long currentSequenceValue()
+    {
+        Block block = currentBlock();
+        return Math.min( block.next.get(), block.last );
+    }
+
+    private Block currentBlock()
+    {
+        Block block = current.get();
+        if( block != null )
+        {
+            return block;
+        }
+        synchronized( allocation )
+        {
+            block = current.get();
+            if( block == null )
+            {
+                // Empty block at the high-water mark, the first value allocates
+                long highWaterMark = highWaterMark();
+                block = new Block( highWaterMark, highWaterMark );
+                current.set( block );
+            }
+            return block;
+        }
+    }
+
+    private void prefetch( Block block )
+    {
+        synchronized( allocation )
+        {
+            if( prefetched == null && current.get() == block && !prefetcher.isShutdown() )
+            {
+                prefetched = prefetcher.submit( this::allocate );
+            }
+        }
+    }
+
+    private void nextBlock( Block exhausted )
+    {
+        synchronized( allocation )
+        {
+            if( current.get() != exhausted )
+            {
+                // Already replaced by another caller
+                return;
+            }
+            Block next;
+            if( prefetched != null )
+            {
+                Future<Block> future = prefetched;
+                prefetched = null;
+                next = await( future );
+            }
+            else
+            {
+                next = allocate();
+            }
+            current.set( next );
+        }
+    }
+
+    private Block allocate()
+    {
+        Usecase usecase = UsecaseBuilder.newUsecase( "Sequence:" + identity );
+        ConcurrentEntityModificationException exc = null;
+        for( int attempt = 0; attempt < MAX_ATTEMPTS; attempt++ )
+        {
+            try( UnitOfWork uow = uowf.newUnitOfWork( usecase ) )
+            {
+                SequenceEntity sequence;
+                try
+                {
+                    sequence = uow.get( SequenceEntity.class, identity );
+                }
+                catch( NoSuchEntityException e )
+                {
+                    sequence = uow.newEntity( SequenceEntity.class, identity );
+                }
+                long highWaterMark = sequence.currentValue().get();
+                sequence.currentValue().set( highWaterMark + blockSize );
+                uow.complete();
+                return new Block( highWaterMark, highWaterMark + blockSize );
+            }
+            catch( ConcurrentEntityModificationException e )
+            {
+                // Another service allocated a block, retry
+                exc = e;
+            }
+            catch( UnitOfWorkCompletionException e )
+            {
+                throw new SequencingException( "Unable to allocate sequence values.", e );
+            }
+        }
+        throw new SequencingException( "Unable to allocate sequence values.", exc );
+    }
+
+    private long highWaterMark()
+    {
+        try( UnitOfWork uow = uowf.newUnitOfWork( UsecaseBuilder.newUsecase( "Sequence:" + identity ) ) )
+        {
+            return uow.get( SequenceEntity.class, identity ).currentValue().get();
+        }
+        catch( NoSuchEntityException e )
+        {
+            return 0L;
+        }
+    }
+
+    private static Block await( Future<Block> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new SequencingException( "Interrupted while allocating sequence values.", e );
+        }
+        catch( ExecutionException e )
+        {
+            if( e.getCause() instanceof SequencingException )
+            {
+                throw (SequencingException) e.getCause();
+            }
+            throw new SequencingException( "Unable to allocate sequence values.", e.getCause() );
+        }
+    }
+
+    /**
+     * Values after {@code first} up to {@code last}, handed out by incrementing {@code next}.
+     */
+    private static final class Block
+    {
+        private final AtomicLong next;
+        private final long last;
+        private final long refillAt;
+
+        private Block( long first, long last )
+        {
+            this.next = new AtomicLong( first );
+            this.last = last;
+            this.refillAt = last - ( last - first ) / 2;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.uid.sequence;
+
+/**
+ * Service meta-info setting the block size of a {@link BlockSequencingService}.
+ */
+public final class BlockSequencingOptions
+{
+    /**
+     * Block size when no options are set.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private final int blockSize;
+
+    /**
+     * @param blockSize Number of values allocated per persisted update of the high-water mark
+     */
+    public BlockSequencingOptions( int blockSize )
+    {
+        if( blockSize <= 0 )
+        {
+            throw new IllegalArgumentException( "blockSize must be positive, was " + blockSize );
+        }
+        this.blockSize = blockSize;
+    }
+
+    public int blockSize()
+    {
+        return blockSize;
+    }
+}
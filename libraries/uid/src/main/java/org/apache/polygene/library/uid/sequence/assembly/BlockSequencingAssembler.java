@@ -0,0 +1,58 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.uid.sequence.assembly;
+
+import org.apache.polygene.api.common.Visibility;
+import org.apache.polygene.bootstrap.Assemblers;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.bootstrap.ServiceDeclaration;
+import org.apache.polygene.library.uid.sequence.BlockSequencingOptions;
+import org.apache.polygene.library.uid.sequence.BlockSequencingService;
+import org.apache.polygene.library.uid.sequence.SequenceEntity;
+
+public class BlockSequencingAssembler
+    extends Assemblers.VisibilityIdentity<BlockSequencingAssembler>
+{
+    private int blockSize = BlockSequencingOptions.DEFAULT_BLOCK_SIZE;
+
+    /**
+     * @param blockSize Number of values allocated per persisted update of the high-water mark
+     * @return This assembler
+     */
+    public BlockSequencingAssembler withBlockSize( int blockSize )
+    {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    @Override
+    public void assemble( ModuleAssembly module )
+    {
+        super.assemble( module );
+        ServiceDeclaration service = module.services( BlockSequencingService.class )
+                                           .visibleIn( visibility() )
+                                           .setMetaInfo( new BlockSequencingOptions( blockSize ) );
+        if( hasIdentity() )
+        {
+            service.identifiedBy( identity() );
+        }
+        module.entities( SequenceEntity.class ).visibleIn( Visibility.module );
+    }
+}
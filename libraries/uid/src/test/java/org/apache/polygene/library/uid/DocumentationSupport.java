@@ -24,6 +24,7 @@ import org.apache.polygene.bootstrap.Assembler;
 import org.apache.polygene.bootstrap.AssemblyException;
 import org.apache.polygene.bootstrap.ModuleAssembly;
 import org.apache.polygene.library.uid.sequence.Sequencing;
+import org.apache.polygene.library.uid.sequence.assembly.BlockSequencingAssembler;
 import org.apache.polygene.library.uid.sequence.assembly.PersistingSequencingAssembler;
 import org.apache.polygene.library.uid.sequence.assembly.TransientSequencingAssembler;
 import org.apache.polygene.library.uid.uuid.UuidService;
@@ -101,4 +102,18 @@ public class DocumentationSupport
 
     }
 
+    class Blockseq
+            implements Assembler
+    {
+
+        public void assemble( ModuleAssembly moduleAssembly )
+                throws AssemblyException
+        {
+            // START SNIPPET: blockseq-assembly
+            new BlockSequencingAssembler().withBlockSize( 1000 ).visibleIn( layer ).assemble( moduleAssembly );
+            // END SNIPPET: blockseq-assembly
+        }
+
+    }
+
 }
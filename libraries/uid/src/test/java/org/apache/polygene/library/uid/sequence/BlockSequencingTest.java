@@ -0,0 +1,126 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.uid.sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.library.uid.sequence.assembly.BlockSequencingAssembler;
+import org.apache.polygene.test.AbstractPolygeneTest;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class BlockSequencingTest extends AbstractPolygeneTest
+{
+    private static final int BLOCK_SIZE = 10;
+
+    @Override
+    public void assemble( ModuleAssembly module ) throws AssemblyException
+    {
+        new BlockSequencingAssembler().withBlockSize( BLOCK_SIZE ).assemble( module );
+        new EntityTestAssembler().assemble( module );
+    }
+
+    @Test
+    public void whenBlockSequencingThenNumbersStartAtZero()
+    {
+        assertThat( sequencing().currentSequenceValue(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void whenBlockSequencingThenValuesAreInSequenceAcrossBlocks()
+    {
+        Sequencing sequencing = sequencing();
+        for( long i = 1; i <= 5 * BLOCK_SIZE; i++ )
+        {
+            assertThat( sequencing.newSequenceValue(), equalTo( i ) );
+            assertThat( sequencing.currentSequenceValue(), equalTo( i ) );
+        }
+    }
+
+    @Test
+    public void whenBlockSequencingThenHighWaterMarkPersistedOncePerBlock()
+    {
+        Sequencing sequencing = sequencing();
+        sequencing.newSequenceValue();
+        assertThat( highWaterMark(), equalTo( (long) BLOCK_SIZE ) );
+        for( int i = 1; i < BLOCK_SIZE / 2 - 1; i++ )
+        {
+            sequencing.newSequenceValue();
+        }
+        assertThat( highWaterMark(), equalTo( (long) BLOCK_SIZE ) );
+    }
+
+    @Test
+    public void whenConcurrentlySequencingThenValuesAreUnique()
+        throws Exception
+    {
+        Sequencing sequencing = sequencing();
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<?>> tasks = new ArrayList<>();
+            for( int task = 0; task < 4; task++ )
+            {
+                tasks.add( executor.submit( () ->
+                {
+                    for( int i = 0; i < 250; i++ )
+                    {
+                        values.add( sequencing.newSequenceValue() );
+                    }
+                } ) );
+            }
+            for( Future<?> task : tasks )
+            {
+                task.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertThat( values.size(), equalTo( 1000 ) );
+        assertThat( sequencing.currentSequenceValue(), equalTo( 1000L ) );
+    }
+
+    private BlockSequencingService sequencing()
+    {
+        return serviceFinder.findService( BlockSequencingService.class ).get();
+    }
+
+    private long highWaterMark()
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            return uow.get( SequenceEntity.class, sequencing().identity().get() ).currentValue().get();
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.polygene.library.uowfile.bootstrap;
 
 import org.apache.polygene.bootstrap.Assemblers;
 import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.bootstrap.ServiceDeclaration;
 import org.apache.polygene.library.uowfile.internal.UoWFileFactory;
 import org.apache.polygene.library.uowfile.plural.HasUoWFiles;
 import org.apache.polygene.library.uowfile.plural.UoWFilesLocator;
@@ -38,10 +39,26 @@ import org.apache.polygene.library.uowfile.singular.UoWFileLocator;
 public class UoWFileAssembler
     extends Assemblers.Visibility<UoWFileAssembler>
 {
+    private UoWFileMode mode;
+
+    /**
+     * @param mode How attached files are handled, {@link UoWFileMode#COPY} by default
+     * @return This assembler
+     */
+    public UoWFileAssembler withMode( UoWFileMode mode )
+    {
+        this.mode = mode;
+        return this;
+    }
+
     @Override
     public void assemble( ModuleAssembly module )
     {
         super.assemble( module );
-        module.services( UoWFileFactory.class ).visibleIn( visibility() );
+        ServiceDeclaration service = module.services( UoWFileFactory.class ).visibleIn( visibility() );
+        if( mode != null )
+        {
+            service.setMetaInfo( mode );
+        }
     }
 }
@@ -0,0 +1,44 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.uowfile.bootstrap;
+
+/**
+ * How UoWFiles handle the files attached to entities.
+ */
+public enum UoWFileMode
+{
+    /**
+     * The attached file is copied as soon as it is managed by a UnitOfWork, changes are applied by moving the
+     * original file to a backup and the copy in place of the original.
+     * <p>
+     * This is the default.
+     * </p>
+     */
+    COPY,
+    /**
+     * The attached file is copied only once it is opened for writing, or when its managed {@link java.io.File} is
+     * requested, using an in-kernel copy that clones the file on filesystems supporting it.
+     * <p>
+     * Changes are flushed to disk before being applied, the original file is backed up using a hardlink when the
+     * filesystem allows it, the copy atomically replaces the original and the directory is flushed to disk.
+     * </p>
+     */
+    COPY_ON_WRITE
+}
@@ -21,8 +21,17 @@ package org.apache.polygene.library.uowfile.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import org.apache.polygene.library.uowfile.bootstrap.UoWFileMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,21 +43,78 @@ public class UoWFile
     private final File original;
     private final File current;
     private final File backup;
+    private final UoWFileMode mode;
+    private boolean materialized;
 
-    UoWFile( File original, File workDir )
+    UoWFile( File original, File workDir, UoWFileMode mode )
     {
         this.originalIdentity = original.length() + original.lastModified();
         this.original = original;
+        this.mode = mode;
         long count = COUNT.incrementAndGet();
         this.current = new File( workDir, original.getName() + ".current." + count );
         this.backup = new File( workDir, original.getName() + ".backup." + count );
     }
 
+    /**
+     * @return The managed file, copied from the original first if needed
+     */
     public File asFile()
     {
+        materialize( true );
         return current;
     }
 
+    /**
+     * Open a channel to the managed file.
+     * <p>
+     * With {@link UoWFileMode#COPY_ON_WRITE}, opening for reading only does not copy the original file, nor does
+     * opening with {@link StandardOpenOption#TRUNCATE_EXISTING}, the managed file is then created empty if the original
+     * exists.
+     * </p>
+     *
+     * @param options Options, see {@link FileChannel#open(java.nio.file.Path, OpenOption...)}
+     * @return A new channel
+     * @throws IOException if the file cannot be opened
+     */
+    public FileChannel open( OpenOption... options )
+        throws IOException
+    {
+        Set<OpenOption> opened = new HashSet<>( Arrays.asList( options ) );
+        boolean write = opened.contains( StandardOpenOption.WRITE ) || opened.contains( StandardOpenOption.APPEND );
+        if( !write )
+        {
+            synchronized( this )
+            {
+                // Read the original until written to
+                return FileChannel.open( materialized ? current.toPath() : original.toPath(), options );
+            }
+        }
+        boolean truncate = opened.contains( StandardOpenOption.TRUNCATE_EXISTING );
+        synchronized( this )
+        {
+            if( truncate && !materialized && original.exists() )
+            {
+                // The original is not copied, create its truncated counterpart instead
+                opened.add( StandardOpenOption.CREATE );
+            }
+            materialize( !truncate );
+        }
+        return FileChannel.open( current.toPath(), opened );
+    }
+
+    /**
+     * Delete the managed file, without copying the original first.
+     *
+     * @throws IOException if the managed file cannot be deleted
+     */
+    public synchronized void delete()
+        throws IOException
+    {
+        materialized = true;
+        Files.deleteIfExists( current.toPath() );
+    }
+
     @Override
     public String toString()
     {
@@ -64,17 +130,37 @@ public class UoWFile
 
     void copyOriginalToCurrent()
     {
-        if( original.exists() )
+        if( mode == UoWFileMode.COPY )
+        {
+            materialize( true );
+        }
+    }
+
+    private synchronized void materialize( boolean copyContent )
+    {
+        if( materialized )
+        {
+            return;
+        }
+        if( copyContent && original.exists() )
         {
-            copy( original, current );
+            if( mode == UoWFileMode.COPY )
+            {
+                copy( original, current );
+            }
+            else
+            {
+                transfer( original, current );
+            }
         }
+        materialized = true;
     }
 
-    void apply()
+    synchronized void apply()
         throws ConcurrentUoWFileStateModificationException
     {
         LOGGER.trace( "Will apply changes to {}", this );
-        if( fileTag( current ) != originalIdentity )
+        if( materialized && fileTag( current ) != originalIdentity )
         {
             if( fileTag( original ) != originalIdentity )
             {
@@ -83,26 +169,80 @@ public class UoWFile
                     originalIdentity, fileTag( original ) );
                 throw new ConcurrentUoWFileStateModificationException( this );
             }
+            if( mode == UoWFileMode.COPY_ON_WRITE )
+            {
+                applyDurably();
+            }
+            else
+            {
+                if( original.exists() )
+                {
+                    move( original, backup );
+                }
+                if( current.exists() )
+                {
+                    move( current, original );
+                }
+            }
+            LOGGER.debug( "Applied changes to {}", original );
+        }
+    }
+
+    private void applyDurably()
+    {
+        try
+        {
+            if( current.exists() )
+            {
+                // Content must be on disk before it replaces the original
+                try( FileChannel channel = FileChannel.open( current.toPath(), StandardOpenOption.WRITE ) )
+                {
+                    channel.force( true );
+                }
+            }
             if( original.exists() )
             {
-                move( original, backup );
+                link( original, backup );
             }
             if( current.exists() )
             {
-                move( current, original );
+                replace( current, original );
             }
-            LOGGER.debug( "Applied changes to {}", original );
+            else if( original.exists() )
+            {
+                delete( original );
+            }
+            syncDirectory( original.getAbsoluteFile().getParentFile() );
+        }
+        catch( IOException ex )
+        {
+            throw new UoWFileException( ex );
         }
     }
 
-    void rollback()
+    synchronized void rollback()
     {
         if( backup.exists() )
         {
             if( fileTag( original ) != originalIdentity )
             {
-                delete( original );
-                move( backup, original );
+                if( mode == UoWFileMode.COPY_ON_WRITE )
+                {
+                    try
+                    {
+                        replace( backup, original );
+                        syncDirectory( original.getAbsoluteFile().getParentFile() );
+                    }
+                    catch( IOException ex )
+                    {
+                        throw new UoWFileException( ex );
+                    }
+                }
+                else
+                {
+                    delete( original );
+                    move( backup, original );
+                }
             }
             LOGGER.debug( "Restored backup to {}", original );
         }
@@ -140,6 +280,79 @@ public class UoWFile
         }
     }
 
+    /**
+     * In-kernel copy, the filesystem may clone the file instead of copying its content.
+     */
+    private void transfer( File source, File dest )
+    {
+        try( FileChannel in = FileChannel.open( source.toPath(), StandardOpenOption.READ );
+             FileChannel out = FileChannel.open( dest.toPath(), StandardOpenOption.CREATE_NEW,
+                                                 StandardOpenOption.WRITE ) )
+        {
+            long size = in.size();
+            long position = 0;
+            while( position < size )
+            {
+                position += in.transferTo( position, size - position, out );
+            }
+        }
+        catch( IOException ex )
+        {
+            throw new UoWFileException( ex );
+        }
+    }
+
+    private void link( File source, File link )
+        throws IOException
+    {
+        try
+        {
+            Files.createLink( link.toPath(), source.toPath() );
+        }
+        catch( UnsupportedOperationException | IOException ex )
+        {
+            // No hardlinks here, keep a copy of the original in place until it is atomically replaced
+            LOGGER.debug( "Unable to link {} to {}, copying it instead", link, source, ex );
+            Files.deleteIfExists( link.toPath() );
+            transfer( source, link );
+        }
+    }
+
+    private void replace( File source, File dest )
+        throws IOException
+    {
+        try
+        {
+            Files.move( source.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch( AtomicMoveNotSupportedException ex )
+        {
+            // Different filesystems, fallback to a non atomic copy/delete operation
+            Files.copy( source.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING );
+            try( FileChannel channel = FileChannel.open( dest.toPath(), StandardOpenOption.WRITE ) )
+            {
+                channel.force( true );
+            }
+            Files.delete( source.toPath() );
+            LOGGER.warn( "Moved {} to {} using a copy/delete operation instead of an atomic move. "
+                         + "Are they on different filesystems?", source, dest );
+        }
+    }
+
+    private static void syncDirectory( File directory )
+    {
+        try( FileChannel channel = FileChannel.open( directory.toPath(), StandardOpenOption.READ ) )
+        {
+            channel.force( true );
+        }
+        catch( IOException ex )
+        {
+            // Not supported by all platforms, the rename is atomic anyway
+            LOGGER.trace( "Unable to flush directory {} to disk", directory, ex );
+        }
+    }
+
     private void delete( File file )
     {
         if( !file.delete() )
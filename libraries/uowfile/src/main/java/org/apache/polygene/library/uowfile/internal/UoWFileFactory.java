@@ -28,15 +28,18 @@ import org.apache.polygene.api.common.Optional;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.Structure;
 import org.apache.polygene.api.injection.scope.This;
+import org.apache.polygene.api.injection.scope.Uses;
 import org.apache.polygene.api.mixin.Mixins;
 import org.apache.polygene.api.service.ServiceActivation;
 import org.apache.polygene.api.service.ServiceComposite;
+import org.apache.polygene.api.service.ServiceDescriptor;
 import org.apache.polygene.api.structure.Application;
 import org.apache.polygene.api.unitofwork.UnitOfWork;
 import org.apache.polygene.api.unitofwork.UnitOfWorkCallback;
 import org.apache.polygene.api.unitofwork.UnitOfWorkCompletionException;
 import org.apache.polygene.api.unitofwork.UnitOfWorkFactory;
 import org.apache.polygene.library.fileconfig.FileConfiguration;
+import org.apache.polygene.library.uowfile.bootstrap.UoWFileMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +50,15 @@ public interface UoWFileFactory
 
     UoWFile createCurrentUoWFile( File file );
 
+    /**
+     * Delete the managed file of the current UnitOfWork, without copying the original first.
+     *
+     * @param file Attached file
+     * @throws IOException if the managed file cannot be deleted
+     */
+    void deleteCurrentUoWFile( File file )
+        throws IOException;
+
     class Mixin
         implements UoWFileFactory
     {
@@ -71,7 +83,11 @@ public interface UoWFileFactory
         @Service
         private FileConfiguration fileConfig;
 
+        @Uses
+        private ServiceDescriptor descriptor;
+
         private File workDir;
+        private UoWFileMode mode;
 
         @Override
         public void activateService()
@@ -91,6 +107,11 @@ public interface UoWFileFactory
             {
                 throw new IOException( "Unable to create temporary directory: " + workDir );
             }
+            mode = descriptor.metaInfo( UoWFileMode.class );
+            if( mode == null )
+            {
+                mode = UoWFileMode.COPY;
+            }
         }
 
         @Override
@@ -102,18 +123,29 @@ public interface UoWFileFactory
         @Override
         public UoWFile createCurrentUoWFile( File file )
         {
-            return createUoWFile( module.currentUnitOfWork(), file, workDir );
+            return createUoWFile( module.currentUnitOfWork(), file, workDir, mode, true );
         }
 
-        private static synchronized UoWFile createUoWFile( UnitOfWork uow, File file, File workDir )
+        @Override
+        public void deleteCurrentUoWFile( File file )
+            throws IOException
+        {
+            createUoWFile( module.currentUnitOfWork(), file, workDir, mode, false ).delete();
+        }
+
+        private static synchronized UoWFile createUoWFile( UnitOfWork uow, File file, File workDir, UoWFileMode mode,
+                                                           boolean copy )
         {
             UoWFilesMetaInfo uowMeta = ensureUoWMeta( uow );
             String absolutePath = file.getAbsolutePath();
             UoWFile uowFile = uowMeta.get( absolutePath );
             if( uowFile == null )
             {
-                uowFile = new UoWFile( file, workDir );
-                uowFile.copyOriginalToCurrent();
+                uowFile = new UoWFile( file, workDir, mode );
+                if( copy )
+                {
+                    uowFile.copyOriginalToCurrent();
+                }
                 uowMeta.put( absolutePath, uowFile );
                 LOGGER.trace( "Registered {} in UoW", uowFile );
             }
@@ -20,6 +20,9 @@
 package org.apache.polygene.library.uowfile.plural;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.polygene.api.injection.scope.Service;
@@ -45,6 +48,14 @@ public interface HasUoWFiles<T extends Enum<T>>
     File managedFile( T key );
 
     Iterable<File> managedFiles();
+
+    /**
+     * Open a channel to a managed file, opening for reading only does not copy the attached file in
+     * {@link org.apache.polygene.library.uowfile.bootstrap.UoWFileMode#COPY_ON_WRITE} mode.
+     * Channels must be closed before the {@link UnitOfWork} completes.
+     */
+    FileChannel openManagedFile( T key, OpenOption... options )
+        throws IOException;
     // END SNIPPET: contract
 
     abstract class Mixin<R extends Enum<R>>
@@ -83,6 +94,13 @@ public interface HasUoWFiles<T extends Enum<T>>
             }
             return managedFiles;
         }
+
+        @Override
+        public FileChannel openManagedFile( R key, OpenOption... options )
+            throws IOException
+        {
+            return uowFileFactory.createCurrentUoWFile( locator.locateAttachedFile( key ) ).open( options );
+        }
     }
 
     // START SNIPPET: contract
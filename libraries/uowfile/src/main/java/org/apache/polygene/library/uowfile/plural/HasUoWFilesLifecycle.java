@@ -24,8 +24,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.polygene.api.entity.Lifecycle;
+import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.library.uowfile.internal.UoWFileFactory;
 
 @Mixins( HasUoWFilesLifecycle.Mixin.class )
 public interface HasUoWFilesLifecycle<T extends Enum<T>>
@@ -34,8 +36,11 @@ public interface HasUoWFilesLifecycle<T extends Enum<T>>
     class Mixin
         implements Lifecycle
     {
+        @Service
+        private UoWFileFactory uowFileFactory;
+
         @This
-        private HasUoWFiles<?> hasUoWFiles;
+        private UoWFilesLocator<?> locator;
 
         @Override
         public void create()
@@ -49,14 +54,15 @@ public interface HasUoWFilesLifecycle<T extends Enum<T>>
         {
             // We use the managed files so that if the UoW gets discarded the files will be restored
             List<File> errors = new ArrayList<>();
-            for( File eachFile : hasUoWFiles.managedFiles() )
+            for( File eachFile : locator.locateAttachedFiles() )
             {
-                if( eachFile.exists() )
+                try
+                {
+                    uowFileFactory.deleteCurrentUoWFile( eachFile );
+                }
+                catch( IOException ex )
                 {
-                    if( !eachFile.delete() )
-                    {
-                        errors.add( eachFile );
-                    }
+                    errors.add( eachFile );
                 }
             }
             if( !errors.isEmpty() )
@@ -20,6 +20,9 @@
 package org.apache.polygene.library.uowfile.singular;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
 import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.mixin.Mixins;
@@ -37,6 +40,16 @@ public interface HasUoWFile
     File attachedFile();
 
     File managedFile();
+
+    /**
+     * Open a channel to the managed file, opening for reading only does not copy the attached file in
+     * {@link org.apache.polygene.library.uowfile.bootstrap.UoWFileMode#COPY_ON_WRITE} mode.
+     * @param options Options, see {@link FileChannel#open(java.nio.file.Path, OpenOption...)}
+     * @return A new channel, to be closed before the {@link UnitOfWork} completes
+     * @throws IOException if the file cannot be opened
+     */
+    FileChannel openManagedFile( OpenOption... options )
+        throws IOException;
     // END SNIPPET: contract
 
     class Mixin
@@ -59,6 +72,13 @@ public interface HasUoWFile
         {
             return uowFileFactory.createCurrentUoWFile( locator.locateAttachedFile() ).asFile();
         }
+
+        @Override
+        public FileChannel openManagedFile( OpenOption... options )
+            throws IOException
+        {
+            return uowFileFactory.createCurrentUoWFile( locator.locateAttachedFile() ).open( options );
+        }
     }
     // START SNIPPET: contract
 
@@ -19,11 +19,12 @@
  */
 package org.apache.polygene.library.uowfile.singular;
 
-import java.io.File;
 import java.io.IOException;
 import org.apache.polygene.api.entity.Lifecycle;
+import org.apache.polygene.api.injection.scope.Service;
 import org.apache.polygene.api.injection.scope.This;
 import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.library.uowfile.internal.UoWFileFactory;
 
 @Mixins( HasUoWFileLifecycle.Mixin.class )
 public interface HasUoWFileLifecycle
@@ -32,8 +33,11 @@ public interface HasUoWFileLifecycle
     class Mixin
         implements Lifecycle
     {
+        @Service
+        private UoWFileFactory uowFileFactory;
+
         @This
-        private HasUoWFile hasUoWFile;
+        private UoWFileLocator locator;
 
         @Override
         public void create()
@@ -46,11 +50,7 @@ public interface HasUoWFileLifecycle
             throws IOException
         {
             // We use the managed file so that if the UoW gets discarded the file will be restored
-            File file = hasUoWFile.managedFile();
-            if( file.exists() && !file.delete() )
-            {
-                throw new IOException( "Unable to delete existing file: " + file );
-            }
+            uowFileFactory.deleteCurrentUoWFile( locator.locateAttachedFile() );
         }
     }
 
@@ -0,0 +1,172 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ */
+package org.apache.polygene.library.uowfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.stream.Stream;
+import org.apache.polygene.api.entity.EntityBuilder;
+import org.apache.polygene.api.identity.Identity;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.api.unitofwork.UnitOfWorkCompletionException;
+import org.apache.polygene.bootstrap.AssemblyException;
+import org.apache.polygene.bootstrap.ModuleAssembly;
+import org.apache.polygene.library.uowfile.bootstrap.UoWFileAssembler;
+import org.apache.polygene.library.uowfile.bootstrap.UoWFileMode;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Run the {@link HasUoWFileTest} tests in {@link UoWFileMode#COPY_ON_WRITE} mode, plus channel based access.
+ */
+public class HasUoWFileCopyOnWriteTest
+    extends HasUoWFileTest
+{
+    @Override
+    public void assemble( ModuleAssembly module )
+        throws AssemblyException
+    {
+        super.assemble( module );
+        new UoWFileAssembler().withMode( UoWFileMode.COPY_ON_WRITE ).assemble( module );
+    }
+
+    @Test
+    public void testReadOnlyChannelLeavesAttachedFileUntouched()
+        throws UnitOfWorkCompletionException, IOException
+    {
+        Identity entityId = createEntity( "Testing Read Only Channel" );
+        File attachedFile;
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            attachedFile = uow.get( TestedEntity.class, entityId ).attachedFile();
+        }
+        long lastModified = 1_000_000_000_000L;
+        assertThat( attachedFile.setLastModified( lastModified ), equalTo( true ) );
+
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            TestedEntity entity = uow.get( TestedEntity.class, entityId );
+            try( FileChannel channel = entity.openManagedFile( READ ) )
+            {
+                assertThat( read( channel ), equalTo( "Creation" ) );
+            }
+            uow.complete();
+        }
+        assertThat( "Attached file was replaced", attachedFile.lastModified(), equalTo( lastModified ) );
+    }
+
+    @Test
+    public void testChannelModification()
+        throws UnitOfWorkCompletionException, IOException
+    {
+        Identity entityId = createEntity( "Testing Channel Modification" );
+        File attachedFile;
+
+        // Testing discarded modification
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            TestedEntity entity = uow.get( TestedEntity.class, entityId );
+            attachedFile = entity.attachedFile();
+            write( entity, "Modification" );
+        }
+        assertFirstLine( attachedFile, "Creation" );
+
+        // Testing completed modification
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            write( uow.get( TestedEntity.class, entityId ), "Modification" );
+            uow.complete();
+        }
+        assertFirstLine( attachedFile, "Modification" );
+    }
+
+    @Test
+    public void testTruncatingChannelWithoutCreate()
+        throws UnitOfWorkCompletionException, IOException
+    {
+        Identity entityId = createEntity( "Testing Truncating Channel" );
+        File attachedFile;
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            TestedEntity entity = uow.get( TestedEntity.class, entityId );
+            attachedFile = entity.attachedFile();
+            try( FileChannel channel = entity.openManagedFile( WRITE, TRUNCATE_EXISTING ) )
+            {
+                channel.write( ByteBuffer.wrap( "Truncation".getBytes( UTF_8 ) ) );
+            }
+            uow.complete();
+        }
+        assertFirstLine( attachedFile, "Truncation" );
+    }
+
+    private Identity createEntity( String name )
+        throws UnitOfWorkCompletionException, IOException
+    {
+        try( UnitOfWork uow = unitOfWorkFactory.newUnitOfWork() )
+        {
+            EntityBuilder<TestedEntity> builder = uow.newEntityBuilder( TestedEntity.class );
+            builder.instance().name().set( name );
+            TestedEntity entity = builder.newInstance();
+            write( entity, "Creation" );
+            Identity identity = entity.identity().get();
+            uow.complete();
+            return identity;
+        }
+    }
+
+    private static void write( TestedEntity entity, String content )
+        throws IOException
+    {
+        try( FileChannel channel = entity.openManagedFile( CREATE, WRITE, TRUNCATE_EXISTING ) )
+        {
+            channel.write( ByteBuffer.wrap( content.getBytes( UTF_8 ) ) );
+        }
+    }
+
+    private static String read( FileChannel channel )
+        throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( (int) channel.size() );
+        while( buffer.hasRemaining() && channel.read( buffer ) >= 0 )
+        {
+            // Read until full
+        }
+        return new String( buffer.array(), UTF_8 );
+    }
+
+    private static void assertFirstLine( File file, String expected )
+        throws IOException
+    {
+        try( Stream<String> lines = Files.lines( file.toPath() ) )
+        {
+            assertThat( lines.limit( 1 ).findFirst().get(), equalTo( expected ) );
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.test.performance.runtime.composite;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.runtime.composite.AtomicInstancePool;
+import org.apache.polygene.runtime.composite.CompositeMethodInstance;
+import org.apache.polygene.runtime.composite.InstancePool;
+import org.apache.polygene.runtime.composite.StripedInstancePool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Obtain/release cycles on the method instance pool, uncontended and with several threads sharing the pool.
+ * <p>
+ * The <code>strategy</code> parameter compares the shared atomic list with the per thread stripes.
+ * </p>
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class AtomicInstancePoolBenchmark
+{
+    private static final int POOLED_INSTANCES = 64;
+
+    @Param( { "atomic", "striped" } )
+    public String strategy;
+
+    private InstancePool<CompositeMethodInstance> pool;
+
+    @Setup
+    public void setup()
+    {
+        pool = "striped".equals( strategy ) ? new StripedInstancePool() : new AtomicInstancePool();
+        for( int i = 0; i < POOLED_INSTANCES; i++ )
+        {
+            pool.releaseInstance( new CompositeMethodInstance( null, null, null, i ) );
+        }
+    }
+
+    @Benchmark
+    @Threads( 1 )
+    public CompositeMethodInstance uncontended()
+    {
+        return cycle();
+    }
+
+    @Benchmark
+    @Threads( 4 )
+    public CompositeMethodInstance contended4()
+    {
+        return cycle();
+    }
+
+    @Benchmark
+    @Threads( Threads.MAX )
+    public CompositeMethodInstance contendedMax()
+    {
+        return cycle();
+    }
+
+    private CompositeMethodInstance cycle()
+    {
+        CompositeMethodInstance instance = pool.obtainInstance();
+        if( instance == null )
+        {
+            // More threads than pooled instances, the runtime would create a new one here
+            instance = new CompositeMethodInstance( null, null, null, -1 );
+        }
+        pool.releaseInstance( instance );
+        return instance;
+    }
+}
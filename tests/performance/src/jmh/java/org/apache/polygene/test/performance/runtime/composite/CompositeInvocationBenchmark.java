@@ -0,0 +1,257 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.test.performance.runtime.composite;
+
+import java.lang.annotation.Retention;
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.composite.TransientComposite;
+import org.apache.polygene.api.concern.ConcernOf;
+import org.apache.polygene.api.concern.Concerns;
+import org.apache.polygene.api.constraint.Constraint;
+import org.apache.polygene.api.constraint.ConstraintDeclaration;
+import org.apache.polygene.api.constraint.Constraints;
+import org.apache.polygene.api.mixin.Mixins;
+import org.apache.polygene.api.sideeffect.SideEffectOf;
+import org.apache.polygene.api.sideeffect.SideEffects;
+import org.apache.polygene.api.structure.Module;
+import org.apache.polygene.bootstrap.SingletonAssembler;
+import org.apache.polygene.runtime.composite.ProxyMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Composite method invocation through the runtime, with and without fragments around the mixin.
+ * <p>
+ * Each benchmark runs with the <code>java.lang.reflect.Proxy</code> based composites and with the generated ones, see
+ * {@link ProxyMode}.
+ * </p>
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class CompositeInvocationBenchmark
+{
+    @Param( { "reflect", "generated" } )
+    public String proxy;
+
+    private SingletonAssembler assembler;
+    private Counter plain;
+    private Counter withConcern;
+    private Counter withSideEffect;
+    private ConstrainedCounter withConstraint;
+    private ConstrainedCounter withAll;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        assembler = new SingletonAssembler(
+            module ->
+            {
+                module.layer().application().setMetaInfo( ProxyMode.parse( proxy ) );
+                module.transients( PlainComposite.class,
+                                   ConcernComposite.class,
+                                   SideEffectComposite.class,
+                                   ConstraintComposite.class,
+                                   AllFragmentsComposite.class );
+            } );
+        Module module = assembler.module();
+        plain = module.newTransient( PlainComposite.class );
+        withConcern = module.newTransient( ConcernComposite.class );
+        withSideEffect = module.newTransient( SideEffectComposite.class );
+        withConstraint = module.newTransient( ConstraintComposite.class );
+        withAll = module.newTransient( AllFragmentsComposite.class );
+    }
+
+    @TearDown
+    public void tearDown()
+        throws Exception
+    {
+        assembler.application().passivate();
+    }
+
+    @Benchmark
+    public int mixin()
+    {
+        return plain.increment( 1 );
+    }
+
+    @Benchmark
+    public int mixinWithConcern()
+    {
+        return withConcern.increment( 1 );
+    }
+
+    @Benchmark
+    public int mixinWithSideEffect()
+    {
+        return withSideEffect.increment( 1 );
+    }
+
+    @Benchmark
+    public int mixinWithConstraint()
+    {
+        return withConstraint.add( 1 );
+    }
+
+    @Benchmark
+    public int mixinWithAllFragments()
+    {
+        return withAll.add( 1 );
+    }
+
+    @Mixins( CounterMixin.class )
+    public interface PlainComposite
+        extends Counter, TransientComposite
+    {
+    }
+
+    @Mixins( CounterMixin.class )
+    @Concerns( CounterConcern.class )
+    public interface ConcernComposite
+        extends Counter, TransientComposite
+    {
+    }
+
+    @Mixins( CounterMixin.class )
+    @SideEffects( CounterSideEffect.class )
+    public interface SideEffectComposite
+        extends Counter, TransientComposite
+    {
+    }
+
+    @Mixins( CounterMixin.class )
+    @Constraints( PositiveConstraint.class )
+    public interface ConstraintComposite
+        extends ConstrainedCounter, TransientComposite
+    {
+    }
+
+    @Mixins( CounterMixin.class )
+    @Concerns( ConstrainedCounterConcern.class )
+    @SideEffects( ConstrainedCounterSideEffect.class )
+    @Constraints( PositiveConstraint.class )
+    public interface AllFragmentsComposite
+        extends ConstrainedCounter, TransientComposite
+    {
+    }
+
+    public interface Counter
+    {
+        int increment( int delta );
+    }
+
+    public interface ConstrainedCounter
+    {
+        int add( @Positive int delta );
+    }
+
+    public static class CounterMixin
+        implements Counter, ConstrainedCounter
+    {
+        private int count;
+
+        @Override
+        public int increment( int delta )
+        {
+            count += delta;
+            return count;
+        }
+
+        @Override
+        public int add( int delta )
+        {
+            return increment( delta );
+        }
+    }
+
+    public static class CounterConcern
+        extends ConcernOf<Counter>
+        implements Counter
+    {
+        @Override
+        public int increment( int delta )
+        {
+            return next.increment( delta );
+        }
+    }
+
+    public static class CounterSideEffect
+        extends SideEffectOf<Counter>
+        implements Counter
+    {
+        @Override
+        public int increment( int delta )
+        {
+            return 0;
+        }
+    }
+
+    public static class ConstrainedCounterConcern
+        extends ConcernOf<ConstrainedCounter>
+        implements ConstrainedCounter
+    {
+        @Override
+        public int add( int delta )
+        {
+            return next.add( delta );
+        }
+    }
+
+    public static class ConstrainedCounterSideEffect
+        extends SideEffectOf<ConstrainedCounter>
+        implements ConstrainedCounter
+    {
+        @Override
+        public int add( int delta )
+        {
+            return 0;
+        }
+    }
+
+    @ConstraintDeclaration
+    @Retention( RUNTIME )
+    public @interface Positive
+    {
+    }
+
+    public static class PositiveConstraint
+        implements Constraint<Positive, Integer>
+    {
+        @Override
+        public boolean isValid( Positive annotation, Integer value )
+        {
+            return value > 0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.test.performance.runtime.property;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.common.UseDefaults;
+import org.apache.polygene.api.composite.TransientComposite;
+import org.apache.polygene.api.entity.EntityComposite;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.structure.Module;
+import org.apache.polygene.api.unitofwork.UnitOfWork;
+import org.apache.polygene.api.value.ValueBuilder;
+import org.apache.polygene.api.value.ValueComposite;
+import org.apache.polygene.bootstrap.SingletonAssembler;
+import org.apache.polygene.test.EntityTestAssembler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Property get/set on transients, values and entities.
+ * <p>
+ * Thread scoped so that the entity benchmarks run within a UnitOfWork bound to the benchmark thread.
+ * </p>
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class PropertyAccessBenchmark
+{
+    private SingletonAssembler assembler;
+    private UnitOfWork unitOfWork;
+    private Person transientPerson;
+    private Person valuePerson;
+    private Person entityPerson;
+    private int counter;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        assembler = new SingletonAssembler(
+            module ->
+            {
+                module.transients( PersonTransient.class );
+                module.values( PersonValue.class );
+                module.entities( PersonEntity.class );
+                new EntityTestAssembler().assemble( module );
+            } );
+        Module module = assembler.module();
+        transientPerson = module.newTransient( PersonTransient.class );
+        ValueBuilder<PersonValue> builder = module.newValueBuilder( PersonValue.class );
+        builder.prototype().name().set( "Rickard" );
+        builder.prototype().age().set( 42 );
+        valuePerson = builder.newInstance();
+        unitOfWork = module.unitOfWorkFactory().newUnitOfWork();
+        entityPerson = unitOfWork.newEntity( PersonEntity.class );
+    }
+
+    @TearDown
+    public void tearDown()
+        throws Exception
+    {
+        unitOfWork.discard();
+        assembler.application().passivate();
+    }
+
+    @Benchmark
+    public String transientGet()
+    {
+        return transientPerson.name().get();
+    }
+
+    @Benchmark
+    public void transientSet()
+    {
+        transientPerson.age().set( counter++ );
+    }
+
+    @Benchmark
+    public String valueGet()
+    {
+        return valuePerson.name().get();
+    }
+
+    @Benchmark
+    public String entityGet()
+    {
+        return entityPerson.name().get();
+    }
+
+    @Benchmark
+    public void entitySet()
+    {
+        entityPerson.age().set( counter++ );
+    }
+
+    public interface Person
+    {
+        @UseDefaults
+        Property<String> name();
+
+        @UseDefaults
+        Property<Integer> age();
+    }
+
+    public interface PersonTransient
+        extends Person, TransientComposite
+    {
+    }
+
+    public interface PersonValue
+        extends Person, ValueComposite
+    {
+    }
+
+    public interface PersonEntity
+        extends Person, EntityComposite
+    {
+    }
+}
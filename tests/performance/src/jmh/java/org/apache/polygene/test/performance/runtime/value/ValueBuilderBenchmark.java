@@ -0,0 +1,128 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.test.performance.runtime.value;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.common.UseDefaults;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.structure.Module;
+import org.apache.polygene.api.value.ValueBuilder;
+import org.apache.polygene.api.value.ValueComposite;
+import org.apache.polygene.bootstrap.SingletonAssembler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Value creation through ValueBuilders, with and without nested values.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class ValueBuilderBenchmark
+{
+    private SingletonAssembler assembler;
+    private Module module;
+    private Address address;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        assembler = new SingletonAssembler(
+            module ->
+            {
+                module.values( Address.class, Customer.class );
+                module.defaultServices();
+            } );
+        module = assembler.module();
+        address = newAddress();
+    }
+
+    @TearDown
+    public void tearDown()
+        throws Exception
+    {
+        assembler.application().passivate();
+    }
+
+    @Benchmark
+    public Address flatValue()
+    {
+        return newAddress();
+    }
+
+    @Benchmark
+    public Customer nestedValue()
+    {
+        ValueBuilder<Customer> builder = module.newValueBuilder( Customer.class );
+        Customer prototype = builder.prototype();
+        prototype.name().set( "Jane Doe" );
+        prototype.address().set( address );
+        return builder.newInstance();
+    }
+
+    @Benchmark
+    public Address withPrototype()
+    {
+        return module.newValueBuilderWithPrototype( address ).newInstance();
+    }
+
+    private Address newAddress()
+    {
+        ValueBuilder<Address> builder = module.newValueBuilder( Address.class );
+        Address prototype = builder.prototype();
+        prototype.street().set( "Main Street 1" );
+        prototype.zipCode().set( "12345" );
+        prototype.city().set( "Springfield" );
+        return builder.newInstance();
+    }
+
+    public interface Address
+        extends ValueComposite
+    {
+        Property<String> street();
+
+        Property<String> zipCode();
+
+        Property<String> city();
+    }
+
+    public interface Customer
+        extends ValueComposite
+    {
+        Property<String> name();
+
+        Property<Address> address();
+
+        @UseDefaults
+        Property<List<String>> tags();
+    }
+}
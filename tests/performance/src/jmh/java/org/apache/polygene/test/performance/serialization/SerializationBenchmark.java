@@ -0,0 +1,146 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.polygene.test.performance.serialization;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.polygene.api.property.Property;
+import org.apache.polygene.api.serialization.Serialization;
+import org.apache.polygene.api.structure.Module;
+import org.apache.polygene.api.value.ValueBuilder;
+import org.apache.polygene.api.value.ValueComposite;
+import org.apache.polygene.bootstrap.SingletonAssembler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization round-trips of a ValueComposite using the default Serialization service of the module.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class SerializationBenchmark
+{
+    private SingletonAssembler assembler;
+    private Module module;
+    private Serialization serialization;
+    private Order order;
+    private String serializedOrder;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        assembler = new SingletonAssembler(
+            module ->
+            {
+                module.values( Order.class, OrderLine.class );
+                module.defaultServices();
+            } );
+        module = assembler.module();
+        serialization = module.findService( Serialization.class ).get();
+
+        ValueBuilder<Order> builder = module.newValueBuilder( Order.class );
+        Order prototype = builder.prototype();
+        prototype.reference().set( "ORDER-0001" );
+        prototype.placed().set( Instant.parse( "2017-07-01T12:00:00Z" ) );
+        prototype.lines().set( Arrays.asList( newLine( "Widget", 3, "9.99" ),
+                                              newLine( "Gadget", 1, "149.00" ),
+                                              newLine( "Sprocket", 12, "0.25" ) ) );
+        Map<String, String> attributes = new TreeMap<>();
+        attributes.put( "channel", "web" );
+        attributes.put( "campaign", "summer" );
+        prototype.attributes().set( attributes );
+        order = builder.newInstance();
+        serializedOrder = serialization.serialize( order );
+    }
+
+    @TearDown
+    public void tearDown()
+        throws Exception
+    {
+        assembler.application().passivate();
+    }
+
+    @Benchmark
+    public String serialize()
+    {
+        return serialization.serialize( order );
+    }
+
+    @Benchmark
+    public Order deserialize()
+    {
+        return serialization.deserialize( module.descriptor(), Order.class, serializedOrder );
+    }
+
+    @Benchmark
+    public Order roundTrip()
+    {
+        return serialization.deserialize( module.descriptor(), Order.class, serialization.serialize( order ) );
+    }
+
+    private OrderLine newLine( String product, int quantity, String price )
+    {
+        ValueBuilder<OrderLine> builder = module.newValueBuilder( OrderLine.class );
+        OrderLine prototype = builder.prototype();
+        prototype.product().set( product );
+        prototype.quantity().set( quantity );
+        prototype.price().set( new BigDecimal( price ) );
+        return builder.newInstance();
+    }
+
+    public interface Order
+        extends ValueComposite
+    {
+        Property<String> reference();
+
+        Property<Instant> placed();
+
+        Property<List<OrderLine>> lines();
+
+        Property<Map<String, String>> attributes();
+    }
+
+    public interface OrderLine
+        extends ValueComposite
+    {
+        Property<String> product();
+
+        Property<Integer> quantity();
+
+        Property<BigDecimal> price();
+    }
+}
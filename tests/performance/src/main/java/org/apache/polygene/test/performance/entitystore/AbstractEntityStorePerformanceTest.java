@@ -23,8 +23,15 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import org.apache.polygene.api.identity.StringIdentity;
 import org.apache.polygene.api.service.ServiceFinder;
 import org.apache.polygene.api.structure.Application;
@@ -286,6 +293,103 @@ public abstract class AbstractEntityStorePerformanceTest
         }
     }
 
+    @Test
+    public void whenReadEntityWithComplexTypeConcurrentlyThenRecordIterationsPerSecond()
+        throws Exception
+    {
+        try
+        {
+            Assembler assembler = module -> module.entities( ComplexProduct.class );
+            createPolygeneRuntime( assembler );
+            {
+                int bulk = 0;
+                UnitOfWork uow = uowf.newUnitOfWork( newUsecase( "readEntityConcurrently PREPARE " + bulk ) );
+                for( int i = 0; i < ITERATIONS; i++ )
+                {
+                    ComplexProduct product = uow.newEntity( ComplexProduct.class, StringIdentity.identityOf( "product" + i ) );
+                    product.name().set( "Product " + i );
+
+                    if( i % 1000 == 0 )
+                    {
+                        uow.complete();
+                        bulk++;
+                        uow = uowf.newUnitOfWork( newUsecase( "readEntityConcurrently PREPARE " + bulk ) );
+                    }
+                }
+                uow.complete();
+            }
+
+            profile( () -> {
+                Report report = new Report( storeName );
+                int processors = Runtime.getRuntime().availableProcessors();
+                List<Integer> threadCounts = new ArrayList<>();
+                for( int threads = 1; threads < processors; threads *= 2 )
+                {
+                    threadCounts.add( threads );
+                }
+                threadCounts.add( processors );
+                for( int threads : threadCounts )
+                {
+                    String type = "readEntityWithComplexTypeConcurrently-" + threads + "threads";
+                    int iterations = ITERATIONS * threads;
+                    report.start( type );
+                    readConcurrently( threads );
+                    report.stop( iterations );
+                    logger.info( "{} reads/sec with {} threads", report.duration( type ), threads );
+                }
+                writeReport( report );
+                return null;
+            } );
+        }
+        finally
+        {
+            cleanUp();
+        }
+    }
+
+    private void readConcurrently( int threads )
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            CountDownLatch startGate = new CountDownLatch( 1 );
+            List<Future<?>> readers = new ArrayList<>( threads );
+            for( int t = 0; t < threads; t++ )
+            {
+                readers.add( executor.submit( () -> {
+                    startGate.await();
+                    Random rnd = ThreadLocalRandom.current();
+                    int bulk = 0;
+                    UnitOfWork uow = uowf.newUnitOfWork( newUsecase( "readEntityConcurrently " + bulk ) );
+                    for( int i = 0; i < ITERATIONS; i++ )
+                    {
+                        String id = "product" + rnd.nextInt( ITERATIONS );
+                        ComplexProduct product = uow.get( ComplexProduct.class, StringIdentity.identityOf( id ) );
+                        product.name().get();
+                        if( i % 100 == 0 )
+                        {
+                            uow.discard();
+                            bulk++;
+                            uow = uowf.newUnitOfWork( newUsecase( "readEntityConcurrently " + bulk ) );
+                        }
+                    }
+                    uow.discard();
+                    return null;
+                } ) );
+            }
+            startGate.countDown();
+            for( Future<?> reader : readers )
+            {
+                reader.get();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
     // If you want to profile this test, then tell profiler to only check
     // below this method call
     private void profile( Callable<Void> runnable )